@@ -63,6 +63,21 @@ public class TableInputMetaInjectionTest extends BaseMetadataInjectionTest<Table
         return meta.isLazyConversionActive();
       }
     } );
+    check( "PARTITION_METHOD", new StringGetter() {
+      public String get() {
+        return meta.getPartitionMethod();
+      }
+    } );
+    check( "PARTITION_COLUMN", new StringGetter() {
+      public String get() {
+        return meta.getPartitionColumn();
+      }
+    } );
+    check( "ADAPTIVE_FETCH_SIZE", new BooleanGetter() {
+      public boolean get() {
+        return meta.isAdaptiveFetchSize();
+      }
+    } );
     skipPropertyTest( "CONNECTIONNAME" );
   }
 }
@@ -24,6 +24,7 @@ package org.apache.hop.core;
 
 import org.apache.hop.core.row.IRowMeta;
 
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -124,6 +125,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     }
   }
 
+  @Override
+  public int drainTo( List<Object[]> rows, int maxRows ) {
+    return queArray.drainTo( rows, maxRows );
+  }
+
   @Override
   public int size() {
     return queArray.size();
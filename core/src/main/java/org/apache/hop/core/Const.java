@@ -575,6 +575,18 @@ public class Const {
    */
   public static final String HOP_MAX_ACTIONS_LOGGED = "HOP_MAX_ACTIONS_LOGGED";
 
+  /**
+   * A variable to configure the maximum number of actions a workflow runs in parallel. Set as a system property it
+   * limits all workflows in the JVM together.
+   */
+  public static final String HOP_WORKFLOW_MAX_PARALLEL_ACTIONS = "HOP_WORKFLOW_MAX_PARALLEL_ACTIONS";
+
+  /**
+   * A variable to limit the number of actions running at the same time per database connection or action type, for
+   * example "dwh=4,PIPELINE=8". An action running a sub-workflow isn't limited, the actions of the sub-workflow are.
+   */
+  public static final String HOP_WORKFLOW_PARALLEL_LIMITS = "HOP_WORKFLOW_PARALLEL_LIMITS";
+
   /**
    * A variable to configure the maximum number of logging registry entries kept in memory for logging purposes.
    */
@@ -612,6 +624,34 @@ public class Const {
    */
   public static final String HOP_PLUGIN_PACKAGES = "HOP_PLUGIN_PACKAGES";
 
+  /**
+   * Name of the system property with the file in which the plugin annotations found in jar files are kept between
+   * starts. The default is plugin-index.cache in the Hop config folder.
+   */
+  public static final String HOP_PLUGIN_INDEX_FILE = "HOP_PLUGIN_INDEX_FILE";
+
+  /**
+   * Name of the variable with the name of the hop server a distributed pipeline runs on. Partitions assigned to other
+   * hop servers in the partition schema exchange their rows with those servers.
+   */
+  public static final String HOP_ROW_EXCHANGE_SERVER = "HOP_ROW_EXCHANGE_SERVER";
+
+  /**
+   * Name of the variable with the ID shared by all the hop servers running the same distributed pipeline. It is part of
+   * the secret the hop servers exchanging rows check, so use a fresh ID for every run.
+   */
+  public static final String HOP_ROW_EXCHANGE_ID = "HOP_ROW_EXCHANGE_ID";
+
+  /**
+   * Name of the variable with the offset added to the port of a hop server to get the port of its row exchange server
+   */
+  public static final String HOP_ROW_EXCHANGE_PORT_OFFSET = "HOP_ROW_EXCHANGE_PORT_OFFSET";
+
+  /**
+   * Name of the variable with the time in ms the hop servers of a distributed pipeline wait for each other
+   */
+  public static final String HOP_ROW_EXCHANGE_TIMEOUT = "HOP_ROW_EXCHANGE_TIMEOUT";
+
   /**
    * Name of the environment variable that contains the size of the pipeline rowset size. This overwrites values
    * that you set pipeline settings.
@@ -718,6 +758,23 @@ public class Const {
    */
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * Set this variable to N if you want to use the classic blocking row set instead of the lock-free ring buffer row set
+   * on hops between single transform copies. (default = Y)
+   */
+  public static final String HOP_RING_BUFFER_ROWSET = "HOP_RING_BUFFER_ROWSET";
+
+  /**
+   * The name of the variable that contains the wait strategy of the ring buffer row set: Spin, Yield or Park (default)
+   */
+  public static final String HOP_ROWSET_WAIT_STRATEGY = "HOP_ROWSET_WAIT_STRATEGY";
+
+  /**
+   * Set this variable to Y to keep the integer keys and values of the Stream Lookup transform outside of the Java heap.
+   * (default = N)
+   */
+  public static final String HOP_STREAM_LOOKUP_OFF_HEAP = "HOP_STREAM_LOOKUP_OFF_HEAP";
+
   /**
    * Set this variable to limit max number of files the Text File Output transform can have open at one time.
    */
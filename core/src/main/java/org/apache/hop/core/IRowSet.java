@@ -24,6 +24,7 @@ package org.apache.hop.core;
 
 import org.apache.hop.core.row.IRowMeta;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public interface IRowSet {
@@ -72,6 +73,26 @@ public interface IRowSet {
    */
   Object[] getRowWait( long timeout, TimeUnit tu );
 
+  /**
+   * Move the rows which are available right now to the given list, without waiting for more rows to arrive.
+   *
+   * @param rows    the list to add the rows to
+   * @param maxRows the maximum number of rows to move
+   * @return the number of rows added to the list
+   */
+  default int drainTo( List<Object[]> rows, int maxRows ) {
+    int nrRows = 0;
+    while ( nrRows < maxRows ) {
+      Object[] row = getRowImmediate();
+      if ( row == null ) {
+        break;
+      }
+      rows.add( row );
+      nrRows++;
+    }
+    return nrRows;
+  }
+
   /**
    * @return Set indication that there is no more input
    */
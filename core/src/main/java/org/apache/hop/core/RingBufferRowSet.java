@@ -0,0 +1,328 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free row buffer for exactly one writing thread and one reading thread, typically the two transform copies on
+ * both ends of a 1:1 hop. Rows are kept in a ring buffer with padded read and write positions so that the two threads
+ * don't keep invalidating each other's cache lines. What a thread does when the buffer is full or empty is decided by
+ * the {@link RowSetWaitStrategy}.
+ * <p>
+ * Don't use this row set if more than one thread can put rows into it or read rows from it at the same time.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  private static final AtomicLongFieldUpdater<Sequence> SEQUENCE_UPDATER =
+    AtomicLongFieldUpdater.newUpdater( Sequence.class, "value" );
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+
+  /**
+   * The next position to read, only moved forward by the consumer
+   */
+  private final PaddedSequence head;
+
+  /**
+   * The next position to write, only moved forward by the producer
+   */
+  private final PaddedSequence tail;
+
+  private final RowSetWaitStrategy waitStrategy;
+  private final boolean signalling;
+
+  private volatile Thread waitingProducer;
+  private volatile Thread waitingConsumer;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new ring buffer row set with maxSize capacity using the wait strategy set in variable
+   * HOP_ROWSET_WAIT_STRATEGY.
+   *
+   * @param maxSize
+   */
+  public RingBufferRowSet( int maxSize ) {
+    this( maxSize, RowSetWaitStrategy.getWaitStrategyForCode( System.getProperty( Const.HOP_ROWSET_WAIT_STRATEGY ) ) );
+  }
+
+  /**
+   * Create a new ring buffer row set with maxSize capacity.
+   *
+   * @param maxSize      the maximum number of rows in the buffer
+   * @param waitStrategy what to do when the buffer is full or empty
+   */
+  public RingBufferRowSet( int maxSize, RowSetWaitStrategy waitStrategy ) {
+    super();
+
+    capacity = Math.max( 1, maxSize );
+
+    // The ring itself is sized to the next power of 2 so we can mask instead of divide
+    //
+    int ringSize = Integer.highestOneBit( capacity );
+    if ( ringSize < capacity ) {
+      ringSize <<= 1;
+    }
+    buffer = new Object[ ringSize ][];
+    mask = ringSize - 1;
+
+    head = new PaddedSequence();
+    tail = new PaddedSequence();
+
+    this.waitStrategy = waitStrategy;
+    this.signalling = waitStrategy.isSignalling();
+
+    timeoutGet = Const.toInt( System.getProperty( Const.HOP_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.HOP_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  @Override
+  public boolean putRow( IRowMeta rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    if ( rowData == null ) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = tail.value;
+    if ( position - tail.cache >= capacity ) {
+      tail.cache = head.value;
+      if ( position - tail.cache >= capacity && !waitForRoom( position, tu.toNanos( time ) ) ) {
+        return false;
+      }
+    }
+
+    buffer[ (int) position & mask ] = rowData;
+    advance( tail, position + 1 );
+
+    if ( signalling ) {
+      wakeUp( waitingConsumer );
+    }
+    return true;
+  }
+
+  private boolean waitForRoom( long position, long timeoutNanos ) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int counter = 0;
+    try {
+      while ( true ) {
+        if ( signalling ) {
+          waitingProducer = Thread.currentThread();
+        }
+        tail.cache = head.value;
+        if ( position - tail.cache < capacity ) {
+          return true;
+        }
+        long remaining = deadline - System.nanoTime();
+        if ( remaining <= 0 || Thread.currentThread().isInterrupted() ) {
+          return false;
+        }
+        waitStrategy.idle( counter++, remaining );
+      }
+    } finally {
+      if ( signalling ) {
+        waitingProducer = null;
+      }
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long position = head.value;
+    if ( position >= head.cache ) {
+      head.cache = tail.value;
+      if ( position >= head.cache ) {
+        return null;
+      }
+    }
+
+    int index = (int) position & mask;
+    Object[] row = buffer[ index ];
+    buffer[ index ] = null;
+    advance( head, position + 1 );
+
+    if ( signalling ) {
+      wakeUp( waitingProducer );
+    }
+    return row;
+  }
+
+  /**
+   * Take all the available rows in one go: the positions are only read and moved once for the whole batch.
+   */
+  @Override
+  public int drainTo( List<Object[]> rows, int maxRows ) {
+    long position = head.value;
+    head.cache = tail.value;
+    int nrRows = (int) Math.min( maxRows, head.cache - position );
+    if ( nrRows <= 0 ) {
+      return 0;
+    }
+
+    for ( int i = 0; i < nrRows; i++ ) {
+      int index = (int) ( position + i ) & mask;
+      rows.add( buffer[ index ] );
+      buffer[ index ] = null;
+    }
+    advance( head, position + nrRows );
+
+    if ( signalling ) {
+      wakeUp( waitingProducer );
+    }
+    return nrRows;
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    Object[] row = getRowImmediate();
+    if ( row != null ) {
+      return row;
+    }
+
+    long deadline = System.nanoTime() + tu.toNanos( timeout );
+    int counter = 0;
+    try {
+      while ( true ) {
+        if ( signalling ) {
+          waitingConsumer = Thread.currentThread();
+        }
+        boolean finished = isDone();
+        row = getRowImmediate();
+        if ( row != null || finished ) {
+          return row;
+        }
+        long remaining = deadline - System.nanoTime();
+        if ( remaining <= 0 || Thread.currentThread().isInterrupted() ) {
+          return null;
+        }
+        waitStrategy.idle( counter++, remaining );
+      }
+    } finally {
+      if ( signalling ) {
+        waitingConsumer = null;
+      }
+    }
+  }
+
+  /**
+   * Move a position forward. When waiting threads are parked we need a full fence so that the other side either sees
+   * the new position or we see its waiting thread. Otherwise an ordered store is all we need.
+   */
+  private void advance( PaddedSequence sequence, long position ) {
+    if ( signalling ) {
+      sequence.value = position;
+    } else {
+      SEQUENCE_UPDATER.lazySet( sequence, position );
+    }
+  }
+
+  private void wakeUp( Thread thread ) {
+    if ( thread != null ) {
+      LockSupport.unpark( thread );
+    }
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    if ( signalling ) {
+      wakeUp( waitingConsumer );
+    }
+  }
+
+  /**
+   * @return the number of rows in the buffer. This is a snapshot which can be outdated as soon as it's returned.
+   */
+  @Override
+  public int size() {
+    long readPosition = head.value;
+    long writePosition = tail.value;
+    return (int) Math.max( 0, Math.min( capacity, writePosition - readPosition ) );
+  }
+
+  /**
+   * Clear this rowset: remove all rows and remove the "done" flag. Only call this when no other thread is reading
+   * from or writing to this row set.
+   */
+  @Override
+  public void clear() {
+    while ( getRowImmediate() != null ) {
+      // Drain
+    }
+    done.set( false );
+  }
+
+  /**
+   * @return the wait strategy used by this row set
+   */
+  public RowSetWaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  /**
+   * @return the maximum number of rows in this row set
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Cache line padding in front of the sequence value.
+   */
+  @SuppressWarnings( "unused" )
+  abstract static class LeftPadding {
+    protected long p01, p02, p03, p04, p05, p06, p07;
+  }
+
+  abstract static class Sequence extends LeftPadding {
+    protected volatile long value;
+  }
+
+  /**
+   * A position in the ring buffer along with the last known position of the other side, padded on both ends.
+   * The cached position is only used by the thread that owns the sequence.
+   */
+  @SuppressWarnings( "unused" )
+  static final class PaddedSequence extends Sequence {
+    protected long cache;
+    protected long p11, p12, p13, p14, p15, p16, p17;
+  }
+}
@@ -0,0 +1,108 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Describes what a thread does while it waits for room or for data in a {@link RingBufferRowSet}.
+ */
+public enum RowSetWaitStrategy {
+
+  /**
+   * Busy spin: lowest latency, burns a full core while waiting.
+   */
+  SPIN( "Spin" ),
+
+  /**
+   * Yield the processor to other runnable threads between checks.
+   */
+  YIELD( "Yield" ),
+
+  /**
+   * Park the waiting thread until the other side signals it or until the timeout expires.
+   */
+  PARK( "Park" );
+
+  /**
+   * The number of busy spins we do before parking or yielding
+   */
+  private static final int SPIN_TRIES = 100;
+
+  private String code;
+
+  RowSetWaitStrategy( String code ) {
+    this.code = code;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * @return true if the waiting thread needs to be woken up explicitly by the other side of the row set.
+   */
+  public boolean isSignalling() {
+    return this == PARK;
+  }
+
+  /**
+   * Wait a little bit.
+   *
+   * @param counter      The number of times we waited before for the same condition
+   * @param maxWaitNanos The maximum amount of time to wait in nanoseconds
+   */
+  public void idle( int counter, long maxWaitNanos ) {
+    switch ( this ) {
+      case SPIN:
+        break;
+      case YIELD:
+        if ( counter >= SPIN_TRIES ) {
+          Thread.yield();
+        }
+        break;
+      default:
+        if ( counter >= SPIN_TRIES ) {
+          LockSupport.parkNanos( this, maxWaitNanos );
+        } else {
+          Thread.yield();
+        }
+        break;
+    }
+  }
+
+  /**
+   * Return the wait strategy for a certain code
+   *
+   * @param code the code to look for
+   * @return the wait strategy or PARK if nothing matches.
+   */
+  public static RowSetWaitStrategy getWaitStrategyForCode( String code ) {
+    for ( RowSetWaitStrategy strategy : values() ) {
+      if ( strategy.getCode().equalsIgnoreCase( code ) ) {
+        return strategy;
+      }
+    }
+    return PARK;
+  }
+}
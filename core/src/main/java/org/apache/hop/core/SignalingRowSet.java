@@ -0,0 +1,249 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A thread-safe, size limited row set for engines which run the transforms as tasks on a fork/join pool, like the
+ * fork/join pipeline engine. Instead of having the engine poll the row sets, it tells the engine when the reading
+ * transform has rows to read and when the writing transform has room to write.
+ * <p>
+ * A fork/join worker thread never blocks on this row set, since the pool would have to start extra threads to keep
+ * going. A put on a worker thread always succeeds: the engine doesn't run the writing transform again until the reader
+ * made room, so the row set only goes over its size for the rows written in one task. A get on a worker thread which
+ * has to wait for rows runs the writing transform on the same thread when it can.
+ */
+public class SignalingRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /**
+   * How long a worker thread waiting for rows waits before it tries to run the writing transform again, in ms
+   */
+  private static final long HELP_INTERVAL_MILLIS = 10L;
+
+  private final int maxSize;
+  private final LinkedBlockingQueue<Object[]> queue;
+
+  /**
+   * Writers outside of the pool wait for room on this monitor
+   */
+  private final Object roomMonitor = new Object();
+  private final AtomicInteger waitingWriters = new AtomicInteger();
+
+  private volatile Runnable readerSignal;
+  private volatile Runnable writerSignal;
+  private volatile BooleanSupplier writerHelper;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new row set holding at most maxSize rows.
+   *
+   * @param maxSize the maximum number of rows in this row set
+   */
+  public SignalingRowSet( int maxSize ) {
+    super();
+    this.maxSize = maxSize;
+    queue = new LinkedBlockingQueue<>();
+    timeoutGet = Const.toInt( System.getProperty( Const.HOP_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.HOP_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  /**
+   * @param readerSignal called when rows arrive in an empty row set and when the row set is done
+   */
+  public void setReaderSignal( Runnable readerSignal ) {
+    this.readerSignal = readerSignal;
+  }
+
+  /**
+   * @param writerSignal called when a read brings the row set down to half its size
+   */
+  public void setWriterSignal( Runnable writerSignal ) {
+    this.writerSignal = writerSignal;
+  }
+
+  /**
+   * @param writerHelper called when a worker thread waits for rows, runs the writing transform on the calling thread
+   *                     if it can and returns true if it did
+   */
+  public void setWriterHelper( BooleanSupplier writerHelper ) {
+    this.writerHelper = writerHelper;
+  }
+
+  @Override
+  public boolean putRow( IRowMeta rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    if ( rowData == null ) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+    if ( queue.size() >= maxSize && !ForkJoinTask.inForkJoinPool() && !waitForRoom( tu.toNanos( time ) ) ) {
+      return false;
+    }
+    queue.offer( rowData );
+    if ( queue.size() == 1 ) {
+      signal( readerSignal );
+    }
+    return true;
+  }
+
+  /**
+   * Wait until there is room in the row set, only done outside of a fork/join pool.
+   *
+   * @return true if there is room
+   */
+  private boolean waitForRoom( long timeoutNanos ) {
+    if ( timeoutNanos <= 0 ) {
+      return false;
+    }
+    long deadline = System.nanoTime() + timeoutNanos;
+    waitingWriters.incrementAndGet();
+    try {
+      synchronized ( roomMonitor ) {
+        long left = timeoutNanos;
+        while ( queue.size() >= maxSize && left > 0 ) {
+          TimeUnit.NANOSECONDS.timedWait( roomMonitor, left );
+          left = deadline - System.nanoTime();
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      waitingWriters.decrementAndGet();
+    }
+    return queue.size() < maxSize;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    Object[] row = queue.poll();
+    if ( row != null ) {
+      rowsTaken( 1 );
+    }
+    return row;
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    Object[] row = getRowImmediate();
+    if ( row != null || timeout <= 0 ) {
+      return row;
+    }
+    boolean worker = ForkJoinTask.inForkJoinPool();
+    long timeoutNanos = tu.toNanos( timeout );
+    long deadline = System.nanoTime() + timeoutNanos;
+    try {
+      for ( long left = timeoutNanos; left > 0 && !isDone(); left = deadline - System.nanoTime() ) {
+        long wait = left;
+        if ( worker ) {
+          // Don't block a worker on a writer which is waiting for a worker: run it on this thread if possible
+          //
+          BooleanSupplier helper = writerHelper;
+          if ( helper != null && helper.getAsBoolean() ) {
+            wait = 0;
+          } else {
+            wait = Math.min( left, TimeUnit.MILLISECONDS.toNanos( HELP_INTERVAL_MILLIS ) );
+          }
+        }
+        row = wait > 0 ? queue.poll( wait, TimeUnit.NANOSECONDS ) : queue.poll();
+        if ( row != null ) {
+          rowsTaken( 1 );
+          return row;
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    return getRowImmediate();
+  }
+
+  @Override
+  public int drainTo( List<Object[]> rows, int maxRows ) {
+    int nrRows = queue.drainTo( rows, maxRows );
+    if ( nrRows > 0 ) {
+      rowsTaken( nrRows );
+    }
+    return nrRows;
+  }
+
+  /**
+   * Let the writers know there's room after rows were taken out of the row set.
+   *
+   * @param nrRows the number of rows taken
+   */
+  private void rowsTaken( int nrRows ) {
+    if ( waitingWriters.get() > 0 ) {
+      synchronized ( roomMonitor ) {
+        roomMonitor.notifyAll();
+      }
+    }
+    int size = queue.size();
+    int half = maxSize / 2;
+    if ( size + nrRows > half && size <= half ) {
+      signal( writerSignal );
+    }
+  }
+
+  private static void signal( Runnable signal ) {
+    if ( signal != null ) {
+      signal.run();
+    }
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    signal( readerSignal );
+  }
+
+  @Override
+  public int size() {
+    return queue.size();
+  }
+
+  @Override
+  public void clear() {
+    queue.clear();
+    done.set( false );
+  }
+}
@@ -0,0 +1,257 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Base class for bulk writers which load rows as delimited text: fields are separated by a tab, rows end with a
+ * newline, a backslash escapes tab, newline, carriage return and itself, and null is written as \N. This is the
+ * default text format of both PostgreSQL COPY and MySQL LOAD DATA. The text is UTF-8 encoded and kept in memory until
+ * the buffer is full or the rows are flushed.
+ */
+public abstract class BaseDatabaseBulkWriter implements IDatabaseBulkWriter {
+
+  /**
+   * The number of bytes buffered before the rows are sent to the database
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 8 * 1024 * 1024;
+
+  protected final Database database;
+  protected final String schemaTable;
+  protected final IRowMeta rowMeta;
+
+  private final int bufferSize;
+  private final boolean supportsBooleanDataType;
+  private final SimpleDateFormat dateFormat;
+  private final StringBuilder line;
+
+  private BulkBuffer buffer;
+  private long bufferedRows;
+  private long rowsLoaded;
+  private long loadNanos;
+
+  /**
+   * @param database   the connected database to load into
+   * @param schemaName the schema of the table
+   * @param tableName  the table to load
+   * @param rowMeta    the rows to load, the names are the columns of the table
+   * @param bufferSize the number of bytes to buffer before the rows are sent to the database
+   */
+  protected BaseDatabaseBulkWriter( Database database, String schemaName, String tableName, IRowMeta rowMeta,
+                                    int bufferSize ) {
+    this.database = database;
+    this.schemaTable = database.getDatabaseMeta().getQuotedSchemaTableCombination( schemaName, tableName );
+    this.rowMeta = rowMeta;
+    this.bufferSize = bufferSize;
+    this.supportsBooleanDataType = database.getDatabaseMeta().supportsBooleanDataType();
+    this.dateFormat = new SimpleDateFormat( "yyyy-MM-dd HH:mm:ss.SSS" );
+    this.line = new StringBuilder( 256 );
+    this.buffer = new BulkBuffer( Math.min( bufferSize, 64 * 1024 ) );
+  }
+
+  /**
+   * @param rowMeta the rows to load
+   * @return true if all the fields can be written as delimited text: binary and serializable fields can't
+   */
+  public static boolean isSupported( IRowMeta rowMeta ) {
+    for ( IValueMeta valueMeta : rowMeta.getValueMetaList() ) {
+      switch ( valueMeta.getType() ) {
+        case IValueMeta.TYPE_STRING:
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_BIGNUMBER:
+        case IValueMeta.TYPE_DATE:
+        case IValueMeta.TYPE_TIMESTAMP:
+        case IValueMeta.TYPE_BOOLEAN:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Load the buffered rows in the database
+   *
+   * @param data   the rows as UTF-8 encoded delimited text
+   * @param nrRows the number of rows in the data
+   * @return the number of rows loaded
+   * @throws HopDatabaseException in case the database refuses the rows
+   */
+  protected abstract long load( InputStream data, long nrRows ) throws HopDatabaseException;
+
+  @Override
+  public void writeRow( Object[] row ) throws HopDatabaseException {
+    line.setLength( 0 );
+    try {
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        if ( i > 0 ) {
+          line.append( '\t' );
+        }
+        appendValue( rowMeta.getValueMeta( i ), row[ i ] );
+      }
+    } catch ( HopValueException e ) {
+      throw new HopDatabaseException( "Unable to convert row for bulk loading into " + schemaTable, e );
+    }
+    line.append( '\n' );
+
+    byte[] bytes = line.toString().getBytes( StandardCharsets.UTF_8 );
+    buffer.write( bytes, 0, bytes.length );
+    bufferedRows++;
+
+    if ( buffer.size() >= bufferSize ) {
+      flush();
+    }
+  }
+
+  @Override
+  public long flush() throws HopDatabaseException {
+    if ( bufferedRows == 0 ) {
+      return 0;
+    }
+    long start = System.nanoTime();
+    long loaded = load( buffer.toInputStream(), bufferedRows );
+    loadNanos += System.nanoTime() - start;
+    rowsLoaded += loaded;
+
+    buffer.reset();
+    bufferedRows = 0;
+    return loaded;
+  }
+
+  @Override
+  public long getRowsLoaded() {
+    return rowsLoaded;
+  }
+
+  @Override
+  public long getLoadNanos() {
+    return loadNanos;
+  }
+
+  @Override
+  public void close() {
+    buffer = new BulkBuffer( 0 );
+    bufferedRows = 0;
+  }
+
+  /**
+   * @return the list of quoted column names between parentheses
+   */
+  protected String getColumnList() {
+    StringBuilder columns = new StringBuilder( "(" );
+    for ( int i = 0; i < rowMeta.size(); i++ ) {
+      if ( i > 0 ) {
+        columns.append( ", " );
+      }
+      columns.append( database.getDatabaseMeta().quoteField( rowMeta.getValueMeta( i ).getName() ) );
+    }
+    return columns.append( ')' ).toString();
+  }
+
+  private void appendValue( IValueMeta valueMeta, Object object ) throws HopValueException {
+    if ( valueMeta.isNull( object ) ) {
+      line.append( "\\N" );
+      return;
+    }
+    switch ( valueMeta.getType() ) {
+      case IValueMeta.TYPE_INTEGER:
+        line.append( valueMeta.getInteger( object ).longValue() );
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        line.append( valueMeta.getNumber( object ).doubleValue() );
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        line.append( valueMeta.getBigNumber( object ).toPlainString() );
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        // The same values as the prepared statements write, see ValueMetaBase.setPreparedStatementValue()
+        //
+        boolean value = valueMeta.getBoolean( object );
+        if ( supportsBooleanDataType ) {
+          line.append( value ? '1' : '0' );
+        } else {
+          line.append( value ? 'Y' : 'N' );
+        }
+        break;
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_TIMESTAMP:
+        Date date = valueMeta.getDate( object );
+        line.append( date instanceof Timestamp ? date.toString() : dateFormat.format( date ) );
+        break;
+      default:
+        appendEscaped( valueMeta.getString( object ) );
+        break;
+    }
+  }
+
+  private void appendEscaped( String string ) {
+    for ( int i = 0; i < string.length(); i++ ) {
+      char c = string.charAt( i );
+      switch ( c ) {
+        case '\\':
+          line.append( "\\\\" );
+          break;
+        case '\t':
+          line.append( "\\t" );
+          break;
+        case '\n':
+          line.append( "\\n" );
+          break;
+        case '\r':
+          line.append( "\\r" );
+          break;
+        default:
+          line.append( c );
+          break;
+      }
+    }
+  }
+
+  /**
+   * Hands the buffered bytes to the database without copying them
+   */
+  private static class BulkBuffer extends ByteArrayOutputStream {
+    BulkBuffer( int size ) {
+      super( size );
+    }
+
+    InputStream toInputStream() {
+      return new ByteArrayInputStream( buf, 0, count );
+    }
+  }
+}
@@ -24,6 +24,7 @@ package org.apache.hop.core.database;
 
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.HopMetadataObject;
@@ -1074,6 +1075,49 @@ public interface IDatabase extends Cloneable {
     return "";
   }
 
+  /**
+   * @param rowMeta the rows to load
+   * @return true if the database can load these rows with {@link #createBulkWriter(Database, String, String,
+   * IRowMeta)}
+   */
+  default boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return false;
+  }
+
+  /**
+   * Create a writer which loads rows into a table through the native bulk load API of the database.
+   *
+   * @param database   the connected database to load into
+   * @param schemaName the schema of the table
+   * @param tableName  the table to load
+   * @param rowMeta    the rows to load, the names are the columns of the table
+   * @return the bulk writer
+   * @throws HopDatabaseException in case the database doesn't support bulk loading
+   */
+  default IDatabaseBulkWriter createBulkWriter( Database database, String schemaName, String tableName,
+                                                IRowMeta rowMeta ) throws HopDatabaseException {
+    throw new HopDatabaseException( "Bulk loading is not supported on database type " + getPluginName() );
+  }
+
+  /**
+   * Statements looking up many keys at once are split so that they stay below this limit. The default of 1000 fits
+   * Oracle, which allows at most 1000 values in an IN list, and SQL Server, which allows at most 2100 parameters.
+   *
+   * @return the maximum number of parameters or IN list values to use in a single statement
+   */
+  default int getMaxQueryParameters() {
+    return 1000;
+  }
+
+  /**
+   * @param expression the expression to take the remainder of
+   * @param divisor    the divisor
+   * @return the SQL expression calculating the remainder of the division of the expression by the divisor
+   */
+  default String getModuloExpression( String expression, int divisor ) {
+    return "MOD( " + expression + ", " + divisor + " )";
+  }
+
   /**
    * Allows to get the column name for JDBC drivers with different behavior for aliases depending on the connector version.
    *
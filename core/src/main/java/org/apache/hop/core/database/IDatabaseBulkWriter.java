@@ -0,0 +1,68 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+
+/**
+ * Streams rows into a database table through a native bulk load API (COPY, LOAD DATA, ...) instead of one INSERT
+ * statement per row. Rows are buffered by the writer and sent to the database when {@link #flush()} is called or when
+ * the buffer is full. Loading takes part in the transaction of the connection: the caller commits.
+ * <p>
+ * Writers are created with {@link IDatabase#createBulkWriter(Database, String, String,
+ * org.apache.hop.core.row.IRowMeta)}.
+ */
+public interface IDatabaseBulkWriter {
+
+  /**
+   * Add a row to the load, the row has the layout of the row metadata the writer was created with.
+   *
+   * @param row the row to write
+   * @throws HopDatabaseException in case the row can't be converted or a full buffer can't be loaded
+   */
+  void writeRow( Object[] row ) throws HopDatabaseException;
+
+  /**
+   * Send the buffered rows to the database
+   *
+   * @return the number of rows loaded
+   * @throws HopDatabaseException in case the database refuses the rows
+   */
+  long flush() throws HopDatabaseException;
+
+  /**
+   * @return the total number of rows loaded by this writer
+   */
+  long getRowsLoaded();
+
+  /**
+   * @return the total time spent loading rows in the database in nanoseconds
+   */
+  long getLoadNanos();
+
+  /**
+   * Release the resources of this writer. Rows which were not flushed are discarded.
+   */
+  void close();
+}
@@ -24,31 +24,95 @@ package org.apache.hop.core.hash;
 
 import org.apache.hop.core.exception.HopValueException;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A long to long hash index using open addressing with linear probing. Keys and values are kept next to each other
+ * in a single array of primitive longs so an entry costs 16 bytes divided by the load factor, without any objects per
+ * entry. The table can optionally be allocated outside of the Java heap: it is freed when the index is garbage
+ * collected.
+ * <p>
+ * When the table grows the entries are not all moved at once. The old table is kept and every put moves a few of its
+ * slots to the new table until it's empty, so that a put never takes longer than a few probes. Lookups check the new
+ * table first and the old one after that.
+ * <p>
+ * This index is not thread-safe.
+ */
 public class LongHashIndex {
 
-  private static final int STANDARD_INDEX_SIZE = 512;
-  private static final float STANDARD_LOAD_FACTOR = 0.78f;
+  public static final int STANDARD_INDEX_SIZE = 512;
+  public static final float STANDARD_LOAD_FACTOR = 0.78f;
 
-  private LongHashIndexEntry[] index;
-  private int size;
+  /**
+   * The largest number of slots: two longs per slot and the table size has to fit in an int.
+   */
+  private static final int MAXIMUM_CAPACITY = 1 << 29;
+
+  /**
+   * The largest number of slots off-heap: the size in bytes of the keys and the values has to fit in an int.
+   */
+  private static final int MAXIMUM_OFF_HEAP_CAPACITY = 1 << 27;
+
+  /**
+   * The number of old slots moved to the new table in every put while resizing.
+   */
+  private static final int MIGRATION_STEP = 8;
+
+  /**
+   * Key 0 marks an empty slot, the entry for key 0 is kept apart.
+   */
+  private static final long EMPTY = 0L;
+
+  private final float loadFactor;
+  private final boolean offHeap;
+  private final int maximumCapacity;
+
+  private LongTable table;
   private int resizeThresHold;
+  private int size;
+
+  private boolean hasZeroKey;
+  private long zeroValue;
+
+  /**
+   * The table we're moving entries out of, or null if we're not resizing
+   */
+  private LongTable oldTable;
+  private int migratedSlots;
 
   /**
    * Create a new long/long hash index
    *
-   * @param size the initial size of the hash index
+   * @param size       the initial size of the hash index
+   * @param loadFactor the fraction of the slots which can be used before the table is doubled in size, between 0 and 1
+   * @param offHeap    true if the table is to be allocated outside of the Java heap
    */
-  public LongHashIndex( int size ) {
+  public LongHashIndex( int size, float loadFactor, boolean offHeap ) {
+    if ( loadFactor <= 0.0f || loadFactor >= 1.0f ) {
+      throw new IllegalArgumentException( "The load factor needs to be between 0 and 1, not " + loadFactor );
+    }
+    this.loadFactor = loadFactor;
+    this.offHeap = offHeap;
+    this.maximumCapacity = offHeap ? MAXIMUM_OFF_HEAP_CAPACITY : MAXIMUM_CAPACITY;
 
     // Find a suitable capacity being a factor of 2:
-    int factor2Size = 1;
-    while ( factor2Size < size ) {
+    int factor2Size = 2;
+    while ( factor2Size < maximumCapacity && factor2Size * loadFactor < size ) {
       factor2Size <<= 1; // Multiply by 2
     }
+    table = allocate( factor2Size );
+    resizeThresHold = thresHold( factor2Size );
+  }
 
-    this.resizeThresHold = (int) ( factor2Size * STANDARD_LOAD_FACTOR );
-
-    index = new LongHashIndexEntry[ factor2Size ];
+  /**
+   * Create a new long/long hash index
+   *
+   * @param size the initial size of the hash index
+   */
+  public LongHashIndex( int size ) {
+    this( size, STANDARD_LOAD_FACTOR, false );
   }
 
   /**
@@ -66,103 +130,197 @@ public class LongHashIndex {
     return size == 0;
   }
 
-  public Long get( long key ) throws HopValueException {
-    int hashCode = generateHashCode( key );
+  /**
+   * @return true if the table is allocated outside of the Java heap
+   */
+  public boolean isOffHeap() {
+    return offHeap;
+  }
 
-    int indexPointer = indexFor( hashCode, index.length );
-    LongHashIndexEntry check = index[ indexPointer ];
+  public Long get( long key ) throws HopValueException {
+    if ( !containsKey( key ) ) {
+      return null;
+    }
+    return getLong( key, 0L );
+  }
 
-    while ( check != null ) {
-      if ( check.hashCode == hashCode && check.equalsKey( key ) ) {
-        return check.value;
+  /**
+   * Look up a value without boxing it.
+   *
+   * @param key          the key to look up
+   * @param defaultValue the value to return if the key isn't in the index
+   * @return the value stored for the key or the default value
+   */
+  public long getLong( long key, long defaultValue ) {
+    if ( key == EMPTY ) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = findSlot( table, key );
+    if ( table.getKey( slot ) == key ) {
+      return table.getValue( slot );
+    }
+    if ( oldTable != null ) {
+      slot = findSlot( oldTable, key );
+      if ( oldTable.getKey( slot ) == key ) {
+        return oldTable.getValue( slot );
       }
-      check = check.nextEntry;
     }
-    return null;
+    return defaultValue;
   }
 
-  public void put( long key, Long value ) throws HopValueException {
-    int hashCode = generateHashCode( key );
-    int indexPointer = indexFor( hashCode, index.length );
+  /**
+   * @param key the key to look for
+   * @return true if the key is in the index
+   */
+  public boolean containsKey( long key ) {
+    if ( key == EMPTY ) {
+      return hasZeroKey;
+    }
+    if ( table.getKey( findSlot( table, key ) ) == key ) {
+      return true;
+    }
+    return oldTable != null && oldTable.getKey( findSlot( oldTable, key ) ) == key;
+  }
 
-    LongHashIndexEntry check = index[ indexPointer ];
-    LongHashIndexEntry previousCheck = null;
+  public void put( long key, Long value ) throws HopValueException {
+    if ( value == null ) {
+      throw new HopValueException( "A long hash index can't store null values (key " + key + ")" );
+    }
+    putLong( key, value );
+  }
 
-    while ( check != null ) {
+  /**
+   * Store a value without boxing it. An existing value for the key is replaced.
+   *
+   * @param key   the key
+   * @param value the value to store
+   */
+  public void putLong( long key, long value ) {
+    if ( key == EMPTY ) {
+      if ( !hasZeroKey ) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue = value;
+      return;
+    }
 
-      // If there is an identical entry in there, we replace the entry
-      // And then we just return...
+    if ( oldTable != null ) {
+      // Entries which haven't been moved yet are updated where they are
       //
-      if ( check.hashCode == hashCode && check.equalsKey( key ) ) {
-        check.value = value;
+      int slot = findSlot( oldTable, key );
+      if ( slot >= migratedSlots && oldTable.getKey( slot ) == key ) {
+        oldTable.setValue( slot, value );
+        migrate();
         return;
       }
-      previousCheck = check;
-      check = check.nextEntry;
     }
 
-    // Don't forget to link to the previous check entry if there was any...
-    //
-    if ( previousCheck != null ) {
-      previousCheck.nextEntry = new LongHashIndexEntry( hashCode, key, value, null );
-    } else {
-      index[ indexPointer ] = new LongHashIndexEntry( hashCode, key, value, null );
+    int slot = findSlot( table, key );
+    if ( table.getKey( slot ) != key ) {
+      table.setKey( slot, key );
+      size++;
     }
+    table.setValue( slot, value );
 
-    // If required, resize the table...
-    //
-    resize();
+    if ( oldTable != null ) {
+      migrate();
+    }
+    if ( oldTable == null && size >= resizeThresHold ) {
+      startResize();
+    }
   }
 
-  private final void resize() {
-    // Increase the size of the index...
-    //
-    size++;
+  /**
+   * Pass all entries in the index to the given consumer, in no particular order.
+   *
+   * @param consumer the consumer of the entries
+   * @throws HopValueException in case the consumer throws it
+   */
+  public void forEach( IEntryConsumer consumer ) throws HopValueException {
+    if ( hasZeroKey ) {
+      consumer.accept( EMPTY, zeroValue );
+    }
+    forEach( table, 0, consumer );
+    if ( oldTable != null ) {
+      forEach( oldTable, migratedSlots, consumer );
+    }
+  }
 
-    // See if we've reached our resize threshold...
-    //
-    if ( size >= resizeThresHold ) {
+  private static void forEach( LongTable longTable, int fromSlot, IEntryConsumer consumer ) throws HopValueException {
+    for ( int slot = fromSlot; slot < longTable.getCapacity(); slot++ ) {
+      long key = longTable.getKey( slot );
+      if ( key != EMPTY ) {
+        consumer.accept( key, longTable.getValue( slot ) );
+      }
+    }
+  }
 
-      LongHashIndexEntry[] oldIndex = index;
+  /**
+   * @return the slot holding the key or the empty slot where it should go
+   */
+  private static int findSlot( LongTable longTable, long key ) {
+    int mask = longTable.getCapacity() - 1;
+    int slot = indexFor( mix( key ), longTable.getCapacity() );
+    long check = longTable.getKey( slot );
+    while ( check != key && check != EMPTY ) {
+      slot = ( slot + 1 ) & mask;
+      check = longTable.getKey( slot );
+    }
+    return slot;
+  }
 
-      // Double the size to keep the size of the index a factor of 2...
-      // Allocate the new array...
+  private void startResize() {
+    if ( table.getCapacity() >= maximumCapacity ) {
+      // Just keep filling up the table, it'll be slower but it works until the table is full
       //
-      int newSize = 2 * index.length;
-
-      LongHashIndexEntry[] newIndex = new LongHashIndexEntry[ newSize ];
+      if ( size >= maximumCapacity - 1 ) {
+        throw new IllegalStateException( "The long hash index is full with " + size + " entries" );
+      }
+      return;
+    }
+    int newCapacity = 2 * table.getCapacity();
+    oldTable = table;
+    migratedSlots = 0;
+    table = allocate( newCapacity );
+    resizeThresHold = thresHold( newCapacity );
+    migrate();
+  }
 
-      // Loop over the old index and re-distribute the entries
-      // We want to make sure that the calculation
-      // entry.hashCode & ( size - 1)
-      // ends up in the right location after re-sizing...
-      //
-      for ( int i = 0; i < oldIndex.length; i++ ) {
-        LongHashIndexEntry entry = oldIndex[ i ];
-        if ( entry != null ) {
-          oldIndex[ i ] = null;
-
-          // Make sure we follow all the linked entries...
-          // This is a bit of extra work, TODO: see how we can avoid it!
-          //
-          do {
-            LongHashIndexEntry next = entry.nextEntry;
-            int indexPointer = indexFor( entry.hashCode, newSize );
-            entry.nextEntry = newIndex[ indexPointer ];
-            newIndex[ indexPointer ] = entry;
-            entry = next;
-          } while ( entry != null );
-        }
+  /**
+   * Move the next few slots from the old table to the new one. Moved slots are left as they are in the old table so
+   * that the probe sequences of the remaining entries stay intact.
+   */
+  private void migrate() {
+    int end = Math.min( migratedSlots + MIGRATION_STEP, oldTable.getCapacity() );
+    for ( int slot = migratedSlots; slot < end; slot++ ) {
+      long key = oldTable.getKey( slot );
+      if ( key != EMPTY ) {
+        int newSlot = findSlot( table, key );
+        table.setKey( newSlot, key );
+        table.setValue( newSlot, oldTable.getValue( slot ) );
       }
+    }
+    migratedSlots = end;
+    if ( migratedSlots == oldTable.getCapacity() ) {
+      oldTable = null;
+    }
+  }
 
-      // Replace the old index with the new one we just created...
-      //
-      index = newIndex;
+  private int thresHold( int capacity ) {
+    return (int) ( capacity * loadFactor );
+  }
 
-      // Also change the resize threshold...
-      //
-      resizeThresHold = (int) ( newSize * STANDARD_LOAD_FACTOR );
-    }
+  private LongTable allocate( int capacity ) {
+    return offHeap ? new DirectLongTable( capacity ) : new HeapLongTable( capacity );
+  }
+
+  /**
+   * Spread the bits of the key over the hash code (Fibonacci hashing).
+   */
+  private static int mix( long key ) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) ( h ^ ( h >>> 32 ) );
   }
 
   public static int generateHashCode( Long key ) throws HopValueException {
@@ -173,27 +331,90 @@ public class LongHashIndex {
     return hash & ( length - 1 );
   }
 
-  private static final class LongHashIndexEntry {
-    private int hashCode;
-    private long key;
-    private long value;
-    private LongHashIndexEntry nextEntry;
+  /**
+   * Receives the entries of the index, see {@link LongHashIndex#forEach(IEntryConsumer)}
+   */
+  public interface IEntryConsumer {
+    void accept( long key, long value ) throws HopValueException;
+  }
+
+  /**
+   * The slots of the index: the key of a slot is followed by its value.
+   */
+  private abstract static class LongTable {
+    private final int capacity;
+
+    LongTable( int capacity ) {
+      this.capacity = capacity;
+    }
+
+    int getCapacity() {
+      return capacity;
+    }
+
+    abstract long getKey( int slot );
+
+    abstract long getValue( int slot );
+
+    abstract void setKey( int slot, long key );
+
+    abstract void setValue( int slot, long value );
+  }
+
+  private static final class HeapLongTable extends LongTable {
+    private final long[] longs;
+
+    HeapLongTable( int capacity ) {
+      super( capacity );
+      longs = new long[ 2 * capacity ];
+    }
+
+    @Override long getKey( int slot ) {
+      return longs[ 2 * slot ];
+    }
+
+    @Override long getValue( int slot ) {
+      return longs[ 2 * slot + 1 ];
+    }
+
+    @Override void setKey( int slot, long key ) {
+      longs[ 2 * slot ] = key;
+    }
+
+    @Override void setValue( int slot, long value ) {
+      longs[ 2 * slot + 1 ] = value;
+    }
+  }
+
+  /**
+   * Keys and values go in separate buffers here to allow for larger tables.
+   */
+  private static final class DirectLongTable extends LongTable {
+    private final LongBuffer keys;
+    private final LongBuffer values;
+
+    DirectLongTable( int capacity ) {
+      super( capacity );
+      // A direct byte buffer is zeroed when allocated: all slots are empty
+      //
+      keys = ByteBuffer.allocateDirect( 8 * capacity ).order( ByteOrder.nativeOrder() ).asLongBuffer();
+      values = ByteBuffer.allocateDirect( 8 * capacity ).order( ByteOrder.nativeOrder() ).asLongBuffer();
+    }
+
+    @Override long getKey( int slot ) {
+      return keys.get( slot );
+    }
+
+    @Override long getValue( int slot ) {
+      return values.get( slot );
+    }
 
-    /**
-     * @param hashCode
-     * @param key
-     * @param value
-     * @param nextEntry
-     */
-    public LongHashIndexEntry( int hashCode, Long key, Long value, LongHashIndexEntry nextEntry ) {
-      this.hashCode = hashCode;
-      this.key = key;
-      this.value = value;
-      this.nextEntry = nextEntry;
+    @Override void setKey( int slot, long key ) {
+      keys.put( slot, key );
     }
 
-    public boolean equalsKey( long cmpKey ) {
-      return key == cmpKey;
+    @Override void setValue( int slot, long value ) {
+      values.put( slot, value );
     }
   }
 }
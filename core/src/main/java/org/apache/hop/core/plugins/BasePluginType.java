@@ -40,7 +40,6 @@ import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.core.xml.XmlHandler;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.i18n.GlobalMessageUtil;
-import org.scannotation.AnnotationDB;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
@@ -410,8 +409,7 @@ public abstract class BasePluginType<T extends Annotation> implements IPluginTyp
 
               // These are the jar files : find annotations in it...
               //
-              AnnotationDB annotationDB = jarFileCache.getAnnotationDB( fileObject );
-              Set<String> impls = annotationDB.getAnnotationIndex().get( annotationClassName );
+              Set<String> impls = jarFileCache.getAnnotationIndex( fileObject ).get( annotationClassName );
               if ( impls != null ) {
 
                 for ( String fil : impls ) {
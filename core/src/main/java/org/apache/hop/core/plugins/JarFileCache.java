@@ -22,25 +22,65 @@
 
 package org.apache.hop.core.plugins;
 
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.logging.LogChannel;
 import org.scannotation.AnnotationDB;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class JarFileCache {
 
+  /**
+   * The first line of the plugin index file, change the version when the format changes
+   */
+  private static final String INDEX_HEADER = "# Hop plugin annotation index v1";
+
   private static JarFileCache cache;
 
   private final Map<IPluginFolder, File[]> folderMap;
 
   private final Map<File, AnnotationDB> annotationMap;
 
+  private final Map<File, Map<String, Set<String>>> annotationIndexMap;
+
+  private final File indexFile;
+
+  /**
+   * The annotation index of every jar file in the plugin index file, by absolute path. Loaded on first use.
+   */
+  private Map<String, IndexEntry> persistentIndex;
+
+  private boolean persistentIndexChanged;
+
+  private int nrIndexedJars;
+
+  private int nrScannedJars;
+
   private JarFileCache() {
+    this( new File( Const.NVL( System.getProperty( Const.HOP_PLUGIN_INDEX_FILE ),
+      Const.HOP_CONFIG_FOLDER + File.separator + "plugin-index.cache" ) ) );
+  }
+
+  JarFileCache( File indexFile ) {
     annotationMap = new HashMap<>();
     folderMap = new HashMap<>();
+    annotationIndexMap = new HashMap<>();
+    this.indexFile = indexFile;
   }
 
   public static JarFileCache getInstance() {
@@ -60,6 +100,35 @@ public class JarFileCache {
     return result;
   }
 
+  /**
+   * Get the classes per annotation in a jar file. The jar file is only scanned if the plugin index file has no entry
+   * for it with the same size and modification time.
+   *
+   * @param file the jar file
+   * @return the names of the classes using an annotation, by annotation class name
+   * @throws IOException in case the jar file can't be scanned
+   */
+  public synchronized Map<String, Set<String>> getAnnotationIndex( File file ) throws IOException {
+    Map<String, Set<String>> result = annotationIndexMap.get( file );
+    if ( result == null ) {
+      String path = file.getAbsolutePath();
+      IndexEntry entry = getPersistentIndex().get( path );
+      if ( entry != null && entry.matches( file ) ) {
+        result = entry.annotationIndex;
+        nrIndexedJars++;
+      } else {
+        AnnotationDB annotationDB = new AnnotationDB();
+        annotationDB.scanArchives( file.toURI().toURL() );
+        result = annotationDB.getAnnotationIndex();
+        getPersistentIndex().put( path, new IndexEntry( file.length(), file.lastModified(), result ) );
+        persistentIndexChanged = true;
+        nrScannedJars++;
+      }
+      annotationIndexMap.put( file, result );
+    }
+    return result;
+  }
+
   public File[] getFileObjects( IPluginFolder pluginFolderInterface ) throws HopFileException {
     File[] result = folderMap.get( pluginFolderInterface );
     if ( result == null ) {
@@ -69,8 +138,153 @@ public class JarFileCache {
     return result;
   }
 
-  public void clear() {
+  /**
+   * Write the plugin index file if jar files were scanned. Entries of jar files which no longer exist or changed are
+   * dropped. Errors are logged and otherwise ignored: the index is only there to speed up the next start.
+   */
+  public synchronized void saveIndex() {
+    if ( !persistentIndexChanged || persistentIndex == null ) {
+      return;
+    }
+    File tempFile = null;
+    try {
+      File folder = indexFile.getAbsoluteFile().getParentFile();
+      if ( folder != null && !folder.exists() && !folder.mkdirs() ) {
+        throw new IOException( "Unable to create folder " + folder );
+      }
+      // Write to a temporary file first so that concurrent starts never read half an index
+      //
+      tempFile = File.createTempFile( indexFile.getName(), ".tmp", folder );
+      try ( Writer writer =
+              new BufferedWriter( new OutputStreamWriter( Files.newOutputStream( tempFile.toPath() ), StandardCharsets.UTF_8 ) ) ) {
+        writeIndex( writer );
+      }
+      try {
+        Files.move( tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE );
+      } catch ( AtomicMoveNotSupportedException e ) {
+        Files.move( tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+      }
+      persistentIndexChanged = false;
+    } catch ( IOException e ) {
+      LogChannel.GENERAL.logDetailed( "Unable to save the plugin index to " + indexFile + " : " + e.getMessage() );
+      if ( tempFile != null ) {
+        tempFile.delete();
+      }
+    }
+  }
+
+  /**
+   * @return the number of jar files for which the annotations were read from the plugin index file
+   */
+  public int getNrIndexedJars() {
+    return nrIndexedJars;
+  }
+
+  /**
+   * @return the number of jar files which had to be scanned for annotations
+   */
+  public int getNrScannedJars() {
+    return nrScannedJars;
+  }
+
+  public synchronized void clear() {
     annotationMap.clear();
     folderMap.clear();
+    annotationIndexMap.clear();
+    persistentIndex = null;
+    persistentIndexChanged = false;
+    nrIndexedJars = 0;
+    nrScannedJars = 0;
+  }
+
+  private Map<String, IndexEntry> getPersistentIndex() {
+    if ( persistentIndex == null ) {
+      persistentIndex = new HashMap<>();
+      if ( indexFile.exists() ) {
+        try ( BufferedReader reader = Files.newBufferedReader( indexFile.toPath(), StandardCharsets.UTF_8 ) ) {
+          readIndex( reader );
+        } catch ( Exception e ) {
+          // A damaged or outdated index: scan all jar files and write a new one
+          //
+          LogChannel.GENERAL.logDetailed( "Ignoring plugin index " + indexFile + " : " + e.getMessage() );
+          persistentIndex.clear();
+          persistentIndexChanged = true;
+        }
+      }
+    }
+    return persistentIndex;
+  }
+
+  /**
+   * Reads the index, the format is:
+   * <pre>
+   * J[tab]size[tab]modification time[tab]jar file path
+   * A[tab]annotation class[tab]class[tab]class...
+   * </pre>
+   * where the A lines hold the annotations of the last J line.
+   */
+  void readIndex( BufferedReader reader ) throws IOException {
+    String line = reader.readLine();
+    if ( !INDEX_HEADER.equals( line ) ) {
+      throw new IOException( "Unknown plugin index format" );
+    }
+    IndexEntry entry = null;
+    while ( ( line = reader.readLine() ) != null ) {
+      if ( line.startsWith( "J\t" ) ) {
+        String[] parts = line.split( "\t", 4 );
+        if ( parts.length != 4 ) {
+          throw new IOException( "Invalid plugin index line: " + line );
+        }
+        entry = new IndexEntry( Long.parseLong( parts[ 1 ] ), Long.parseLong( parts[ 2 ] ), new HashMap<>() );
+        persistentIndex.put( parts[ 3 ], entry );
+      } else if ( line.startsWith( "A\t" ) && entry != null ) {
+        String[] parts = line.split( "\t" );
+        Set<String> classes = new HashSet<>();
+        for ( int i = 2; i < parts.length; i++ ) {
+          classes.add( parts[ i ] );
+        }
+        entry.annotationIndex.put( parts[ 1 ], classes );
+      } else if ( !line.isEmpty() ) {
+        throw new IOException( "Invalid plugin index line: " + line );
+      }
+    }
+  }
+
+  void writeIndex( Writer writer ) throws IOException {
+    writer.write( INDEX_HEADER );
+    writer.write( '\n' );
+    for ( Map.Entry<String, IndexEntry> jar : new TreeMap<>( persistentIndex ).entrySet() ) {
+      IndexEntry entry = jar.getValue();
+      if ( !entry.matches( new File( jar.getKey() ) ) ) {
+        continue;
+      }
+      writer.write( "J\t" + entry.size + "\t" + entry.lastModified + "\t" + jar.getKey() + "\n" );
+      for ( Map.Entry<String, Set<String>> annotation : entry.annotationIndex.entrySet() ) {
+        writer.write( "A\t" );
+        writer.write( annotation.getKey() );
+        for ( String className : annotation.getValue() ) {
+          writer.write( '\t' );
+          writer.write( className );
+        }
+        writer.write( '\n' );
+      }
+    }
+  }
+
+  private static class IndexEntry {
+    private final long size;
+    private final long lastModified;
+    private final Map<String, Set<String>> annotationIndex;
+
+    private IndexEntry( long size, long lastModified, Map<String, Set<String>> annotationIndex ) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.annotationIndex = annotationIndex;
+    }
+
+    private boolean matches( File file ) {
+      return file.isFile() && file.length() == size && file.lastModified() == lastModified;
+    }
   }
 }
@@ -505,6 +505,15 @@ public class PluginRegistry {
     }
     log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_REGISTRATION_STOP );
 
+    // Remember the annotations of the scanned jar files for the next start
+    //
+    JarFileCache jarFileCache = JarFileCache.getInstance();
+    if ( log.isDetailed() ) {
+      log.logDetailed( "Plugin annotations read from the index for " + jarFileCache.getNrIndexedJars()
+        + " jar files, scanned " + jarFileCache.getNrScannedJars() + " jar files" );
+    }
+    jarFileCache.saveIndex();
+
     // Clear the jar file cache so that we don't waste memory...
     //
     if ( !keepCache ) {
@@ -0,0 +1,230 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.row;
+
+import org.apache.hop.core.exception.HopValueException;
+
+import java.util.Arrays;
+
+/**
+ * Builds order preserving binary keys for a number of fields in a row. Comparing two keys with {@link #compare(byte[],
+ * byte[])} gives the same result as {@link IRowMeta#compare(Object[], Object[], int[])} on the rows they were built
+ * from, including null ordering, descending fields and case insensitive strings. The key is built once per row, after
+ * that every comparison is a single unsigned byte array compare.
+ * <p>
+ * Supported are String (without collator), Integer, Number, Date, Boolean and Binary fields. Use {@link
+ * #isSupported(IRowMeta, int[])} to see if a set of fields can be normalized.
+ * <p>
+ * An instance re-uses its encoding buffer and is not thread safe.
+ */
+public class NormalizedSortKey {
+
+  private static final byte NULL_VALUE = 0x00;
+  private static final byte NOT_NULL_VALUE = 0x01;
+
+  private final IValueMeta[] valueMetas;
+  private final int[] fieldNrs;
+
+  private byte[] buffer;
+  private int length;
+
+  public NormalizedSortKey( IRowMeta rowMeta, int[] fieldNrs ) throws HopValueException {
+    if ( !isSupported( rowMeta, fieldNrs ) ) {
+      throw new HopValueException( "Unable to build a normalized sort key for fields " + Arrays.toString( fieldNrs )
+        + " of row " + rowMeta );
+    }
+    this.fieldNrs = fieldNrs;
+    this.valueMetas = new IValueMeta[ fieldNrs.length ];
+    for ( int i = 0; i < fieldNrs.length; i++ ) {
+      valueMetas[ i ] = rowMeta.getValueMeta( fieldNrs[ i ] );
+    }
+    this.buffer = new byte[ 64 ];
+  }
+
+  /**
+   * @param rowMeta  the row metadata
+   * @param fieldNrs the fields to compare on
+   * @return true if a normalized key compares the same way as the row metadata does for these fields
+   */
+  public static boolean isSupported( IRowMeta rowMeta, int[] fieldNrs ) {
+    for ( int fieldNr : fieldNrs ) {
+      IValueMeta valueMeta = rowMeta.getValueMeta( fieldNr );
+      if ( valueMeta == null ) {
+        return false;
+      }
+      switch ( valueMeta.getType() ) {
+        case IValueMeta.TYPE_STRING:
+          if ( !valueMeta.isCollatorDisabled() ) {
+            return false;
+          }
+          break;
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_DATE:
+        case IValueMeta.TYPE_BOOLEAN:
+          break;
+        case IValueMeta.TYPE_BINARY:
+          // Binary values are compared as they are in the row
+          if ( !valueMeta.isStorageNormal() ) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Build the normalized key of a row
+   *
+   * @param row the row data
+   * @return the key
+   * @throws HopValueException in case a value can't be converted
+   */
+  public byte[] getKey( Object[] row ) throws HopValueException {
+    length = 0;
+    for ( int i = 0; i < fieldNrs.length; i++ ) {
+      IValueMeta valueMeta = valueMetas[ i ];
+      Object object = row[ fieldNrs[ i ] ];
+      int start = length;
+
+      if ( valueMeta.isNull( object ) ) {
+        writeByte( NULL_VALUE );
+      } else {
+        writeByte( NOT_NULL_VALUE );
+        switch ( valueMeta.getType() ) {
+          case IValueMeta.TYPE_STRING:
+            writeString( valueMeta, valueMeta.getString( object ) );
+            break;
+          case IValueMeta.TYPE_INTEGER:
+            writeLong( valueMeta.getInteger( object ) ^ Long.MIN_VALUE );
+            break;
+          case IValueMeta.TYPE_NUMBER:
+            long bits = Double.doubleToLongBits( valueMeta.getNumber( object ) );
+            writeLong( bits < 0 ? ~bits : bits ^ Long.MIN_VALUE );
+            break;
+          case IValueMeta.TYPE_DATE:
+            writeLong( valueMeta.getDate( object ).getTime() ^ Long.MIN_VALUE );
+            break;
+          case IValueMeta.TYPE_BOOLEAN:
+            writeByte( valueMeta.getBoolean( object ) ? (byte) 1 : (byte) 0 );
+            break;
+          case IValueMeta.TYPE_BINARY:
+            writeBinary( (byte[]) object );
+            break;
+          default:
+            throw new HopValueException( valueMeta.toStringMeta() + " : unable to build a normalized sort key" );
+        }
+      }
+
+      // Descending: every field encoding is prefix free so flipping its bits reverses the order
+      //
+      if ( valueMeta.isSortedDescending() ) {
+        for ( int b = start; b < length; b++ ) {
+          buffer[ b ] = (byte) ~buffer[ b ];
+        }
+      }
+    }
+    return Arrays.copyOf( buffer, length );
+  }
+
+  /**
+   * Compare two normalized keys as unsigned bytes
+   *
+   * @return a negative number, zero or a positive number if key1 is smaller than, equal to or larger than key2
+   */
+  public static int compare( byte[] key1, byte[] key2 ) {
+    int length = Math.min( key1.length, key2.length );
+    for ( int i = 0; i < length; i++ ) {
+      int cmp = ( key1[ i ] & 0xFF ) - ( key2[ i ] & 0xFF );
+      if ( cmp != 0 ) {
+        return cmp;
+      }
+    }
+    return key1.length - key2.length;
+  }
+
+  /**
+   * Strings are written as UTF-16 code units, which is the order of String.compareTo(). Zero bytes are escaped as 0x00
+   * 0xFF and the string ends with 0x00 0x00 so a string sorts before any longer string with the same prefix.
+   */
+  private void writeString( IValueMeta valueMeta, String string ) {
+    if ( valueMeta.isIgnoreWhitespace() ) {
+      string = string.trim();
+    }
+    boolean caseInsensitive = valueMeta.isCaseInsensitive();
+    ensureCapacity( string.length() * 4 + 2 );
+    for ( int i = 0; i < string.length(); i++ ) {
+      char c = string.charAt( i );
+      if ( caseInsensitive ) {
+        // The same folding String.compareToIgnoreCase() does
+        c = Character.toLowerCase( Character.toUpperCase( c ) );
+      }
+      writeEscaped( (byte) ( c >>> 8 ) );
+      writeEscaped( (byte) c );
+    }
+    buffer[ length++ ] = 0x00;
+    buffer[ length++ ] = 0x00;
+  }
+
+  /**
+   * Binary values sort on length first and then on signed bytes.
+   */
+  private void writeBinary( byte[] bytes ) {
+    ensureCapacity( bytes.length + 4 );
+    buffer[ length++ ] = (byte) ( bytes.length >>> 24 );
+    buffer[ length++ ] = (byte) ( bytes.length >>> 16 );
+    buffer[ length++ ] = (byte) ( bytes.length >>> 8 );
+    buffer[ length++ ] = (byte) bytes.length;
+    for ( byte b : bytes ) {
+      buffer[ length++ ] = (byte) ( b ^ 0x80 );
+    }
+  }
+
+  private void writeEscaped( byte b ) {
+    buffer[ length++ ] = b;
+    if ( b == 0x00 ) {
+      buffer[ length++ ] = (byte) 0xFF;
+    }
+  }
+
+  private void writeLong( long value ) {
+    ensureCapacity( 8 );
+    for ( int shift = 56; shift >= 0; shift -= 8 ) {
+      buffer[ length++ ] = (byte) ( value >>> shift );
+    }
+  }
+
+  private void writeByte( byte b ) {
+    ensureCapacity( 1 );
+    buffer[ length++ ] = b;
+  }
+
+  private void ensureCapacity( int extra ) {
+    if ( length + extra > buffer.length ) {
+      buffer = Arrays.copyOf( buffer, Math.max( buffer.length * 2, length + extra ) );
+    }
+  }
+}
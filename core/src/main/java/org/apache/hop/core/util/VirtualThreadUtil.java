@@ -0,0 +1,88 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.util;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates virtual threads when the Java runtime supports them (Java 21 and later) and plain platform threads
+ * otherwise. Hop itself is compiled for Java 8 so the virtual thread API is looked up once through reflection.
+ */
+public class VirtualThreadUtil {
+
+  /**
+   * Thread.ofVirtual()
+   */
+  private static final Method ofVirtualMethod;
+
+  /**
+   * Thread.Builder.unstarted(Runnable)
+   */
+  private static final Method unstartedMethod;
+
+  static {
+    Method ofVirtual = null;
+    Method unstarted = null;
+    try {
+      ofVirtual = Thread.class.getMethod( "ofVirtual" );
+      unstarted = Class.forName( "java.lang.Thread$Builder" ).getMethod( "unstarted", Runnable.class );
+
+      // On Java 19 and 20 virtual threads are a preview feature which can be disabled: try it once.
+      //
+      unstarted.invoke( ofVirtual.invoke( null ), (Runnable) () -> { } );
+    } catch ( Throwable e ) {
+      ofVirtual = null;
+      unstarted = null;
+    }
+    ofVirtualMethod = ofVirtual;
+    unstartedMethod = unstarted;
+  }
+
+  private VirtualThreadUtil() {
+  }
+
+  /**
+   * @return true if this Java runtime can create virtual threads
+   */
+  public static boolean isVirtualThreadsAvailable() {
+    return ofVirtualMethod != null;
+  }
+
+  /**
+   * Create a new thread, not yet started.
+   *
+   * @param runnable the code to run in the thread
+   * @param virtual  true if a virtual thread should be created if the Java runtime supports it
+   * @return a virtual thread if requested and available, a platform thread otherwise
+   */
+  public static Thread newThread( Runnable runnable, boolean virtual ) {
+    if ( virtual && isVirtualThreadsAvailable() ) {
+      try {
+        return (Thread) unstartedMethod.invoke( ofVirtualMethod.invoke( null ), runnable );
+      } catch ( ReflectiveOperationException e ) {
+        // Fall back to a platform thread
+      }
+    }
+    return new Thread( runnable );
+  }
+}
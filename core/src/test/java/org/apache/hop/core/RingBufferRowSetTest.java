@@ -0,0 +1,166 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferRowSetTest {
+
+  @Test
+  public void testPutGetRow() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 10 );
+    Object[] row = new Object[] {};
+    assertTrue( rowSet.putRow( new RowMeta(), row ) );
+    assertSame( row, rowSet.getRow() );
+    assertNull( rowSet.getRowImmediate() );
+  }
+
+  @Test
+  public void testCapacity() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 3, RowSetWaitStrategy.PARK );
+    assertEquals( 3, rowSet.getCapacity() );
+    for ( long i = 0; i < 3; i++ ) {
+      assertTrue( rowSet.putRowWait( new RowMeta(), new Object[] { i }, 1, TimeUnit.MILLISECONDS ) );
+    }
+    assertEquals( 3, rowSet.size() );
+
+    // Full, we may not exceed the requested capacity even if the ring is larger
+    //
+    assertFalse( rowSet.putRowWait( new RowMeta(), new Object[] { 3L }, 1, TimeUnit.MILLISECONDS ) );
+
+    assertEquals( 0L, rowSet.getRowImmediate()[ 0 ] );
+    assertEquals( 2, rowSet.size() );
+    assertTrue( rowSet.putRowWait( new RowMeta(), new Object[] { 3L }, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 1L, rowSet.getRowImmediate()[ 0 ] );
+    assertEquals( 2L, rowSet.getRowImmediate()[ 0 ] );
+    assertEquals( 3L, rowSet.getRowImmediate()[ 0 ] );
+    assertNull( rowSet.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testClear() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 10 );
+    rowSet.putRow( new RowMeta(), new Object[] {} );
+    rowSet.putRow( new RowMeta(), new Object[] {} );
+    rowSet.setDone();
+    assertEquals( 2, rowSet.size() );
+    rowSet.clear();
+    assertEquals( 0, rowSet.size() );
+    assertFalse( rowSet.isDone() );
+  }
+
+  @Test
+  public void testDoneReturnsImmediately() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 10, RowSetWaitStrategy.PARK );
+    rowSet.setDone();
+    long start = System.currentTimeMillis();
+    assertNull( rowSet.getRowWait( 10, TimeUnit.SECONDS ) );
+    assertTrue( System.currentTimeMillis() - start < 5000 );
+  }
+
+  @Test
+  public void testWaitStrategyForCode() {
+    assertEquals( RowSetWaitStrategy.SPIN, RowSetWaitStrategy.getWaitStrategyForCode( "spin" ) );
+    assertEquals( RowSetWaitStrategy.YIELD, RowSetWaitStrategy.getWaitStrategyForCode( "Yield" ) );
+    assertEquals( RowSetWaitStrategy.PARK, RowSetWaitStrategy.getWaitStrategyForCode( null ) );
+  }
+
+  @Test
+  public void testProducerConsumerSpin() throws Exception {
+    // Keep it short: spinning on a machine with few cores is slow by design
+    //
+    testProducerConsumer( RowSetWaitStrategy.SPIN, 1000 );
+  }
+
+  @Test
+  public void testProducerConsumerYield() throws Exception {
+    testProducerConsumer( RowSetWaitStrategy.YIELD, 200000 );
+  }
+
+  @Test
+  public void testProducerConsumerPark() throws Exception {
+    testProducerConsumer( RowSetWaitStrategy.PARK, 200000 );
+  }
+
+  /**
+   * Pass rows from one thread to another through a small buffer and verify that they all arrive, in order.
+   */
+  private void testProducerConsumer( RowSetWaitStrategy waitStrategy, final int nrRows ) throws Exception {
+    final RingBufferRowSet rowSet = new RingBufferRowSet( 100, waitStrategy );
+    final AtomicReference<String> error = new AtomicReference<>();
+
+    Thread producer = new Thread( () -> {
+      RowMeta rowMeta = new RowMeta();
+      for ( long i = 0; i < nrRows; i++ ) {
+        Object[] row = new Object[] { i };
+        while ( !rowSet.putRow( rowMeta, row ) ) {
+          // retry until there is room
+        }
+      }
+      rowSet.setDone();
+    } );
+
+    Thread consumer = new Thread( () -> {
+      long expected = 0;
+      while ( true ) {
+        Object[] row = rowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+        if ( row == null ) {
+          if ( rowSet.isDone() ) {
+            row = rowSet.getRowImmediate();
+            if ( row == null ) {
+              break;
+            }
+          } else {
+            continue;
+          }
+        }
+        if ( (Long) row[ 0 ] != expected ) {
+          error.set( "Expected row " + expected + " but got " + row[ 0 ] );
+          return;
+        }
+        expected++;
+      }
+      if ( expected != nrRows ) {
+        error.set( "Expected " + nrRows + " rows but got " + expected );
+      }
+    } );
+
+    producer.start();
+    consumer.start();
+    producer.join( 60000 );
+    consumer.join( 60000 );
+
+    assertNull( error.get() );
+    assertEquals( 0, rowSet.size() );
+  }
+}
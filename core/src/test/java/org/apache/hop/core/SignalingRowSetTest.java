@@ -0,0 +1,173 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SignalingRowSetTest {
+  Object[] row;
+  SignalingRowSet rowSet;
+
+  @Before
+  public void setup() {
+    rowSet = new SignalingRowSet( 1000 );
+    row = new Object[] {};
+  }
+
+  @Test
+  public void testPutRow() throws Exception {
+    assertTrue( rowSet.putRow( new RowMeta(), row ) );
+    assertSame( row, rowSet.getRow() );
+    assertFalse( rowSet.putRow( new RowMeta(), null ) );
+  }
+
+  @Test
+  public void testPutRowWaitsForRoom() throws Exception {
+    for ( int i = 0; i < 1000; i++ ) {
+      assertTrue( rowSet.putRowWait( new RowMeta(), row, 0, TimeUnit.MILLISECONDS ) );
+    }
+    assertEquals( 1000, rowSet.size() );
+    assertFalse( rowSet.putRowWait( new RowMeta(), row, 10, TimeUnit.MILLISECONDS ) );
+    List<Object[]> rows = new ArrayList<>();
+    assertEquals( 100, rowSet.drainTo( rows, 100 ) );
+    assertEquals( 900, rowSet.size() );
+    assertTrue( rowSet.putRowWait( new RowMeta(), row, 0, TimeUnit.MILLISECONDS ) );
+    rowSet.clear();
+    assertEquals( 0, rowSet.size() );
+  }
+
+  @Test( timeout = 10000 )
+  public void testWriterOutsideThePoolWaitsForRoom() throws Exception {
+    rowSet = new SignalingRowSet( 1 );
+    rowSet.putRow( new RowMeta(), row );
+    Object[] second = new Object[] {};
+
+    Thread writer = new Thread( () -> rowSet.putRowWait( new RowMeta(), second, 10, TimeUnit.SECONDS ) );
+    writer.start();
+    Thread.sleep( 50 );
+    assertEquals( 1, rowSet.size() );
+    assertSame( row, rowSet.getRowImmediate() );
+    writer.join();
+    assertSame( second, rowSet.getRowImmediate() );
+  }
+
+  @Test
+  public void testGetRowWaitTimesOut() throws Exception {
+    assertNull( rowSet.getRowImmediate() );
+    assertNull( rowSet.getRowWait( 10, TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testGetRowWaitOnForkJoinPool() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool( 1 );
+    try {
+      ForkJoinTask<Object[]> task = pool.submit( () -> rowSet.getRowWait( 10, TimeUnit.SECONDS ) );
+      rowSet.putRow( new RowMeta(), row );
+      assertSame( row, task.get( 10, TimeUnit.SECONDS ) );
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testPutRowOnForkJoinPoolDoesNotBlock() throws Exception {
+    rowSet = new SignalingRowSet( 1 );
+    rowSet.putRow( new RowMeta(), row );
+    Object[] second = new Object[] {};
+
+    // A full row set doesn't block a worker: the engine won't run the writer again until there is room
+    //
+    ForkJoinPool pool = new ForkJoinPool( 1 );
+    try {
+      ForkJoinTask<Boolean> put = pool.submit( () -> rowSet.putRowWait( new RowMeta(), second, 10, TimeUnit.SECONDS ) );
+      assertTrue( put.get( 1, TimeUnit.SECONDS ) );
+      assertEquals( 2, rowSet.size() );
+      assertEquals( 1, pool.getPoolSize() );
+      assertSame( row, rowSet.getRowImmediate() );
+      assertSame( second, rowSet.getRowImmediate() );
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWaitingWorkerRunsTheWriter() throws Exception {
+    // The only worker waits for a row: it has to write it itself
+    //
+    rowSet.setWriterHelper( () -> rowSet.putRow( new RowMeta(), row ) );
+    ForkJoinPool pool = new ForkJoinPool( 1 );
+    try {
+      ForkJoinTask<Object[]> get = pool.submit( () -> rowSet.getRowWait( 10, TimeUnit.SECONDS ) );
+      assertSame( row, get.get( 1, TimeUnit.SECONDS ) );
+      assertEquals( 1, pool.getPoolSize() );
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSignals() throws Exception {
+    rowSet = new SignalingRowSet( 10 );
+    AtomicInteger readerSignals = new AtomicInteger();
+    AtomicInteger writerSignals = new AtomicInteger();
+    rowSet.setReaderSignal( readerSignals::incrementAndGet );
+    rowSet.setWriterSignal( writerSignals::incrementAndGet );
+
+    // The reader hears about the first row in an empty row set
+    //
+    for ( int i = 0; i < 10; i++ ) {
+      rowSet.putRow( new RowMeta(), row );
+    }
+    assertEquals( 1, readerSignals.get() );
+
+    // The writer hears about room when the row set is down to half its size
+    //
+    for ( int i = 0; i < 4; i++ ) {
+      rowSet.getRow();
+    }
+    assertEquals( 0, writerSignals.get() );
+    rowSet.getRow();
+    assertEquals( 1, writerSignals.get() );
+    rowSet.drainTo( new ArrayList<>(), 5 );
+    assertEquals( 1, writerSignals.get() );
+
+    rowSet.putRow( new RowMeta(), row );
+    assertEquals( 2, readerSignals.get() );
+    rowSet.setDone();
+    assertEquals( 3, readerSignals.get() );
+  }
+}
@@ -0,0 +1,156 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class BaseDatabaseBulkWriterTest {
+
+  private Database database;
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setUp() {
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    doReturn( "\"public\".\"t\"" ).when( databaseMeta ).getQuotedSchemaTableCombination( anyString(), anyString() );
+    doReturn( "\"id\"" ).when( databaseMeta ).quoteField( "id" );
+    doReturn( "\"name\"" ).when( databaseMeta ).quoteField( "name" );
+    doReturn( "\"amount\"" ).when( databaseMeta ).quoteField( "amount" );
+    doReturn( "\"flag\"" ).when( databaseMeta ).quoteField( "flag" );
+    database = mock( Database.class );
+    doReturn( databaseMeta ).when( database ).getDatabaseMeta();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "flag" ) );
+  }
+
+  @Test
+  public void testDelimitedText() throws Exception {
+    TextBulkWriter writer = new TextBulkWriter( database, rowMeta, 1024 );
+    assertEquals( "(\"id\", \"name\", \"amount\", \"flag\")", writer.getColumnList() );
+
+    writer.writeRow( new Object[] { 1L, "plain", new BigDecimal( "1E+3" ), true } );
+    writer.writeRow( new Object[] { 2L, "tab\tnew\nline\rback\\slash", null, false } );
+    // An empty string is null unless configured otherwise
+    writer.writeRow( new Object[] { null, "", BigDecimal.ONE, null } );
+    assertEquals( 3L, writer.flush() );
+
+    assertEquals( 1, writer.loads.size() );
+    // Booleans are written as Y/N, like the prepared statements do for databases without a boolean data type
+    assertEquals( "1\tplain\t1000\tY\n"
+      + "2\ttab\\tnew\\nline\\rback\\\\slash\t\\N\tN\n"
+      + "\\N\t\\N\t1\t\\N\n", writer.loads.get( 0 ) );
+    assertEquals( 3L, writer.getRowsLoaded() );
+
+    // Nothing left to load
+    assertEquals( 0L, writer.flush() );
+    assertEquals( 1, writer.loads.size() );
+  }
+
+  @Test
+  public void testNativeBooleans() throws Exception {
+    doReturn( true ).when( database.getDatabaseMeta() ).supportsBooleanDataType();
+    TextBulkWriter writer = new TextBulkWriter( database, rowMeta, 1024 );
+    writer.writeRow( new Object[] { 1L, "yes", BigDecimal.ONE, true } );
+    writer.writeRow( new Object[] { 2L, "no", BigDecimal.ONE, false } );
+    writer.flush();
+    assertEquals( "1\tyes\t1\t1\n2\tno\t1\t0\n", writer.loads.get( 0 ) );
+  }
+
+  @Test
+  public void testFlushesFullBuffer() throws Exception {
+    TextBulkWriter writer = new TextBulkWriter( database, rowMeta, 100 );
+    for ( long i = 0; i < 50; i++ ) {
+      writer.writeRow( new Object[] { i, "name " + i, BigDecimal.TEN, true } );
+    }
+    assertTrue( writer.loads.size() > 1 );
+    writer.flush();
+
+    StringBuilder all = new StringBuilder();
+    for ( String load : writer.loads ) {
+      assertTrue( load.endsWith( "\n" ) );
+      all.append( load );
+    }
+    assertEquals( 50, all.toString().split( "\n" ).length );
+    assertEquals( 50L, writer.getRowsLoaded() );
+  }
+
+  @Test
+  public void testSupportedTypes() {
+    assertTrue( BaseDatabaseBulkWriter.isSupported( rowMeta ) );
+    rowMeta.addValueMeta( new ValueMetaBinary( "data" ) );
+    assertFalse( BaseDatabaseBulkWriter.isSupported( rowMeta ) );
+  }
+
+  private static class TextBulkWriter extends BaseDatabaseBulkWriter {
+    private final List<String> loads = new ArrayList<>();
+
+    TextBulkWriter( Database database, IRowMeta rowMeta, int bufferSize ) {
+      super( database, "public", "t", rowMeta, bufferSize );
+    }
+
+    @Override
+    protected long load( InputStream data, long nrRows ) throws HopDatabaseException {
+      try {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[ 1024 ];
+        int read;
+        while ( ( read = data.read( buffer ) ) > 0 ) {
+          bytes.write( buffer, 0, read );
+        }
+        loads.add( new String( bytes.toByteArray(), StandardCharsets.UTF_8 ) );
+        return nrRows;
+      } catch ( IOException e ) {
+        throw new HopDatabaseException( e );
+      }
+    }
+  }
+}
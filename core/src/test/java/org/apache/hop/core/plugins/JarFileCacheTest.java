@@ -0,0 +1,114 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.plugins;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JarFileCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Deprecated
+  public static class AnnotatedClass {
+  }
+
+  @Test
+  public void testIndexIsReusedUntilTheJarChanges() throws Exception {
+    File jarFile = temporaryFolder.newFile( "plugin.jar" );
+    writeJar( jarFile, AnnotatedClass.class );
+    File indexFile = new File( temporaryFolder.getRoot(), "config/plugin-index.cache" );
+
+    // Cold start: the jar file is scanned and the index is written
+    //
+    JarFileCache cold = new JarFileCache( indexFile );
+    assertAnnotated( cold.getAnnotationIndex( jarFile ) );
+    assertEquals( 1, cold.getNrScannedJars() );
+    cold.saveIndex();
+    assertTrue( indexFile.exists() );
+
+    // Warm start: the annotations come from the index
+    //
+    JarFileCache warm = new JarFileCache( indexFile );
+    assertAnnotated( warm.getAnnotationIndex( jarFile ) );
+    assertEquals( 0, warm.getNrScannedJars() );
+    assertEquals( 1, warm.getNrIndexedJars() );
+
+    // A changed jar file is scanned again
+    //
+    writeJar( jarFile, AnnotatedClass.class, JarFileCacheTest.class );
+    jarFile.setLastModified( jarFile.lastModified() - 10000L );
+    JarFileCache changed = new JarFileCache( indexFile );
+    assertAnnotated( changed.getAnnotationIndex( jarFile ) );
+    assertEquals( 1, changed.getNrScannedJars() );
+  }
+
+  @Test
+  public void testDamagedIndexIsIgnored() throws Exception {
+    File jarFile = temporaryFolder.newFile( "plugin.jar" );
+    writeJar( jarFile, AnnotatedClass.class );
+    File indexFile = temporaryFolder.newFile( "plugin-index.cache" );
+    try ( FileOutputStream outputStream = new FileOutputStream( indexFile ) ) {
+      outputStream.write( "not an index".getBytes() );
+    }
+
+    JarFileCache cache = new JarFileCache( indexFile );
+    assertAnnotated( cache.getAnnotationIndex( jarFile ) );
+    assertEquals( 1, cache.getNrScannedJars() );
+  }
+
+  private static void assertAnnotated( Map<String, Set<String>> index ) {
+    Set<String> classes = index.get( Deprecated.class.getName() );
+    assertTrue( classes != null && classes.contains( AnnotatedClass.class.getName() ) );
+  }
+
+  private static void writeJar( File jarFile, Class<?>... classes ) throws Exception {
+    try ( JarOutputStream jar = new JarOutputStream( new FileOutputStream( jarFile ) ) ) {
+      for ( Class<?> clazz : classes ) {
+        String name = clazz.getName().replace( '.', '/' ) + ".class";
+        jar.putNextEntry( new JarEntry( name ) );
+        try ( InputStream inputStream = clazz.getClassLoader().getResourceAsStream( name ) ) {
+          byte[] buffer = new byte[ 4096 ];
+          int read;
+          while ( ( read = inputStream.read( buffer ) ) > 0 ) {
+            jar.write( buffer, 0, read );
+          }
+        }
+        jar.closeEntry();
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.core.row;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NormalizedSortKeyTest {
+
+  private static final String[] STRINGS = { "", "a", "A", "ab", "aB", "b", " a", "a ", "\u0000",
+    "a\u0000", "\u00e9", "\uffff", "z" };
+  private static final double[] NUMBERS = { Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, 1E-300, 2.5, Double.MAX_VALUE,
+    Double.POSITIVE_INFINITY, Double.NaN };
+  private static final long[] INTEGERS = { Long.MIN_VALUE, -1L, 0L, 1L, 255L, 256L, Long.MAX_VALUE };
+
+  @Test
+  public void testSupportedTypes() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "string" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "bignumber" ) );
+    ValueMetaString collated = new ValueMetaString( "collated" );
+    collated.setCollatorDisabled( false );
+    rowMeta.addValueMeta( collated );
+
+    assertTrue( NormalizedSortKey.isSupported( rowMeta, new int[] { 0, 1 } ) );
+    assertFalse( NormalizedSortKey.isSupported( rowMeta, new int[] { 0, 2 } ) );
+    assertFalse( NormalizedSortKey.isSupported( rowMeta, new int[] { 3 } ) );
+  }
+
+  @Test( expected = HopValueException.class )
+  public void testUnsupportedTypeFails() throws HopValueException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "bignumber" ) );
+    new NormalizedSortKey( rowMeta, new int[] { 0 } );
+  }
+
+  @Test
+  public void testSameOrderAsRowMeta() throws HopValueException {
+    for ( boolean descending : new boolean[] { false, true } ) {
+      for ( boolean caseInsensitive : new boolean[] { false, true } ) {
+        IRowMeta rowMeta = new RowMeta();
+        ValueMetaString string = new ValueMetaString( "string" );
+        string.setCaseInsensitive( caseInsensitive );
+        rowMeta.addValueMeta( string );
+        rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+        rowMeta.addValueMeta( new ValueMetaNumber( "number" ) );
+        rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+        rowMeta.addValueMeta( new ValueMetaBoolean( "boolean" ) );
+        rowMeta.addValueMeta( new ValueMetaBinary( "binary" ) );
+        for ( int i = 0; i < rowMeta.size(); i++ ) {
+          rowMeta.getValueMeta( i ).setSortedDescending( descending && i % 2 == 0 );
+        }
+
+        Random random = new Random( 42 );
+        Object[][] rows = new Object[ 300 ][];
+        for ( int r = 0; r < rows.length; r++ ) {
+          rows[ r ] = randomRow( random );
+        }
+
+        // Every field on its own and all fields together
+        for ( int f = 0; f <= rowMeta.size(); f++ ) {
+          int[] fieldNrs = f < rowMeta.size() ? new int[] { f } : new int[] { 4, 0, 1, 2, 3, 5 };
+          NormalizedSortKey sortKey = new NormalizedSortKey( rowMeta, fieldNrs );
+          byte[][] keys = new byte[ rows.length ][];
+          for ( int r = 0; r < rows.length; r++ ) {
+            keys[ r ] = sortKey.getKey( rows[ r ] );
+          }
+          for ( int a = 0; a < rows.length; a++ ) {
+            for ( int b = 0; b < rows.length; b++ ) {
+              int expected = Integer.signum( rowMeta.compare( rows[ a ], rows[ b ], fieldNrs ) );
+              int actual = Integer.signum( NormalizedSortKey.compare( keys[ a ], keys[ b ] ) );
+              assertEquals( "fields " + f + ", rows " + a + " and " + b, expected, actual );
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private static Object[] randomRow( Random random ) {
+    return new Object[] {
+      random.nextInt( 10 ) == 0 ? null : STRINGS[ random.nextInt( STRINGS.length ) ],
+      random.nextInt( 10 ) == 0 ? null : INTEGERS[ random.nextInt( INTEGERS.length ) ],
+      random.nextInt( 10 ) == 0 ? null : NUMBERS[ random.nextInt( NUMBERS.length ) ],
+      random.nextInt( 10 ) == 0 ? null : new Date( random.nextInt( 5 ) - 2L ),
+      random.nextInt( 10 ) == 0 ? null : random.nextBoolean(),
+      random.nextInt( 10 ) == 0 ? null : randomBytes( random ),
+    };
+  }
+
+  private static byte[] randomBytes( Random random ) {
+    byte[] bytes = new byte[ random.nextInt( 3 ) ];
+    for ( int i = 0; i < bytes.length; i++ ) {
+      bytes[ i ] = (byte) ( random.nextInt( 3 ) - 1 );
+    }
+    return bytes;
+  }
+}
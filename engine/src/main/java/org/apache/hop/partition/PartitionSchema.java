@@ -64,12 +64,20 @@ public class PartitionSchema extends ChangedFlag implements Cloneable, IVariable
   @HopMetadataProperty
   private String numberOfPartitions;
 
+  /**
+   * The names of the hop servers running the partitions when the pipeline runs distributed: partition N runs on server
+   * N modulo the number of servers. Empty means all partitions run locally.
+   */
+  @HopMetadataProperty
+  private List<String> hopServerNames;
+
   private IVariables variables = new Variables();
 
   public PartitionSchema() {
     this.dynamicallyDefined = true;
     this.numberOfPartitions = "4";
     this.partitionIDs = new ArrayList<>();
+    this.hopServerNames = new ArrayList<>();
   }
 
   /**
@@ -79,6 +87,7 @@ public class PartitionSchema extends ChangedFlag implements Cloneable, IVariable
   public PartitionSchema( String name, List<String> partitionIDs ) {
     this.name = name;
     this.partitionIDs = partitionIDs;
+    this.hopServerNames = new ArrayList<>();
   }
 
   public Object clone() {
@@ -94,6 +103,10 @@ public class PartitionSchema extends ChangedFlag implements Cloneable, IVariable
 
     this.dynamicallyDefined = partitionSchema.dynamicallyDefined;
     this.numberOfPartitions = partitionSchema.numberOfPartitions;
+    this.hopServerNames = new ArrayList<>();
+    if ( partitionSchema.hopServerNames != null ) {
+      this.hopServerNames.addAll( partitionSchema.hopServerNames );
+    }
 
     this.setChanged( true );
   }
@@ -126,6 +139,26 @@ public class PartitionSchema extends ChangedFlag implements Cloneable, IVariable
     }
   }
 
+  /**
+   * @return true if the partitions of this schema run on several hop servers
+   */
+  public boolean isDistributed() {
+    return hopServerNames != null && !hopServerNames.isEmpty();
+  }
+
+  /**
+   * Gets the name of the hop server running a partition
+   *
+   * @param partitionNr the partition number
+   * @return the name of the hop server or null if the partitions run locally
+   */
+  public String getHopServerName( int partitionNr ) {
+    if ( !isDistributed() ) {
+      return null;
+    }
+    return environmentSubstitute( hopServerNames.get( partitionNr % hopServerNames.size() ) );
+  }
+
   public void copyVariablesFrom( IVariables variables ) {
     this.variables.copyVariablesFrom( variables );
   }
@@ -245,4 +278,20 @@ public class PartitionSchema extends ChangedFlag implements Cloneable, IVariable
     this.numberOfPartitions = numberOfPartitions;
   }
 
+  /**
+   * Gets hopServerNames
+   *
+   * @return value of hopServerNames
+   */
+  public List<String> getHopServerNames() {
+    return hopServerNames;
+  }
+
+  /**
+   * @param hopServerNames The hopServerNames to set
+   */
+  public void setHopServerNames( List<String> hopServerNames ) {
+    this.hopServerNames = hopServerNames;
+  }
+
 }
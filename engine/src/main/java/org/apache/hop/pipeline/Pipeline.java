@@ -35,7 +35,9 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.RowSetWaitStrategy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -65,6 +67,7 @@ import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.util.VirtualThreadUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
 import org.apache.hop.core.vfs.HopVfs;
@@ -74,6 +77,7 @@ import org.apache.hop.partition.PartitionSchema;
 import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
 import org.apache.hop.pipeline.config.PipelineRunConfiguration;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.EngineComponentCounters;
 import org.apache.hop.pipeline.engine.EngineMetric;
 import org.apache.hop.pipeline.engine.EngineMetrics;
 import org.apache.hop.pipeline.engine.IEngineComponent;
@@ -81,6 +85,7 @@ import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineComponentRowsReceived;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.EmptyPipelineRunConfiguration;
+import org.apache.hop.pipeline.exchange.PartitionExchange;
 import org.apache.hop.pipeline.performance.PerformanceSnapShot;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
@@ -232,6 +237,11 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
    */
   public List<IRowSet> rowsets;
 
+  /**
+   * The exchange of rows with other hop servers running partitions of this pipeline, null if not distributed.
+   */
+  private PartitionExchange partitionExchange;
+
   /**
    * A list of all the transforms.
    */
@@ -322,6 +332,11 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
    */
   private boolean safeModeEnabled;
 
+  /**
+   * Whether the transform threads run as virtual threads (if the Java runtime supports them).
+   */
+  private boolean usingVirtualThreads;
+
   /**
    * The transaction ID
    */
@@ -799,30 +814,7 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
         //
         if ( dispatchType != TYPE_DISP_N_M ) {
           for ( int c = 0; c < nrCopies; c++ ) {
-            IRowSet rowSet;
-            switch ( pipelineMeta.getPipelineType() ) {
-              case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
-                //
-                Boolean batchingRowSet =
-                  ValueMetaString.convertStringToBoolean( System.getProperty( Const.HOP_BATCHING_ROWSET ) );
-                if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
-                  rowSet = new BlockingBatchingRowSet( rowSetSize );
-                } else {
-                  rowSet = new BlockingRowSet( rowSetSize );
-                }
-                break;
-
-              case SingleThreaded:
-                rowSet = new QueueRowSet();
-                break;
-
-              default:
-                throw new HopException( "Unhandled pipeline type: " + pipelineMeta.getPipelineType() );
-            }
+            IRowSet rowSet = createRowSet( dispatchType );
 
             switch ( dispatchType ) {
               case TYPE_DISP_1_1:
@@ -854,7 +846,7 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
           // distribution...
           for ( int s = 0; s < thisCopies; s++ ) {
             for ( int t = 0; t < nextCopies; t++ ) {
-              BlockingRowSet rowSet = new BlockingRowSet( rowSetSize );
+              IRowSet rowSet = createRowSet( TYPE_DISP_N_M );
               rowSet.setThreadNameFromToCopy( thisTransform.getName(), s, nextTransform.getName(), t );
               rowsets.add( rowSet );
               if ( log.isDetailed() ) {
@@ -869,6 +861,18 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
         String.valueOf( i ), thisTransform.getName() ) + " " );
     }
 
+    // Rows for partitions running on other hop servers are sent over the network
+    //
+    partitionExchange = PartitionExchange.create( this );
+    if ( partitionExchange != null ) {
+      partitionExchange.replaceRemoteRowSets( rowsets );
+
+      // Release the connections and the row exchange server as soon as the pipeline is done
+      //
+      PartitionExchange exchange = partitionExchange;
+      addExecutionFinishedListener( finishedPipeline -> exchange.dispose() );
+    }
+
     if ( log.isDetailed() ) {
       log.logDetailed( BaseMessages.getString( PKG, "Pipeline.Log.AllocatingTransformsAndTransformData" ) );
     }
@@ -952,6 +956,12 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
       }
     }
 
+    // The partitions running here also receive rows from the other hop servers
+    //
+    if ( partitionExchange != null ) {
+      partitionExchange.addRemoteInputRowSets( rowsets );
+    }
+
     // Now we need to verify if certain rowsets are not meant to be for error
     // handling...
     // Loop over the transforms and for every transform verify the output rowsets
@@ -1073,7 +1083,7 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
 
       // Put it in a separate thread!
       //
-      threads[ i ] = new Thread( initThreads[ i ] );
+      threads[ i ] = VirtualThreadUtil.newThread( initThreads[ i ], usingVirtualThreads );
       threads[ i ].setName( "init of " + sid.transformName + "." + sid.copy + " (" + threads[ i ].getName() + ")" );
 
       ExtensionPointHandler.callExtensionPoint( log, HopExtensionPoint.TransformBeforeInitialize.id, initThreads[ i ] );
@@ -1301,13 +1311,8 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
     switch ( pipelineMeta.getPipelineType() ) {
       case Normal:
 
-        // Now start all the threads...
-        //
         for ( int i = 0; i < transforms.size(); i++ ) {
           final TransformMetaDataCombi combi = transforms.get( i );
-          RunThread runThread = new RunThread( combi );
-          Thread thread = new Thread( runThread );
-          thread.setName( getName() + " - " + combi.transformName );
           ExtensionPointHandler.callExtensionPoint( log, HopExtensionPoint.TransformBeforeStart.id, combi );
           // Call an extension point at the end of the transform
           //
@@ -1318,9 +1323,11 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
               throw new RuntimeException( "Unexpected error in calling extension point upon transform finish", e );
             }
           } );
-
-          thread.start();
         }
+
+        // Now start all the threads...
+        //
+        startTransformThreads();
         break;
 
       case SingleThreaded:
@@ -1412,9 +1419,10 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
         TransformMeta transformMeta = transforms.get( i ).transformMeta;
         ITransform transform = transforms.get( i ).transform;
 
+        EngineComponentCounters counters = transform.getCounters();
         PerformanceSnapShot snapShot = new PerformanceSnapShot( seqNr, new Date(), getName(), transformMeta.getName(), transform.getCopy(),
-          transform.getLinesRead(), transform.getLinesWritten(), transform.getLinesInput(), transform.getLinesOutput(), transform
-          .getLinesUpdated(), transform.getLinesRejected(), transform.getErrors() );
+          counters.getLinesRead(), counters.getLinesWritten(), counters.getLinesInput(), counters.getLinesOutput(),
+          counters.getLinesUpdated(), counters.getLinesRejected(), counters.getErrors() );
 
         synchronized ( transformPerformanceSnapShots ) {
           List<PerformanceSnapShot> snapShotList = transformPerformanceSnapShots.get( transform.toString() );
@@ -1455,6 +1463,10 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
     for ( TransformMetaDataCombi combi : transforms ) {
       combi.transform.cleanup();
     }
+
+    if ( partitionExchange != null ) {
+      partitionExchange.dispose();
+    }
   }
 
   /**
@@ -1543,6 +1555,72 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
     }
   }
 
+  /**
+   * Start running the transforms of a normal pipeline: by default every transform copy gets its own thread.
+   *
+   * @throws HopException in case a transform could not be started
+   */
+  protected void startTransformThreads() throws HopException {
+    for ( TransformMetaDataCombi combi : transforms ) {
+      RunThread runThread = new RunThread( combi );
+      Thread thread = VirtualThreadUtil.newThread( runThread, usingVirtualThreads );
+      thread.setName( getName() + " - " + combi.transformName );
+      thread.start();
+    }
+  }
+
+  /**
+   * Create the row set for a hop between two transform copies.
+   *
+   * @param dispatchType the way rows are dispatched between the transform copies: TYPE_DISP_1_1, TYPE_DISP_1_N,
+   *                     TYPE_DISP_N_1, TYPE_DISP_N_N or TYPE_DISP_N_M
+   * @return a new row set
+   * @throws HopException in case the pipeline type is not supported
+   */
+  protected IRowSet createRowSet( int dispatchType ) throws HopException {
+    if ( dispatchType == TYPE_DISP_N_M ) {
+      return new BlockingRowSet( rowSetSize );
+    }
+
+    switch ( pipelineMeta.getPipelineType() ) {
+      case Normal:
+        // This is a temporary patch until the batching rowset has proven
+        // to be working in all situations.
+        // Currently there are stalling problems when dealing with small
+        // amounts of rows.
+        //
+        Boolean batchingRowSet =
+          ValueMetaString.convertStringToBoolean( System.getProperty( Const.HOP_BATCHING_ROWSET ) );
+        if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
+          return new BlockingBatchingRowSet( rowSetSize );
+        } else if ( dispatchType == TYPE_DISP_1_1 && isUsingRingBufferRowSet() ) {
+          // Exactly one thread writes and one thread reads: no need for locking
+          //
+          return usingVirtualThreads
+            ? new RingBufferRowSet( rowSetSize, RowSetWaitStrategy.PARK ) : new RingBufferRowSet( rowSetSize );
+        } else {
+          return new BlockingRowSet( rowSetSize );
+        }
+
+      case SingleThreaded:
+        return new QueueRowSet();
+
+      default:
+        throw new HopException( "Unhandled pipeline type: " + pipelineMeta.getPipelineType() );
+    }
+  }
+
+  /**
+   * See if we can use a lock-free ring buffer row set on hops between single transform copies.
+   * This is the case unless variable HOP_RING_BUFFER_ROWSET is set to N.
+   *
+   * @return true if ring buffer row sets can be used
+   */
+  protected boolean isUsingRingBufferRowSet() {
+    Boolean ringBufferRowSet = ValueMetaString.convertStringToBoolean( System.getProperty( Const.HOP_RING_BUFFER_ROWSET ) );
+    return ringBufferRowSet == null || ringBufferRowSet.booleanValue();
+  }
+
   /**
    * Finds the IRowSet between two transforms (or copies of transforms).
    *
@@ -2095,6 +2173,36 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
     return safeModeEnabled;
   }
 
+  /**
+   * Run the transform copies and their initialization on virtual threads instead of platform threads. This only has an
+   * effect on a Java runtime with virtual thread support, platform threads are used otherwise.
+   *
+   * @param usingVirtualThreads true to use virtual threads
+   */
+  public void setUsingVirtualThreads( boolean usingVirtualThreads ) {
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
+
+  /**
+   * Checks whether the transform threads are started as virtual threads.
+   *
+   * @return true if virtual threads are used when the Java runtime supports them
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * Checks whether transforms can skip the short sleeps they take when an output row set is nearly full or an input
+   * row set is nearly empty. Those sleeps reduce lock contention between platform threads but they only slow down
+   * transforms which don't run on a thread of their own.
+   *
+   * @return true if the transforms of this pipeline shouldn't sleep near full or empty row sets
+   */
+  public boolean isSkippingRowSetThrottling() {
+    return usingVirtualThreads;
+  }
+
   /**
    * This adds a row producer to the pipeline that just got set up. It is preferable to run this BEFORE execute()
    * but after prepareExecution()
@@ -2113,22 +2221,29 @@ public abstract class Pipeline implements IVariables, INamedParams, IHasLogChann
     }
 
     // We are going to add an extra IRowSet to this iTransform.
-    IRowSet rowSet;
+    IRowSet rowSet = createRowProducerRowSet();
+
+    // Add this rowset to the list of active rowsets for the selected transform
+    iTransform.addRowSetToInputRowSets( rowSet );
+
+    return new RowProducer( iTransform, rowSet );
+  }
+
+  /**
+   * Create the row set a row producer writes to. The rows are written by a thread outside of the pipeline.
+   *
+   * @return a new row set
+   * @throws HopException in case the pipeline type is not supported
+   */
+  protected IRowSet createRowProducerRowSet() throws HopException {
     switch ( pipelineMeta.getPipelineType() ) {
       case Normal:
-        rowSet = new BlockingRowSet( rowSetSize );
-        break;
+        return new BlockingRowSet( rowSetSize );
       case SingleThreaded:
-        rowSet = new QueueRowSet();
-        break;
+        return new QueueRowSet();
       default:
         throw new HopException( "Unhandled pipeline type: " + pipelineMeta.getPipelineType() );
     }
-
-    // Add this rowset to the list of active rowsets for the selected transform
-    iTransform.addRowSetToInputRowSets( rowSet );
-
-    return new RowProducer( iTransform, rowSet );
   }
 
   /**
@@ -0,0 +1,124 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.engine;
+
+/**
+ * The status counters of an engine component, taken at one point in time. Every counter is read only once so the
+ * values used to calculate speeds and totals in a status or performance snapshot all come from the same read.
+ */
+public class EngineComponentCounters {
+
+  private final long linesRead;
+  private final long linesWritten;
+  private final long linesInput;
+  private final long linesOutput;
+  private final long linesUpdated;
+  private final long linesRejected;
+  private final long errors;
+
+  public EngineComponentCounters( long linesRead, long linesWritten, long linesInput, long linesOutput,
+                                  long linesUpdated, long linesRejected, long errors ) {
+    this.linesRead = linesRead;
+    this.linesWritten = linesWritten;
+    this.linesInput = linesInput;
+    this.linesOutput = linesOutput;
+    this.linesUpdated = linesUpdated;
+    this.linesRejected = linesRejected;
+    this.errors = errors;
+  }
+
+  /**
+   * Read the counters of a component through its getters.
+   *
+   * @param component the component to read the counters from
+   * @return the counters
+   */
+  public static EngineComponentCounters of( IEngineComponent component ) {
+    return new EngineComponentCounters( component.getLinesRead(), component.getLinesWritten(),
+      component.getLinesInput(), component.getLinesOutput(), component.getLinesUpdated(),
+      component.getLinesRejected(), component.getErrors() );
+  }
+
+  /**
+   * Gets linesRead
+   *
+   * @return value of linesRead
+   */
+  public long getLinesRead() {
+    return linesRead;
+  }
+
+  /**
+   * Gets linesWritten
+   *
+   * @return value of linesWritten
+   */
+  public long getLinesWritten() {
+    return linesWritten;
+  }
+
+  /**
+   * Gets linesInput
+   *
+   * @return value of linesInput
+   */
+  public long getLinesInput() {
+    return linesInput;
+  }
+
+  /**
+   * Gets linesOutput
+   *
+   * @return value of linesOutput
+   */
+  public long getLinesOutput() {
+    return linesOutput;
+  }
+
+  /**
+   * Gets linesUpdated
+   *
+   * @return value of linesUpdated
+   */
+  public long getLinesUpdated() {
+    return linesUpdated;
+  }
+
+  /**
+   * Gets linesRejected
+   *
+   * @return value of linesRejected
+   */
+  public long getLinesRejected() {
+    return linesRejected;
+  }
+
+  /**
+   * Gets errors
+   *
+   * @return value of errors
+   */
+  public long getErrors() {
+    return errors;
+  }
+}
@@ -95,6 +95,13 @@ public interface IEngineComponent {
   long getLinesRejected();
   long getLinesUpdated();
 
+  /**
+   * @return All the status counters of this component, each one read once.
+   */
+  default EngineComponentCounters getCounters() {
+    return EngineComponentCounters.of( this );
+  }
+
   String getStatusDescription();
 
   long getExecutionDuration();
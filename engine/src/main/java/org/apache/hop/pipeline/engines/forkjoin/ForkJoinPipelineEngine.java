@@ -0,0 +1,189 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.engines.forkjoin;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SignalingRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.parameters.INamedParams;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.engine.PipelineEngineCapabilities;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngineCapabilities;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+
+import java.util.ArrayList;
+
+/**
+ * Runs a pipeline locally without giving every transform copy a thread of its own. The transforms are run as tasks
+ * on a bounded fork/join pool: a transform is scheduled when it has rows waiting on its input and room on its output.
+ * This keeps the number of threads down when there are many transforms or many pipelines running at the same time.
+ */
+public class ForkJoinPipelineEngine extends Pipeline implements IPipelineEngine<PipelineMeta> {
+
+  private PipelineEngineCapabilities engineCapabilities = new LocalPipelineEngineCapabilities();
+
+  private int parallelism;
+
+  private volatile ForkJoinPipelineExecutor executor;
+
+  public ForkJoinPipelineEngine() {
+    super();
+    setDefaultRunConfiguration();
+  }
+
+  public ForkJoinPipelineEngine( PipelineMeta pipelineMeta ) {
+    super( pipelineMeta );
+    setDefaultRunConfiguration();
+  }
+
+  public ForkJoinPipelineEngine( PipelineMeta pipelineMeta, ILoggingObject parent ) {
+    super( pipelineMeta, parent );
+    setDefaultRunConfiguration();
+  }
+
+  public <Parent extends IVariables & INamedParams> ForkJoinPipelineEngine( Parent parent, String name, String filename, IHopMetadataProvider metadataProvider ) throws HopException {
+    super( parent, name, filename, metadataProvider );
+    setDefaultRunConfiguration();
+  }
+
+  @Override public IPipelineEngineRunConfiguration createDefaultPipelineEngineRunConfiguration() {
+    return new ForkJoinPipelineRunConfiguration();
+  }
+
+  private void setDefaultRunConfiguration() {
+    setPipelineRunConfiguration( new PipelineRunConfiguration( "forkjoin", "", new ArrayList<>(), createDefaultPipelineEngineRunConfiguration() ) );
+  }
+
+  @Override public void prepareExecution() throws HopException {
+
+    if ( !( pipelineRunConfiguration.getEngineRunConfiguration() instanceof ForkJoinPipelineRunConfiguration ) ) {
+      throw new HopException( "A fork/join pipeline execution expects a fork/join pipeline configuration, not an instance of class " + pipelineRunConfiguration.getEngineRunConfiguration().getClass().getName() );
+    }
+
+    ForkJoinPipelineRunConfiguration config = (ForkJoinPipelineRunConfiguration) pipelineRunConfiguration.getEngineRunConfiguration();
+
+    int sizeRowsSet = Const.toInt( pipelineMeta.environmentSubstitute( config.getRowSetSize() ), Const.ROWS_IN_ROWSET );
+    setRowSetSize( sizeRowsSet );
+    parallelism = Const.toInt( pipelineMeta.environmentSubstitute( config.getParallelism() ), -1 );
+    if ( parallelism <= 0 ) {
+      parallelism = Runtime.getRuntime().availableProcessors();
+    }
+    setSafeModeEnabled( config.isSafeModeEnabled() );
+    setGatheringMetrics( config.isGatheringMetrics() );
+
+    super.prepareExecution();
+  }
+
+  /**
+   * The row sets tell the executor when the transforms at either end have something to do. The executor only runs a
+   * transform when its output row sets have room, so they only go over the configured row set size for the rows a
+   * transform writes in one task.
+   */
+  @Override protected IRowSet createRowSet( int dispatchType ) {
+    return new SignalingRowSet( getRowSetSize() );
+  }
+
+  /**
+   * A row producer writes from outside the pool: it waits for room in the row set and its rows schedule the transform
+   * reading them. Add row producers before starting the pipeline.
+   */
+  @Override protected IRowSet createRowProducerRowSet() {
+    return new SignalingRowSet( getRowSetSize() );
+  }
+
+  @Override public boolean isSkippingRowSetThrottling() {
+    return true;
+  }
+
+  @Override protected void startTransformThreads() throws HopException {
+    // Only wake up the executor once it knows all transforms
+    //
+    ForkJoinPipelineExecutor newExecutor = new ForkJoinPipelineExecutor( this, getTransforms(), parallelism, getRowSetSize() );
+    newExecutor.start();
+    executor = newExecutor;
+  }
+
+  /**
+   * A stopped transform is run one more time to finish, the row sets don't signal that.
+   */
+  @Override public void stopTransform( TransformMetaDataCombi combi, boolean safeStop ) {
+    super.stopTransform( combi, safeStop );
+    if ( executor != null ) {
+      executor.wakeUp();
+    }
+  }
+
+  /**
+   * Paused transforms aren't scheduled, schedule them again when they resume.
+   */
+  @Override public void resumeExecution() {
+    super.resumeExecution();
+    if ( executor != null ) {
+      executor.wakeUp();
+    }
+  }
+
+  /**
+   * Gets parallelism
+   *
+   * @return value of parallelism
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism The parallelism to set
+   */
+  public void setParallelism( int parallelism ) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Gets engineCapabilities
+   *
+   * @return value of engineCapabilities
+   */
+  @Override public PipelineEngineCapabilities getEngineCapabilities() {
+    return engineCapabilities;
+  }
+
+  /**
+   * @param engineCapabilities The engineCapabilities to set
+   */
+  public void setEngineCapabilities( PipelineEngineCapabilities engineCapabilities ) {
+    this.engineCapabilities = engineCapabilities;
+  }
+
+  @Override public String getStatusDescription() {
+    return super.getStatus();
+  }
+}
@@ -0,0 +1,380 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.engines.forkjoin;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SignalingRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.RunThread;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+import org.apache.hop.pipeline.transform.errorhandling.IStream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the transforms of a pipeline as tasks on a fork/join pool.
+ * <p>
+ * A transform is scheduled when it has rows waiting on one of its inputs (or all its inputs are done) and there is room
+ * on all its outputs. A task calls processRow() a limited number of times and then gives the worker thread back so
+ * the other transforms get their turn. When a task ends the transforms reading from and writing to it are scheduled
+ * as well since they are likely to have work to do now.
+ * <p>
+ * Nothing polls the transforms. The {@link SignalingRowSet}s schedule the reading transform when rows arrive in an
+ * empty row set or when it is done, rows from a row producer outside the pool included, and the writing transform
+ * when a read brings a row set down to half its size. The pipeline engine wakes up all transforms when they are
+ * stopped or resumed.
+ * <p>
+ * Info streams are read in one go by the first processRow() of the transforms using them. A transform reading info
+ * rows is scheduled as soon as info rows are waiting. A worker thread never blocks on a row set: a write always
+ * succeeds, and since a transform only runs when all its outputs have room a row set only goes over its size for the
+ * rows written in one task. A transform waiting for rows in the middle of processRow() runs the transform writing
+ * them on its own thread, or waits for the worker running it.
+ */
+public class ForkJoinPipelineExecutor {
+
+  /**
+   * The maximum number of times processRow() is called in one task.
+   */
+  public static final int MAX_ROWS_PER_TASK = 1000;
+
+  private static final int IDLE = 0;
+  private static final int QUEUED = 1;
+  private static final int RUNNING = 2;
+
+  private final Pipeline pipeline;
+  private final List<TransformMetaDataCombi<ITransform, ITransformMeta, ITransformData>> combis;
+  private final int rowSetSize;
+  private final ForkJoinPool pool;
+
+  private final List<TransformTask> tasks;
+  private final AtomicInteger unfinished;
+
+  public ForkJoinPipelineExecutor( Pipeline pipeline,
+                                   List<TransformMetaDataCombi<ITransform, ITransformMeta, ITransformData>> combis,
+                                   int parallelism, int rowSetSize ) {
+    this.pipeline = pipeline;
+    this.combis = combis;
+    this.rowSetSize = rowSetSize;
+    this.tasks = new ArrayList<>();
+    this.unfinished = new AtomicInteger();
+
+    final AtomicInteger workerNr = new AtomicInteger();
+    this.pool = new ForkJoinPool( parallelism, p -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread( p );
+      thread.setName( pipeline.getName() + " - worker " + workerNr.incrementAndGet() );
+      return thread;
+    }, null, false );
+  }
+
+  /**
+   * Start running the transforms.
+   *
+   * @throws HopException in case the info streams of a transform can't be determined
+   */
+  public synchronized void start() throws HopException {
+    Map<IRowSet, TransformTask> producers = new IdentityHashMap<>();
+    Map<IRowSet, TransformTask> consumers = new IdentityHashMap<>();
+    for ( TransformMetaDataCombi<ITransform, ITransformMeta, ITransformData> combi : combis ) {
+      TransformTask task = new TransformTask( combi );
+      tasks.add( task );
+      for ( IRowSet rowSet : task.getOutputRowSets() ) {
+        producers.put( rowSet, task );
+      }
+      for ( IRowSet rowSet : task.getInputRowSets() ) {
+        consumers.put( rowSet, task );
+      }
+    }
+
+    // Split the input row sets in info and main streams
+    //
+    for ( TransformTask task : tasks ) {
+      Set<String> infoTransformNames = new HashSet<>();
+      for ( IStream stream : task.combi.transformMeta.getTransform().getTransformIOMeta().getInfoStreams() ) {
+        if ( stream.getTransformName() != null ) {
+          infoTransformNames.add( stream.getTransformName() );
+        }
+      }
+      for ( IRowSet rowSet : task.getInputRowSets() ) {
+        if ( infoTransformNames.contains( rowSet.getOriginTransformName() ) ) {
+          task.infoRowSets.add( rowSet );
+        } else {
+          task.inputRowSets.add( rowSet );
+        }
+        TransformTask producer = producers.get( rowSet );
+        if ( producer != null ) {
+          task.neighbours.add( producer );
+        }
+      }
+    }
+
+    // The output streams are checked for room before scheduling, if someone reads from them
+    //
+    for ( TransformTask task : tasks ) {
+      for ( IRowSet rowSet : task.getOutputRowSets() ) {
+        TransformTask consumer = consumers.get( rowSet );
+        if ( consumer != null ) {
+          task.neighbours.add( consumer );
+          task.outputRowSets.add( rowSet );
+          task.outputConsumers.add( consumer );
+        }
+      }
+    }
+
+    // Let the row sets tell the transforms at both ends when there is work to do
+    //
+    for ( TransformTask task : tasks ) {
+      for ( IRowSet rowSet : task.getInputRowSets() ) {
+        if ( rowSet instanceof SignalingRowSet ) {
+          SignalingRowSet signalingRowSet = (SignalingRowSet) rowSet;
+          signalingRowSet.setReaderSignal( task::signal );
+          TransformTask producer = producers.get( rowSet );
+          if ( producer != null ) {
+            signalingRowSet.setWriterSignal( producer::signal );
+            signalingRowSet.setWriterHelper( producer::runHere );
+          }
+        }
+      }
+    }
+
+    unfinished.set( tasks.size() );
+    for ( TransformTask task : tasks ) {
+      task.runThread.beforeRun();
+    }
+    if ( tasks.isEmpty() ) {
+      pool.shutdown();
+      return;
+    }
+    wakeUp();
+  }
+
+  /**
+   * Schedule all transforms which have something to do. Used when something changed which the row sets don't signal,
+   * like a transform which was stopped or resumed.
+   */
+  public void wakeUp() {
+    for ( TransformTask task : tasks ) {
+      task.trySchedule();
+    }
+  }
+
+  private synchronized void taskFinished() {
+    if ( unfinished.decrementAndGet() == 0 ) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Gets pipeline
+   *
+   * @return value of pipeline
+   */
+  public Pipeline getPipeline() {
+    return pipeline;
+  }
+
+  /**
+   * Gets pool
+   *
+   * @return value of pool
+   */
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  private class TransformTask implements Runnable {
+    private final TransformMetaDataCombi<ITransform, ITransformMeta, ITransformData> combi;
+    private final ITransform transform;
+    private final RunThread runThread;
+
+    private final List<IRowSet> inputRowSets = new ArrayList<>();
+    private final List<IRowSet> infoRowSets = new ArrayList<>();
+    private final List<IRowSet> outputRowSets = new ArrayList<>();
+    private final List<TransformTask> outputConsumers = new ArrayList<>();
+    private final Set<TransformTask> neighbours = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+    /**
+     * IDLE, QUEUED on the pool or RUNNING. A queued task is run by the first thread to claim it, the pool or a worker
+     * waiting for its rows.
+     */
+    private final AtomicInteger state = new AtomicInteger( IDLE );
+    private volatile boolean finished;
+
+    TransformTask( TransformMetaDataCombi<ITransform, ITransformMeta, ITransformData> combi ) {
+      this.combi = combi;
+      this.transform = combi.transform;
+      this.runThread = new RunThread( combi );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private List<IRowSet> getInputRowSets() {
+      return transform.getInputRowSets();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private List<IRowSet> getOutputRowSets() {
+      return transform.getOutputRowSets();
+    }
+
+    /**
+     * @return true if the transform has something to do: rows to read or nothing to read at all, and room to write
+     */
+    private boolean isRunnable() {
+      if ( transform.isStopped() ) {
+        return true;
+      }
+      if ( transform.isPaused() ) {
+        return false;
+      }
+      boolean infoRowsWaiting = false;
+      boolean infoDone = true;
+      for ( IRowSet rowSet : infoRowSets ) {
+        infoRowsWaiting |= rowSet.size() > 0;
+        infoDone &= rowSet.isDone();
+      }
+      if ( !infoRowsWaiting && !infoDone ) {
+        return false;
+      }
+      for ( int i = 0; i < outputRowSets.size(); i++ ) {
+        if ( outputRowSets.get( i ).size() >= rowSetSize && !outputConsumers.get( i ).finished ) {
+          return false;
+        }
+      }
+      if ( infoRowsWaiting || inputRowSets.isEmpty() ) {
+        return true;
+      }
+      boolean allDone = true;
+      for ( IRowSet rowSet : inputRowSets ) {
+        if ( rowSet.size() > 0 ) {
+          return true;
+        }
+        allDone &= rowSet.isDone();
+      }
+      return allDone;
+    }
+
+    /**
+     * Called by the row sets when rows or room became available: cheap when the task is already queued or running.
+     */
+    private void signal() {
+      if ( state.get() == IDLE ) {
+        trySchedule();
+      }
+    }
+
+    /**
+     * Submit this task to the pool unless it's already scheduled, finished or has nothing to do.
+     */
+    private void trySchedule() {
+      do {
+        if ( finished || !state.compareAndSet( IDLE, QUEUED ) ) {
+          return;
+        }
+        if ( isRunnable() ) {
+          if ( ForkJoinTask.getPool() == pool ) {
+            ForkJoinTask.adapt( this ).fork();
+          } else {
+            pool.execute( this );
+          }
+          return;
+        }
+        state.set( IDLE );
+
+        // Rows might have arrived while we were looking
+        //
+      } while ( isRunnable() );
+    }
+
+    @Override public void run() {
+      // Someone waiting for our rows might have run the task already
+      //
+      if ( state.compareAndSet( QUEUED, RUNNING ) ) {
+        runTask();
+      }
+    }
+
+    /**
+     * Run the task on the calling thread if it's queued or can run, because the calling worker waits for its rows.
+     * A task which is running already, on this thread or another one, is left alone.
+     *
+     * @return true if the task ran
+     */
+    private boolean runHere() {
+      if ( finished ) {
+        return false;
+      }
+      if ( state.compareAndSet( QUEUED, RUNNING )
+        || ( state.get() == IDLE && isRunnable() && state.compareAndSet( IDLE, RUNNING ) ) ) {
+        runTask();
+        return true;
+      }
+      return false;
+    }
+
+    private void runTask() {
+      try {
+        boolean more = true;
+        int count = 0;
+        while ( count++ < MAX_ROWS_PER_TASK && isRunnable() ) {
+          if ( transform.isStopped() || !transform.processRow() || transform.isStopped() ) {
+            more = false;
+            break;
+          }
+        }
+        if ( !more ) {
+          finish();
+        }
+      } catch ( Throwable t ) {
+        runThread.handleError( t );
+        finish();
+      } finally {
+        state.set( IDLE );
+        trySchedule();
+        for ( TransformTask neighbour : neighbours ) {
+          neighbour.trySchedule();
+        }
+      }
+    }
+
+    private void finish() {
+      if ( !finished ) {
+        finished = true;
+        runThread.afterRun();
+        taskFinished();
+      }
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.engines.forkjoin;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.gui.plugin.GuiElementType;
+import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.EmptyPipelineRunConfiguration;
+
+@GuiPlugin
+public class ForkJoinPipelineRunConfiguration extends EmptyPipelineRunConfiguration implements IPipelineEngineRunConfiguration {
+
+  /**
+   * The soft limit on the number of rows waiting in a row set: a transform only gets to run when there is room on all
+   * its outputs.
+   */
+  @GuiWidgetElement(
+    id = "rowSetSize",
+    order = "10",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.TEXT,
+    i18nPackage = "org.apache.hop.ui.pipeline.config",
+    label = "PipelineRunConfigurationDialog.RowSetSize.Label"
+  )
+  @HopMetadataProperty(key="rowset_size")
+  protected String rowSetSize;
+
+  /**
+   * The number of worker threads. Empty means one per available processor.
+   */
+  @GuiWidgetElement(
+    id = "parallelism",
+    order = "20",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.TEXT,
+    i18nPackage = "org.apache.hop.ui.pipeline.config",
+    label = "PipelineRunConfigurationDialog.Parallelism.Label"
+  )
+  @HopMetadataProperty(key="parallelism")
+  protected String parallelism;
+
+  @GuiWidgetElement(
+    id = "safeModeEnabled",
+    order = "30",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.CHECKBOX,
+    i18nPackage = "org.apache.hop.ui.pipeline.config",
+    label = "PipelineRunConfigurationDialog.SafeModeEnabled.Label"
+  )
+  @HopMetadataProperty(key="safe_mode")
+  protected boolean safeModeEnabled;
+
+  @GuiWidgetElement(
+    id = "gatheringMetrics",
+    order = "40",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.CHECKBOX,
+    i18nPackage = "org.apache.hop.ui.pipeline.config",
+    label = "PipelineRunConfigurationDialog.GatheringMetrics.Label"
+  )
+  @HopMetadataProperty(key="gather_metrics")
+  protected boolean gatheringMetrics;
+
+  public ForkJoinPipelineRunConfiguration() {
+    super();
+    this.rowSetSize = Integer.toString( Const.ROWS_IN_ROWSET );
+    this.parallelism = "";
+  }
+
+  public ForkJoinPipelineRunConfiguration( ForkJoinPipelineRunConfiguration config ) {
+    super( config );
+    this.rowSetSize = config.rowSetSize;
+    this.parallelism = config.parallelism;
+    this.safeModeEnabled = config.safeModeEnabled;
+    this.gatheringMetrics = config.gatheringMetrics;
+  }
+
+  public ForkJoinPipelineRunConfiguration clone() {
+    return new ForkJoinPipelineRunConfiguration( this );
+  }
+
+  /**
+   * Gets rowSetSize
+   *
+   * @return value of rowSetSize
+   */
+  public String getRowSetSize() {
+    return rowSetSize;
+  }
+
+  /**
+   * @param rowSetSize The rowSetSize to set
+   */
+  public void setRowSetSize( String rowSetSize ) {
+    this.rowSetSize = rowSetSize;
+  }
+
+  /**
+   * Gets parallelism
+   *
+   * @return value of parallelism
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism The parallelism to set
+   */
+  public void setParallelism( String parallelism ) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Gets safeModeEnabled
+   *
+   * @return value of safeModeEnabled
+   */
+  public boolean isSafeModeEnabled() {
+    return safeModeEnabled;
+  }
+
+  /**
+   * @param safeModeEnabled The safeModeEnabled to set
+   */
+  public void setSafeModeEnabled( boolean safeModeEnabled ) {
+    this.safeModeEnabled = safeModeEnabled;
+  }
+
+  /**
+   * Gets gatheringMetrics
+   *
+   * @return value of gatheringMetrics
+   */
+  public boolean isGatheringMetrics() {
+    return gatheringMetrics;
+  }
+
+  /**
+   * @param gatheringMetrics The gatheringMetrics to set
+   */
+  public void setGatheringMetrics( boolean gatheringMetrics ) {
+    this.gatheringMetrics = gatheringMetrics;
+  }
+}
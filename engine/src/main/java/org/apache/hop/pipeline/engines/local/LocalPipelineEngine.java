@@ -82,6 +82,7 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
     setSafeModeEnabled( config.isSafeModeEnabled() );
     setSortingTransformsTopologically( config.isSortingTransformsTopologically() );
     setGatheringMetrics( config.isGatheringMetrics() );
+    setUsingVirtualThreads( config.isUsingVirtualThreads() );
     setFeedbackShown( config.isFeedbackShown() );
     setFeedbackSize( Const.toInt( environmentSubstitute( config.getFeedbackSize() ), Const.ROWS_UPDATE ) );
 
@@ -140,6 +140,20 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key="sample_size")
   protected String sampleSize;
 
+  /**
+   * Run the transform threads as virtual threads (Java 21 or later).
+   */
+  @GuiWidgetElement(
+    id = "usingVirtualThreads",
+    order = "90",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.CHECKBOX,
+    i18nPackage = "org.apache.hop.ui.pipeline.config",
+    label = "PipelineRunConfigurationDialog.UsingVirtualThreads.Label"
+  )
+  @HopMetadataProperty(key="virtual_threads")
+  protected boolean usingVirtualThreads;
+
   public enum SampleType {
     None, First, Last, Random;
   }
@@ -163,6 +177,7 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sortingTransformsTopologically = config.sortingTransformsTopologically;
     this.sampleTypeInGui = config.sampleTypeInGui;
     this.sampleSize = config.sampleSize;
+    this.usingVirtualThreads = config.usingVirtualThreads;
   }
 
   public LocalPipelineRunConfiguration clone() {
@@ -303,4 +318,20 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public void setSampleSize( String sampleSize ) {
     this.sampleSize = sampleSize;
   }
+
+  /**
+   * Gets usingVirtualThreads
+   *
+   * @return value of usingVirtualThreads
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * @param usingVirtualThreads The usingVirtualThreads to set
+   */
+  public void setUsingVirtualThreads( boolean usingVirtualThreads ) {
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
 }
@@ -18,6 +18,7 @@ import org.apache.hop.core.parameters.DuplicateParamException;
 import org.apache.hop.core.parameters.INamedParams;
 import org.apache.hop.core.parameters.NamedParamsDefault;
 import org.apache.hop.core.parameters.UnknownParamException;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
@@ -50,6 +51,7 @@ import org.apache.hop.www.PrepareExecutionPipelineServlet;
 import org.apache.hop.www.RegisterPackageServlet;
 import org.apache.hop.www.RegisterPipelineServlet;
 import org.apache.hop.www.HopServerPipelineStatus;
+import org.apache.hop.www.IPipelineStatusStreamListener;
 import org.apache.hop.www.SniffTransformServlet;
 import org.apache.hop.www.StartExecutionPipelineServlet;
 import org.apache.hop.www.WebResult;
@@ -60,6 +62,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
@@ -141,6 +144,12 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
   protected long serverPollDelay;
   protected long serverPollInterval;
+  protected boolean streamingStatus;
+
+  /**
+   * The last known status of each transform copy when the status is streamed, the server only sends the changes
+   */
+  protected Map<String, TransformStatus> streamedTransformStatus;
 
   public RemotePipelineEngine() {
     super();
@@ -195,6 +204,7 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
       serverPollDelay = Const.toLong( environmentSubstitute( remotePipelineRunConfiguration.getServerPollDelay() ), 1000L );
       serverPollInterval = Const.toLong( environmentSubstitute( remotePipelineRunConfiguration.getServerPollInterval() ), 2000L );
+      streamingStatus = remotePipelineRunConfiguration.isStreamingStatus();
 
       hopServer = metadataProvider.getSerializer( HopServer.class ).load( hopServerName );
       if ( hopServer == null ) {
@@ -327,18 +337,17 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
         // So the pipeline has been successfully started.
         // That doesn't mean that the execution itself is without error
         // To know that we need to monitor the execution remotely
-        // We monitor this every 2 seconds after a 1 second delay (configurable)
         //
-        TimerTask refreshTask = new TimerTask() {
-          @Override public void run() {
-            getPipelineStatus();
-          }
-        };
-        refreshTimer = new Timer();
-        refreshTimer.schedule( refreshTask, serverPollDelay, serverPollInterval );
-
         readyToStart = false;
         running = true;
+
+        if ( streamingStatus ) {
+          Thread streamThread = new Thread( this::streamPipelineStatus, "Remote pipeline status: " + subject.getName() );
+          streamThread.setDaemon( true );
+          streamThread.start();
+        } else {
+          startPipelineStatusPolling();
+        }
       } else {
         throw new HopException( "Error starting pipeline on hop server '" + hopServer.getName() + "' with object ID '" + containerId + "' : " + webResult.getMessage() );
       }
@@ -347,70 +356,125 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     }
   }
 
+  /**
+   * Poll the status of the pipeline every 2 seconds after a 1 second delay (configurable)
+   */
+  private void startPipelineStatusPolling() {
+    TimerTask refreshTask = new TimerTask() {
+      @Override public void run() {
+        getPipelineStatus();
+      }
+    };
+    refreshTimer = new Timer();
+    refreshTimer.schedule( refreshTask, serverPollDelay, serverPollInterval );
+  }
+
+  /**
+   * Follow the binary status stream of the server which pushes the changes as they happen.
+   * If the server doesn't support it or the stream breaks we fall back to polling.
+   */
+  private void streamPipelineStatus() {
+    streamedTransformStatus = new LinkedHashMap<>();
+    IPipelineStatusStreamListener listener = new IPipelineStatusStreamListener() {
+      @Override public void statusReceived( HopServerPipelineStatus statusDelta ) throws HopException {
+        for ( TransformStatus transformStatus : statusDelta.getTransformStatusList() ) {
+          streamedTransformStatus.put( transformStatus.getTransformName() + "." + transformStatus.getCopy(), transformStatus );
+        }
+        statusDelta.setTransformStatusList( new ArrayList<>( streamedTransformStatus.values() ) );
+        statusDelta.setLastLoggingLineNr( lastLogLineNr );
+        applyPipelineStatus( statusDelta );
+      }
+
+      @Override public void logReceived( int lastLineNr, String logText ) {
+        lastLogLineNr = lastLineNr;
+        logChannel.logBasic( logText );
+      }
+
+      @Override public void rowsReceived( String transformName, int copyNr, IRowMeta rowMeta, List<Object[]> rows ) {
+      }
+    };
+
+    try {
+      hopServer.streamPipelineStatus( subject.getName(), containerId, lastLogLineNr, null, 0, 0, null, true, listener );
+    } catch ( Exception e ) {
+      logChannel.logDetailed( "Unable to stream the status of pipeline '" + subject.getName() + "' from hop server '" + hopServer.getName() + "' : " + e.getMessage() );
+    }
+    if ( !finished && !stopped ) {
+      logChannel.logDetailed( "Falling back to polling the status of pipeline '" + subject.getName() + "' on hop server '" + hopServer.getName() + "'" );
+      startPipelineStatusPolling();
+    }
+  }
+
   private synchronized void getPipelineStatus() throws RuntimeException {
     try {
-      HopServerPipelineStatus pipelineStatus = hopServer.getPipelineStatus( subject.getName(), containerId, lastLogLineNr );
-      synchronized ( engineMetrics ) {
-        hasHaltedComponents = false;
-        engineMetrics.setStartDate( pipelineStatus.getExecutionStartDate() );
-        engineMetrics.setEndDate( pipelineStatus.getExecutionEndDate() );
-        engineMetrics.getComponents().clear();
-        engineMetrics.getComponentRunningMap().clear();
-        engineMetrics.getComponentSpeedMap().clear();
-        engineMetrics.getComponentMetricsMap().clear();
-
-        for ( TransformStatus transformStatus : pipelineStatus.getTransformStatusList() ) {
-          EngineComponent component = new EngineComponent( transformStatus.getTransformName(), transformStatus.getCopy() );
-          component.setErrors( transformStatus.getErrors() );
-          status = ComponentExecutionStatus.getStatusFromDescription( transformStatus.getStatusDescription() );
-          statusDescription = status.getDescription();
-          boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
-          component.setRunning( running );
-          boolean halted = status == ComponentExecutionStatus.STATUS_HALTED || status == ComponentExecutionStatus.STATUS_HALTING;
-          if ( halted ) {
-            hasHaltedComponents = true;
-          }
-          engineMetrics.setComponentStatus( component, transformStatus.getStatusDescription() );
-          engineMetrics.setComponentRunning( component, running );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_READ, transformStatus.getLinesRead() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_ERROR, transformStatus.getErrors() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize() );
-          engineMetrics.setComponentSpeed( component, transformStatus.getSpeed() );
-          engineMetrics.getComponents().add( component );
+      applyPipelineStatus( hopServer.getPipelineStatus( subject.getName(), containerId, lastLogLineNr ) );
+    } catch ( Exception e ) {
+      throw new RuntimeException( "Error getting the status of pipeline '" + subject.getName() + "' on hop server '" + hopServer.getName() + "' with object ID '" + containerId + "'", e );
+    }
+  }
+
+  private synchronized void applyPipelineStatus( HopServerPipelineStatus pipelineStatus ) throws HopException {
+    synchronized ( engineMetrics ) {
+      boolean wasFinished = finished;
+      hasHaltedComponents = false;
+      engineMetrics.setStartDate( pipelineStatus.getExecutionStartDate() );
+      engineMetrics.setEndDate( pipelineStatus.getExecutionEndDate() );
+      engineMetrics.getComponents().clear();
+      engineMetrics.getComponentRunningMap().clear();
+      engineMetrics.getComponentSpeedMap().clear();
+      engineMetrics.getComponentMetricsMap().clear();
+
+      for ( TransformStatus transformStatus : pipelineStatus.getTransformStatusList() ) {
+        EngineComponent component = new EngineComponent( transformStatus.getTransformName(), transformStatus.getCopy() );
+        component.setErrors( transformStatus.getErrors() );
+        status = ComponentExecutionStatus.getStatusFromDescription( transformStatus.getStatusDescription() );
+        statusDescription = status.getDescription();
+        boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
+        component.setRunning( running );
+        boolean halted = status == ComponentExecutionStatus.STATUS_HALTED || status == ComponentExecutionStatus.STATUS_HALTING;
+        if ( halted ) {
+          hasHaltedComponents = true;
         }
+        engineMetrics.setComponentStatus( component, transformStatus.getStatusDescription() );
+        engineMetrics.setComponentRunning( component, running );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_READ, transformStatus.getLinesRead() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_ERROR, transformStatus.getErrors() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize() );
+        engineMetrics.setComponentSpeed( component, transformStatus.getSpeed() );
+        engineMetrics.getComponents().add( component );
+      }
 
-        running = pipelineStatus.isRunning();
-        finished = pipelineStatus.isFinished();
-        stopped = pipelineStatus.isStopped();
-        paused = pipelineStatus.isPaused();
-        errors = (int) pipelineStatus.getNrTransformErrors();
+      running = pipelineStatus.isRunning();
+      finished = pipelineStatus.isFinished();
+      stopped = pipelineStatus.isStopped();
+      paused = pipelineStatus.isPaused();
+      errors = (int) pipelineStatus.getNrTransformErrors();
 
-        lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
+      lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
 
-        // Also pass the remote log to this log channel as BASIC logging...
-        // TODO: make this configurable and split up the log lines individually so we can do a better job of this.
-        // Now it's a bit garbled
-        //
-        if ( StringUtils.isNotEmpty( pipelineStatus.getLoggingString() ) ) {
-          logChannel.logBasic( pipelineStatus.getLoggingString() );
-        }
+      // Also pass the remote log to this log channel as BASIC logging...
+      // TODO: make this configurable and split up the log lines individually so we can do a better job of this.
+      // Now it's a bit garbled
+      //
+      if ( StringUtils.isNotEmpty( pipelineStatus.getLoggingString() ) ) {
+        logChannel.logBasic( pipelineStatus.getLoggingString() );
+      }
 
-        // If the pipeline is finished, cancel the timer task
-        //
-        if ( finished ) {
-          firePipelineExecutionFinishedListeners();
+      // If the pipeline is finished, cancel the timer task
+      //
+      if ( finished && !wasFinished ) {
+        firePipelineExecutionFinishedListeners();
+        if ( refreshTimer != null ) {
           refreshTimer.cancel();
-          logChannel.logBasic( "Execution finished on a remote pipeline engine with run configuration '" + pipelineRunConfiguration.getName() + "'" );
         }
+        logChannel.logBasic( "Execution finished on a remote pipeline engine with run configuration '" + pipelineRunConfiguration.getName() + "'" );
       }
-    } catch ( Exception e ) {
-      throw new RuntimeException( "Error getting the status of pipeline '" + subject.getName() + "' on hop server '" + hopServer.getName() + "' with object ID '" + containerId + "'", e );
     }
   }
 
@@ -572,6 +636,25 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     try {
       Runnable runnable = () -> {
         try {
+          if ( streamingStatus ) {
+            try {
+              IPipelineStatusStreamListener listener = new IPipelineStatusStreamListener() {
+                @Override public void statusReceived( HopServerPipelineStatus statusDelta ) {
+                }
+
+                @Override public void logReceived( int lastLineNr, String logText ) {
+                }
+
+                @Override public void rowsReceived( String transformName, int copy, IRowMeta rowMeta, List<Object[]> rows ) throws HopException {
+                  rowsReceived.rowsReceived( RemotePipelineEngine.this, new RowBuffer( rowMeta, rows ) );
+                }
+              };
+              hopServer.streamPipelineStatus( subject.getName(), containerId, 0, componentName, copyNr, nrRows, SniffTransformServlet.TYPE_OUTPUT, false, listener );
+              return;
+            } catch ( Exception e ) {
+              logChannel.logDetailed( "Unable to stream output rows from transform '" + componentName + "', falling back to sniffing : " + e.getMessage() );
+            }
+          }
           String rowBufferXml = hopServer.sniffTransform( subject.getName(), componentName, containerId, "" + copyNr, nrRows, SniffTransformServlet.TYPE_OUTPUT );
           Node rowBufferNode = XmlHandler.getSubNode( XmlHandler.loadXmlString( rowBufferXml ), RowBuffer.XML_TAG );
           if ( rowBufferNode != null ) {
@@ -83,9 +83,20 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
   @HopMetadataProperty( key = "server_poll_interval" )
   protected String serverPollInterval;
 
+  @GuiWidgetElement(
+    id = "streamingStatus",
+    order = "50",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.CHECKBOX,
+    i18nPackage = "org.apache.hop.ui.pipeline.config",
+    label = "PipelineRunConfigurationDialog.StreamingStatus.Label"
+  )
+  @HopMetadataProperty( key = "streaming_status" )
+  protected boolean streamingStatus;
 
   public RemotePipelineRunConfiguration() {
     super();
+    this.streamingStatus = true;
   }
 
   public RemotePipelineRunConfiguration( RemotePipelineRunConfiguration config ) {
@@ -94,6 +105,7 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
     this.runConfigurationName = config.runConfigurationName;
     this.serverPollDelay = config.serverPollDelay;
     this.serverPollInterval = config.serverPollInterval;
+    this.streamingStatus = config.streamingStatus;
   }
 
   public List<String> getHopServerNames( ILogChannel log, IHopMetadataProvider metadataProvider ) {
@@ -187,4 +199,20 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
   public void setServerPollInterval( String serverPollInterval ) {
     this.serverPollInterval = serverPollInterval;
   }
+
+  /**
+   * Gets streamingStatus
+   *
+   * @return value of streamingStatus
+   */
+  public boolean isStreamingStatus() {
+    return streamingStatus;
+  }
+
+  /**
+   * @param streamingStatus The streamingStatus to set
+   */
+  public void setStreamingStatus( boolean streamingStatus ) {
+    this.streamingStatus = streamingStatus;
+  }
 }
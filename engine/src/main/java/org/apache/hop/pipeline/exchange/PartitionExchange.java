@@ -0,0 +1,308 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.exchange;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.encryption.Encr;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.server.HopServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wires a partitioned pipeline which runs on several hop servers at once. Every server runs the same pipeline with the
+ * same {@link Const#HOP_ROW_EXCHANGE_ID} and its own name in {@link Const#HOP_ROW_EXCHANGE_SERVER}. The partition
+ * schema says which hop server runs which partition. The partitioner (for example the mod partitioner) picks a
+ * partition for every row as usual, but the row sets to partitions running on other servers are replaced by
+ * {@link RemoteProducerRowSet}s and the locally running partitions get a {@link RemoteConsumerRowSet} for every
+ * producing copy running elsewhere.
+ * <p>
+ * Copies of partitions running on another server are still started locally but never get any rows.
+ * Transforms which are not partitioned run on every server: make sure they each read their own share of the input.
+ * <p>
+ * Producers have to sign their handshake with a secret derived from the exchange ID and the password of the receiving
+ * hop server, and the row exchange server only listens on the hostname of the local hop server. The rows are not
+ * encrypted though: only run distributed pipelines on a trusted network and use a fresh exchange ID for every run.
+ */
+public class PartitionExchange {
+
+  private final Pipeline pipeline;
+  private final PipelineMeta pipelineMeta;
+  private final String localServerName;
+  private final String exchangeId;
+  private final int portOffset;
+  private final int timeout;
+  private final Set<String> serverNames;
+  private final Map<String, HopServer> hopServers;
+
+  private final List<RemoteProducerRowSet> producers;
+  private final List<RemoteConsumerRowSet> consumers;
+  private final List<String> consumerKeys;
+  private RowExchangeServer exchangeServer;
+  private boolean disposed;
+
+  private PartitionExchange( Pipeline pipeline, String localServerName, String exchangeId, Set<String> serverNames ) {
+    this.pipeline = pipeline;
+    this.pipelineMeta = pipeline.getPipelineMeta();
+    this.localServerName = localServerName;
+    this.exchangeId = exchangeId;
+    this.serverNames = serverNames;
+    this.portOffset = Const.toInt( pipeline.getVariable( Const.HOP_ROW_EXCHANGE_PORT_OFFSET ), RowExchangeProtocol.DEFAULT_PORT_OFFSET );
+    this.timeout = Const.toInt( pipeline.getVariable( Const.HOP_ROW_EXCHANGE_TIMEOUT ), RowExchangeProtocol.DEFAULT_TIMEOUT );
+    this.hopServers = new HashMap<>();
+    this.producers = new ArrayList<>();
+    this.consumers = new ArrayList<>();
+    this.consumerKeys = new ArrayList<>();
+  }
+
+  /**
+   * Create the exchange for a pipeline
+   *
+   * @param pipeline the pipeline to wire
+   * @return the exchange or null if the pipeline doesn't run distributed
+   * @throws HopException in case the distributed setup is incomplete
+   */
+  public static PartitionExchange create( Pipeline pipeline ) throws HopException {
+    String localServerName = pipeline.getVariable( Const.HOP_ROW_EXCHANGE_SERVER );
+    if ( Utils.isEmpty( localServerName ) ) {
+      return null;
+    }
+
+    Set<String> serverNames = new LinkedHashSet<>();
+    for ( TransformMeta transformMeta : pipeline.getPipelineMeta().getTransforms() ) {
+      if ( transformMeta.isPartitioned() ) {
+        PartitionSchema partitionSchema = transformMeta.getTransformPartitioningMeta().getPartitionSchema();
+        if ( partitionSchema.isDistributed() ) {
+          for ( String hopServerName : partitionSchema.getHopServerNames() ) {
+            serverNames.add( pipeline.environmentSubstitute( hopServerName ) );
+          }
+        }
+      }
+    }
+    if ( serverNames.isEmpty() ) {
+      return null;
+    }
+    if ( !serverNames.contains( localServerName ) ) {
+      throw new HopException( "Hop server '" + localServerName + "' doesn't run any of the partitions of pipeline '"
+        + pipeline.getPipelineMeta().getName() + "', the partitions run on " + serverNames );
+    }
+
+    String exchangeId = pipeline.getVariable( Const.HOP_ROW_EXCHANGE_ID );
+    if ( Utils.isEmpty( exchangeId ) ) {
+      throw new HopException( "Please set variable " + Const.HOP_ROW_EXCHANGE_ID + " to the same value on all hop servers running pipeline '"
+        + pipeline.getPipelineMeta().getName() + "'" );
+    }
+
+    return new PartitionExchange( pipeline, localServerName, exchangeId, serverNames );
+  }
+
+  /**
+   * Replace the row sets going to partitions running on other hop servers. This needs to happen before the transforms
+   * are created since they look up their row sets when they are constructed.
+   *
+   * @param rowSets the row sets of the pipeline
+   * @throws HopException in case a hop server can't be found
+   */
+  public void replaceRemoteRowSets( List<IRowSet> rowSets ) throws HopException {
+    for ( int i = 0; i < rowSets.size(); i++ ) {
+      IRowSet rowSet = rowSets.get( i );
+      TransformMeta fromMeta = pipelineMeta.findTransform( rowSet.getOriginTransformName() );
+      TransformMeta toMeta = pipelineMeta.findTransform( rowSet.getDestinationTransformName() );
+      int fromCopy = rowSet.getOriginTransformCopy();
+      int toCopy = rowSet.getDestinationTransformCopy();
+
+      if ( !runsOn( fromMeta, fromCopy, localServerName ) ) {
+        // This copy runs elsewhere and produces nothing here
+        continue;
+      }
+      String owner = getOwner( toMeta, toCopy );
+      if ( owner == null || owner.equals( localServerName ) ) {
+        continue;
+      }
+
+      HopServer hopServer = getHopServer( owner );
+      String exchangeKey = RowExchangeProtocol.getExchangeKey( exchangeId, fromMeta.getName(), fromCopy, toMeta.getName(), toCopy, localServerName );
+      RemoteProducerRowSet producer = new RemoteProducerRowSet( pipeline.getRowSetSize(),
+        hopServer.environmentSubstitute( hopServer.getHostname() ), getExchangePort( hopServer ), exchangeKey,
+        getSecret( hopServer ), RowExchangeProtocol.DEFAULT_BATCH_SIZE, timeout,
+        e -> exchangeFailed( fromMeta.getName(), fromCopy, e ) );
+      producer.setThreadNameFromToCopy( fromMeta.getName(), fromCopy, toMeta.getName(), toCopy );
+      producer.setRemoteHopServerName( owner );
+      rowSets.set( i, producer );
+      producers.add( producer );
+    }
+  }
+
+  /**
+   * Give the locally running partitions an input row set for every producing copy running on another hop server.
+   *
+   * @param rowSets the row sets of the pipeline
+   * @throws HopException in case the row exchange server can't be started
+   */
+  public void addRemoteInputRowSets( List<IRowSet> rowSets ) throws HopException {
+    for ( IRowSet rowSet : rowSets ) {
+      TransformMeta fromMeta = pipelineMeta.findTransform( rowSet.getOriginTransformName() );
+      TransformMeta toMeta = pipelineMeta.findTransform( rowSet.getDestinationTransformName() );
+      int fromCopy = rowSet.getOriginTransformCopy();
+      int toCopy = rowSet.getDestinationTransformCopy();
+
+      if ( !localServerName.equals( getOwner( toMeta, toCopy ) ) ) {
+        continue;
+      }
+      ITransform transform = pipeline.findTransformInterface( toMeta.getName(), toCopy );
+      if ( transform == null ) {
+        continue;
+      }
+
+      for ( String serverName : serverNames ) {
+        if ( serverName.equals( localServerName ) || !runsOn( fromMeta, fromCopy, serverName ) ) {
+          continue;
+        }
+        String exchangeKey = RowExchangeProtocol.getExchangeKey( exchangeId, fromMeta.getName(), fromCopy, toMeta.getName(), toCopy, serverName );
+        RemoteConsumerRowSet consumer = new RemoteConsumerRowSet( pipeline.getRowSetSize(), RowExchangeProtocol.DEFAULT_WINDOW,
+          e -> exchangeFailed( toMeta.getName(), toCopy, e ) );
+        consumer.setThreadNameFromToCopy( fromMeta.getName(), fromCopy, toMeta.getName(), toCopy );
+        consumer.setRemoteHopServerName( serverName );
+        transform.addRowSetToInputRowSets( consumer );
+
+        getExchangeServer().register( exchangeKey, consumer, getSecret( getHopServer( localServerName ) ) );
+        consumers.add( consumer );
+        consumerKeys.add( exchangeKey );
+      }
+    }
+
+    if ( pipeline.getLogChannel().isDetailed() ) {
+      pipeline.getLogChannel().logDetailed( "Distributed pipeline on hop server '" + localServerName + "' sends rows over "
+        + producers.size() + " and receives rows over " + consumers.size() + " remote row sets" );
+    }
+  }
+
+  /**
+   * Close the connections and stop accepting rows for this pipeline. Unless the pipeline was stopped, the rows still
+   * on their way to other hop servers are delivered first. The row exchange server stops when no other pipeline uses
+   * it.
+   */
+  public synchronized void dispose() {
+    if ( disposed ) {
+      return;
+    }
+    disposed = true;
+
+    for ( RemoteProducerRowSet producer : producers ) {
+      try {
+        if ( !pipeline.isStopped() && !producer.awaitDelivery( timeout ) ) {
+          pipeline.getLogChannel().logError( "Rows for " + producer.getExchangeKey() + " weren't delivered within "
+            + timeout + "ms" );
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      producer.close();
+    }
+    for ( RemoteConsumerRowSet consumer : consumers ) {
+      consumer.close();
+    }
+    if ( exchangeServer != null ) {
+      for ( String exchangeKey : consumerKeys ) {
+        exchangeServer.unregister( exchangeKey );
+      }
+      exchangeServer.release();
+      exchangeServer = null;
+    }
+  }
+
+  private void exchangeFailed( String transformName, int copy, Exception e ) {
+    pipeline.getLogChannel().logError( "Error exchanging rows of transform '" + transformName + "' copy " + copy + " with another hop server", e );
+    ITransform transform = pipeline.findTransformInterface( transformName, copy );
+    if ( transform != null ) {
+      transform.setErrors( transform.getErrors() + 1 );
+    }
+    pipeline.stopAll();
+  }
+
+  /**
+   * @return the name of the hop server running the given copy or null if it runs on every server
+   */
+  private String getOwner( TransformMeta transformMeta, int copy ) {
+    if ( transformMeta == null || !transformMeta.isPartitioned() ) {
+      return null;
+    }
+    PartitionSchema partitionSchema = transformMeta.getTransformPartitioningMeta().getPartitionSchema();
+    if ( !partitionSchema.isDistributed() ) {
+      return null;
+    }
+    return pipeline.environmentSubstitute( partitionSchema.getHopServerName( copy ) );
+  }
+
+  private boolean runsOn( TransformMeta transformMeta, int copy, String serverName ) {
+    String owner = getOwner( transformMeta, copy );
+    return owner == null || owner.equals( serverName );
+  }
+
+  private HopServer getHopServer( String name ) throws HopException {
+    HopServer hopServer = hopServers.get( name );
+    if ( hopServer == null ) {
+      hopServer = pipeline.getMetadataProvider().getSerializer( HopServer.class ).load( name );
+      if ( hopServer == null ) {
+        throw new HopException( "Unable to find hop server '" + name + "' to exchange rows with" );
+      }
+      hopServers.put( name, hopServer );
+    }
+    return hopServer;
+  }
+
+  private byte[] getSecret( HopServer hopServer ) {
+    String password = Encr.decryptPasswordOptionallyEncrypted( hopServer.environmentSubstitute( hopServer.getPassword() ) );
+    return RowExchangeProtocol.getSecret( exchangeId, password );
+  }
+
+  private int getExchangePort( HopServer hopServer ) throws HopException {
+    int port = Const.toInt( hopServer.environmentSubstitute( hopServer.getPort() ), -1 );
+    if ( port < 0 ) {
+      throw new HopException( "Hop server '" + hopServer.getName() + "' doesn't have a valid port to derive the row exchange port from" );
+    }
+    return port + portOffset;
+  }
+
+  private RowExchangeServer getExchangeServer() throws HopException {
+    if ( exchangeServer == null ) {
+      HopServer localServer = getHopServer( localServerName );
+      exchangeServer = RowExchangeServer.acquire( localServer.environmentSubstitute( localServer.getHostname() ),
+        getExchangePort( localServer ), timeout );
+    }
+    return exchangeServer;
+  }
+}
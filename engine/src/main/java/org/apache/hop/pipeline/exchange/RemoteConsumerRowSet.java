@@ -0,0 +1,153 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.exchange;
+
+import org.apache.hop.core.BlockingRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The input row set of a transform copy receiving rows from a producing transform copy on another Hop server. The
+ * {@link RowExchangeServer} hands over the connection of the remote producer once it arrives. Rows are only
+ * acknowledged after they are in the buffer of this row set, so a slow consumer automatically slows down the remote
+ * producer.
+ */
+public class RemoteConsumerRowSet extends BlockingRowSet {
+
+  private final int window;
+  private final Consumer<Exception> errorListener;
+
+  private volatile boolean attached;
+  private volatile boolean closed;
+
+  private long nrRowsReceived;
+
+  /**
+   * @param bufferSize    the number of rows buffered locally
+   * @param window        the number of batches the producer may send ahead
+   * @param errorListener called when the rows can't be received
+   */
+  public RemoteConsumerRowSet( int bufferSize, int window, Consumer<Exception> errorListener ) {
+    super( bufferSize );
+    this.window = window;
+    this.errorListener = errorListener;
+  }
+
+  /**
+   * Receive the rows of the remote producer until it signals the end.
+   *
+   * @param in  the stream from the producer, positioned after the handshake
+   * @param out the stream to the producer
+   * @throws IOException  in case of a network error
+   * @throws HopException in case the rows couldn't be decoded
+   */
+  public void receive( DataInputStream in, DataOutputStream out ) throws IOException, HopException {
+    attached = true;
+
+    out.writeByte( RowExchangeProtocol.HANDSHAKE_OK );
+    out.writeInt( window );
+    out.flush();
+
+    IRowMeta rowMeta = null;
+    while ( true ) {
+      int frame = in.read();
+      switch ( frame ) {
+        case RowExchangeProtocol.FRAME_META:
+          rowMeta = new RowMeta( in );
+          break;
+        case RowExchangeProtocol.FRAME_BATCH:
+          if ( rowMeta == null ) {
+            throw new HopException( "Received a batch of rows before the row metadata" );
+          }
+          int nrRows = in.readInt();
+          for ( int i = 0; i < nrRows; i++ ) {
+            Object[] row = rowMeta.readData( in );
+            while ( !putRowWait( rowMeta, row, 100, TimeUnit.MILLISECONDS ) ) {
+              if ( closed ) {
+                throw new IOException( "The row set was closed while receiving rows" );
+              }
+            }
+          }
+          nrRowsReceived += nrRows;
+          out.writeByte( RowExchangeProtocol.FRAME_CREDIT );
+          out.flush();
+          break;
+        case RowExchangeProtocol.FRAME_END:
+          setDone();
+          out.writeByte( RowExchangeProtocol.FRAME_END_ACK );
+          out.flush();
+          return;
+        case -1:
+          throw new EOFException( "The remote producer closed the connection before the end of the rows" );
+        default:
+          throw new HopException( "Unexpected frame " + frame + " from the remote producer" );
+      }
+    }
+  }
+
+  /**
+   * Report an error and unblock the consuming transform
+   *
+   * @param e the error
+   */
+  public void fail( Exception e ) {
+    if ( !closed ) {
+      setDone();
+      errorListener.accept( e );
+    }
+  }
+
+  /**
+   * Stop receiving rows
+   */
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Gets attached
+   *
+   * @return true if the remote producer connected
+   */
+  public boolean isAttached() {
+    return attached;
+  }
+
+  /**
+   * Gets nrRowsReceived
+   *
+   * @return value of nrRowsReceived
+   */
+  public long getNrRowsReceived() {
+    return nrRowsReceived;
+  }
+}
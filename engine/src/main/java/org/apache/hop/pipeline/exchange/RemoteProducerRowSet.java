@@ -0,0 +1,321 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.exchange;
+
+import org.apache.hop.core.BlockingRowSet;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The output row set of a transform copy whose target copy runs on another Hop server. The producing transform puts
+ * rows in a small local buffer as usual. A sender thread takes them out in batches and writes them to the row
+ * exchange server of the remote Hop server, never having more than the window of unacknowledged batches in flight.
+ * When the remote consumer falls behind, the local buffer fills up and the producing transform blocks, just like with
+ * a local row set.
+ * <p>
+ * A local transform copy reading from this row set (the idle copy of a partition running elsewhere) never gets any
+ * rows.
+ */
+public class RemoteProducerRowSet extends BlockingRowSet {
+
+  private final String hostname;
+  private final int port;
+  private final String exchangeKey;
+  private final byte[] secret;
+  private final int batchSize;
+  private final int timeout;
+  private final Consumer<Exception> errorListener;
+
+  private Thread senderThread;
+  private volatile Socket socket;
+  private volatile boolean failed;
+  private volatile boolean closed;
+
+  private long nrRowsSent;
+  private long nrBatchesSent;
+
+  /**
+   * @param bufferSize    the number of rows buffered locally
+   * @param hostname      the host of the remote row exchange server
+   * @param port          the port of the remote row exchange server
+   * @param exchangeKey   the key under which the remote consumer is registered
+   * @param secret        the secret of the run, see {@link RowExchangeProtocol#getSecret}
+   * @param batchSize     the maximum number of rows sent in one batch
+   * @param timeout       the time in ms to keep trying to reach the remote consumer
+   * @param errorListener called when the rows can't be delivered
+   */
+  public RemoteProducerRowSet( int bufferSize, String hostname, int port, String exchangeKey, byte[] secret,
+                               int batchSize, int timeout, Consumer<Exception> errorListener ) {
+    super( bufferSize );
+    this.hostname = hostname;
+    this.port = port;
+    this.exchangeKey = exchangeKey;
+    this.secret = secret;
+    this.batchSize = batchSize;
+    this.timeout = timeout;
+    this.errorListener = errorListener;
+  }
+
+  @Override
+  public boolean putRowWait( IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    if ( failed ) {
+      // The error was reported, don't block the producing transform
+      return true;
+    }
+    startSender();
+    return super.putRowWait( rowMeta, rowData, time, tu );
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    startSender();
+  }
+
+  @Override
+  public Object[] getRow() {
+    return null;
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return null;
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    return null;
+  }
+
+  @Override
+  public int drainTo( List<Object[]> rows, int maxRows ) {
+    return 0;
+  }
+
+  /**
+   * Wait until the rows handed to this row set are delivered and confirmed by the remote consumer
+   *
+   * @param timeout the maximum time to wait in ms
+   * @return true if the sender finished within the timeout
+   * @throws InterruptedException in case the wait was interrupted
+   */
+  public boolean awaitDelivery( long timeout ) throws InterruptedException {
+    Thread thread;
+    synchronized ( this ) {
+      thread = senderThread;
+    }
+    if ( thread == null ) {
+      return true;
+    }
+    thread.join( timeout );
+    return !thread.isAlive();
+  }
+
+  /**
+   * Stop sending and close the connection to the remote consumer
+   */
+  public void close() {
+    closed = true;
+    Socket s = socket;
+    if ( s != null ) {
+      try {
+        s.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+  }
+
+  private synchronized void startSender() {
+    if ( senderThread == null ) {
+      senderThread = new Thread( this::send, "Row exchange: " + exchangeKey );
+      senderThread.setDaemon( true );
+      senderThread.start();
+    }
+  }
+
+  private void send() {
+    try ( Socket s = connect() ) {
+      socket = s;
+      DataOutputStream out = new DataOutputStream( new BufferedOutputStream( s.getOutputStream(), 65536 ) );
+      DataInputStream in = new DataInputStream( new BufferedInputStream( s.getInputStream() ) );
+
+      out.writeInt( RowExchangeProtocol.MAGIC );
+      out.writeByte( RowExchangeProtocol.VERSION );
+      out.writeUTF( exchangeKey );
+      out.flush();
+
+      s.setSoTimeout( timeout );
+      byte[] nonce = new byte[ RowExchangeProtocol.NONCE_SIZE ];
+      in.readFully( nonce );
+      out.write( RowExchangeProtocol.sign( secret, nonce, exchangeKey ) );
+      out.flush();
+
+      int answer = in.readUnsignedByte();
+      if ( answer == RowExchangeProtocol.HANDSHAKE_DENIED ) {
+        throw new HopException( "The remote server at " + hostname + ":" + port + " refused the secret for " + exchangeKey
+          + ", check that " + Const.HOP_ROW_EXCHANGE_ID + " and the password of the hop server are the same everywhere" );
+      }
+      if ( answer != RowExchangeProtocol.HANDSHAKE_OK ) {
+        throw new HopException( "The remote server at " + hostname + ":" + port + " doesn't expect rows for " + exchangeKey );
+      }
+      int credits = in.readInt();
+      s.setSoTimeout( 0 );
+
+      boolean metaSent = false;
+      List<Object[]> batch = new ArrayList<>( batchSize );
+      while ( !closed ) {
+        Object[] row = super.getRowWait( 10, TimeUnit.MILLISECONDS );
+        if ( row != null ) {
+          batch.add( row );
+          if ( batch.size() < batchSize ) {
+            continue;
+          }
+        }
+        boolean last = row == null && super.isDone() && super.size() == 0;
+        if ( !batch.isEmpty() ) {
+          while ( credits == 0 ) {
+            credits += readCredit( in );
+          }
+          IRowMeta rowMeta = getRowMeta();
+          if ( !metaSent ) {
+            out.writeByte( RowExchangeProtocol.FRAME_META );
+            rowMeta.writeMeta( out );
+            metaSent = true;
+          }
+          out.writeByte( RowExchangeProtocol.FRAME_BATCH );
+          out.writeInt( batch.size() );
+          for ( Object[] batchRow : batch ) {
+            rowMeta.writeData( out, batchRow );
+          }
+          out.flush();
+          credits--;
+          nrRowsSent += batch.size();
+          nrBatchesSent++;
+          batch.clear();
+
+          while ( in.available() > 0 ) {
+            credits += readCredit( in );
+          }
+        }
+        if ( last ) {
+          out.writeByte( RowExchangeProtocol.FRAME_END );
+          out.flush();
+          // Wait until the consumer confirms it has everything
+          //
+          int frame;
+          do {
+            frame = in.read();
+          } while ( frame == RowExchangeProtocol.FRAME_CREDIT );
+          if ( frame != RowExchangeProtocol.FRAME_END_ACK ) {
+            throw new EOFException( "The connection to " + hostname + ":" + port + " was closed before the end of the rows was confirmed" );
+          }
+          return;
+        }
+      }
+    } catch ( Exception e ) {
+      if ( !closed ) {
+        failed = true;
+        clear();
+        super.setDone();
+        errorListener.accept( new HopException( "Error sending rows to " + hostname + ":" + port + " for " + exchangeKey, e ) );
+      }
+    } finally {
+      socket = null;
+    }
+  }
+
+  private Socket connect() throws IOException, InterruptedException {
+    // The remote server might not be listening yet, keep trying until the timeout
+    //
+    long deadline = System.currentTimeMillis() + timeout;
+    while ( true ) {
+      Socket s = new Socket();
+      try {
+        s.setTcpNoDelay( true );
+        s.connect( new InetSocketAddress( hostname, port ), timeout );
+        return s;
+      } catch ( ConnectException e ) {
+        s.close();
+        if ( closed || System.currentTimeMillis() > deadline ) {
+          throw e;
+        }
+        Thread.sleep( 250 );
+      }
+    }
+  }
+
+  private int readCredit( DataInputStream in ) throws IOException {
+    int frame = in.read();
+    if ( frame == RowExchangeProtocol.FRAME_CREDIT ) {
+      return 1;
+    }
+    if ( frame < 0 ) {
+      throw new EOFException( "The connection to " + hostname + ":" + port + " was closed" );
+    }
+    throw new IOException( "Unexpected frame " + frame + " from " + hostname + ":" + port );
+  }
+
+  /**
+   * Gets nrRowsSent
+   *
+   * @return value of nrRowsSent
+   */
+  public long getNrRowsSent() {
+    return nrRowsSent;
+  }
+
+  /**
+   * Gets nrBatchesSent
+   *
+   * @return value of nrBatchesSent
+   */
+  public long getNrBatchesSent() {
+    return nrBatchesSent;
+  }
+
+  /**
+   * Gets exchangeKey
+   *
+   * @return value of exchangeKey
+   */
+  public String getExchangeKey() {
+    return exchangeKey;
+  }
+}
@@ -0,0 +1,141 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.exchange;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * The wire protocol used to move rows between the transform copies of a partitioned pipeline running on several Hop
+ * servers.
+ * <p>
+ * The producer opens a socket to the row exchange server of the consumer and sends a handshake: {@link #MAGIC},
+ * {@link #VERSION} and the exchange key. The server answers with a random nonce of {@link #NONCE_SIZE} bytes and the
+ * producer proves it knows the secret of the run by sending the {@link #sign(byte[], byte[], String)} signature of the
+ * nonce and the exchange key. The consumer answers {@link #HANDSHAKE_OK} followed by the number of batches the
+ * producer can send ahead (the window), {@link #HANDSHAKE_UNKNOWN} or {@link #HANDSHAKE_DENIED}. After that the
+ * producer sends the row metadata once ({@link #FRAME_META}) and batches of rows ({@link #FRAME_BATCH}) encoded with
+ * {@link org.apache.hop.core.row.IRowMeta#writeData}. For every batch it took in, the consumer sends back a
+ * {@link #FRAME_CREDIT} so the producer never has more than the window of batches in flight. The producer closes with
+ * {@link #FRAME_END} which the consumer acknowledges with {@link #FRAME_END_ACK}.
+ * <p>
+ * The secret is derived from the exchange ID and the password of the receiving Hop server, so only a party knowing
+ * both can inject rows. The rows themselves are not encrypted: only run distributed pipelines on a trusted network.
+ */
+public class RowExchangeProtocol {
+
+  public static final int MAGIC = 0x48524558; // HREX
+  public static final int VERSION = 2;
+
+  public static final int NONCE_SIZE = 16;
+  public static final int SIGNATURE_SIZE = 32;
+
+  public static final int HANDSHAKE_OK = 0;
+  public static final int HANDSHAKE_UNKNOWN = 1;
+  public static final int HANDSHAKE_DENIED = 2;
+
+  public static final int FRAME_META = 1;
+  public static final int FRAME_BATCH = 2;
+  public static final int FRAME_END = 3;
+
+  public static final int FRAME_CREDIT = 10;
+  public static final int FRAME_END_ACK = 11;
+
+  public static final int DEFAULT_BATCH_SIZE = 500;
+  public static final int DEFAULT_WINDOW = 4;
+  public static final int DEFAULT_PORT_OFFSET = 1000;
+  public static final int DEFAULT_TIMEOUT = 60000;
+
+  private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+  private RowExchangeProtocol() {
+  }
+
+  /**
+   * Builds the secret producers and consumers of one distributed pipeline run share.
+   *
+   * @param exchangeId the ID shared by all servers running the pipeline
+   * @param password   the decrypted password of the Hop server receiving the rows
+   * @return the secret
+   */
+  public static byte[] getSecret( String exchangeId, String password ) {
+    return ( exchangeId + "/" + Const.NVL( password, "" ) ).getBytes( StandardCharsets.UTF_8 );
+  }
+
+  /**
+   * Signs the handshake of a producer
+   *
+   * @param secret      the secret of the run
+   * @param nonce       the nonce sent by the row exchange server
+   * @param exchangeKey the exchange key the producer asks for
+   * @return the signature
+   * @throws HopException in case the signature algorithm isn't available
+   */
+  public static byte[] sign( byte[] secret, byte[] nonce, String exchangeKey ) throws HopException {
+    try {
+      Mac mac = Mac.getInstance( SIGNATURE_ALGORITHM );
+      mac.init( new SecretKeySpec( secret, SIGNATURE_ALGORITHM ) );
+      mac.update( nonce );
+      return mac.doFinal( exchangeKey.getBytes( StandardCharsets.UTF_8 ) );
+    } catch ( GeneralSecurityException e ) {
+      throw new HopException( "Unable to sign the row exchange handshake", e );
+    }
+  }
+
+  /**
+   * Checks the signature of a producer handshake in constant time
+   *
+   * @param secret      the secret of the run
+   * @param nonce       the nonce sent to the producer
+   * @param exchangeKey the exchange key the producer asks for
+   * @param signature   the signature sent by the producer
+   * @return true if the producer knows the secret
+   * @throws HopException in case the signature algorithm isn't available
+   */
+  public static boolean verify( byte[] secret, byte[] nonce, String exchangeKey, byte[] signature ) throws HopException {
+    return MessageDigest.isEqual( sign( secret, nonce, exchangeKey ), signature );
+  }
+
+  /**
+   * Builds the key which identifies one row set between two transform copies in a distributed pipeline run.
+   *
+   * @param exchangeId      the ID shared by all servers running the pipeline
+   * @param fromTransform   the producing transform
+   * @param fromCopy        the producing copy
+   * @param toTransform     the consuming transform
+   * @param toCopy          the consuming copy
+   * @param fromServerName  the name of the Hop server the producing copy runs on
+   * @return the exchange key
+   */
+  public static String getExchangeKey( String exchangeId, String fromTransform, int fromCopy, String toTransform, int toCopy,
+                                       String fromServerName ) {
+    return exchangeId + "/" + fromTransform + "." + fromCopy + "/" + toTransform + "." + toCopy + "/" + fromServerName;
+  }
+}
@@ -0,0 +1,286 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.exchange;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.util.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts the connections of remote producers and hands them to the {@link RemoteConsumerRowSet} registered under
+ * the exchange key they ask for, once they proved they know the secret the consumer was registered with. There is one
+ * server per port in the JVM, so several Hop servers can run side by side on the same host. The server listens on the
+ * hostname of its Hop server only and stops when the last pipeline using it releases it.
+ * <p>
+ * The rows are sent without encryption: only run distributed pipelines on a trusted network.
+ */
+public class RowExchangeServer {
+
+  private static final Map<Integer, RowExchangeServer> servers = new HashMap<>();
+
+  private final ILogChannel log;
+  private final ServerSocket serverSocket;
+  private final int timeout;
+  private final Map<String, Registration> consumers;
+  private final ExecutorService handlers;
+  private final ScheduledExecutorService watchdog;
+  private final SecureRandom random;
+
+  private int nrUsers;
+
+  private RowExchangeServer( String hostname, int port, int timeout ) throws IOException {
+    this.log = new LogChannel( "Row exchange" );
+    InetAddress bindAddress = Utils.isEmpty( hostname ) ? null : InetAddress.getByName( hostname );
+    this.serverSocket = new ServerSocket( port, 50, bindAddress );
+    this.timeout = timeout;
+    this.consumers = new HashMap<>();
+    this.random = new SecureRandom();
+    this.handlers = Executors.newCachedThreadPool( runnable -> {
+      Thread thread = new Thread( runnable, "Row exchange receiver" );
+      thread.setDaemon( true );
+      return thread;
+    } );
+    this.watchdog = Executors.newSingleThreadScheduledExecutor( runnable -> {
+      Thread thread = new Thread( runnable, "Row exchange watchdog" );
+      thread.setDaemon( true );
+      return thread;
+    } );
+
+    Thread acceptThread = new Thread( this::acceptConnections, "Row exchange server on port " + getPort() );
+    acceptThread.setDaemon( true );
+    acceptThread.start();
+  }
+
+  /**
+   * Get the row exchange server listening on the given port, start it if needed. Every call needs to be matched by a
+   * call to {@link #release()}.
+   *
+   * @param hostname the hostname or address to listen on, empty listens on all addresses
+   * @param port     the port to listen on, 0 picks a free port
+   * @param timeout  the time in ms producers and consumers wait for each other
+   * @return the row exchange server
+   * @throws HopException in case the server couldn't be started
+   */
+  public static synchronized RowExchangeServer acquire( String hostname, int port, int timeout ) throws HopException {
+    RowExchangeServer server = servers.get( port );
+    if ( server == null ) {
+      try {
+        server = new RowExchangeServer( hostname, port, timeout );
+      } catch ( IOException e ) {
+        throw new HopException( "Unable to start the row exchange server on " + hostname + ":" + port, e );
+      }
+      servers.put( server.getPort(), server );
+    }
+    server.nrUsers++;
+    return server;
+  }
+
+  /**
+   * Stop using this server, it stops listening when no other pipeline uses it.
+   */
+  public void release() {
+    synchronized ( RowExchangeServer.class ) {
+      if ( --nrUsers > 0 ) {
+        return;
+      }
+      servers.remove( getPort() );
+    }
+    close();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * @return true if the server stopped listening
+   */
+  public boolean isClosed() {
+    return serverSocket.isClosed();
+  }
+
+  /**
+   * Register a consumer row set. If no producer connects for it within the timeout the row set fails.
+   *
+   * @param exchangeKey the key the producer will ask for
+   * @param rowSet      the row set to hand the rows to
+   * @param secret      the secret the producer has to prove it knows, see {@link RowExchangeProtocol#getSecret}
+   */
+  public synchronized void register( String exchangeKey, RemoteConsumerRowSet rowSet, byte[] secret ) {
+    Registration registration = new Registration( rowSet, secret );
+    consumers.put( exchangeKey, registration );
+    notifyAll();
+
+    watchdog.schedule( () -> {
+      if ( unregister( exchangeKey, registration ) && !rowSet.isAttached() ) {
+        rowSet.fail( new HopException( "No remote producer connected for " + exchangeKey + " within " + timeout + "ms" ) );
+      }
+    }, timeout, TimeUnit.MILLISECONDS );
+  }
+
+  /**
+   * Remove a consumer row set which is no longer needed
+   *
+   * @param exchangeKey the key of the consumer
+   */
+  public synchronized void unregister( String exchangeKey ) {
+    consumers.remove( exchangeKey );
+  }
+
+  private synchronized boolean unregister( String exchangeKey, Registration registration ) {
+    return consumers.remove( exchangeKey, registration );
+  }
+
+  /**
+   * A producer can arrive before the consumer is registered: the remote pipeline might be ahead of ours. The consumer
+   * is only handed out to a producer which signed the nonce with the secret of the consumer.
+   *
+   * @return the consumer, null if none was registered within the timeout
+   * @throws HopException in case the signature doesn't match
+   */
+  private synchronized RemoteConsumerRowSet claimConsumer( String exchangeKey, byte[] nonce, byte[] signature )
+    throws InterruptedException, HopException {
+    long deadline = System.currentTimeMillis() + timeout;
+    Registration registration = consumers.get( exchangeKey );
+    while ( registration == null ) {
+      long wait = deadline - System.currentTimeMillis();
+      if ( wait <= 0 ) {
+        return null;
+      }
+      wait( wait );
+      registration = consumers.get( exchangeKey );
+    }
+    if ( !RowExchangeProtocol.verify( registration.secret, nonce, exchangeKey, signature ) ) {
+      throw new HopException( "Invalid signature" );
+    }
+    consumers.remove( exchangeKey );
+    return registration.rowSet;
+  }
+
+  private void acceptConnections() {
+    while ( !serverSocket.isClosed() ) {
+      try {
+        Socket socket = serverSocket.accept();
+        handlers.submit( () -> handleConnection( socket ) );
+      } catch ( IOException e ) {
+        if ( !serverSocket.isClosed() ) {
+          log.logError( "Error accepting a row exchange connection", e );
+        }
+      }
+    }
+  }
+
+  private void handleConnection( Socket socket ) {
+    RemoteConsumerRowSet rowSet = null;
+    try ( Socket s = socket ) {
+      s.setTcpNoDelay( true );
+      s.setSoTimeout( timeout );
+      DataInputStream in = new DataInputStream( new BufferedInputStream( s.getInputStream(), 65536 ) );
+      DataOutputStream out = new DataOutputStream( new BufferedOutputStream( s.getOutputStream() ) );
+
+      int magic = in.readInt();
+      int version = in.readUnsignedByte();
+      if ( magic != RowExchangeProtocol.MAGIC || version != RowExchangeProtocol.VERSION ) {
+        log.logError( "Rejected a row exchange connection from " + s.getRemoteSocketAddress() + " with an unknown protocol" );
+        return;
+      }
+      String exchangeKey = in.readUTF();
+
+      byte[] nonce = new byte[ RowExchangeProtocol.NONCE_SIZE ];
+      random.nextBytes( nonce );
+      out.write( nonce );
+      out.flush();
+      byte[] signature = new byte[ RowExchangeProtocol.SIGNATURE_SIZE ];
+      in.readFully( signature );
+
+      try {
+        rowSet = claimConsumer( exchangeKey, nonce, signature );
+      } catch ( HopException e ) {
+        log.logError( "Rejected a row exchange connection from " + s.getRemoteSocketAddress() + " for " + exchangeKey
+          + ": the producer doesn't know the secret of the run" );
+        out.writeByte( RowExchangeProtocol.HANDSHAKE_DENIED );
+        out.flush();
+        return;
+      }
+      if ( rowSet == null ) {
+        out.writeByte( RowExchangeProtocol.HANDSHAKE_UNKNOWN );
+        out.flush();
+        return;
+      }
+
+      // The producer can be idle for a long time when its input is slow
+      //
+      s.setSoTimeout( 0 );
+      rowSet.receive( in, out );
+    } catch ( Exception e ) {
+      if ( rowSet != null ) {
+        rowSet.fail( e );
+      } else {
+        log.logError( "Error handling a row exchange connection", e );
+      }
+    }
+  }
+
+  /**
+   * Stop listening for producers
+   */
+  private void close() {
+    try {
+      serverSocket.close();
+    } catch ( IOException e ) {
+      // Ignore
+    }
+    handlers.shutdownNow();
+    watchdog.shutdownNow();
+  }
+
+  /**
+   * A consumer waiting for its producer
+   */
+  private static class Registration {
+    private final RemoteConsumerRowSet rowSet;
+    private final byte[] secret;
+
+    private Registration( RemoteConsumerRowSet rowSet, byte[] secret ) {
+      this.rowSet = rowSet;
+      this.secret = secret;
+    }
+  }
+}
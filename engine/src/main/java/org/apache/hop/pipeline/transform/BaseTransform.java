@@ -57,6 +57,7 @@ import org.apache.hop.pipeline.BasePartitioner;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.EngineComponentCounters;
 import org.apache.hop.pipeline.engine.IEngineComponent;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
@@ -75,6 +76,7 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -157,14 +159,59 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private IPipelineEngine<PipelineMeta> pipeline;
 
-  private final Object statusCountersLock = new Object();
-
   protected Date initStartDate;
   protected Date executionStartDate;
   protected Date firstRowReadDate;
   protected Date lastRowWrittenDate;
   protected Date executionEndDate;
 
+  // The status counters are updated by the transform thread for every row and polled by the GUI, the status servlets
+  // and the performance monitor. LongAdder keeps those two sides from contending on a shared monitor.
+  // Increments don't lock, so the value returned by increment*(), add*() and decrement*() is read after the update and
+  // can include updates made by other threads in the meantime. Setting a counter and taking a snapshot of all of them
+  // do take statusCountersLock, so a set is never lost and a snapshot never sees a counter halfway through a reset.
+  //
+  // The row handling in this class updates the counters directly since it doesn't need the new value.
+  // The deprecated public fields are still there for plugins which update them directly, the accessors add them to
+  // the counters.
+  //
+  private final Object statusCountersLock = new Object();
+
+  /**
+   * nr of lines read from previous transform(s)
+   */
+  private final LongAdder linesReadCounter = new LongAdder();
+
+  /**
+   * nr of lines written to next transform(s)
+   */
+  private final LongAdder linesWrittenCounter = new LongAdder();
+
+  /**
+   * nr of lines read from file or database
+   */
+  private final LongAdder linesInputCounter = new LongAdder();
+
+  /**
+   * nr of lines written to file or database
+   */
+  private final LongAdder linesOutputCounter = new LongAdder();
+
+  /**
+   * nr of updates in a database table or file
+   */
+  private final LongAdder linesUpdatedCounter = new LongAdder();
+
+  /**
+   * nr of lines skipped
+   */
+  private final LongAdder linesSkippedCounter = new LongAdder();
+
+  /**
+   * nr of lines rejected to an error handling transform
+   */
+  private final LongAdder linesRejectedCounter = new LongAdder();
+
   /**
    * nr of lines read from previous transform(s)
    *
@@ -214,7 +261,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   public long linesSkipped;
 
   /**
-   * total sleep time in ns caused by an empty input buffer (previous transform is slow)
+   * nr of lines rejected to an error handling transform
    *
    * @deprecated use {@link #getLinesRejected()} or {@link #incrementLinesRejected()}
    */
@@ -343,6 +390,11 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private static int NR_OF_ROWS_IN_BLOCK = 500;
 
+  /**
+   * The default maximum number of rows a transform processing rows in batches asks for with {@link #getRows(int)}
+   */
+  public static final int ROWS_IN_BATCH = 100;
+
   private int blockPointer;
 
   private List<ITransformFinishedListener> transformFinishedListeners;
@@ -358,6 +410,12 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   private int lowerBufferBoundary;
 
+  /**
+   * How long to wait for a row when reading from a single input row set. Several input row sets are always polled
+   * for 1ms at a time so that we can switch to the next one.
+   */
+  private long singleInputRowWaitMillis;
+
   /**
    * maximum number of errors to allow
    */
@@ -436,13 +494,20 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     init = false;
 
     synchronized ( statusCountersLock ) {
-      linesRead = 0L;
-      linesWritten = 0L;
-      linesUpdated = 0L;
-      linesSkipped = 0L;
-      linesRejected = 0L;
-      linesInput = 0L;
-      linesOutput = 0L;
+      linesReadCounter.reset();
+      linesWrittenCounter.reset();
+      linesUpdatedCounter.reset();
+      linesSkippedCounter.reset();
+      linesRejectedCounter.reset();
+      linesInputCounter.reset();
+      linesOutputCounter.reset();
+      linesRead = 0;
+      linesWritten = 0;
+      linesUpdated = 0;
+      linesSkipped = 0;
+      linesRejected = 0;
+      linesInput = 0;
+      linesOutput = 0;
     }
 
     inputRowSets = null;
@@ -482,8 +547,21 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
     dispatch();
 
-    upperBufferBoundary = (int) ( pipeline.getRowSetSize() * 0.99 );
-    lowerBufferBoundary = (int) ( pipeline.getRowSetSize() * 0.01 );
+    if ( pipeline.isSkippingRowSetThrottling() ) {
+      // Don't sleep near full or empty row sets, see Pipeline.isSkippingRowSetThrottling()
+      //
+      upperBufferBoundary = Integer.MAX_VALUE;
+      lowerBufferBoundary = -1;
+
+      // With a single input, park in the row set until a row arrives or the previous transform is done
+      // instead of waking up every millisecond.
+      //
+      singleInputRowWaitMillis = Const.TIMEOUT_GET_MILLIS;
+    } else {
+      upperBufferBoundary = (int) ( pipeline.getRowSetSize() * 0.99 );
+      lowerBufferBoundary = (int) ( pipeline.getRowSetSize() * 0.01 );
+      singleInputRowWaitMillis = 1;
+    }
   }
 
   @Override public boolean init() {
@@ -641,9 +719,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return linesRead;
-    }
+    return linesReadCounter.sum() + linesRead;
   }
 
   /**
@@ -652,9 +728,19 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRead;
-    }
+    linesReadCounter.increment();
+    return linesReadCounter.sum() + linesRead;
+  }
+
+  /**
+   * Increments the number of lines read from previous transforms
+   *
+   * @param nrLines the number of lines to add
+   * @return Returns the new value
+   */
+  public long addLinesRead( long nrLines ) {
+    linesReadCounter.add( nrLines );
+    return linesReadCounter.sum() + linesRead;
   }
 
   /**
@@ -663,18 +749,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return --linesRead;
-    }
+    linesReadCounter.decrement();
+    return linesReadCounter.sum() + linesRead;
   }
 
   /**
    * @param newLinesReadValue the new number of lines read from previous transforms
    */
   public void setLinesRead( long newLinesReadValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRead = newLinesReadValue;
-    }
+    setCounter( linesReadCounter, newLinesReadValue );
+    linesRead = 0;
   }
 
   /**
@@ -682,9 +766,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return linesInput;
-    }
+    return linesInputCounter.sum() + linesInput;
   }
 
   /**
@@ -693,18 +775,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesInput;
-    }
+    linesInputCounter.increment();
+    return linesInputCounter.sum() + linesInput;
   }
 
   /**
    * @param newLinesInputValue the new number of lines read from an input source: database, file, socket, etc.
    */
   public void setLinesInput( long newLinesInputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesInput = newLinesInputValue;
-    }
+    setCounter( linesInputCounter, newLinesInputValue );
+    linesInput = 0;
   }
 
   /**
@@ -712,9 +792,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return linesOutput;
-    }
+    return linesOutputCounter.sum() + linesOutput;
   }
 
   /**
@@ -723,28 +801,24 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesOutput;
-    }
+    linesOutputCounter.increment();
+    return linesOutputCounter.sum() + linesOutput;
   }
 
   /**
    * @param newLinesOutputValue the new number of lines written to an output target: database, file, socket, etc.
    */
   public void setLinesOutput( long newLinesOutputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesOutput = newLinesOutputValue;
-    }
+    setCounter( linesOutputCounter, newLinesOutputValue );
+    linesOutput = 0;
   }
 
   /**
-   * @return Returns the linesWritten.
+   * @return Returns the linesWrittenCounter.
    */
   @Override
   public long getLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return linesWritten;
-    }
+    return linesWrittenCounter.sum() + linesWritten;
   }
 
   /**
@@ -753,9 +827,19 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return ++linesWritten;
-    }
+    linesWrittenCounter.increment();
+    return linesWrittenCounter.sum() + linesWritten;
+  }
+
+  /**
+   * Increments the number of lines written to next transforms
+   *
+   * @param nrLines the number of lines to add
+   * @return Returns the new value
+   */
+  public long addLinesWritten( long nrLines ) {
+    linesWrittenCounter.add( nrLines );
+    return linesWrittenCounter.sum() + linesWritten;
   }
 
   /**
@@ -764,18 +848,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return --linesWritten;
-    }
+    linesWrittenCounter.decrement();
+    return linesWrittenCounter.sum() + linesWritten;
   }
 
   /**
    * @param newLinesWrittenValue the new number of lines written to next transforms
    */
   public void setLinesWritten( long newLinesWrittenValue ) {
-    synchronized ( statusCountersLock ) {
-      linesWritten = newLinesWrittenValue;
-    }
+    setCounter( linesWrittenCounter, newLinesWrittenValue );
+    linesWritten = 0;
   }
 
   /**
@@ -783,9 +865,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return linesUpdated;
-    }
+    return linesUpdatedCounter.sum() + linesUpdated;
   }
 
   /**
@@ -794,18 +874,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return ++linesUpdated;
-    }
+    linesUpdatedCounter.increment();
+    return linesUpdatedCounter.sum() + linesUpdated;
   }
 
   /**
    * @param newLinesUpdatedValue the new number of lines updated in an output target: database, file, socket, etc.
    */
   public void setLinesUpdated( long newLinesUpdatedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    setCounter( linesUpdatedCounter, newLinesUpdatedValue );
+    linesUpdated = 0;
   }
 
   /**
@@ -813,9 +891,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return linesRejected;
-    }
+    return linesRejectedCounter.sum() + linesRejected;
   }
 
   /**
@@ -824,9 +900,8 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRejected;
-    }
+    linesRejectedCounter.increment();
+    return linesRejectedCounter.sum() + linesRejected;
   }
 
   /**
@@ -834,18 +909,15 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void setLinesRejected( long newLinesRejectedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRejected = newLinesRejectedValue;
-    }
+    setCounter( linesRejectedCounter, newLinesRejectedValue );
+    linesRejected = 0;
   }
 
   /**
    * @return the number of lines skipped
    */
   public long getLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return linesSkipped;
-    }
+    return linesSkippedCounter.sum() + linesSkipped;
   }
 
   /**
@@ -854,17 +926,37 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return ++linesSkipped;
-    }
+    linesSkippedCounter.increment();
+    return linesSkippedCounter.sum() + linesSkipped;
   }
 
   /**
    * @param newLinesSkippedValue lines number of lines skipped
    */
   public void setLinesSkipped( long newLinesSkippedValue ) {
+    setCounter( linesSkippedCounter, newLinesSkippedValue );
+    linesSkipped = 0;
+  }
+
+  /**
+   * Set a status counter to a new value. Done under the status counters lock so that it doesn't interleave with another
+   * set or with a snapshot of the counters.
+   */
+  private void setCounter( LongAdder counter, long value ) {
+    synchronized ( statusCountersLock ) {
+      counter.reset();
+      counter.add( value );
+    }
+  }
+
+  /**
+   * @return A snapshot of the status counters, each counter read once while no counter is being set.
+   */
+  @Override
+  public EngineComponentCounters getCounters() {
     synchronized ( statusCountersLock ) {
-      linesSkipped = newLinesSkippedValue;
+      return new EngineComponentCounters( getLinesRead(), getLinesWritten(), getLinesInput(), getLinesOutput(),
+        getLinesUpdated(), getLinesRejected(), getErrors() );
     }
   }
 
@@ -1018,7 +1110,93 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * putRows is used to pass a batch of rows with the same layout to the next transform(s). The pause, stop and
+   * locking checks are done once for the whole batch instead of once per row. The rows are sent in the given order.
+   *
+   * @param rowMeta The layout of the rows
+   * @param rows    The rows to put to the destination rowset(s).
+   * @throws HopTransformException
+   */
+  public void putRows( IRowMeta rowMeta, List<Object[]> rows ) throws HopTransformException {
+    if ( rows.isEmpty() ) {
+      return;
+    }
+    if ( rowMeta != null ) {
+      if ( !allowEmptyFieldNamesAndTypes ) {
+        for ( IValueMeta vmi : rowMeta.getValueMetaList() ) {
+          if ( StringUtils.isBlank( vmi.getName() ) ) {
+            throw new HopTransformException( "Please set a field name for all field(s) that have 'null'." );
+          }
+          if ( vmi.getType() <= 0 ) {
+            throw new HopTransformException( "Please set a value for the missing field(s) type." );
+          }
+        }
+      }
+    }
+    getRowHandler().putRows( rowMeta, rows );
+
+    if ( firstRowReadDate == null ) {
+      firstRowReadDate = new Date();
+    }
+  }
+
   private void handlePutRow( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+    if ( !waitToPutRows() ) {
+      return;
+    }
+
+    rowWritten( rowMeta, row );
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if ( outputRowSets.isEmpty() ) {
+        // No more output rowsets!
+        // Still update the nr of lines written.
+        //
+        linesWrittenCounter.increment();
+
+        return; // we're done here!
+      }
+
+      linesWrittenCounter.add( distributeRow( rowMeta, row ) );
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  private void handlePutRows( IRowMeta rowMeta, List<Object[]> rows ) throws HopTransformException {
+    if ( !waitToPutRows() ) {
+      return;
+    }
+
+    // Listeners still see each row right before it is distributed, only the lines written counter is
+    // updated once for the whole batch.
+    //
+    long nrWritten = 0;
+    outputRowSetsLock.readLock().lock();
+    try {
+      boolean noOutput = outputRowSets.isEmpty();
+      for ( Object[] row : rows ) {
+        rowWritten( rowMeta, row );
+        if ( noOutput ) {
+          nrWritten++;
+        } else {
+          nrWritten += distributeRow( rowMeta, row );
+        }
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+      linesWrittenCounter.add( nrWritten );
+    }
+  }
+
+  /**
+   * Wait while the transform is paused or until the pipeline is running.
+   *
+   * @return false if the transform was stopped and no rows should be passed on.
+   */
+  private boolean waitToPutRows() throws HopTransformException {
     // Are we pausing the transform? If so, stall forever...
     //
     while ( paused.get() && !stopped.get() ) {
@@ -1037,7 +1215,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         logDebug( BaseMessages.getString( PKG, "BaseTransform.Log.StopPuttingARow" ) );
       }
       stopAll();
-      return;
+      return false;
     }
 
     // Have all threads started?
@@ -1054,7 +1232,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       }
       this.checkPipelineRunning = true;
     }
+    return true;
+  }
 
+  private void rowWritten( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
     // call all row listeners...
     //
     for ( IRowListener listener : rowListeners ) {
@@ -1070,38 +1251,29 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         throw new HopTransformException( "Unable to clone row while adding rows to the terminator rows.", e );
       }
     }
+  }
 
-    outputRowSetsLock.readLock().lock();
-    try {
-      if ( outputRowSets.isEmpty() ) {
-        // No more output rowsets!
-        // Still update the nr of lines written.
-        //
-        incrementLinesWritten();
-
-        return; // we're done here!
-      }
-
-      // Repartitioning happens when the current transform is not partitioned, but the next one is.
-      // That means we need to look up the partitioning information in the next transform..
-      // If there are multiple transforms, we need to look at the first (they should be all the same)
-      //
-      switch ( repartitioning ) {
-        case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
-          noPartitioning( rowMeta, row );
-          break;
+  /**
+   * Send a row to the output row sets. The caller holds the output row sets read lock.
+   *
+   * @return the number of lines written, to be added to the lines written counter by the caller
+   */
+  private int distributeRow( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+    // Repartitioning happens when the current transform is not partitioned, but the next one is.
+    // That means we need to look up the partitioning information in the next transform..
+    // If there are multiple transforms, we need to look at the first (they should be all the same)
+    //
+    switch ( repartitioning ) {
+      case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
+        return noPartitioning( rowMeta, row );
 
-        case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
-          specialPartitioning( rowMeta, row );
-          break;
-        case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
-          mirrorPartitioning( rowMeta, row );
-          break;
-        default:
-          throw new HopTransformException( "Internal error: invalid repartitioning type: " + repartitioning );
-      }
-    } finally {
-      outputRowSetsLock.readLock().unlock();
+      case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
+        return specialPartitioning( rowMeta, row );
+      case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
+        mirrorPartitioning( rowMeta, row );
+        return 0;
+      default:
+        throw new HopTransformException( "Internal error: invalid repartitioning type: " + repartitioning );
     }
   }
 
@@ -1114,7 +1286,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
-  private void specialPartitioning( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+  private int specialPartitioning( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
     if ( nextTransformPartitioningMeta == null ) {
       // Look up the partitioning of the next transform.
       // This is the case for non-clustered partitioning...
@@ -1137,6 +1309,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
 
     IRowSet selectedRowSet = null;
+    int nrWritten = 0;
 
 
     // Local partitioning...
@@ -1156,7 +1329,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
         // Wait
         putRowToRowSet( selectedRowSet, rowMeta, row );
-        incrementLinesWritten();
+        nrWritten++;
 
         if ( log.isRowLevel() ) {
           try {
@@ -1168,16 +1341,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         }
       }
     }
-
+    return nrWritten;
   }
 
-  private void noPartitioning( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+  private int noPartitioning( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
     if ( distributed ) {
       if ( rowDistribution != null ) {
         // Plugin defined row distribution!
         //
         rowDistribution.distributeRow( rowMeta, row, this );
-        incrementLinesWritten();
+        return 1;
       } else {
         // ROUND ROBIN DISTRIBUTION:
         // --------------------------
@@ -1201,7 +1374,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // Loop until we find room in the target rowset
         //
         putRowToRowSet( rs, rowMeta, row );
-        incrementLinesWritten();
 
         // Now determine the next output rowset!
         // Only if we have more then one output...
@@ -1212,6 +1384,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
             currentOutputRowSetNr = 0;
           }
         }
+        return 1;
       }
     } else {
 
@@ -1238,7 +1411,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
           // Loop until we find room in the target rowset
           //
           putRowToRowSet( rs, rowMeta, rowMeta.cloneRow( row ) );
-          incrementLinesWritten();
         } catch ( HopValueException e ) {
           throw new HopTransformException( "Unable to clone row while copying rows to multiple target transforms", e );
         }
@@ -1248,7 +1420,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       //
       IRowSet rs = outputRowSets.get( 0 );
       putRowToRowSet( rs, rowMeta, row );
-      incrementLinesWritten();
+      return outputRowSets.size();
     }
   }
 
@@ -1330,7 +1502,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         break;
       }
     }
-    incrementLinesWritten();
+    linesWrittenCounter.increment();
   }
 
   /**
@@ -1388,7 +1560,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
           break;
         }
       }
-      incrementLinesRejected();
+      linesRejectedCounter.increment();
     }
 
     verifyRejectionRates();
@@ -1503,6 +1675,67 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   }
 
 
+  /**
+   * Get a batch of rows from the input row set(s). This waits for the first row like {@link #getRow()} does and then
+   * takes up to maxRows-1 extra rows which are readily available on the same input row set, without waiting for more.
+   * The input rows layout is the same for all rows in the batch: see {@link #getInputRowMeta()}.
+   *
+   * @param maxRows the maximum number of rows to return
+   * @return a list of at least one row or null if no more rows are to be expected.
+   * @throws HopException
+   */
+  public List<Object[]> getRows( int maxRows ) throws HopException {
+    List<Object[]> rows = getRowHandler().getRows( maxRows );
+
+    if ( firstRowReadDate == null ) {
+      firstRowReadDate = new Date();
+    }
+
+    return rows;
+  }
+
+  private List<Object[]> handleGetRows( int maxRows ) throws HopException {
+    // The first row is read the classic way: wait for it, switch input streams, remove finished row sets, ...
+    //
+    Object[] firstRow = getRow();
+    if ( firstRow == null ) {
+      return null;
+    }
+
+    List<Object[]> rows = new ArrayList<>( Math.min( maxRows, NR_OF_ROWS_IN_BLOCK ) );
+    rows.add( firstRow );
+    if ( maxRows <= 1 || stopped.get() ) {
+      return rows;
+    }
+
+    // Take whatever else is waiting in the same row set: same row layout, one lock for the lot.
+    //
+    int nrDrained = 0;
+    inputRowSetsLock.readLock().lock();
+    try {
+      if ( inputRowSets != null && currentInputRowSetNr < inputRowSets.size() ) {
+        nrDrained = currentInputStream().drainTo( rows, maxRows - 1 );
+      }
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    if ( nrDrained > 0 ) {
+      linesReadCounter.add( nrDrained );
+      blockPointer += nrDrained;
+
+      if ( !rowListeners.isEmpty() ) {
+        for ( int i = 1; i < rows.size(); i++ ) {
+          for ( IRowListener listener : rowListeners ) {
+            listener.rowReadEvent( inputRowMeta, rows.get( i ) );
+          }
+        }
+      }
+    }
+
+    return rows;
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -1552,7 +1785,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
           row = inputRowSet.getRowImmediate();
         }
         if ( row != null ) {
-          incrementLinesRead();
+          linesReadCounter.increment();
         }
       } else {
         // What's the current input stream?
@@ -1588,9 +1821,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // Timeout immediately if nothing is there to read.
         // We will then switch to the next row set to read from...
         //
-        row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+        long waitMillis = inputRowSets.size() == 1 ? singleInputRowWaitMillis : 1;
+        row = inputRowSet.getRowWait( waitMillis, TimeUnit.MILLISECONDS );
         if ( row != null ) {
-          incrementLinesRead();
+          linesReadCounter.increment();
           blockPointer++;
         } else {
           // Try once more...
@@ -1599,7 +1833,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
           // the input stream and move on to the next one...
           //
           if ( inputRowSet.isDone() ) {
-            row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+            // All rows were put before the row set was flagged as done, so there's no need to wait for them.
+            //
+            row = inputRowSet.getRowImmediate();
             if ( row == null ) {
 
               // Must release the read lock before acquisition of the write lock to prevent deadlocks.
@@ -1621,7 +1857,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
                 inputRowSetsLock.writeLock().unlock();
               }
             } else {
-              incrementLinesRead();
+              linesReadCounter.increment();
             }
           }
           nextInputStream();
@@ -1908,7 +2144,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         }
       }
     }
-    incrementLinesRead();
+    linesReadCounter.increment();
 
     // call all rowlisteners...
     //
@@ -2848,22 +3084,20 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * Log summary.
    */
   public void logSummary() {
-    synchronized ( statusCountersLock ) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
-        logBasic( BaseMessages.getString( PKG, "BaseTransform.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      } else {
-        logDetailed( BaseMessages.getString( PKG, "BaseTransform.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "BaseTransform.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
+    } else {
+      logDetailed( BaseMessages.getString( PKG, "BaseTransform.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
     }
   }
 
@@ -2921,11 +3155,11 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     inputRowSetsLock.writeLock().lock();
     try {
       for ( int i = 0; i < inputRowSets.size(); i++ ) {
-        BlockingRowSet rs = (BlockingRowSet) inputRowSets.get( i );
+        IRowSet rs = inputRowSets.get( i );
         if ( rs.getOriginTransformName().equalsIgnoreCase( transformName ) ) {
           // swap this one and position 0...that means, the main stream is always stream 0 --> easy!
           //
-          BlockingRowSet zero = (BlockingRowSet) inputRowSets.get( 0 );
+          IRowSet zero = inputRowSets.get( 0 );
           inputRowSets.set( 0, rs );
           inputRowSets.set( i, zero );
         }
@@ -3190,6 +3424,20 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       && ( lines % getPipeline().getFeedbackSize() ) == 0;
   }
 
+  /**
+   * Feedback check for transforms processing rows in batches: see if we passed a multiple of the feedback size.
+   *
+   * @param previousLines the number of lines before the batch was processed
+   * @param lines         the number of lines after the batch was processed
+   * @return true if feedback should be logged
+   */
+  protected boolean checkFeedback( long previousLines, long lines ) {
+    long feedbackSize = getPipeline().getFeedbackSize();
+    return getPipeline().isFeedbackShown()
+      && ( lines > 0 ) && ( feedbackSize > 0 )
+      && ( lines / feedbackSize ) > ( previousLines / feedbackSize );
+  }
+
   /**
    * @return the rowMeta
    */
@@ -3710,6 +3958,14 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       handlePutRow( rowMeta, row );
     }
 
+    @Override public List<Object[]> getRows( int maxRows ) throws HopException {
+      return handleGetRows( maxRows );
+    }
+
+    @Override public void putRows( IRowMeta rowMeta, List<Object[]> rows ) throws HopTransformException {
+      handlePutRows( rowMeta, rows );
+    }
+
     @Override public void putError( IRowMeta rowMeta, Object[] row, long nrErrors, String errorDescriptions,
                                     String fieldNames, String errorCodes ) throws HopTransformException {
       handlePutError( rowMeta, row, nrErrors, errorDescriptions, fieldNames, errorCodes );
@@ -30,6 +30,9 @@ import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.i18n.BaseMessages;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Defines methods used for handling row data within transforms.
  * <p>
@@ -50,6 +53,35 @@ public interface IRowHandler {
   void putError( IRowMeta rowMeta, Object[] row, long nrErrors, String errorDescriptions,
                  String fieldNames, String errorCodes ) throws HopTransformException;
 
+  /**
+   * Get a batch of rows. By default this returns a single row at a time, implementations can return more rows
+   * if they are readily available.
+   *
+   * @param maxRows the maximum number of rows to return
+   * @return a list of at least one row or null if there are no more rows to be expected.
+   */
+  default List<Object[]> getRows( int maxRows ) throws HopException {
+    Object[] row = getRow();
+    if ( row == null ) {
+      return null;
+    }
+    List<Object[]> rows = new ArrayList<>( 1 );
+    rows.add( row );
+    return rows;
+  }
+
+  /**
+   * Put a batch of rows with the same layout. By default this calls putRow() for every row.
+   *
+   * @param rowMeta the layout of the rows
+   * @param rows    the rows to pass on
+   */
+  default void putRows( IRowMeta rowMeta, List<Object[]> rows ) throws HopTransformException {
+    for ( Object[] row : rows ) {
+      putRow( rowMeta, row );
+    }
+  }
+
   default void putRowTo( IRowMeta rowMeta, Object[] row, IRowSet rowSet )
     throws HopTransformException {
     throw new UnsupportedOperationException(
@@ -27,6 +27,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.pipeline.engine.EngineComponentCounters;
 import org.apache.hop.pipeline.engine.IEngineComponent;
 import org.owasp.encoder.Encode;
 import org.w3c.dom.Document;
@@ -81,13 +82,14 @@ public class TransformStatus {
 
     this.transformName = component.getName();
     this.copy = component.getCopyNr();
-    this.linesRead = linesRead + component.getLinesRead();
-    this.linesWritten = linesWritten + component.getLinesWritten();
-    this.linesInput = linesInput + component.getLinesInput();
-    this.linesOutput = linesOutput + component.getLinesOutput();
-    this.linesUpdated = linesUpdated + component.getLinesUpdated();
-    this.linesRejected = linesRejected + component.getLinesRejected();
-    this.errors = errors + component.getErrors();
+    EngineComponentCounters counters = component.getCounters();
+    this.linesRead = linesRead + counters.getLinesRead();
+    this.linesWritten = linesWritten + counters.getLinesWritten();
+    this.linesInput = linesInput + counters.getLinesInput();
+    this.linesOutput = linesOutput + counters.getLinesOutput();
+    this.linesUpdated = linesUpdated + counters.getLinesUpdated();
+    this.linesRejected = linesRejected + counters.getLinesRejected();
+    this.errors = errors + counters.getErrors();
     this.accumulatedRuntime = accumulatedRuntime + component.getExecutionDuration();
     this.statusDescription = component.getStatusDescription();
 
@@ -32,6 +32,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transform.ITransformMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.util.List;
+
 /**
  * Do nothing. Pass all input data to the next transforms.
  *
@@ -48,16 +50,18 @@ public class Dummy extends BaseTransform<DummyMeta, DummyData> implements ITrans
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] r = getRow(); // get row, set busy!
+    long previousLinesRead = getLinesRead();
+
+    List<Object[]> rows = getRows( ROWS_IN_BATCH ); // get a batch of rows, set busy!
     // no more input to be expected...
-    if ( r == null ) {
+    if ( rows == null ) {
       setOutputDone();
       return false;
     }
 
-    putRow( getInputRowMeta(), r ); // copy row to possible alternate rowset(s).
+    putRows( getInputRowMeta(), rows ); // copy the rows to possible alternate rowset(s).
 
-    if ( checkFeedback( getLinesRead() ) ) {
+    if ( checkFeedback( previousLinesRead, getLinesRead() ) ) {
       if ( log.isBasic() ) {
         logBasic( BaseMessages.getString( PKG, "Dummy.Log.LineNumber" ) + getLinesRead() );
       }
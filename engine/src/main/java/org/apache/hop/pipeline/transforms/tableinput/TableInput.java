@@ -26,6 +26,7 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -42,8 +43,20 @@ import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Reads information from a database table by using freehand SQL
@@ -55,6 +68,18 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
 
   private static Class<?> PKG = TableInputMeta.class; // for i18n purposes, needed by Translator!!
 
+  /**
+   * The number of bytes an adaptive fetch should hold
+   */
+  static final int FETCH_BUFFER_SIZE = 4 * 1024 * 1024;
+  static final int MIN_FETCH_SIZE = 100;
+  static final int MAX_FETCH_SIZE = 50000;
+
+  private static final Pattern ORDER_BY = Pattern.compile( "ORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE );
+  private static final Pattern LIMITED = Pattern.compile( "\\b(LIMIT|OFFSET|FETCH)\\b", Pattern.CASE_INSENSITIVE );
+  private static final Pattern SELECT_TOP =
+    Pattern.compile( "^\\s*SELECT\\s+(DISTINCT\\s+)?TOP\\b", Pattern.CASE_INSENSITIVE );
+
   public TableInput( TransformMeta transformMeta, TableInputMeta meta, TableInputData data, int copyNr, PipelineMeta pipelineMeta,
                      Pipeline pipeline ) {
     super( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
@@ -227,14 +252,20 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
       sql = meta.getSql();
     }
 
+    RowMetaAndData queryParameters =
+      new RowMetaAndData( parametersMeta.clone(), RowDataUtil.createResizedCopy( parameters, parametersMeta.size() ) );
+    if ( data.partitioned ) {
+      sql = getPartitionSql( sql, queryParameters );
+    }
+
     if ( log.isDetailed() ) {
       logDetailed( "SQL query : " + sql );
     }
-    if ( parametersMeta.isEmpty() ) {
+    if ( queryParameters.getRowMeta().isEmpty() ) {
       data.rs = data.db.openQuery( sql, null, null, ResultSet.FETCH_FORWARD, meta.isLazyConversionActive() );
     } else {
       data.rs =
-        data.db.openQuery( sql, parametersMeta, parameters, ResultSet.FETCH_FORWARD, meta
+        data.db.openQuery( sql, queryParameters.getRowMeta(), queryParameters.getData(), ResultSet.FETCH_FORWARD, meta
           .isLazyConversionActive() );
     }
     if ( data.rs == null ) {
@@ -253,6 +284,10 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
         }
       }
 
+      if ( meta.isAdaptiveFetchSize() ) {
+        setAdaptiveFetchSize();
+      }
+
       // Get the first row...
       data.thisrow = data.db.getRow( data.rs );
       if ( data.thisrow != null ) {
@@ -266,10 +301,259 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
     return success;
   }
 
+  /**
+   * Wraps the query so that this transform copy only reads its own partition of the rows. Range partitions divide the
+   * values between the minimum and the maximum of the partition column in equal parts, modulo partitions take the rows
+   * where the remainder of the partition column divided by the number of copies equals the copy number. Rows with a
+   * null partition column are read by the first copy.
+   * <p>
+   * The query is wrapped as a derived table. Since the copies read in parallel the order of the rows is lost anyway, so
+   * a trailing ORDER BY is removed: SQL Server and a few others don't allow it in a derived table. An ORDER BY which
+   * limits the rows (TOP, LIMIT, OFFSET or FETCH) is kept since it changes which rows are read.
+   *
+   * @param sql        the query to partition
+   * @param parameters the query parameters, the parameters of the partition condition are added to these
+   * @return the query reading the partition of this copy
+   */
+  String getPartitionSql( String sql, RowMetaAndData parameters ) throws HopDatabaseException {
+    String column = environmentSubstitute( meta.getPartitionColumn() );
+    String query = stripOrderBy( stripSemicolon( sql ) );
+    String partitionQuery = "SELECT * FROM ( " + query + " ) hop_partition WHERE ";
+    int copyNr = getCopy();
+
+    if ( TableInputMeta.PARTITION_METHOD_MODULO.equals( meta.getPartitionMethod() ) ) {
+      String modulo = meta.getDatabaseMeta().getIDatabase().getModuloExpression( column, data.nrPartitions );
+      String condition = "ABS( " + modulo + " ) = " + copyNr;
+      if ( copyNr == 0 ) {
+        condition = "( " + condition + " OR " + column + " IS NULL )";
+      }
+      return partitionQuery + condition;
+    }
+
+    // Range partitioning: find the boundaries of the partition column first
+    //
+    String rangeSql = "SELECT MIN( " + column + " ), MAX( " + column + " ) FROM ( " + query + " ) hop_range";
+    RowMetaAndData range = getPartitionRange( rangeSql, parameters );
+    if ( range == null || range.getData() == null || range.getData()[ 0 ] == null ) {
+      // No values to divide: the first copy reads everything
+      return copyNr == 0 ? query : partitionQuery + "1=0";
+    }
+
+    IValueMeta rangeMeta = range.getRowMeta().getValueMeta( 0 );
+    Object min = range.getData()[ 0 ];
+    Object max = range.getData()[ 1 ];
+
+    List<String> conditions = new ArrayList<>();
+    if ( copyNr > 0 ) {
+      conditions.add( column + " >= ?" );
+      addRangeParameter( parameters, rangeMeta, "partition_from", min, max, copyNr );
+    }
+    if ( copyNr < data.nrPartitions - 1 ) {
+      conditions.add( column + " < ?" );
+      addRangeParameter( parameters, rangeMeta, "partition_to", min, max, copyNr + 1 );
+    }
+    String condition = String.join( " AND ", conditions );
+    if ( copyNr == 0 ) {
+      condition = "( " + condition + " OR " + column + " IS NULL )";
+    }
+    return partitionQuery + condition;
+  }
+
+  /**
+   * Reads the minimum and maximum of the partition column. The copies of this transform share the result: the first
+   * copy to ask reads it, so that every copy divides exactly the same range even if the table changes in between.
+   */
+  private RowMetaAndData getPartitionRange( String rangeSql, RowMetaAndData parameters ) throws HopDatabaseException {
+    SharedRanges sharedRanges = null;
+    if ( data.sharedRangesKey != null ) {
+      Map<String, Object> dataMap = getPipeline().getExtensionDataMap();
+      synchronized ( dataMap ) {
+        sharedRanges = (SharedRanges) dataMap.get( data.sharedRangesKey );
+      }
+    }
+    if ( sharedRanges == null ) {
+      return readPartitionRange( rangeSql, parameters );
+    }
+    return sharedRanges.getRange( this, rangeSql, parameters );
+  }
+
+  private RowMetaAndData readPartitionRange( String rangeSql, RowMetaAndData parameters )
+    throws HopDatabaseException {
+    IRowMeta parametersMeta = parameters.getRowMeta();
+    if ( parametersMeta.isEmpty() ) {
+      return data.db.getOneRow( rangeSql );
+    }
+    return data.db.getOneRow( rangeSql, parametersMeta, parameters.getData() );
+  }
+
+  private void addRangeParameter( RowMetaAndData parameters, IValueMeta rangeMeta, String name, Object min, Object max,
+                                  int boundary ) throws HopDatabaseException {
+    IValueMeta boundaryMeta = rangeMeta.clone();
+    boundaryMeta.setName( name );
+    try {
+      parameters.addValue( boundaryMeta, getRangeBoundary( rangeMeta, min, max, boundary, data.nrPartitions ) );
+    } catch ( HopException e ) {
+      throw new HopDatabaseException(
+        BaseMessages.getString( PKG, "TableInput.Exception.PartitionColumnType", meta.getPartitionColumn(),
+          rangeMeta.getTypeDesc() ), e );
+    }
+  }
+
+  /**
+   * Calculates the value at a boundary between range partitions.
+   *
+   * @param valueMeta  the type of the partition column
+   * @param min        the minimum value of the partition column
+   * @param max        the maximum value of the partition column
+   * @param boundary   the boundary index, 0 is the minimum and nrPartitions is the maximum
+   * @param nrPartitions the number of partitions
+   * @return the boundary value
+   * @throws HopException in case the partition column is not a numeric or date column
+   */
+  static Object getRangeBoundary( IValueMeta valueMeta, Object min, Object max, int boundary, int nrPartitions )
+    throws HopException {
+    switch ( valueMeta.getType() ) {
+      case IValueMeta.TYPE_INTEGER:
+        BigInteger from = BigInteger.valueOf( valueMeta.getInteger( min ) );
+        BigInteger span = BigInteger.valueOf( valueMeta.getInteger( max ) ).subtract( from );
+        return from.add( span.multiply( BigInteger.valueOf( boundary ) ).divide( BigInteger.valueOf( nrPartitions ) ) )
+          .longValue();
+      case IValueMeta.TYPE_NUMBER:
+        double low = valueMeta.getNumber( min );
+        return low + ( valueMeta.getNumber( max ) - low ) * boundary / nrPartitions;
+      case IValueMeta.TYPE_BIGNUMBER:
+        BigDecimal lowest = valueMeta.getBigNumber( min );
+        return lowest.add( valueMeta.getBigNumber( max ).subtract( lowest ).multiply( BigDecimal.valueOf( boundary ) )
+          .divide( BigDecimal.valueOf( nrPartitions ), MathContext.DECIMAL128 ) );
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_TIMESTAMP:
+        long first = valueMeta.getDate( min ).getTime();
+        long last = valueMeta.getDate( max ).getTime();
+        long millis = first + BigInteger.valueOf( last - first ).multiply( BigInteger.valueOf( boundary ) )
+          .divide( BigInteger.valueOf( nrPartitions ) ).longValue();
+        return valueMeta.getType() == IValueMeta.TYPE_TIMESTAMP ? new Timestamp( millis ) : new Date( millis );
+      default:
+        throw new HopException( "Unable to divide values of type " + valueMeta.getTypeDesc() + " in ranges" );
+    }
+  }
+
+  /**
+   * Removes a trailing ORDER BY from the query unless it limits the rows read.
+   *
+   * @param query the query without a trailing semicolon
+   * @return the query without the ORDER BY clause
+   */
+  static String stripOrderBy( String query ) {
+    int orderBy = -1;
+    int depth = 0;
+    char quote = 0;
+    for ( int i = 0; i < query.length(); i++ ) {
+      char c = query.charAt( i );
+      if ( quote != 0 ) {
+        if ( c == quote ) {
+          quote = 0;
+        }
+      } else if ( c == '\'' || c == '"' || c == '`' ) {
+        quote = c;
+      } else if ( c == '[' ) {
+        quote = ']';
+      } else if ( c == '(' ) {
+        depth++;
+      } else if ( c == ')' ) {
+        depth--;
+      } else if ( depth == 0 && ( c == 'o' || c == 'O' )
+        && ( i == 0 || !Character.isJavaIdentifierPart( query.charAt( i - 1 ) ) ) ) {
+        Matcher matcher = ORDER_BY.matcher( query ).region( i, query.length() );
+        if ( matcher.lookingAt() ) {
+          orderBy = i;
+        }
+      }
+    }
+    if ( orderBy < 0 || LIMITED.matcher( query.substring( orderBy ) ).find() || SELECT_TOP.matcher( query ).find() ) {
+      return query;
+    }
+    return Const.trimToType( query.substring( 0, orderBy ), IValueMeta.TRIM_TYPE_RIGHT );
+  }
+
+  private static String stripSemicolon( String sql ) {
+    String query = Const.trimToType( sql, IValueMeta.TRIM_TYPE_RIGHT );
+    while ( query.endsWith( ";" ) ) {
+      query = Const.trimToType( query.substring( 0, query.length() - 1 ), IValueMeta.TRIM_TYPE_RIGHT );
+    }
+    return query;
+  }
+
+  /**
+   * Sets the number of rows fetched per round trip so that a fetch holds about {@link #FETCH_BUFFER_SIZE} bytes. The
+   * drivers apply a fetch size set on the result set to all fetches after the first one.
+   */
+  private void setAdaptiveFetchSize() {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    if ( !databaseMeta.isFetchSizeSupported() || databaseMeta.isMySqlVariant() ) {
+      // MySQL either streams row by row or reads the complete result set
+      return;
+    }
+    int fetchSize = getAdaptiveFetchSize( data.rowMeta );
+    try {
+      data.rs.setFetchSize( fetchSize );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TableInput.Log.AdaptiveFetchSize", fetchSize ) );
+      }
+    } catch ( SQLException e ) {
+      logDetailed( "Unable to set the fetch size to " + fetchSize + " : " + e.getMessage() );
+    }
+  }
+
+  /**
+   * @param rowMeta the rows returned by the query
+   * @return the number of rows which fit in {@link #FETCH_BUFFER_SIZE} bytes
+   */
+  static int getAdaptiveFetchSize( IRowMeta rowMeta ) {
+    long rowWidth = 0;
+    if ( rowMeta != null ) {
+      for ( IValueMeta valueMeta : rowMeta.getValueMetaList() ) {
+        rowWidth += getEstimatedWidth( valueMeta );
+      }
+    }
+    long fetchSize = FETCH_BUFFER_SIZE / Math.max( 1, rowWidth );
+    return (int) Math.max( MIN_FETCH_SIZE, Math.min( MAX_FETCH_SIZE, fetchSize ) );
+  }
+
+  private static int getEstimatedWidth( IValueMeta valueMeta ) {
+    // Every value costs a reference and an object header on top of its data
+    int overhead = 16;
+    switch ( valueMeta.getType() ) {
+      case IValueMeta.TYPE_BOOLEAN:
+      case IValueMeta.TYPE_INTEGER:
+      case IValueMeta.TYPE_NUMBER:
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_TIMESTAMP:
+        return overhead + 8;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return overhead + 32;
+      case IValueMeta.TYPE_STRING:
+        return overhead + 2 * ( valueMeta.getLength() > 0 ? Math.min( valueMeta.getLength(), 4000 ) : 128 );
+      case IValueMeta.TYPE_BINARY:
+        return overhead + ( valueMeta.getLength() > 0 ? Math.min( valueMeta.getLength(), 65536 ) : 1024 );
+      default:
+        return overhead + 64;
+    }
+  }
+
   public void dispose() {
     if ( log.isBasic() ) {
       logBasic( "Finished reading query, closing connection." );
     }
+    if ( data.sharedRangesKey != null ) {
+      Map<String, Object> dataMap = getPipeline().getExtensionDataMap();
+      synchronized ( dataMap ) {
+        SharedRanges sharedRanges = (SharedRanges) dataMap.get( data.sharedRangesKey );
+        if ( sharedRanges != null && --sharedRanges.nrUsers <= 0 ) {
+          dataMap.remove( data.sharedRangesKey );
+        }
+      }
+      data.sharedRangesKey = null;
+    }
     try {
       closePreviousQuery();
     } catch ( HopException e ) {
@@ -326,6 +610,27 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
         logError( BaseMessages.getString( PKG, "TableInput.Init.ConnectionMissing", getTransformName() ) );
         return false;
       }
+      data.nrPartitions = getTransformMeta().getCopies();
+      if ( !Utils.isEmpty( meta.getPartitionMethod() )
+        && !TableInputMeta.PARTITION_METHOD_NONE.equals( meta.getPartitionMethod() ) ) {
+        if ( Utils.isEmpty( meta.getPartitionColumn() ) ) {
+          logError( BaseMessages.getString( PKG, "TableInput.Exception.PartitionColumnNeeded" ) );
+          return false;
+        }
+        if ( data.nrPartitions > 1 ) {
+          data.partitioned = true;
+          if ( TableInputMeta.PARTITION_METHOD_RANGE.equals( meta.getPartitionMethod() ) ) {
+            shareRanges();
+          }
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "TableInput.Log.Partitioned", meta.getPartitionMethod(),
+              getCopy() + 1, data.nrPartitions ) );
+          }
+        } else {
+          logBasic( BaseMessages.getString( PKG, "TableInput.Log.SingleCopyNotPartitioned" ) );
+        }
+      }
+
       data.db = new Database( this, meta.getDatabaseMeta() );
       data.db.shareVariablesWith( this );
 
@@ -352,8 +657,52 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
     return false;
   }
 
+  /**
+   * Registers this copy as a user of the partition ranges shared by the copies of this transform.
+   */
+  void shareRanges() {
+    Map<String, Object> dataMap = getPipeline().getExtensionDataMap();
+    String key = TableInput.class.getName() + ":" + getTransformName();
+    synchronized ( dataMap ) {
+      SharedRanges sharedRanges = (SharedRanges) dataMap.get( key );
+      if ( sharedRanges == null ) {
+        sharedRanges = new SharedRanges();
+        dataMap.put( key, sharedRanges );
+      }
+      sharedRanges.nrUsers++;
+    }
+    data.sharedRangesKey = key;
+  }
+
   public boolean isWaitingForData() {
     return true;
   }
 
+  /**
+   * The partition column ranges shared between the copies of this transform, per query and parameter values. A range
+   * is forgotten once every copy has read it.
+   */
+  private static class SharedRanges {
+    private final Map<String, RowMetaAndData> ranges = new HashMap<>();
+    private final Map<String, Integer> nrReads = new HashMap<>();
+    private int nrUsers;
+
+    private synchronized RowMetaAndData getRange( TableInput copy, String rangeSql, RowMetaAndData parameters )
+      throws HopDatabaseException {
+      Object[] values = Arrays.copyOf( parameters.getData(), parameters.getRowMeta().size() );
+      String key = rangeSql + Const.CR + Arrays.deepToString( values );
+      RowMetaAndData range = ranges.get( key );
+      if ( range == null && !ranges.containsKey( key ) ) {
+        range = copy.readPartitionRange( rangeSql, parameters );
+        ranges.put( key, range );
+      }
+      int reads = nrReads.merge( key, 1, Integer::sum );
+      if ( reads >= copy.data.nrPartitions ) {
+        ranges.remove( key );
+        nrReads.remove( key );
+      }
+      return range;
+    }
+  }
+
 }
@@ -46,6 +46,21 @@ public class TableInputData extends BaseTransformData implements ITransformData
   public boolean isCanceled;
   public IStream infoStream;
 
+  /**
+   * True if this copy only reads its own partition of the rows
+   */
+  public boolean partitioned;
+
+  /**
+   * The number of partitions, one per transform copy
+   */
+  public int nrPartitions;
+
+  /**
+   * The key of the partition ranges shared with the other copies in the pipeline extension data map
+   */
+  public String sharedRangesKey;
+
   public TableInputData() {
     super();
 
@@ -72,6 +72,13 @@ public class TableInputMeta
 
   private static Class<?> PKG = TableInputMeta.class; // for i18n purposes, needed by Translator!!
 
+  public static final String PARTITION_METHOD_NONE = "None";
+  public static final String PARTITION_METHOD_RANGE = "Range";
+  public static final String PARTITION_METHOD_MODULO = "Modulo";
+
+  public static final String[] partitionMethodCodes =
+    new String[] { PARTITION_METHOD_NONE, PARTITION_METHOD_RANGE, PARTITION_METHOD_MODULO, };
+
   private IHopMetadataProvider metadataProvider;
 
   private DatabaseMeta databaseMeta;
@@ -94,6 +101,24 @@ public class TableInputMeta
   @Injection( name = "LAZY_CONVERSION" )
   private boolean lazyConversionActive;
 
+  /**
+   * How the rows are divided over the transform copies: None, Range or Modulo
+   */
+  @Injection( name = "PARTITION_METHOD" )
+  private String partitionMethod;
+
+  /**
+   * The numeric or date column (or expression) to divide the rows on
+   */
+  @Injection( name = "PARTITION_COLUMN" )
+  private String partitionColumn;
+
+  /**
+   * Derive the JDBC fetch size from the width of the rows
+   */
+  @Injection( name = "ADAPTIVE_FETCH_SIZE" )
+  private boolean adaptiveFetchSize;
+
   public TableInputMeta() {
     super();
   }
@@ -186,6 +211,10 @@ public class TableInputMeta
       executeEachInputRow = "Y".equals( XmlHandler.getTagValue( transformNode, "execute_each_row" ) );
       variableReplacementActive = "Y".equals( XmlHandler.getTagValue( transformNode, "variables_active" ) );
       lazyConversionActive = "Y".equals( XmlHandler.getTagValue( transformNode, "lazy_conversion_active" ) );
+      partitionMethod =
+        Const.NVL( XmlHandler.getTagValue( transformNode, "partition_method" ), PARTITION_METHOD_NONE );
+      partitionColumn = XmlHandler.getTagValue( transformNode, "partition_column" );
+      adaptiveFetchSize = "Y".equals( XmlHandler.getTagValue( transformNode, "adaptive_fetch_size" ) );
     } catch ( Exception e ) {
       throw new HopXmlException( "Unable to load transform info from XML", e );
     }
@@ -195,6 +224,9 @@ public class TableInputMeta
     databaseMeta = null;
     sql = "SELECT <values> FROM <table name> WHERE <conditions>";
     rowLimit = "0";
+    partitionMethod = PARTITION_METHOD_NONE;
+    partitionColumn = null;
+    adaptiveFetchSize = true;
   }
 
   protected Database getDatabase() {
@@ -296,6 +328,9 @@ public class TableInputMeta
     retval.append( "    " + XmlHandler.addTagValue( "execute_each_row", executeEachInputRow ) );
     retval.append( "    " + XmlHandler.addTagValue( "variables_active", variableReplacementActive ) );
     retval.append( "    " + XmlHandler.addTagValue( "lazy_conversion_active", lazyConversionActive ) );
+    retval.append( "    " + XmlHandler.addTagValue( "partition_method", partitionMethod ) );
+    retval.append( "    " + XmlHandler.addTagValue( "partition_column", partitionColumn ) );
+    retval.append( "    " + XmlHandler.addTagValue( "adaptive_fetch_size", adaptiveFetchSize ) );
 
     return retval.toString();
   }
@@ -491,6 +526,48 @@ public class TableInputMeta
     this.lazyConversionActive = lazyConversionActive;
   }
 
+  /**
+   * @return the partitionMethod
+   */
+  public String getPartitionMethod() {
+    return partitionMethod;
+  }
+
+  /**
+   * @param partitionMethod the partitionMethod to set
+   */
+  public void setPartitionMethod( String partitionMethod ) {
+    this.partitionMethod = partitionMethod;
+  }
+
+  /**
+   * @return the partitionColumn
+   */
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  /**
+   * @param partitionColumn the partitionColumn to set
+   */
+  public void setPartitionColumn( String partitionColumn ) {
+    this.partitionColumn = partitionColumn;
+  }
+
+  /**
+   * @return true if the fetch size is derived from the width of the rows
+   */
+  public boolean isAdaptiveFetchSize() {
+    return adaptiveFetchSize;
+  }
+
+  /**
+   * @param adaptiveFetchSize true to derive the fetch size from the width of the rows
+   */
+  public void setAdaptiveFetchSize( boolean adaptiveFetchSize ) {
+    this.adaptiveFetchSize = adaptiveFetchSize;
+  }
+
   /**
    * Returns the Input/Output metadata for this transform. The generator transform only produces output, does not accept input!
    */
@@ -55,12 +55,15 @@ import org.apache.hop.www.RemoveWorkflowServlet;
 import org.apache.hop.www.HopServerPipelineStatus;
 import org.apache.hop.www.HopServerStatus;
 import org.apache.hop.www.HopServerWorkflowStatus;
+import org.apache.hop.www.IPipelineStatusStreamListener;
+import org.apache.hop.www.PipelineStatusStream;
 import org.apache.hop.www.SniffTransformServlet;
 import org.apache.hop.www.SslConfiguration;
 import org.apache.hop.www.StartPipelineServlet;
 import org.apache.hop.www.StartWorkflowServlet;
 import org.apache.hop.www.StopPipelineServlet;
 import org.apache.hop.www.StopWorkflowServlet;
+import org.apache.hop.www.StreamPipelineStatusServlet;
 import org.apache.hop.www.WebResult;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
@@ -87,7 +90,9 @@ import org.apache.http.message.BasicHeader;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -990,6 +995,50 @@ public class HopServer extends ChangedFlag implements Cloneable, IVariables, IXm
       "&copynr=" + copyNr + "&type=" + type + "&lines=" + lines + "&xml=Y" );
   }
 
+  /**
+   * Open the binary status stream of a pipeline and pass the frames to the listener until the server ends the stream.
+   *
+   * @param pipelineName   the name of the pipeline
+   * @param serverObjectId the ID of the pipeline on the server
+   * @param startLogLineNr the log line number to start sending the log from
+   * @param transformName  the name of a transform to sample rows from or null
+   * @param copyNr         the copy number of the transform to sample rows from
+   * @param lines          the number of rows to sample
+   * @param type           {@link SniffTransformServlet#TYPE_INPUT} or {@link SniffTransformServlet#TYPE_OUTPUT}
+   * @param sendStatus     false if only the row sample is needed
+   * @param listener       the listener to pass the frames to
+   * @return true if the server ended the stream, false if the stream stopped prematurely
+   * @throws Exception in case the stream couldn't be opened or read
+   */
+  public boolean streamPipelineStatus( String pipelineName, String serverObjectId, int startLogLineNr, String transformName,
+                                       int copyNr, int lines, String type, boolean sendStatus,
+                                       IPipelineStatusStreamListener listener ) throws Exception {
+    String service = StreamPipelineStatusServlet.CONTEXT_PATH + "/?name=" + URLEncoder.encode( pipelineName, "UTF-8" )
+      + "&id=" + URLEncoder.encode( Const.NVL( serverObjectId, "" ), "UTF-8" ) + "&from=" + startLogLineNr
+      + "&status=" + ( sendStatus ? "Y" : "N" );
+    if ( transformName != null ) {
+      service += "&transform=" + URLEncoder.encode( transformName, "UTF-8" ) + "&copynr=" + copyNr + "&lines=" + lines
+        + "&type=" + type;
+    }
+
+    HttpGet method = buildExecuteServiceMethod( service, new HashMap<>() );
+    try {
+      HttpResponse httpResponse = getHttpClient().execute( method, getAuthContext() );
+      StatusLine statusLine = httpResponse.getStatusLine();
+      if ( statusLine.getStatusCode() >= 400 ) {
+        throw new HopException( String.format( "HTTP Status %d - %s - %s", statusLine.getStatusCode(), method.getURI().toString(),
+          statusLine.getReasonPhrase() ) );
+      }
+      try ( DataInputStream inputStream = new DataInputStream( new BufferedInputStream( httpResponse.getEntity().getContent() ) ) ) {
+        return PipelineStatusStream.read( inputStream, listener );
+      }
+    } finally {
+      // Don't wait for the rest of the stream when the listener bailed out
+      method.abort();
+      method.releaseConnection();
+    }
+  }
+
   public long getNextServerSequenceValue( String serverSequenceName, long incrementValue ) throws HopException {
     try {
       String xml =
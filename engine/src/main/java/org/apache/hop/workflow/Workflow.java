@@ -63,6 +63,7 @@ import org.apache.hop.pipeline.IExecutionFinishedListener;
 import org.apache.hop.pipeline.IExecutionStartedListener;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.workflow.action.ActionBase;
 import org.apache.hop.workflow.action.ActionCopy;
 import org.apache.hop.workflow.action.IAction;
 import org.apache.hop.workflow.actions.pipeline.ActionPipeline;
@@ -81,6 +82,9 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -186,6 +190,16 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
 
   protected IHopMetadataProvider metadataProvider;
 
+  /**
+   * Limits the number of actions this workflow runs in parallel, null if unlimited
+   */
+  private Semaphore parallelPermits;
+
+  /**
+   * The maximum number of parallel actions per database connection or action plugin ID
+   */
+  private Map<String, Integer> parallelLimits;
+
   /**
    * <p>
    * This enum stores bit masks which are used to manipulate with statuses over field {@link Workflow#status}
@@ -581,7 +595,24 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
         }
       }
       log.snap( Metrics.METRIC_JOBENTRY_START, cloneJei.toString() );
-      newResult = cloneJei.execute( prevResult, nr );
+      if ( cloneJei.isJob() ) {
+        // An action running a workflow only waits for the actions of that workflow, which take their own permits.
+        // Holding on to the permits of this thread while it waits would deadlock nested parallel workflows.
+        //
+        List<Semaphore> suspendedPermits = WorkflowParallelExecutor.getInstance().suspend();
+        try {
+          newResult = cloneJei.execute( prevResult, nr );
+        } finally {
+          WorkflowParallelExecutor.getInstance().resume( suspendedPermits );
+        }
+      } else {
+        List<Semaphore> resourcePermits = acquireResourcePermits( cloneJei );
+        try {
+          newResult = cloneJei.execute( prevResult, nr );
+        } finally {
+          WorkflowParallelExecutor.getInstance().release( resourcePermits );
+        }
+      }
       log.snap( Metrics.METRIC_JOBENTRY_STOP, cloneJei.toString() );
 
       final long end = System.currentTimeMillis();
@@ -639,119 +670,140 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
 
     // Try all next actions.
     //
-    // Keep track of all the threads we fired in case of parallel execution...
+    // Keep track of all the branches we fired in case of parallel execution...
     // Keep track of the results of these executions too.
     //
-    final List<Thread> threads = new ArrayList<Thread>();
+    final List<Future<?>> threads = new ArrayList<>();
     // next 2 lists is being modified concurrently so must be synchronized for this case.
     final Queue<Result> threadResults = new ConcurrentLinkedQueue<Result>();
     final Queue<HopException> threadExceptions = new ConcurrentLinkedQueue<HopException>();
     final List<ActionCopy> threadEntries = new ArrayList<ActionCopy>();
 
-    // Launch only those where the hop indicates true or false
+    // While launching and waiting for the parallel actions this thread doesn't count as a running action
     //
-    int nrNext = workflowMeta.findNrNextActions( actionCopy );
-    for ( int i = 0; i < nrNext && !isStopped(); i++ ) {
-      // The next entry is...
-      final ActionCopy nextEntry = workflowMeta.findNextAction( actionCopy, i );
-
-      // See if we need to execute this...
-      final WorkflowHopMeta hi = workflowMeta.findWorkflowHop( actionCopy, nextEntry );
-
-      // The next comment...
-      final String nextComment;
-      if ( hi.isUnconditional() ) {
-        nextComment = BaseMessages.getString( PKG, "Workflow.Comment.FollowedUnconditional" );
-      } else {
-        if ( newResult.getResult() ) {
-          nextComment = BaseMessages.getString( PKG, "Workflow.Comment.FollowedSuccess" );
-        } else {
-          nextComment = BaseMessages.getString( PKG, "Workflow.Comment.FollowedFailure" );
-        }
-      }
+    final List<Semaphore> suspendedPermits;
+    if ( actionCopy.isLaunchingInParallel() ) {
+      suspendedPermits = WorkflowParallelExecutor.getInstance().suspend();
+    } else {
+      suspendedPermits = null;
+    }
 
+    try {
+      // Launch only those where the hop indicates true or false
       //
-      // If the link is unconditional, execute the next action (entries).
-      // If the start point was an evaluation and the link color is correct:
-      // green or red, execute the next action...
-      //
-      if ( hi.isUnconditional() || ( actionCopy.evaluates() && ( !( hi.getEvaluation() ^ newResult.getResult() ) ) ) ) {
-        // Start this next transform!
-        if ( log.isBasic() ) {
-          log.logBasic( BaseMessages.getString( PKG, "Workflow.Log.StartingEntry", nextEntry.getName() ) );
-        }
-
-        // Pass along the previous result, perhaps the next workflow can use it...
-        // However, set the number of errors back to 0 (if it should be reset)
-        // When an evaluation is executed the errors e.g. should not be reset.
-        if ( nextEntry.resetErrorsBeforeExecution() ) {
-          newResult.setNrErrors( 0 );
+      int nrNext = workflowMeta.findNrNextActions( actionCopy );
+      for ( int i = 0; i < nrNext && !isStopped(); i++ ) {
+        // The next entry is...
+        final ActionCopy nextEntry = workflowMeta.findNextAction( actionCopy, i );
+
+        // See if we need to execute this...
+        final WorkflowHopMeta hi = workflowMeta.findWorkflowHop( actionCopy, nextEntry );
+
+        // The next comment...
+        final String nextComment;
+        if ( hi.isUnconditional() ) {
+          nextComment = BaseMessages.getString( PKG, "Workflow.Comment.FollowedUnconditional" );
+        } else {
+          if ( newResult.getResult() ) {
+            nextComment = BaseMessages.getString( PKG, "Workflow.Comment.FollowedSuccess" );
+          } else {
+            nextComment = BaseMessages.getString( PKG, "Workflow.Comment.FollowedFailure" );
+          }
         }
 
-        // Now execute!
         //
-        // if (we launch in parallel, fire the execution off in a new thread...
+        // If the link is unconditional, execute the next action (entries).
+        // If the start point was an evaluation and the link color is correct:
+        // green or red, execute the next action...
         //
-        if ( actionCopy.isLaunchingInParallel() ) {
-          threadEntries.add( nextEntry );
-
-          Runnable runnable = new Runnable() {
-            @Override public void run() {
-              try {
-                Result threadResult = executeFromStart( nr + 1, newResult, nextEntry, actionCopy, nextComment );
-                threadResults.add( threadResult );
-              } catch ( Throwable e ) {
-                log.logError( Const.getStackTracker( e ) );
-                threadExceptions.add( new HopException( BaseMessages.getString( PKG, "Workflow.Log.UnexpectedError",
-                  nextEntry.toString() ), e ) );
-                Result threadResult = new Result();
-                threadResult.setResult( false );
-                threadResult.setNrErrors( 1L );
-                threadResults.add( threadResult );
-              }
-            }
-          };
-          Thread thread = new Thread( runnable );
-          threads.add( thread );
-          thread.start();
+        if ( hi.isUnconditional() || ( actionCopy.evaluates() && ( !( hi.getEvaluation() ^ newResult.getResult() ) ) ) ) {
+          // Start this next transform!
           if ( log.isBasic() ) {
-            log.logBasic( BaseMessages.getString( PKG, "Workflow.Log.LaunchedActionInParallel", nextEntry.getName() ) );
+            log.logBasic( BaseMessages.getString( PKG, "Workflow.Log.StartingEntry", nextEntry.getName() ) );
           }
-        } else {
-          try {
-            // Same as before: blocks until it's done
-            //
-            res = executeFromStart( nr + 1, newResult, nextEntry, actionCopy, nextComment );
-          } catch ( Throwable e ) {
-            log.logError( Const.getStackTracker( e ) );
-            throw new HopException( BaseMessages.getString( PKG, "Workflow.Log.UnexpectedError", nextEntry.toString() ),
-              e );
+
+          // Pass along the previous result, perhaps the next workflow can use it...
+          // However, set the number of errors back to 0 (if it should be reset)
+          // When an evaluation is executed the errors e.g. should not be reset.
+          if ( nextEntry.resetErrorsBeforeExecution() ) {
+            newResult.setNrErrors( 0 );
           }
-          if ( log.isBasic() ) {
-            log.logBasic( BaseMessages.getString( PKG, "Workflow.Log.FinishedAction", nextEntry.getName(), res.getResult()
-              + "" ) );
+
+          // Now execute!
+          //
+          // if (we launch in parallel, fire the execution off in a new thread...
+          //
+          if ( actionCopy.isLaunchingInParallel() ) {
+
+            Runnable runnable = new Runnable() {
+              @Override public void run() {
+                try {
+                  Result threadResult = executeFromStart( nr + 1, newResult, nextEntry, actionCopy, nextComment );
+                  threadResults.add( threadResult );
+                } catch ( Throwable e ) {
+                  log.logError( Const.getStackTracker( e ) );
+                  threadExceptions.add( new HopException( BaseMessages.getString( PKG, "Workflow.Log.UnexpectedError",
+                    nextEntry.toString() ), e ) );
+                  Result threadResult = new Result();
+                  threadResult.setResult( false );
+                  threadResult.setNrErrors( 1L );
+                  threadResults.add( threadResult );
+                }
+              }
+            };
+            // Blocks while the maximum number of parallel actions is running
+            //
+            try {
+              threads.add( WorkflowParallelExecutor.getInstance().launch( getParallelPermits(), runnable ) );
+              threadEntries.add( nextEntry );
+            } catch ( InterruptedException e ) {
+              threadExceptions.add( new HopException( BaseMessages.getString( PKG,
+                "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextEntry.getName() ), e ) );
+              break;
+            }
+            if ( log.isBasic() ) {
+              log.logBasic( BaseMessages.getString( PKG, "Workflow.Log.LaunchedActionInParallel", nextEntry.getName() ) );
+            }
+          } else {
+            try {
+              // Same as before: blocks until it's done
+              //
+              res = executeFromStart( nr + 1, newResult, nextEntry, actionCopy, nextComment );
+            } catch ( Throwable e ) {
+              log.logError( Const.getStackTracker( e ) );
+              throw new HopException( BaseMessages.getString( PKG, "Workflow.Log.UnexpectedError", nextEntry.toString() ),
+                e );
+            }
+            if ( log.isBasic() ) {
+              log.logBasic( BaseMessages.getString( PKG, "Workflow.Log.FinishedAction", nextEntry.getName(), res.getResult()
+                + "" ) );
+            }
           }
         }
       }
-    }
 
-    // OK, if we run in parallel, we need to wait for all the actions to
-    // finish...
-    //
-    if ( actionCopy.isLaunchingInParallel() ) {
-      for ( int i = 0; i < threads.size(); i++ ) {
-        Thread thread = threads.get( i );
-        ActionCopy nextEntry = threadEntries.get( i );
+      // OK, if we run in parallel, we need to wait for all the actions to
+      // finish...
+      //
+      if ( actionCopy.isLaunchingInParallel() ) {
+        for ( int i = 0; i < threads.size(); i++ ) {
+          Future<?> thread = threads.get( i );
+          ActionCopy nextEntry = threadEntries.get( i );
 
-        try {
-          thread.join();
-        } catch ( InterruptedException e ) {
-          log.logError( workflowMeta.toString(), BaseMessages.getString( PKG,
-            "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextEntry.getName() ) );
-          threadExceptions.add( new HopException( BaseMessages.getString( PKG,
-            "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextEntry.getName() ), e ) );
+          try {
+            thread.get();
+          } catch ( InterruptedException | ExecutionException e ) {
+            log.logError( workflowMeta.toString(), BaseMessages.getString( PKG,
+              "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextEntry.getName() ) );
+            threadExceptions.add( new HopException( BaseMessages.getString( PKG,
+              "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextEntry.getName() ), e ) );
+          }
         }
       }
+    } finally {
+      if ( suspendedPermits != null ) {
+        WorkflowParallelExecutor.getInstance().resume( suspendedPermits );
+      }
     }
 
     // Perhaps we don't have next transforms??
@@ -792,6 +844,64 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
     return res;
   }
 
+  /**
+   * @return the permits limiting the number of actions this workflow runs in parallel, null if unlimited
+   */
+  private synchronized Semaphore getParallelPermits() {
+    if ( parallelLimits == null ) {
+      initParallelLimits();
+    }
+    return parallelPermits;
+  }
+
+  /**
+   * @return the maximum number of parallel actions per database connection or action plugin ID
+   */
+  private synchronized Map<String, Integer> getParallelLimits() {
+    if ( parallelLimits == null ) {
+      initParallelLimits();
+    }
+    return parallelLimits;
+  }
+
+  private void initParallelLimits() {
+    parallelPermits = WorkflowParallelExecutor.createPermits(
+      Const.toInt( environmentSubstitute( getVariable( Const.HOP_WORKFLOW_MAX_PARALLEL_ACTIONS ) ), 0 ) );
+    parallelLimits =
+      WorkflowParallelExecutor.parseLimits( environmentSubstitute( getVariable( Const.HOP_WORKFLOW_PARALLEL_LIMITS ) ) );
+  }
+
+  /**
+   * Wait until the resources used by an action allow another action to run, see {@link Const#HOP_WORKFLOW_PARALLEL_LIMITS}
+   *
+   * @param action the action to run
+   * @return the acquired permits
+   */
+  private List<Semaphore> acquireResourcePermits( IAction action ) throws HopException {
+    Map<String, Integer> limits = getParallelLimits();
+    if ( limits.isEmpty() ) {
+      return Collections.emptyList();
+    }
+    List<String> resources = new ArrayList<>();
+    resources.add( action.getPluginId() );
+    if ( action instanceof ActionBase ) {
+      DatabaseMeta[] databases = ( (ActionBase) action ).getUsedDatabaseConnections();
+      if ( databases != null ) {
+        for ( DatabaseMeta database : databases ) {
+          if ( database != null ) {
+            resources.add( database.getName() );
+          }
+        }
+      }
+    }
+    try {
+      return WorkflowParallelExecutor.getInstance().acquireResources( resources, limits );
+    } catch ( InterruptedException e ) {
+      throw new HopWorkflowException( BaseMessages.getString( PKG, "Workflow.Log.UnexpectedErrorWhileWaitingForAction",
+        action.getName() ), e );
+    }
+  }
+
   /**
    * Get the number of errors that happened in the workflow.
    *
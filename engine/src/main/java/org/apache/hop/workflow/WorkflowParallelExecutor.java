@@ -0,0 +1,263 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.workflow;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.util.Utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the actions a workflow launches in parallel on a shared pool of threads.
+ * <p>
+ * The number of actions running at the same time can be limited at three levels:
+ * <ul>
+ * <li>for the whole JVM, for example a Hop server, with the system property HOP_WORKFLOW_MAX_PARALLEL_ACTIONS</li>
+ * <li>per workflow with the variable HOP_WORKFLOW_MAX_PARALLEL_ACTIONS</li>
+ * <li>per resource with the variable HOP_WORKFLOW_PARALLEL_LIMITS, for example "dwh=4,PIPELINE=8". A resource is a
+ * database connection name or an action plugin ID.</li>
+ * </ul>
+ * A thread which waits for other actions to finish gives up its permits while it waits, so that nested parallel
+ * executions can't deadlock on the limits. This is the case while a workflow waits for the actions it launched in
+ * parallel and while an action runs a sub-workflow: the limits only apply to the actions of the sub-workflow.
+ */
+public class WorkflowParallelExecutor {
+
+  private static final WorkflowParallelExecutor instance =
+    new WorkflowParallelExecutor( Const.toInt( EnvUtil.getSystemProperty( Const.HOP_WORKFLOW_MAX_PARALLEL_ACTIONS ), 0 ) );
+
+  private final ExecutorService executorService;
+
+  /**
+   * Limits the parallel actions in this JVM, null if unlimited
+   */
+  private final Semaphore serverPermits;
+
+  private final Map<String, Semaphore> resourcePermits;
+
+  /**
+   * The permits held by the current thread, the most recently acquired first
+   */
+  private final ThreadLocal<Deque<Semaphore>> heldPermits;
+
+  WorkflowParallelExecutor( int maxParallelActions ) {
+    this.serverPermits = createPermits( maxParallelActions );
+    this.resourcePermits = new ConcurrentHashMap<>();
+    this.heldPermits = ThreadLocal.withInitial( ArrayDeque::new );
+
+    final AtomicInteger threadNr = new AtomicInteger( 0 );
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread( runnable, "workflow-parallel-" + threadNr.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    };
+    this.executorService = Executors.newCachedThreadPool( threadFactory );
+  }
+
+  public static WorkflowParallelExecutor getInstance() {
+    return instance;
+  }
+
+  /**
+   * @param maxParallelActions the maximum number of actions to run at the same time, 0 or less for no limit
+   * @return the permits enforcing the limit or null if there is no limit
+   */
+  public static Semaphore createPermits( int maxParallelActions ) {
+    return maxParallelActions > 0 ? new Semaphore( maxParallelActions, true ) : null;
+  }
+
+  /**
+   * Parse resource limits in the format "resource=limit,resource=limit". Invalid entries are ignored.
+   *
+   * @param limits the limits to parse, can be empty or null
+   * @return the limit per resource
+   */
+  public static Map<String, Integer> parseLimits( String limits ) {
+    if ( Utils.isEmpty( limits ) ) {
+      return Collections.emptyMap();
+    }
+    Map<String, Integer> map = new HashMap<>();
+    for ( String entry : limits.split( "," ) ) {
+      int index = entry.lastIndexOf( '=' );
+      if ( index <= 0 ) {
+        continue;
+      }
+      String resource = entry.substring( 0, index ).trim();
+      int limit = Const.toInt( entry.substring( index + 1 ).trim(), 0 );
+      if ( !resource.isEmpty() && limit > 0 ) {
+        map.put( resource, limit );
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Launch a parallel branch of a workflow. This blocks until the server and the workflow allow another action to run.
+   * The branch keeps these permits until it's done.
+   *
+   * @param workflowPermits the permits of the workflow, null if the workflow has no limit
+   * @param branch          the branch to run
+   * @return the future to wait on for the branch to finish
+   * @throws InterruptedException in case the thread is interrupted while waiting for a permit
+   */
+  public Future<?> launch( Semaphore workflowPermits, Runnable branch ) throws InterruptedException {
+    // The permits are acquired here but held by the thread running the branch
+    //
+    final List<Semaphore> permits = new ArrayList<>( 2 );
+    try {
+      for ( Semaphore permit : new Semaphore[] { serverPermits, workflowPermits } ) {
+        if ( permit != null ) {
+          permit.acquire();
+          permits.add( permit );
+        }
+      }
+    } catch ( InterruptedException e ) {
+      permits.forEach( Semaphore::release );
+      throw e;
+    }
+
+    // Pool threads don't inherit the context class loader of the launching thread like a new thread does
+    //
+    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    try {
+      return executorService.submit( () -> {
+        Deque<Semaphore> held = heldPermits.get();
+        permits.forEach( held::push );
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader( classLoader );
+        try {
+          branch.run();
+        } finally {
+          Thread.currentThread().setContextClassLoader( previous );
+          release( permits );
+        }
+      } );
+    } catch ( RejectedExecutionException e ) {
+      permits.forEach( Semaphore::release );
+      throw e;
+    }
+  }
+
+  /**
+   * Acquire a permit for each of the resources an action uses which has a limit.
+   *
+   * @param resources the resources used by the action
+   * @param limits    the limit per resource
+   * @return the acquired permits, to hand back with {@link #release(Collection)}
+   * @throws InterruptedException in case the thread is interrupted while waiting for a permit
+   */
+  public List<Semaphore> acquireResources( Collection<String> resources, Map<String, Integer> limits )
+    throws InterruptedException {
+    if ( limits.isEmpty() ) {
+      return Collections.emptyList();
+    }
+    List<Semaphore> acquired = new ArrayList<>();
+    try {
+      // Always acquire in the same order to prevent deadlocks between actions using the same resources
+      //
+      for ( String resource : new TreeSet<>( resources ) ) {
+        Integer limit = limits.get( resource );
+        if ( limit != null ) {
+          // The first limit set for a resource applies to all workflows in this JVM
+          acquire( resourcePermits.computeIfAbsent( resource, key -> new Semaphore( limit, true ) ), acquired );
+        }
+      }
+    } catch ( InterruptedException e ) {
+      release( acquired );
+      throw e;
+    }
+    return acquired;
+  }
+
+  /**
+   * Hand back permits acquired by the current thread.
+   *
+   * @param permits the permits to release
+   */
+  public void release( Collection<Semaphore> permits ) {
+    Deque<Semaphore> held = heldPermits.get();
+    for ( Semaphore permit : permits ) {
+      held.removeFirstOccurrence( permit );
+      permit.release();
+    }
+  }
+
+  /**
+   * Give up all permits of the current thread while it waits for other actions to finish.
+   *
+   * @return the suspended permits, to take back with {@link #resume(List)}
+   */
+  public List<Semaphore> suspend() {
+    Deque<Semaphore> held = heldPermits.get();
+    List<Semaphore> suspended = new ArrayList<>( held );
+    held.clear();
+    suspended.forEach( Semaphore::release );
+    return suspended;
+  }
+
+  /**
+   * Take back the permits given up by {@link #suspend()}, in the order in which they were first acquired.
+   *
+   * @param suspended the suspended permits
+   */
+  public void resume( List<Semaphore> suspended ) {
+    Deque<Semaphore> held = heldPermits.get();
+    for ( int i = suspended.size() - 1; i >= 0; i-- ) {
+      Semaphore permit = suspended.get( i );
+      permit.acquireUninterruptibly();
+      held.push( permit );
+    }
+  }
+
+  /**
+   * @return the number of permits held by the current thread
+   */
+  int getNrHeldPermits() {
+    return heldPermits.get().size();
+  }
+
+  private void acquire( Semaphore permit, List<Semaphore> acquired ) throws InterruptedException {
+    if ( permit != null ) {
+      permit.acquire();
+      acquired.add( permit );
+      heldPermits.get().push( permit );
+    }
+  }
+}
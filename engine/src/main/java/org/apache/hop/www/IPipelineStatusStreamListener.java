@@ -0,0 +1,66 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.List;
+
+/**
+ * Receives the frames read from a binary pipeline status stream.
+ *
+ * @see PipelineStatusStream
+ */
+public interface IPipelineStatusStreamListener {
+
+  /**
+   * Called when the status of the pipeline changed. Only the transform copies which changed since the previous status
+   * frame are in the transform status list of the given status.
+   *
+   * @param statusDelta the pipeline status with the changed transform status entries
+   * @throws HopException in case the status couldn't be processed
+   */
+  void statusReceived( HopServerPipelineStatus statusDelta ) throws HopException;
+
+  /**
+   * Called when new log lines of the pipeline were received.
+   *
+   * @param lastLogLineNr the last log line number the text covers
+   * @param logText       the new log text
+   * @throws HopException in case the log text couldn't be processed
+   */
+  void logReceived( int lastLogLineNr, String logText ) throws HopException;
+
+  /**
+   * Called when a sample of rows of a transform copy was received.
+   *
+   * @param transformName the name of the sniffed transform
+   * @param copyNr        the copy number of the sniffed transform
+   * @param rowMeta       the layout of the sampled rows
+   * @param rows          the sampled rows
+   * @throws HopException in case the rows couldn't be processed
+   */
+  void rowsReceived( String transformName, int copyNr, IRowMeta rowMeta, List<Object[]> rows ) throws HopException;
+}
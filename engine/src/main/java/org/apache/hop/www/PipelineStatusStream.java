@@ -0,0 +1,292 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.pipeline.transform.TransformStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compact binary encoding used to stream the status, the log and row samples of a running pipeline from a Hop
+ * server to a client. After a small header the stream consists of frames, each starting with a frame type byte:
+ * <ul>
+ *   <li>{@link #FRAME_STATUS}: the pipeline status and the transform copies which changed since the previous frame</li>
+ *   <li>{@link #FRAME_LOG}: the log lines written since the previous log frame</li>
+ *   <li>{@link #FRAME_ROWS}: a sample of rows of a transform copy, encoded with {@link IRowMeta#writeData}</li>
+ *   <li>{@link #FRAME_HEARTBEAT}: sent when nothing changed for a while</li>
+ *   <li>{@link #FRAME_END}: the last frame of the stream</li>
+ * </ul>
+ * The writer side keeps the last transform status it sent for each copy so only the deltas go over the wire.
+ */
+public class PipelineStatusStream {
+
+  public static final int MAGIC = 0x48505353; // HPSS
+  public static final int VERSION = 1;
+
+  public static final int FRAME_END = 0;
+  public static final int FRAME_STATUS = 1;
+  public static final int FRAME_LOG = 2;
+  public static final int FRAME_ROWS = 3;
+  public static final int FRAME_HEARTBEAT = 4;
+
+  private final DataOutputStream outputStream;
+
+  private final Map<String, byte[]> sentTransformStatus;
+  private String sentStatusDescription;
+  private boolean sentPaused;
+  private long sentStartDate;
+  private long sentEndDate;
+  private boolean statusSent;
+
+  public PipelineStatusStream( DataOutputStream outputStream ) {
+    this.outputStream = outputStream;
+    this.sentTransformStatus = new HashMap<>();
+  }
+
+  public void writeHeader() throws IOException {
+    outputStream.writeInt( MAGIC );
+    outputStream.writeByte( VERSION );
+  }
+
+  /**
+   * Write a status frame if anything changed since the previous status frame.
+   *
+   * @param statusDescription     the status description of the pipeline
+   * @param paused                true if the pipeline is paused
+   * @param executionStartDate    the execution start date or null
+   * @param executionEndDate      the execution end date or null
+   * @param transformStatusList   the status of all the transform copies
+   * @return true if a frame was written, false if nothing changed
+   * @throws IOException in case the frame couldn't be written
+   */
+  public boolean writeStatus( String statusDescription, boolean paused, Date executionStartDate, Date executionEndDate,
+                              List<TransformStatus> transformStatusList ) throws IOException {
+    long startDate = executionStartDate == null ? -1L : executionStartDate.getTime();
+    long endDate = executionEndDate == null ? -1L : executionEndDate.getTime();
+
+    List<byte[]> changed = new ArrayList<>();
+    for ( TransformStatus transformStatus : transformStatusList ) {
+      byte[] encoded = encodeTransformStatus( transformStatus );
+      String key = transformStatus.getTransformName() + "." + transformStatus.getCopy();
+      if ( !Arrays.equals( encoded, sentTransformStatus.get( key ) ) ) {
+        sentTransformStatus.put( key, encoded );
+        changed.add( encoded );
+      }
+    }
+
+    boolean pipelineChanged = !statusSent
+      || !Const.NVL( statusDescription, "" ).equals( sentStatusDescription )
+      || paused != sentPaused
+      || startDate != sentStartDate
+      || endDate != sentEndDate;
+    if ( !pipelineChanged && changed.isEmpty() ) {
+      return false;
+    }
+
+    outputStream.writeByte( FRAME_STATUS );
+    outputStream.writeUTF( Const.NVL( statusDescription, "" ) );
+    outputStream.writeBoolean( paused );
+    outputStream.writeLong( startDate );
+    outputStream.writeLong( endDate );
+    outputStream.writeInt( changed.size() );
+    for ( byte[] encoded : changed ) {
+      outputStream.write( encoded );
+    }
+
+    statusSent = true;
+    sentStatusDescription = Const.NVL( statusDescription, "" );
+    sentPaused = paused;
+    sentStartDate = startDate;
+    sentEndDate = endDate;
+    return true;
+  }
+
+  public void writeLog( int lastLogLineNr, String logText ) throws IOException {
+    outputStream.writeByte( FRAME_LOG );
+    outputStream.writeInt( lastLogLineNr );
+    writeString( outputStream, logText );
+  }
+
+  public void writeRows( String transformName, int copyNr, IRowMeta rowMeta, List<Object[]> rows ) throws IOException, HopException {
+    outputStream.writeByte( FRAME_ROWS );
+    outputStream.writeUTF( transformName );
+    outputStream.writeInt( copyNr );
+    rowMeta.writeMeta( outputStream );
+    outputStream.writeInt( rows.size() );
+    for ( Object[] row : rows ) {
+      rowMeta.writeData( outputStream, row );
+    }
+  }
+
+  public void writeHeartbeat() throws IOException {
+    outputStream.writeByte( FRAME_HEARTBEAT );
+  }
+
+  public void writeEnd() throws IOException {
+    outputStream.writeByte( FRAME_END );
+  }
+
+  public void flush() throws IOException {
+    outputStream.flush();
+  }
+
+  /**
+   * Read a complete pipeline status stream and pass the frames to the listener.
+   *
+   * @param inputStream the stream to read from
+   * @param listener    the listener to pass the frames to
+   * @return true if the end frame was read, false if the stream ended before that
+   * @throws HopException in case the stream is not a valid pipeline status stream or the listener failed
+   * @throws IOException  in case of a read error
+   */
+  public static boolean read( DataInputStream inputStream, IPipelineStatusStreamListener listener ) throws HopException, IOException {
+    int magic = inputStream.readInt();
+    int version = inputStream.readUnsignedByte();
+    if ( magic != MAGIC || version != VERSION ) {
+      throw new HopException( "Unsupported pipeline status stream (magic " + Integer.toHexString( magic ) + ", version " + version + ")" );
+    }
+
+    while ( true ) {
+      int frameType = inputStream.read();
+      switch ( frameType ) {
+        case -1:
+          return false;
+        case FRAME_END:
+          return true;
+        case FRAME_STATUS:
+          listener.statusReceived( readStatus( inputStream ) );
+          break;
+        case FRAME_LOG:
+          int lastLogLineNr = inputStream.readInt();
+          listener.logReceived( lastLogLineNr, readString( inputStream ) );
+          break;
+        case FRAME_ROWS:
+          String transformName = inputStream.readUTF();
+          int copyNr = inputStream.readInt();
+          RowMeta rowMeta = new RowMeta( inputStream );
+          int nrRows = inputStream.readInt();
+          List<Object[]> rows = new ArrayList<>( nrRows );
+          for ( int i = 0; i < nrRows; i++ ) {
+            rows.add( rowMeta.readData( inputStream ) );
+          }
+          listener.rowsReceived( transformName, copyNr, rowMeta, rows );
+          break;
+        case FRAME_HEARTBEAT:
+          break;
+        default:
+          throw new HopException( "Unknown frame type " + frameType + " in pipeline status stream" );
+      }
+    }
+  }
+
+  private static HopServerPipelineStatus readStatus( DataInputStream inputStream ) throws IOException {
+    HopServerPipelineStatus status = new HopServerPipelineStatus();
+    status.setStatusDescription( inputStream.readUTF() );
+    status.setPaused( inputStream.readBoolean() );
+    long startDate = inputStream.readLong();
+    long endDate = inputStream.readLong();
+    status.setExecutionStartDate( startDate < 0 ? null : new Date( startDate ) );
+    status.setExecutionEndDate( endDate < 0 ? null : new Date( endDate ) );
+    int nrTransforms = inputStream.readInt();
+    for ( int i = 0; i < nrTransforms; i++ ) {
+      status.getTransformStatusList().add( readTransformStatus( inputStream ) );
+    }
+    return status;
+  }
+
+  private static byte[] encodeTransformStatus( TransformStatus transformStatus ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream( 128 );
+    DataOutputStream out = new DataOutputStream( bytes );
+    out.writeUTF( Const.NVL( transformStatus.getTransformName(), "" ) );
+    out.writeInt( transformStatus.getCopy() );
+    out.writeUTF( Const.NVL( transformStatus.getStatusDescription(), "" ) );
+    out.writeLong( transformStatus.getErrors() );
+    out.writeLong( transformStatus.getLinesRead() );
+    out.writeLong( transformStatus.getLinesWritten() );
+    out.writeLong( transformStatus.getLinesInput() );
+    out.writeLong( transformStatus.getLinesOutput() );
+    out.writeLong( transformStatus.getLinesUpdated() );
+    out.writeLong( transformStatus.getLinesRejected() );
+    out.writeLong( transformStatus.getInputBufferSize() );
+    out.writeLong( transformStatus.getOutputBufferSize() );
+    out.writeDouble( transformStatus.getSeconds() );
+    out.writeUTF( Const.NVL( transformStatus.getSpeed(), "" ) );
+    out.writeUTF( Const.NVL( transformStatus.getPriority(), "" ) );
+    out.writeBoolean( transformStatus.isStopped() );
+    out.writeBoolean( transformStatus.isPaused() );
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static TransformStatus readTransformStatus( DataInputStream in ) throws IOException {
+    TransformStatus transformStatus = new TransformStatus();
+    transformStatus.setTransformName( in.readUTF() );
+    transformStatus.setCopy( in.readInt() );
+    transformStatus.setStatusDescription( in.readUTF() );
+    transformStatus.setErrors( in.readLong() );
+    transformStatus.setLinesRead( in.readLong() );
+    transformStatus.setLinesWritten( in.readLong() );
+    transformStatus.setLinesInput( in.readLong() );
+    transformStatus.setLinesOutput( in.readLong() );
+    transformStatus.setLinesUpdated( in.readLong() );
+    transformStatus.setLinesRejected( in.readLong() );
+    transformStatus.setInputBufferSize( in.readLong() );
+    transformStatus.setOutputBufferSize( in.readLong() );
+    transformStatus.setSeconds( in.readDouble() );
+    transformStatus.setSpeed( in.readUTF() );
+    transformStatus.setPriority( in.readUTF() );
+    transformStatus.setStopped( in.readBoolean() );
+    transformStatus.setPaused( in.readBoolean() );
+    return transformStatus;
+  }
+
+  /**
+   * Log text can be larger than the 64k limit of {@link DataOutputStream#writeUTF(String)}
+   */
+  private static void writeString( DataOutputStream out, String string ) throws IOException {
+    byte[] bytes = Const.NVL( string, "" ).getBytes( StandardCharsets.UTF_8 );
+    out.writeInt( bytes.length );
+    out.write( bytes );
+  }
+
+  private static String readString( DataInputStream in ) throws IOException {
+    byte[] bytes = new byte[ in.readInt() ];
+    in.readFully( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+}
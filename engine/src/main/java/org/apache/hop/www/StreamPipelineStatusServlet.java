@@ -0,0 +1,299 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.IRowListener;
+import org.apache.hop.pipeline.transform.TransformStatus;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streams the status, the log and optionally a row sample of a running pipeline over a single chunked HTTP response
+ * using the binary {@link PipelineStatusStream} encoding. Changes are pushed as soon as they are noticed instead of
+ * having the client poll {@link GetPipelineStatusServlet} and {@link SniffTransformServlet}.
+ */
+public class StreamPipelineStatusServlet extends BaseHttpServlet implements IHopServerPlugin {
+  private static Class<?> PKG = StreamPipelineStatusServlet.class; // for i18n purposes, needed by Translator!!
+
+  private static final long serialVersionUID = -3087437429538713411L;
+  public static final String CONTEXT_PATH = "/hop/streamPipelineStatus";
+
+  public static final String CONTENT_TYPE = "application/x-hop-pipeline-status";
+
+  /**
+   * The delay in ms between checks for changes in the pipeline status
+   */
+  public static final int DEFAULT_INTERVAL = 100;
+
+  /**
+   * Send a heartbeat frame when nothing changed for this many ms, this detects clients which went away
+   */
+  public static final long HEARTBEAT_INTERVAL = 5000L;
+
+  public StreamPipelineStatusServlet() {
+  }
+
+  public StreamPipelineStatusServlet( PipelineMap pipelineMap ) {
+    super( pipelineMap );
+  }
+
+  public void doGet( HttpServletRequest request, HttpServletResponse response ) throws ServletException,
+    IOException {
+    if ( isJettyMode() && !request.getContextPath().startsWith( CONTEXT_PATH ) ) {
+      return;
+    }
+
+    if ( log.isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "StreamPipelineStatusServlet.Log.StreamRequested" ) );
+    }
+
+    String pipelineName = request.getParameter( "name" );
+    String id = request.getParameter( "id" );
+    int startLineNr = Const.toInt( request.getParameter( "from" ), 0 );
+    int interval = Math.max( 10, Const.toInt( request.getParameter( "interval" ), DEFAULT_INTERVAL ) );
+    boolean sendStatus = !"N".equalsIgnoreCase( request.getParameter( "status" ) );
+    String transformName = request.getParameter( "transform" );
+    int copyNr = Const.toInt( request.getParameter( "copynr" ), 0 );
+    int nrLines = Const.toInt( request.getParameter( "lines" ), 0 );
+    String type = Const.NVL( request.getParameter( "type" ), SniffTransformServlet.TYPE_OUTPUT );
+
+    // ID is optional...
+    //
+    IPipelineEngine<PipelineMeta> pipeline;
+    if ( Utils.isEmpty( id ) ) {
+      HopServerObjectEntry entry = getPipelineMap().getFirstServerObjectEntry( pipelineName );
+      pipeline = entry == null ? null : getPipelineMap().getPipeline( entry );
+    } else {
+      pipeline = getPipelineMap().getPipeline( new HopServerObjectEntry( pipelineName, id ) );
+    }
+
+    if ( pipeline == null ) {
+      response.sendError( HttpServletResponse.SC_NOT_FOUND,
+        BaseMessages.getString( PKG, "StreamPipelineStatusServlet.Log.CouldNotFindPipeline", pipelineName ) );
+      return;
+    }
+
+    IEngineComponent component = null;
+    if ( !Utils.isEmpty( transformName ) ) {
+      for ( IEngineComponent componentCopy : pipeline.getComponentCopies( transformName ) ) {
+        if ( componentCopy.getCopyNr() == copyNr ) {
+          component = componentCopy;
+        }
+      }
+      if ( component == null ) {
+        response.sendError( HttpServletResponse.SC_NOT_FOUND,
+          BaseMessages.getString( PKG, "StreamPipelineStatusServlet.Log.CouldNotFindTransform", transformName ) );
+        return;
+      }
+    }
+
+    // No content length: the container sends the frames using chunked transfer encoding
+    //
+    response.setStatus( HttpServletResponse.SC_OK );
+    response.setContentType( CONTENT_TYPE );
+    response.setHeader( "Cache-Control", "no-cache" );
+
+    PipelineStatusStream stream = new PipelineStatusStream( new DataOutputStream( new BufferedOutputStream( response.getOutputStream() ) ) );
+
+    SampleRowListener rowListener = null;
+    if ( component != null && nrLines > 0 ) {
+      rowListener = new SampleRowListener( SniffTransformServlet.TYPE_INPUT.equalsIgnoreCase( type ), nrLines );
+      component.addRowListener( rowListener );
+    }
+
+    try {
+      stream.writeHeader();
+      stream.flush();
+
+      int lastLineNr = startLineNr;
+      long lastFrameTime = System.currentTimeMillis();
+      boolean done = false;
+      while ( !done ) {
+        boolean ended = pipeline.isFinished() || pipeline.isStopped();
+        boolean written = false;
+
+        if ( rowListener != null && ( rowListener.isFull() || ended || isDone( component ) ) ) {
+          component.removeRowListener( rowListener );
+          if ( rowListener.getRowMeta() != null ) {
+            stream.writeRows( transformName, copyNr, rowListener.getRowMeta(), rowListener.getRows() );
+            written = true;
+          }
+          rowListener = null;
+        }
+
+        if ( sendStatus ) {
+          written |= stream.writeStatus( pipeline.getStatusDescription(), pipeline.isPaused(), pipeline.getExecutionStartDate(),
+            pipeline.getExecutionEndDate(), getTransformStatusList( pipeline ) );
+
+          int bufferLineNr = HopLogStore.getLastBufferLineNr();
+          if ( bufferLineNr > lastLineNr ) {
+            String logText = HopLogStore.getAppender().getBuffer( pipeline.getLogChannelId(), false, lastLineNr, bufferLineNr ).toString();
+            lastLineNr = bufferLineNr;
+            if ( !Utils.isEmpty( logText ) ) {
+              stream.writeLog( lastLineNr, logText );
+              written = true;
+            }
+          }
+        }
+
+        done = sendStatus ? ended : rowListener == null;
+        if ( done ) {
+          stream.writeEnd();
+          written = true;
+        } else if ( !written && System.currentTimeMillis() - lastFrameTime > HEARTBEAT_INTERVAL ) {
+          stream.writeHeartbeat();
+          written = true;
+        }
+
+        if ( written ) {
+          stream.flush();
+          lastFrameTime = System.currentTimeMillis();
+        }
+
+        if ( !done ) {
+          try {
+            Thread.sleep( interval );
+          } catch ( InterruptedException e ) {
+            break;
+          }
+        }
+      }
+    } catch ( IOException e ) {
+      // The client went away, nothing left to do
+      //
+      if ( log.isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "StreamPipelineStatusServlet.Log.ClientDisconnected", pipelineName ) );
+      }
+    } catch ( HopException e ) {
+      throw new ServletException( "Unable to stream the status of pipeline '" + pipelineName + "'", e );
+    } finally {
+      if ( rowListener != null ) {
+        component.removeRowListener( rowListener );
+      }
+    }
+  }
+
+  private boolean isDone( IEngineComponent component ) {
+    ComponentExecutionStatus status = component.getStatus();
+    return status == ComponentExecutionStatus.STATUS_FINISHED
+      || status == ComponentExecutionStatus.STATUS_STOPPED
+      || status == ComponentExecutionStatus.STATUS_DISPOSED
+      || status == ComponentExecutionStatus.STATUS_HALTED;
+  }
+
+  private List<TransformStatus> getTransformStatusList( IPipelineEngine<PipelineMeta> pipeline ) {
+    List<TransformStatus> list = new ArrayList<>();
+    for ( IEngineComponent component : pipeline.getComponents() ) {
+      if ( component.isRunning() || component.getStatus() != ComponentExecutionStatus.STATUS_EMPTY ) {
+        list.add( new TransformStatus( component ) );
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Collects the first rows read or written by a transform copy.
+   */
+  private static class SampleRowListener implements IRowListener {
+    private final boolean read;
+    private final int nrLines;
+    private final List<Object[]> rows;
+    private volatile IRowMeta rowMeta;
+
+    SampleRowListener( boolean read, int nrLines ) {
+      this.read = read;
+      this.nrLines = nrLines;
+      this.rows = Collections.synchronizedList( new ArrayList<>() );
+    }
+
+    public void rowReadEvent( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+      if ( read ) {
+        addRow( rowMeta, row );
+      }
+    }
+
+    public void rowWrittenEvent( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+      if ( !read ) {
+        addRow( rowMeta, row );
+      }
+    }
+
+    public void errorRowWrittenEvent( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+    }
+
+    private void addRow( IRowMeta rowMeta, Object[] row ) {
+      synchronized ( rows ) {
+        if ( rows.size() < nrLines ) {
+          this.rowMeta = rowMeta;
+          rows.add( row );
+        }
+      }
+    }
+
+    boolean isFull() {
+      return rows.size() >= nrLines;
+    }
+
+    IRowMeta getRowMeta() {
+      return rowMeta;
+    }
+
+    List<Object[]> getRows() {
+      synchronized ( rows ) {
+        return new ArrayList<>( rows );
+      }
+    }
+  }
+
+  public String toString() {
+    return "Stream Pipeline Status";
+  }
+
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+}
@@ -0,0 +1,125 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.engines.forkjoin;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class ForkJoinPipelineEngineTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test( timeout = 10000 )
+  public void pipelineWithNoTransformsIsNotEndless() throws HopException {
+    ForkJoinPipelineEngine pipeline = new ForkJoinPipelineEngine( new PipelineMeta() );
+    pipeline.prepareExecution();
+    pipeline.startThreads();
+    pipeline.waitUntilFinished();
+    assertEquals( 0, pipeline.getErrors() );
+  }
+
+  @Test( timeout = 30000 )
+  public void allRowsPassWithOneWorker() throws HopException {
+    assertEquals( 25000, runChain( 10, 25000, "1" ) );
+  }
+
+  @Test( timeout = 30000 )
+  public void allRowsPassWithSeveralWorkers() throws HopException {
+    assertEquals( 25000, runChain( 10, 25000, "4" ) );
+  }
+
+  /**
+   * Runs an Injector followed by a chain of Dummy transforms with a small row set size.
+   *
+   * @return the number of rows written by the last Dummy
+   */
+  private long runChain( int nrDummies, int nrRows, String parallelism ) throws HopException {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName( "chain" );
+
+    InjectorMeta injectorMeta = new InjectorMeta();
+    TransformMeta previous =
+      new TransformMeta( registry.getPluginId( TransformPluginType.class, injectorMeta ), "injector", injectorMeta );
+    pipelineMeta.addTransform( previous );
+    for ( int i = 0; i < nrDummies; i++ ) {
+      DummyMeta dummyMeta = new DummyMeta();
+      TransformMeta dummy =
+        new TransformMeta( registry.getPluginId( TransformPluginType.class, dummyMeta ), "dummy" + i, dummyMeta );
+      pipelineMeta.addTransform( dummy );
+      pipelineMeta.addPipelineHop( new PipelineHopMeta( previous, dummy ) );
+      previous = dummy;
+    }
+
+    ForkJoinPipelineEngine pipeline = new ForkJoinPipelineEngine( pipelineMeta );
+    ForkJoinPipelineRunConfiguration config =
+      (ForkJoinPipelineRunConfiguration) pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
+    config.setRowSetSize( "100" );
+    config.setParallelism( parallelism );
+    pipeline.prepareExecution();
+
+    AtomicLong written = new AtomicLong();
+    pipeline.getTransformInterface( "dummy" + ( nrDummies - 1 ), 0 ).addRowListener( new RowAdapter() {
+      @Override public void rowWrittenEvent( IRowMeta rowMeta, Object[] row ) {
+        written.incrementAndGet();
+      }
+    } );
+    RowProducer producer = pipeline.addRowProducer( "injector", 0 );
+    pipeline.startThreads();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    for ( long r = 0; r < nrRows; r++ ) {
+      producer.putRow( rowMeta, new Object[] { r } );
+    }
+    producer.finished();
+    pipeline.waitUntilFinished();
+
+    assertEquals( 0, pipeline.getErrors() );
+    return written.get();
+  }
+}
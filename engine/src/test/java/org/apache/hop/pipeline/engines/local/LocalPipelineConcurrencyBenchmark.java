@@ -0,0 +1,175 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.engines.local;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many small pipelines at the same time, the way a busy Hop server does, once with platform threads and once with
+ * virtual threads for the transforms. Every pipeline is an Injector followed by a chain of Dummy transforms.
+ * <p>
+ * The score is the time needed to push all rows through all pipelines. The peak number of live platform threads is
+ * reported as the secondary result "peakPlatformThreads". Add "-prof gc" to the JMH options for the allocation figures. Virtual threads are only
+ * used on Java 21 or later, on older runtimes both variants use platform threads.
+ * <p>
+ * This is not a unit test: run it with the main method or through the JMH runner.
+ */
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 2 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class LocalPipelineConcurrencyBenchmark {
+
+  @Param( { "false", "true" } )
+  public boolean virtualThreads;
+
+  @Param( { "500" } )
+  public int nrPipelines;
+
+  @Param( { "4" } )
+  public int nrDummies;
+
+  @Param( { "1000" } )
+  public int nrRows;
+
+  private PipelineMeta pipelineMeta;
+
+  private IRowMeta rowMeta;
+
+  @Setup( Level.Trial )
+  public void setUp() throws HopException {
+    HopEnvironment.init();
+    PluginRegistry registry = PluginRegistry.getInstance();
+
+    pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName( "concurrency" );
+
+    InjectorMeta injectorMeta = new InjectorMeta();
+    TransformMeta previous =
+      new TransformMeta( registry.getPluginId( TransformPluginType.class, injectorMeta ), "injector", injectorMeta );
+    pipelineMeta.addTransform( previous );
+    for ( int i = 0; i < nrDummies; i++ ) {
+      DummyMeta dummyMeta = new DummyMeta();
+      TransformMeta dummy =
+        new TransformMeta( registry.getPluginId( TransformPluginType.class, dummyMeta ), "dummy" + i, dummyMeta );
+      pipelineMeta.addTransform( dummy );
+      pipelineMeta.addPipelineHop( new PipelineHopMeta( previous, dummy ) );
+      previous = dummy;
+    }
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+  }
+
+  @Benchmark
+  public long runPipelines( ThreadCounters counters ) throws HopException {
+    List<LocalPipelineEngine> pipelines = new ArrayList<>( nrPipelines );
+    List<RowProducer> producers = new ArrayList<>( nrPipelines );
+    for ( int i = 0; i < nrPipelines; i++ ) {
+      LocalPipelineEngine pipeline = new LocalPipelineEngine( pipelineMeta );
+      LocalPipelineRunConfiguration config =
+        (LocalPipelineRunConfiguration) pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
+      config.setUsingVirtualThreads( virtualThreads );
+      pipeline.prepareExecution();
+      producers.add( pipeline.addRowProducer( "injector", 0 ) );
+      pipeline.startThreads();
+      pipelines.add( pipeline );
+    }
+
+    for ( int r = 0; r < nrRows; r++ ) {
+      Object[] row = new Object[] { (long) r };
+      for ( RowProducer producer : producers ) {
+        producer.putRow( rowMeta, row );
+      }
+    }
+    for ( RowProducer producer : producers ) {
+      producer.finished();
+    }
+
+    long errors = 0;
+    for ( LocalPipelineEngine pipeline : pipelines ) {
+      pipeline.waitUntilFinished();
+      errors += pipeline.getErrors();
+    }
+    if ( errors > 0 ) {
+      throw new HopException( "Pipelines finished with " + errors + " errors" );
+    }
+    counters.peakPlatformThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+    return errors;
+  }
+
+  /**
+   * The peak number of live platform threads during an iteration, reported next to the score
+   */
+  @State( Scope.Thread )
+  @AuxCounters( AuxCounters.Type.EVENTS )
+  public static class ThreadCounters {
+    public long peakPlatformThreads;
+
+    @Setup( Level.Iteration )
+    public void reset() {
+      ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+      peakPlatformThreads = 0;
+    }
+  }
+
+  public static void main( String[] args ) throws RunnerException {
+    new Runner( new OptionsBuilder().include( LocalPipelineConcurrencyBenchmark.class.getSimpleName() ).build() ).run();
+  }
+}
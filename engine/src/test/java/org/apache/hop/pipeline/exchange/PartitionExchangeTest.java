@@ -0,0 +1,189 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.exchange;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.ModPartitioner;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.apache.hop.server.HopServer;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs a partitioned pipeline on two hop servers in the same JVM and checks that every row ends up exactly once in the
+ * partition the mod partitioner picked, on the server the partition schema assigned it to.
+ */
+public class PartitionExchangeTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final String[] SERVERS = new String[] { "server1", "server2" };
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Test( timeout = 60000 )
+  public void testRowsArriveOnceInTheirPartition() throws Exception {
+    int[] ports = new int[] { getFreePort(), getFreePort() };
+    MemoryMetadataProvider metadataProvider = new MemoryMetadataProvider();
+    for ( int i = 0; i < SERVERS.length; i++ ) {
+      metadataProvider.getSerializer( HopServer.class )
+        .save( new HopServer( SERVERS[ i ], "localhost", Integer.toString( ports[ i ] ), "cluster", "cluster" ) );
+    }
+    PipelineMeta pipelineMeta = createPipelineMeta();
+    pipelineMeta.setMetadataProvider( metadataProvider );
+
+    // The row written by a copy of the partitioned transform, keyed by id, with the server and copy which wrote it
+    //
+    Map<Long, String> written = new ConcurrentHashMap<>();
+    Map<Long, String> duplicates = new ConcurrentHashMap<>();
+
+    LocalPipelineEngine[] pipelines = new LocalPipelineEngine[ SERVERS.length ];
+    RowProducer[] producers = new RowProducer[ SERVERS.length ];
+    for ( int i = 0; i < SERVERS.length; i++ ) {
+      LocalPipelineEngine pipeline = new LocalPipelineEngine( pipelineMeta );
+      pipeline.setMetadataProvider( metadataProvider );
+      pipeline.setVariable( Const.HOP_ROW_EXCHANGE_SERVER, SERVERS[ i ] );
+      pipeline.setVariable( Const.HOP_ROW_EXCHANGE_ID, "partition-exchange-test" );
+      pipeline.setVariable( Const.HOP_ROW_EXCHANGE_PORT_OFFSET, "0" );
+      pipeline.setVariable( Const.HOP_ROW_EXCHANGE_TIMEOUT, "10000" );
+      pipeline.prepareExecution();
+
+      for ( int copy = 0; copy < 2; copy++ ) {
+        String writer = SERVERS[ i ] + "/" + copy;
+        pipeline.getTransformInterface( "partitioned", copy ).addRowListener( new RowAdapter() {
+          @Override public void rowWrittenEvent( IRowMeta rowMeta, Object[] row ) {
+            Long id = (Long) row[ 0 ];
+            String previous = written.putIfAbsent( id, writer );
+            if ( previous != null ) {
+              duplicates.put( id, previous + " and " + writer );
+            }
+          }
+        } );
+      }
+      producers[ i ] = pipeline.addRowProducer( "injector", 0 );
+      pipelines[ i ] = pipeline;
+    }
+    for ( LocalPipelineEngine pipeline : pipelines ) {
+      pipeline.startThreads();
+    }
+
+    // Every server reads its own share of the input
+    //
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    int nrRows = 5000;
+    for ( int i = 0; i < SERVERS.length; i++ ) {
+      for ( long id = (long) i * nrRows; id < ( i + 1 ) * nrRows; id++ ) {
+        producers[ i ].putRow( rowMeta, new Object[] { id } );
+      }
+      producers[ i ].finished();
+    }
+    for ( LocalPipelineEngine pipeline : pipelines ) {
+      pipeline.waitUntilFinished();
+      assertEquals( 0, pipeline.getErrors() );
+    }
+
+    assertEquals( "Rows written more than once: " + duplicates, 0, duplicates.size() );
+    assertEquals( SERVERS.length * nrRows, written.size() );
+    for ( Map.Entry<Long, String> entry : written.entrySet() ) {
+      // Partition 0 is copy 0 and runs on server1, partition 1 is copy 1 and runs on server2
+      //
+      String expected = entry.getKey() % 2 == 0 ? "server1/0" : "server2/1";
+      assertEquals( "Row " + entry.getKey(), expected, entry.getValue() );
+    }
+
+    // The row exchange servers were released when the pipelines finished
+    //
+    for ( int port : ports ) {
+      assertNull( "The row exchange server on port " + port + " is still running", findServer( port ) );
+    }
+  }
+
+  private static PipelineMeta createPipelineMeta() throws Exception {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName( "partition-exchange" );
+
+    InjectorMeta injectorMeta = new InjectorMeta();
+    TransformMeta injector =
+      new TransformMeta( registry.getPluginId( TransformPluginType.class, injectorMeta ), "injector", injectorMeta );
+    pipelineMeta.addTransform( injector );
+
+    PartitionSchema partitionSchema = new PartitionSchema( "schema", Arrays.asList( "P1", "P2" ) );
+    partitionSchema.setHopServerNames( Arrays.asList( SERVERS ) );
+    TransformPartitioningMeta partitioningMeta = new TransformPartitioningMeta( "ModPartitioner", partitionSchema );
+    ( (ModPartitioner) partitioningMeta.getPartitioner() ).setFieldName( "id" );
+
+    DummyMeta dummyMeta = new DummyMeta();
+    TransformMeta partitioned =
+      new TransformMeta( registry.getPluginId( TransformPluginType.class, dummyMeta ), "partitioned", dummyMeta );
+    partitioned.setTransformPartitioningMeta( partitioningMeta );
+    pipelineMeta.addTransform( partitioned );
+    pipelineMeta.addPipelineHop( new PipelineHopMeta( injector, partitioned ) );
+
+    return pipelineMeta;
+  }
+
+  private static int getFreePort() throws Exception {
+    try ( ServerSocket socket = new ServerSocket( 0 ) ) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static RowExchangeServer findServer( int port ) throws Exception {
+    // Acquiring a released port starts a new server, acquiring a running one hands out the same server
+    //
+    RowExchangeServer server = RowExchangeServer.acquire( "localhost", port, 1000 );
+    server.release();
+    return server.isClosed() ? null : server;
+  }
+}
@@ -0,0 +1,171 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.exchange;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RowExchangeTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final byte[] SECRET = RowExchangeProtocol.getSecret( "test", "password" );
+
+  @Test( timeout = 30000 )
+  public void testRowsArriveInOrderWithSmallWindow() throws Exception {
+    RowExchangeServer server = RowExchangeServer.acquire( "localhost", 0, 10000 );
+    AtomicReference<Exception> error = new AtomicReference<>();
+
+    String exchangeKey = RowExchangeProtocol.getExchangeKey( "test", "input", 0, "output", 1, "server1" );
+    RemoteConsumerRowSet consumer = new RemoteConsumerRowSet( 10, 2, error::set );
+    server.register( exchangeKey, consumer, SECRET );
+
+    RemoteProducerRowSet producer =
+      new RemoteProducerRowSet( 10, "localhost", server.getPort(), exchangeKey, SECRET, 7, 10000, error::set );
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    int nrRows = 1000;
+    Thread thread = new Thread( () -> {
+      for ( long i = 0; i < nrRows; i++ ) {
+        while ( !producer.putRowWait( rowMeta, new Object[] { i, "row " + i }, 100, TimeUnit.MILLISECONDS ) ) {
+          // wait for the consumer to catch up
+        }
+      }
+      producer.setDone();
+    } );
+    thread.start();
+
+    long received = 0;
+    while ( true ) {
+      Object[] row = consumer.getRowWait( 100, TimeUnit.MILLISECONDS );
+      if ( row == null ) {
+        if ( consumer.isDone() && consumer.size() == 0 ) {
+          break;
+        }
+        continue;
+      }
+      assertEquals( received, row[ 0 ] );
+      assertEquals( "row " + received, row[ 1 ] );
+      assertEquals( "name", consumer.getRowMeta().getValueMeta( 1 ).getName() );
+      received++;
+    }
+    thread.join();
+
+    assertNull( error.get() );
+    assertEquals( nrRows, received );
+    assertEquals( nrRows, consumer.getNrRowsReceived() );
+    assertEquals( nrRows, producer.getNrRowsSent() );
+    // Batches are cut short when the producing transform is slower than the sender
+    assertTrue( producer.getNrBatchesSent() >= ( nrRows + 6 ) / 7 );
+
+    server.unregister( exchangeKey );
+    server.release();
+  }
+
+  @Test( timeout = 30000 )
+  public void testProducerFailsWithoutConsumer() throws Exception {
+    RowExchangeServer server = RowExchangeServer.acquire( "localhost", 0, 500 );
+    AtomicReference<Exception> error = new AtomicReference<>();
+
+    String exchangeKey = RowExchangeProtocol.getExchangeKey( "test", "input", 0, "output", 0, "server2" );
+    RemoteProducerRowSet producer =
+      new RemoteProducerRowSet( 10, "localhost", server.getPort(), exchangeKey, SECRET, 10, 500, error::set );
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    producer.putRowWait( rowMeta, new Object[] { 1L }, 100, TimeUnit.MILLISECONDS );
+    producer.setDone();
+
+    while ( error.get() == null ) {
+      Thread.sleep( 50 );
+    }
+    assertNotNull( error.get() );
+    assertTrue( producer.isDone() );
+    // Rows are discarded once the exchange failed so the transform doesn't block
+    assertTrue( producer.putRowWait( rowMeta, new Object[] { 2L }, 100, TimeUnit.MILLISECONDS ) );
+    producer.close();
+    server.release();
+  }
+
+  @Test( timeout = 30000 )
+  public void testProducerWithWrongSecretIsRefused() throws Exception {
+    RowExchangeServer server = RowExchangeServer.acquire( "localhost", 0, 1000 );
+    AtomicReference<Exception> consumerError = new AtomicReference<>();
+    AtomicReference<Exception> producerError = new AtomicReference<>();
+
+    String exchangeKey = RowExchangeProtocol.getExchangeKey( "test", "input", 0, "output", 0, "server3" );
+    RemoteConsumerRowSet consumer = new RemoteConsumerRowSet( 10, 2, consumerError::set );
+    server.register( exchangeKey, consumer, SECRET );
+
+    byte[] wrongSecret = RowExchangeProtocol.getSecret( "test", "guessed" );
+    RemoteProducerRowSet producer =
+      new RemoteProducerRowSet( 10, "localhost", server.getPort(), exchangeKey, wrongSecret, 10, 1000, producerError::set );
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    producer.putRowWait( rowMeta, new Object[] { 1L }, 100, TimeUnit.MILLISECONDS );
+    producer.setDone();
+
+    while ( producerError.get() == null ) {
+      Thread.sleep( 50 );
+    }
+    assertFalse( consumer.isAttached() );
+    assertEquals( 0, consumer.getNrRowsReceived() );
+    producer.close();
+    server.release();
+  }
+
+  @Test
+  public void testServerStopsWhenReleasedByAllUsers() throws Exception {
+    RowExchangeServer server = RowExchangeServer.acquire( "localhost", 0, 1000 );
+    assertSame( server, RowExchangeServer.acquire( "localhost", server.getPort(), 1000 ) );
+
+    server.release();
+    assertFalse( server.isClosed() );
+    server.release();
+    assertTrue( server.isClosed() );
+
+    // A new pipeline gets a new server
+    RowExchangeServer next = RowExchangeServer.acquire( "localhost", server.getPort(), 1000 );
+    assertNotSame( server, next );
+    next.release();
+  }
+}
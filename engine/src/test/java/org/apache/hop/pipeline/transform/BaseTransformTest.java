@@ -42,6 +42,7 @@ import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.pipeline.BasePartitioner;
 import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.engine.EngineComponentCounters;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.After;
 import org.junit.Before;
@@ -297,6 +298,24 @@ public class BaseTransformTest {
     assertFalse( meta1 == meta2 );
   }
 
+  @SuppressWarnings( "deprecation" )
+  @Test
+  public void testDeprecatedCounterFieldsAreCounted() {
+    BaseTransform testObject = new BaseTransform( mockHelper.transformMeta, mockHelper.iTransformMeta, mockHelper.iTransformData, 0, mockHelper.pipelineMeta,
+      mockHelper.pipeline );
+    testObject.incrementLinesRead();
+    testObject.linesRead += 2;
+    testObject.linesOutput++;
+    assertEquals( 3, testObject.getLinesRead() );
+    assertEquals( 4, testObject.incrementLinesRead() );
+    assertEquals( 1, testObject.getLinesOutput() );
+    assertEquals( 4, testObject.getCounters().getLinesRead() );
+
+    testObject.setLinesRead( 10 );
+    assertEquals( 10, testObject.getLinesRead() );
+    assertEquals( 0, testObject.linesRead );
+  }
+
   @Test
   public void testBuildLog() throws HopValueException {
     BaseTransform testObject = new BaseTransform( mockHelper.transformMeta, mockHelper.iTransformMeta, mockHelper.iTransformData, 0, mockHelper.pipelineMeta,
@@ -482,4 +501,44 @@ public class BaseTransformTest {
     baseTransformSpy.getRow();
     verify( mockHelper.pipelineMeta, times( 1 ) ).checkRowMixingStatically( any( TransformMeta.class ), anyObject() );
   }
+
+  @Test
+  public void setCounterIsNotLostWithConcurrentSnapshots() throws Exception {
+    BaseTransform baseTransform =
+      new BaseTransform( mockHelper.transformMeta, mockHelper.iTransformMeta, mockHelper.iTransformData,
+        0, mockHelper.pipelineMeta, mockHelper.pipeline );
+
+    AtomicBoolean done = new AtomicBoolean( false );
+    AtomicBoolean sawNegative = new AtomicBoolean( false );
+    Thread poller = new Thread( () -> {
+      while ( !done.get() ) {
+        if ( baseTransform.getCounters().getLinesInput() < 0 ) {
+          sawNegative.set( true );
+        }
+      }
+    } );
+    poller.start();
+    try {
+      for ( int i = 1; i <= 10000; i++ ) {
+        baseTransform.setLinesInput( i );
+        assertEquals( i, baseTransform.getLinesInput() );
+      }
+    } finally {
+      done.set( true );
+      poller.join();
+    }
+    assertFalse( sawNegative.get() );
+
+    baseTransform.setLinesRead( 5 );
+    baseTransform.incrementLinesRead();
+    baseTransform.addLinesWritten( 3 );
+    baseTransform.setLinesRejected( 2 );
+    baseTransform.setErrors( 1 );
+    EngineComponentCounters counters = baseTransform.getCounters();
+    assertEquals( 6, counters.getLinesRead() );
+    assertEquals( 3, counters.getLinesWritten() );
+    assertEquals( 10000, counters.getLinesInput() );
+    assertEquals( 2, counters.getLinesRejected() );
+    assertEquals( 1, counters.getErrors() );
+  }
 }
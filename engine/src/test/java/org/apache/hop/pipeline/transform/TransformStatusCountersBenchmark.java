@@ -0,0 +1,198 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transform;
+
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the per row cost of the transform status counters. The "synchronized" benchmarks use a copy of the former
+ * implementation where every counter access took one shared monitor, the "longAdder" benchmarks use the counters of
+ * {@link BaseTransform} itself.
+ * <p>
+ * The "Row" benchmarks count one line read and one line written, like a transform passing a row on. The grouped
+ * benchmarks run them next to a thread that keeps polling all the counters, the way the GUI and the status servlets do,
+ * only without the pause in between.
+ * <p>
+ * This is not a unit test: run it with the main method or through the JMH runner.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class TransformStatusCountersBenchmark {
+
+  private TransformMockHelper<ITransformMeta, ITransformData> mockHelper;
+
+  private BaseTransform<ITransformMeta, ITransformData> transform;
+
+  private SynchronizedCounters synchronizedCounters;
+
+  @Setup( Level.Trial )
+  public void setUp() {
+    mockHelper = new TransformMockHelper<>( "BENCHMARK", ITransformMeta.class, ITransformData.class );
+    when( mockHelper.logChannelFactory.create( any(), any( ILoggingObject.class ) ) ).thenReturn(
+      mockHelper.logChannelInterface );
+    transform = new BaseTransform<>( mockHelper.transformMeta, mockHelper.iTransformMeta, mockHelper.iTransformData, 0,
+      mockHelper.pipelineMeta, mockHelper.pipeline );
+    synchronizedCounters = new SynchronizedCounters();
+  }
+
+  @TearDown( Level.Trial )
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  @Benchmark
+  public long synchronizedRow() {
+    synchronizedCounters.incrementLinesRead();
+    return synchronizedCounters.incrementLinesWritten();
+  }
+
+  @Benchmark
+  public long longAdderRow() {
+    transform.incrementLinesRead();
+    return transform.incrementLinesWritten();
+  }
+
+  @Benchmark
+  @Group( "synchronizedPolled" )
+  @GroupThreads( 1 )
+  public long synchronizedPolledRow() {
+    return synchronizedRow();
+  }
+
+  @Benchmark
+  @Group( "synchronizedPolled" )
+  @GroupThreads( 1 )
+  public long synchronizedPolledStatus() {
+    return synchronizedCounters.getLinesRead() + synchronizedCounters.getLinesWritten()
+      + synchronizedCounters.getLinesInput() + synchronizedCounters.getLinesOutput()
+      + synchronizedCounters.getLinesUpdated() + synchronizedCounters.getLinesRejected();
+  }
+
+  @Benchmark
+  @Group( "longAdderPolled" )
+  @GroupThreads( 1 )
+  public long longAdderPolledRow() {
+    return longAdderRow();
+  }
+
+  @Benchmark
+  @Group( "longAdderPolled" )
+  @GroupThreads( 1 )
+  public long longAdderPolledStatus() {
+    return transform.getLinesRead() + transform.getLinesWritten() + transform.getLinesInput()
+      + transform.getLinesOutput() + transform.getLinesUpdated() + transform.getLinesRejected();
+  }
+
+  /**
+   * The status counters as they were kept before: plain longs guarded by a single monitor.
+   */
+  private static class SynchronizedCounters {
+    private final Object statusCountersLock = new Object();
+
+    private long linesRead;
+    private long linesWritten;
+    private long linesInput;
+    private long linesOutput;
+    private long linesUpdated;
+    private long linesRejected;
+
+    long incrementLinesRead() {
+      synchronized ( statusCountersLock ) {
+        return ++linesRead;
+      }
+    }
+
+    long incrementLinesWritten() {
+      synchronized ( statusCountersLock ) {
+        return ++linesWritten;
+      }
+    }
+
+    long getLinesRead() {
+      synchronized ( statusCountersLock ) {
+        return linesRead;
+      }
+    }
+
+    long getLinesWritten() {
+      synchronized ( statusCountersLock ) {
+        return linesWritten;
+      }
+    }
+
+    long getLinesInput() {
+      synchronized ( statusCountersLock ) {
+        return linesInput;
+      }
+    }
+
+    long getLinesOutput() {
+      synchronized ( statusCountersLock ) {
+        return linesOutput;
+      }
+    }
+
+    long getLinesUpdated() {
+      synchronized ( statusCountersLock ) {
+        return linesUpdated;
+      }
+    }
+
+    long getLinesRejected() {
+      synchronized ( statusCountersLock ) {
+        return linesRejected;
+      }
+    }
+  }
+
+  public static void main( String[] args ) throws RunnerException {
+    new Runner( new OptionsBuilder().include( TransformStatusCountersBenchmark.class.getSimpleName() ).build() ).run();
+  }
+}
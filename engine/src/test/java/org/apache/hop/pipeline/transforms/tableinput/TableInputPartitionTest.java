@@ -0,0 +1,227 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.tableinput;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TableInputPartitionTest {
+
+  private static final String SQL = "SELECT id, name FROM customers;";
+
+  private TransformMeta transformMeta;
+  private PipelineMeta pipelineMeta;
+  private Pipeline pipeline;
+  private TableInputMeta meta;
+  private Map<String, Object> extensionDataMap;
+
+  @Before
+  public void setUp() {
+    transformMeta = mock( TransformMeta.class );
+    doReturn( "input" ).when( transformMeta ).getName();
+    doReturn( mock( TransformPartitioningMeta.class ) ).when( transformMeta ).getTargetTransformPartitioningMeta();
+    pipelineMeta = mock( PipelineMeta.class );
+    doReturn( transformMeta ).when( pipelineMeta ).findTransform( anyString() );
+    pipeline = mock( Pipeline.class );
+    extensionDataMap = new HashMap<>();
+    doReturn( extensionDataMap ).when( pipeline ).getExtensionDataMap();
+
+    IDatabase iDatabase = mock( IDatabase.class );
+    doReturn( "MOD( id, 3 )" ).when( iDatabase ).getModuloExpression( "id", 3 );
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    doReturn( iDatabase ).when( databaseMeta ).getIDatabase();
+
+    meta = mock( TableInputMeta.class );
+    doReturn( "id" ).when( meta ).getPartitionColumn();
+    doReturn( databaseMeta ).when( meta ).getDatabaseMeta();
+  }
+
+  private TableInput createCopy( int copyNr, Database db ) {
+    TableInputData data = new TableInputData();
+    data.db = db;
+    data.partitioned = true;
+    data.nrPartitions = 3;
+    return new TableInput( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
+  }
+
+  private static Database rangeDatabase( long min, long max ) throws Exception {
+    IRowMeta rangeMeta = new RowMeta();
+    rangeMeta.addValueMeta( new ValueMetaInteger( "min" ) );
+    rangeMeta.addValueMeta( new ValueMetaInteger( "max" ) );
+    Database db = mock( Database.class );
+    doReturn( new RowMetaAndData( rangeMeta, min, max ) ).when( db ).getOneRow( anyString() );
+    return db;
+  }
+
+  private static List<Object> values( RowMetaAndData parameters ) {
+    return Arrays.asList( Arrays.copyOf( parameters.getData(), parameters.getRowMeta().size() ) );
+  }
+
+  @Test
+  public void testIntegerRangeBoundary() throws Exception {
+    IValueMeta valueMeta = new ValueMetaInteger( "id" );
+    assertEquals( 0L, TableInput.getRangeBoundary( valueMeta, 0L, 100L, 0, 4 ) );
+    assertEquals( 25L, TableInput.getRangeBoundary( valueMeta, 0L, 100L, 1, 4 ) );
+    assertEquals( 50L, TableInput.getRangeBoundary( valueMeta, 0L, 100L, 2, 4 ) );
+    assertEquals( 100L, TableInput.getRangeBoundary( valueMeta, 0L, 100L, 4, 4 ) );
+    assertEquals( -50L, TableInput.getRangeBoundary( valueMeta, -100L, 0L, 1, 2 ) );
+    // The span of the full long range doesn't fit in a long
+    assertEquals( -1L, TableInput.getRangeBoundary( valueMeta, Long.MIN_VALUE, Long.MAX_VALUE, 1, 2 ) );
+  }
+
+  @Test
+  public void testNumberRangeBoundary() throws Exception {
+    assertEquals( 2.5, TableInput.getRangeBoundary( new ValueMetaNumber( "n" ), 0.0, 10.0, 1, 4 ) );
+    assertEquals( 0, new BigDecimal( "3.5" ).compareTo( (BigDecimal) TableInput
+      .getRangeBoundary( new ValueMetaBigNumber( "n" ), new BigDecimal( "1" ), new BigDecimal( "6" ), 1, 2 ) ) );
+  }
+
+  @Test
+  public void testDateRangeBoundary() throws Exception {
+    Object date = TableInput.getRangeBoundary( new ValueMetaDate( "d" ), new Date( 1000L ), new Date( 3000L ), 1, 2 );
+    assertEquals( Date.class, date.getClass() );
+    assertEquals( 2000L, ( (Date) date ).getTime() );
+
+    Object timestamp = TableInput.getRangeBoundary( new ValueMetaTimestamp( "t" ), new Timestamp( 1000L ),
+      new Timestamp( 4000L ), 2, 3 );
+    assertEquals( Timestamp.class, timestamp.getClass() );
+    assertEquals( 3000L, ( (Timestamp) timestamp ).getTime() );
+  }
+
+  @Test( expected = HopException.class )
+  public void testStringRangeBoundary() throws Exception {
+    TableInput.getRangeBoundary( new ValueMetaString( "s" ), "a", "z", 1, 2 );
+  }
+
+  @Test
+  public void testModuloPartitionSql() throws Exception {
+    doReturn( TableInputMeta.PARTITION_METHOD_MODULO ).when( meta ).getPartitionMethod();
+
+    RowMetaAndData parameters = new RowMetaAndData();
+    assertEquals( "SELECT * FROM ( SELECT id, name FROM customers ) hop_partition WHERE "
+      + "( ABS( MOD( id, 3 ) ) = 0 OR id IS NULL )", createCopy( 0, null ).getPartitionSql( SQL, parameters ) );
+    assertEquals( "SELECT * FROM ( SELECT id, name FROM customers ) hop_partition WHERE ABS( MOD( id, 3 ) ) = 2",
+      createCopy( 2, null ).getPartitionSql( SQL, parameters ) );
+    assertTrue( parameters.getRowMeta().isEmpty() );
+  }
+
+  @Test
+  public void testRangePartitionSql() throws Exception {
+    doReturn( TableInputMeta.PARTITION_METHOD_RANGE ).when( meta ).getPartitionMethod();
+    String partitionQuery = "SELECT * FROM ( SELECT id, name FROM customers ) hop_partition WHERE ";
+
+    RowMetaAndData first = new RowMetaAndData();
+    assertEquals( partitionQuery + "( id < ? OR id IS NULL )",
+      createCopy( 0, rangeDatabase( 0, 90 ) ).getPartitionSql( SQL, first ) );
+    assertEquals( Arrays.asList( 30L ), values( first ) );
+
+    RowMetaAndData middle = new RowMetaAndData();
+    assertEquals( partitionQuery + "id >= ? AND id < ?",
+      createCopy( 1, rangeDatabase( 0, 90 ) ).getPartitionSql( SQL, middle ) );
+    assertEquals( Arrays.asList( 30L, 60L ), values( middle ) );
+    assertEquals( "partition_from", middle.getRowMeta().getValueMeta( 0 ).getName() );
+    assertEquals( "partition_to", middle.getRowMeta().getValueMeta( 1 ).getName() );
+
+    RowMetaAndData last = new RowMetaAndData();
+    assertEquals( partitionQuery + "id >= ?", createCopy( 2, rangeDatabase( 0, 90 ) ).getPartitionSql( SQL, last ) );
+    assertEquals( Arrays.asList( 60L ), values( last ) );
+  }
+
+  @Test
+  public void testRangeReadOnceForAllCopies() throws Exception {
+    doReturn( TableInputMeta.PARTITION_METHOD_RANGE ).when( meta ).getPartitionMethod();
+
+    Database[] databases = new Database[] { rangeDatabase( 0, 90 ), rangeDatabase( 0, 900 ), rangeDatabase( 0, 9 ) };
+    RowMetaAndData[] parameters = new RowMetaAndData[ 3 ];
+    for ( int copyNr = 0; copyNr < 3; copyNr++ ) {
+      TableInput copy = createCopy( copyNr, databases[ copyNr ] );
+      copy.shareRanges();
+      parameters[ copyNr ] = new RowMetaAndData();
+      copy.getPartitionSql( SQL, parameters[ copyNr ] );
+    }
+
+    // Only the first copy read the range, the others divided the same one
+    verify( databases[ 0 ], times( 1 ) ).getOneRow( anyString() );
+    verify( databases[ 1 ], times( 0 ) ).getOneRow( anyString() );
+    verify( databases[ 2 ], times( 0 ) ).getOneRow( anyString() );
+    assertEquals( Arrays.asList( 30L ), values( parameters[ 0 ] ) );
+    assertEquals( Arrays.asList( 30L, 60L ), values( parameters[ 1 ] ) );
+    assertEquals( Arrays.asList( 60L ), values( parameters[ 2 ] ) );
+    assertEquals( 1, extensionDataMap.size() );
+  }
+
+  @Test
+  public void testOrderByIsRemoved() {
+    assertEquals( "SELECT id FROM t", TableInput.stripOrderBy( "SELECT id FROM t ORDER BY id" ) );
+    assertEquals( "SELECT id FROM t WHERE x IN ( SELECT y FROM u ORDER BY y )",
+      TableInput.stripOrderBy( "SELECT id FROM t WHERE x IN ( SELECT y FROM u ORDER BY y ) order\n by id DESC" ) );
+    assertEquals( "SELECT \"ORDER BY\" FROM t", TableInput.stripOrderBy( "SELECT \"ORDER BY\" FROM t" ) );
+    assertEquals( "SELECT sort_order FROM t", TableInput.stripOrderBy( "SELECT sort_order FROM t" ) );
+  }
+
+  @Test
+  public void testLimitingOrderByIsKept() {
+    String[] queries = new String[] {
+      "SELECT id FROM t ORDER BY id LIMIT 10",
+      "SELECT id FROM t ORDER BY id OFFSET 10 ROWS FETCH NEXT 10 ROWS ONLY",
+      "SELECT TOP 10 id FROM t ORDER BY id",
+      "SELECT DISTINCT TOP 10 id FROM t ORDER BY id", };
+    for ( String query : queries ) {
+      assertEquals( query, TableInput.stripOrderBy( query ) );
+    }
+  }
+}
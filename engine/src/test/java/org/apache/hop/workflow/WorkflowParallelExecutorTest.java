@@ -0,0 +1,260 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.workflow;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.workflow.action.ActionBase;
+import org.apache.hop.workflow.action.ActionCopy;
+import org.apache.hop.workflow.action.IAction;
+import org.apache.hop.workflow.actions.special.ActionSpecial;
+import org.apache.hop.workflow.engines.local.LocalWorkflowEngine;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WorkflowParallelExecutorTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final String DATABASE = "nested-parallel-test";
+  private static final int LIMIT = 2;
+  private static final int FAN_OUT = 3;
+
+  private static final AtomicInteger running = new AtomicInteger();
+  private static final AtomicInteger maxRunning = new AtomicInteger();
+  private static final AtomicInteger executed = new AtomicInteger();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void testParseLimits() {
+    Map<String, Integer> limits = WorkflowParallelExecutor.parseLimits( " dwh = 4, PIPELINE=8,bad,zero=0,=3" );
+    assertEquals( 2, limits.size() );
+    assertEquals( 4, (int) limits.get( "dwh" ) );
+    assertEquals( 8, (int) limits.get( "PIPELINE" ) );
+    assertTrue( WorkflowParallelExecutor.parseLimits( null ).isEmpty() );
+    assertNull( WorkflowParallelExecutor.createPermits( 0 ) );
+  }
+
+  @Test
+  public void testLaunchIsBounded() throws Exception {
+    WorkflowParallelExecutor executor = new WorkflowParallelExecutor( 0 );
+    Semaphore workflowPermits = WorkflowParallelExecutor.createPermits( 3 );
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    Future<?>[] futures = new Future<?>[ 20 ];
+    for ( int i = 0; i < futures.length; i++ ) {
+      futures[ i ] = executor.launch( workflowPermits, () -> {
+        int nr = running.incrementAndGet();
+        maxRunning.accumulateAndGet( nr, Math::max );
+        sleep( 5 );
+        running.decrementAndGet();
+      } );
+    }
+    for ( Future<?> future : futures ) {
+      future.get( 10, TimeUnit.SECONDS );
+    }
+    assertTrue( maxRunning.get() <= 3 );
+    assertEquals( 3, workflowPermits.availablePermits() );
+  }
+
+  @Test
+  public void testResourceLimits() throws Exception {
+    WorkflowParallelExecutor executor = new WorkflowParallelExecutor( 0 );
+    Map<String, Integer> limits = Collections.singletonMap( "dwh", 2 );
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    Future<?>[] futures = new Future<?>[ 10 ];
+    for ( int i = 0; i < futures.length; i++ ) {
+      futures[ i ] = executor.launch( null, () -> {
+        try {
+          List<Semaphore> permits = executor.acquireResources( Arrays.asList( "SQL", "dwh" ), limits );
+          try {
+            maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+            sleep( 5 );
+            running.decrementAndGet();
+          } finally {
+            executor.release( permits );
+          }
+        } catch ( InterruptedException e ) {
+          throw new RuntimeException( e );
+        }
+      } );
+    }
+    for ( Future<?> future : futures ) {
+      future.get( 10, TimeUnit.SECONDS );
+    }
+    assertTrue( maxRunning.get() <= 2 );
+  }
+
+  @Test
+  public void testNestedLaunchDoesNotDeadlock() throws Exception {
+    WorkflowParallelExecutor executor = new WorkflowParallelExecutor( 0 );
+    Semaphore workflowPermits = WorkflowParallelExecutor.createPermits( 1 );
+    CountDownLatch done = new CountDownLatch( 2 );
+
+    // The outer branch holds the only permit and launches a nested branch: it has to give up its permit while waiting
+    //
+    Future<?> outer = executor.launch( workflowPermits, () -> {
+      assertEquals( 1, executor.getNrHeldPermits() );
+      List<Semaphore> suspended = executor.suspend();
+      try {
+        executor.launch( workflowPermits, done::countDown ).get( 10, TimeUnit.SECONDS );
+      } catch ( Exception e ) {
+        throw new RuntimeException( e );
+      } finally {
+        executor.resume( suspended );
+      }
+      assertEquals( 1, executor.getNrHeldPermits() );
+      done.countDown();
+    } );
+    outer.get( 10, TimeUnit.SECONDS );
+    assertTrue( done.await( 1, TimeUnit.SECONDS ) );
+    assertEquals( 1, workflowPermits.availablePermits() );
+  }
+
+  @Test( timeout = 30000 )
+  public void testNestedParallelSubWorkflowsDoNotDeadlock() throws Exception {
+    // A workflow launches more sub-workflows in parallel than the limits allow, which each launch more actions in
+    // parallel than the limits allow. All these actions use the same database.
+    //
+    WorkflowMeta subWorkflowMeta = createParallelWorkflowMeta( new LeafAction() );
+    WorkflowMeta workflowMeta = createParallelWorkflowMeta( new SubWorkflowAction( subWorkflowMeta ) );
+
+    LocalWorkflowEngine workflow = new LocalWorkflowEngine( workflowMeta );
+    Map<String, String> variables = new HashMap<>();
+    variables.put( Const.HOP_WORKFLOW_MAX_PARALLEL_ACTIONS, Integer.toString( LIMIT ) );
+    variables.put( Const.HOP_WORKFLOW_PARALLEL_LIMITS, DATABASE + "=" + LIMIT );
+    workflow.injectVariables( variables );
+
+    Result result = workflow.startExecution();
+    assertEquals( 0, result.getNrErrors() );
+    assertEquals( FAN_OUT * FAN_OUT, executed.get() );
+    assertTrue( maxRunning.get() <= LIMIT );
+  }
+
+  private static WorkflowMeta createParallelWorkflowMeta( IAction action ) {
+    WorkflowMeta workflowMeta = new WorkflowMeta();
+    ActionCopy start = new ActionCopy( new ActionSpecial( WorkflowMeta.STRING_SPECIAL_START, true, false ) );
+    start.setLaunchingInParallel( true );
+    workflowMeta.addAction( start );
+    for ( int i = 0; i < FAN_OUT; i++ ) {
+      IAction copy = (IAction) action.clone();
+      copy.setName( action.getName() + " " + i );
+      ActionCopy actionCopy = new ActionCopy( copy );
+      workflowMeta.addAction( actionCopy );
+      workflowMeta.addWorkflowHop( new WorkflowHopMeta( start, actionCopy ) );
+    }
+    return workflowMeta;
+  }
+
+  private static DatabaseMeta[] createUsedDatabases() {
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setName( DATABASE );
+    return new DatabaseMeta[] { databaseMeta };
+  }
+
+  /**
+   * Runs a sub-workflow on a thread of its own and waits for it, like a workflow action
+   */
+  public static class SubWorkflowAction extends ActionBase implements IAction {
+    private final WorkflowMeta subWorkflowMeta;
+
+    public SubWorkflowAction( WorkflowMeta subWorkflowMeta ) {
+      super( "sub-workflow", "" );
+      setPluginId( "WORKFLOW" );
+      this.subWorkflowMeta = subWorkflowMeta;
+    }
+
+    @Override public Result execute( Result previousResult, int nr ) throws HopException {
+      LocalWorkflowEngine subWorkflow = new LocalWorkflowEngine( subWorkflowMeta );
+      subWorkflow.setParentWorkflow( parentWorkflow );
+      Result[] result = new Result[ 1 ];
+      Thread thread = new Thread( () -> result[ 0 ] = subWorkflow.startExecution() );
+      thread.start();
+      try {
+        thread.join();
+      } catch ( InterruptedException e ) {
+        throw new HopException( e );
+      }
+      return result[ 0 ];
+    }
+
+    @Override public DatabaseMeta[] getUsedDatabaseConnections() {
+      return createUsedDatabases();
+    }
+  }
+
+  public static class LeafAction extends ActionBase implements IAction {
+    public LeafAction() {
+      super( "leaf", "" );
+      setPluginId( "LEAF" );
+    }
+
+    @Override public Result execute( Result previousResult, int nr ) {
+      maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+      sleep( 20 );
+      running.decrementAndGet();
+      executed.incrementAndGet();
+      previousResult.setResult( true );
+      return previousResult;
+    }
+
+    @Override public DatabaseMeta[] getUsedDatabaseConnections() {
+      return createUsedDatabases();
+    }
+  }
+
+  private static void sleep( long millis ) {
+    try {
+      Thread.sleep( millis );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.transform.TransformStatus;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineStatusStreamTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testOnlyChangedTransformsAreSent() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PipelineStatusStream stream = new PipelineStatusStream( new DataOutputStream( bytes ) );
+    stream.writeHeader();
+
+    TransformStatus input = createTransformStatus( "input", 0, 100L );
+    TransformStatus output = createTransformStatus( "output", 0, 50L );
+    Date startDate = new Date( 1000000L );
+
+    assertTrue( stream.writeStatus( Pipeline.STRING_RUNNING, false, startDate, null, Arrays.asList( input, output ) ) );
+    assertFalse( stream.writeStatus( Pipeline.STRING_RUNNING, false, startDate, null, Arrays.asList( input, output ) ) );
+    output.setLinesWritten( 75L );
+    assertTrue( stream.writeStatus( Pipeline.STRING_RUNNING, false, startDate, null, Arrays.asList( input, output ) ) );
+    assertTrue( stream.writeStatus( Pipeline.STRING_FINISHED, false, startDate, new Date( 2000000L ), Arrays.asList( input, output ) ) );
+    stream.writeLog( 42, "Some log text" );
+    stream.writeEnd();
+
+    CollectingListener listener = new CollectingListener();
+    assertTrue( PipelineStatusStream.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ), listener ) );
+
+    assertEquals( 3, listener.statusList.size() );
+    assertEquals( 2, listener.statusList.get( 0 ).getTransformStatusList().size() );
+    assertEquals( startDate, listener.statusList.get( 0 ).getExecutionStartDate() );
+    assertNull( listener.statusList.get( 0 ).getExecutionEndDate() );
+    assertTrue( listener.statusList.get( 0 ).isRunning() );
+
+    List<TransformStatus> delta = listener.statusList.get( 1 ).getTransformStatusList();
+    assertEquals( 1, delta.size() );
+    assertEquals( "output", delta.get( 0 ).getTransformName() );
+    assertEquals( 75L, delta.get( 0 ).getLinesWritten() );
+
+    assertTrue( listener.statusList.get( 2 ).isFinished() );
+    assertEquals( 0, listener.statusList.get( 2 ).getTransformStatusList().size() );
+
+    assertEquals( 42, listener.lastLogLineNr );
+    assertEquals( "Some log text", listener.logText );
+  }
+
+  @Test
+  public void testRowsRoundTrip() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { "one", 1L } );
+    rows.add( new Object[] { null, 2L } );
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PipelineStatusStream stream = new PipelineStatusStream( new DataOutputStream( bytes ) );
+    stream.writeHeader();
+    stream.writeHeartbeat();
+    stream.writeRows( "transform", 1, rowMeta, rows );
+
+    // No end frame: the stream stopped prematurely
+    //
+    CollectingListener listener = new CollectingListener();
+    assertFalse( PipelineStatusStream.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ), listener ) );
+
+    assertEquals( "transform", listener.transformName );
+    assertEquals( 1, listener.copyNr );
+    assertEquals( 2, listener.rowMeta.size() );
+    assertEquals( "name", listener.rowMeta.getValueMeta( 0 ).getName() );
+    assertEquals( 2, listener.rows.size() );
+    assertEquals( "one", listener.rows.get( 0 )[ 0 ] );
+    assertNull( listener.rows.get( 1 )[ 0 ] );
+    assertEquals( 2L, listener.rows.get( 1 )[ 1 ] );
+  }
+
+  private TransformStatus createTransformStatus( String name, int copy, long linesWritten ) {
+    TransformStatus transformStatus = new TransformStatus();
+    transformStatus.setTransformName( name );
+    transformStatus.setCopy( copy );
+    transformStatus.setStatusDescription( "Running" );
+    transformStatus.setLinesWritten( linesWritten );
+    transformStatus.setSpeed( "10" );
+    return transformStatus;
+  }
+
+  private static class CollectingListener implements IPipelineStatusStreamListener {
+    List<HopServerPipelineStatus> statusList = new ArrayList<>();
+    int lastLogLineNr;
+    String logText;
+    String transformName;
+    int copyNr;
+    IRowMeta rowMeta;
+    List<Object[]> rows;
+
+    @Override public void statusReceived( HopServerPipelineStatus statusDelta ) {
+      statusList.add( statusDelta );
+    }
+
+    @Override public void logReceived( int lastLogLineNr, String logText ) {
+      this.lastLogLineNr = lastLogLineNr;
+      this.logText = logText;
+    }
+
+    @Override public void rowsReceived( String transformName, int copyNr, IRowMeta rowMeta, List<Object[]> rows ) {
+      this.transformName = transformName;
+      this.copyNr = copyNr;
+      this.rowMeta = rowMeta;
+      this.rows = rows;
+    }
+  }
+}
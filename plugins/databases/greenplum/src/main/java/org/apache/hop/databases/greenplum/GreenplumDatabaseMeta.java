@@ -25,6 +25,7 @@ package org.apache.hop.databases.greenplum;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
 import org.apache.hop.core.database.IDatabase;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
 
 /**
@@ -56,4 +57,14 @@ public class GreenplumDatabaseMeta extends PostgreSqlDatabaseMeta implements IDa
   public boolean supportsErrorHandlingOnBatchUpdates() {
     return false;
   }
+
+  /**
+   * The PostgreSQL COPY bulk writer hasn't been verified against Greenplum
+   *
+   * @return false
+   */
+  @Override
+  public boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return false;
+  }
 }
@@ -24,6 +24,7 @@ package org.apache.hop.databases.infinidb;
 
 import org.apache.hop.core.database.DatabaseMetaPlugin;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.databases.mysql.MySqlDatabaseMeta;
 
 @DatabaseMetaPlugin(
@@ -35,4 +36,14 @@ public class InfiniDbDatabaseMeta extends MySqlDatabaseMeta {
 
   // Only has a different ID to catch exceptions here and there.
 
+  /**
+   * The MySQL LOAD DATA bulk writer hasn't been verified against InfiniDB
+   *
+   * @return false
+   */
+  @Override
+  public boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return false;
+  }
+
 }
@@ -25,6 +25,7 @@ package org.apache.hop.databases.infobright;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.databases.mysql.MySqlDatabaseMeta;
 
 @DatabaseMetaPlugin(
@@ -47,4 +48,14 @@ public class InfobrightDatabaseMeta extends MySqlDatabaseMeta {
     addExtraOption( getPluginId(), "characterEncoding", "UTF-8" );
   }
 
+  /**
+   * The MySQL LOAD DATA bulk writer hasn't been verified against Infobright
+   *
+   * @return false
+   */
+  @Override
+  public boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return false;
+  }
+
 }
@@ -27,6 +27,7 @@ import org.apache.hop.core.database.DatabaseMetaPlugin;
 import org.apache.hop.databases.mysql.MySqlDatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 
@@ -89,4 +90,13 @@ public class MariaDBDatabaseMeta extends MySqlDatabaseMeta {
       throw new HopDatabaseException( String.format( "%s: %s", BaseMessages.getString( PKG, "MariaDBDatabaseMeta.Exception.LegacyColumnNameException" ), e.getMessage() ), e );
     }
   }
+
+  /**
+   * The MySQL bulk writer hands its stream to the MySQL driver, not to the MariaDB one.
+   *
+   * @return false
+   */
+  @Override public boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return false;
+  }
 }
@@ -597,4 +597,9 @@ public class MsSqlServerDatabaseMeta extends BaseDatabaseMeta implements IDataba
   @Override
   public String getEndQuote(){ return ""; }
 
+  @Override
+  public String getModuloExpression( String expression, int divisor ) {
+    return "( " + expression + " ) % " + divisor;
+  }
+
 }
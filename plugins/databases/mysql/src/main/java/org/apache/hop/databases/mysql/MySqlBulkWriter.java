@@ -0,0 +1,78 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.databases.mysql;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.database.BaseDatabaseBulkWriter;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Loads rows with LOAD DATA LOCAL INFILE, handing the driver an in-memory stream instead of a file. The connection
+ * needs the allowLoadLocalInfile option.
+ */
+public class MySqlBulkWriter extends BaseDatabaseBulkWriter {
+
+  private final String loadStatement;
+
+  public MySqlBulkWriter( Database database, String schemaName, String tableName, IRowMeta rowMeta ) {
+    super( database, schemaName, tableName, rowMeta, DEFAULT_BUFFER_SIZE );
+    this.loadStatement =
+      "LOAD DATA LOCAL INFILE 'hop-bulk-load' INTO TABLE " + schemaTable + " CHARACTER SET utf8mb4 " + getColumnList();
+  }
+
+  @Override
+  protected long load( InputStream data, long nrRows ) throws HopDatabaseException {
+    try ( Statement statement = database.getConnection().createStatement() ) {
+      statement.unwrap( JdbcStatement.class ).setLocalInfileInputStream( data );
+      long loaded = statement.executeUpdate( loadStatement );
+
+      // With LOCAL the server can't stop the client from sending, so rows it can't convert or which are duplicate
+      // keys are skipped or truncated with a warning instead of failing the statement like an insert would.
+      //
+      SQLWarning warning = statement.getWarnings();
+      if ( loaded != nrRows || warning != null ) {
+        throw new HopDatabaseException( "Loaded " + loaded + " of " + nrRows + " rows with: " + loadStatement
+          + ( warning == null ? "" : Const.CR + warning.getMessage() ), warning );
+      }
+      return loaded;
+    } catch ( SQLException e ) {
+      throw new HopDatabaseException( "Error loading " + nrRows + " rows with: " + loadStatement, e );
+    }
+  }
+
+  /**
+   * @return the LOAD DATA statement used to load the rows
+   */
+  public String getLoadStatement() {
+    return loadStatement;
+  }
+}
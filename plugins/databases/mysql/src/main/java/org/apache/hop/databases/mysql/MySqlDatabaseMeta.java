@@ -24,15 +24,19 @@ package org.apache.hop.databases.mysql;
 
 import com.google.common.collect.Sets;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.database.BaseDatabaseBulkWriter;
 import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
 import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.database.IDatabaseBulkWriter;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
 import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
@@ -492,6 +496,21 @@ public class MySqlDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return false;
   }
 
+  /**
+   * Rows are bulk loaded with LOAD DATA LOCAL INFILE, which the driver only allows when the allowLoadLocalInfile option
+   * is set on the connection.
+   */
+  @Override public boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return getAccessType() == DatabaseMeta.TYPE_ACCESS_NATIVE
+      && "true".equalsIgnoreCase( getExtraOptions().get( getPluginId() + ".allowLoadLocalInfile" ) )
+      && BaseDatabaseBulkWriter.isSupported( rowMeta );
+  }
+
+  @Override public IDatabaseBulkWriter createBulkWriter( Database database, String schemaName, String tableName,
+                                                         IRowMeta rowMeta ) {
+    return new MySqlBulkWriter( database, schemaName, tableName, rowMeta );
+  }
+
   @Override public boolean fullExceptionLog( Exception e ) {
     Throwable cause = ( e == null ? null : e.getCause() );
     return !( cause != null && SHORT_MESSAGE_EXCEPTIONS.contains( cause.getClass().getName() ) );
@@ -0,0 +1,108 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.databases.mysql;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class MySqlBulkWriterTest {
+
+  private Database database;
+  private Statement statement;
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setUp() throws Exception {
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    doReturn( "`t`" ).when( databaseMeta ).getQuotedSchemaTableCombination( anyString(), anyString() );
+    doReturn( "`id`" ).when( databaseMeta ).quoteField( "id" );
+
+    statement = mock( Statement.class );
+    doReturn( mock( JdbcStatement.class ) ).when( statement ).unwrap( JdbcStatement.class );
+    Connection connection = mock( Connection.class );
+    doReturn( statement ).when( connection ).createStatement();
+
+    database = mock( Database.class );
+    doReturn( databaseMeta ).when( database ).getDatabaseMeta();
+    doReturn( connection ).when( database ).getConnection();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    doReturn( 2 ).when( statement ).executeUpdate( anyString() );
+    MySqlBulkWriter writer = new MySqlBulkWriter( database, "", "t", rowMeta );
+    writer.writeRow( new Object[] { 1L } );
+    writer.writeRow( new Object[] { 2L } );
+    assertEquals( 2L, writer.flush() );
+  }
+
+  @Test
+  public void testSkippedRowsFail() throws Exception {
+    // A duplicate key is skipped by LOAD DATA LOCAL
+    doReturn( 1 ).when( statement ).executeUpdate( anyString() );
+    MySqlBulkWriter writer = new MySqlBulkWriter( database, "", "t", rowMeta );
+    writer.writeRow( new Object[] { 1L } );
+    writer.writeRow( new Object[] { 1L } );
+    try {
+      writer.flush();
+      fail( "Skipped rows should fail the load" );
+    } catch ( HopDatabaseException e ) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testWarningsFail() throws Exception {
+    // A value which can't be converted is loaded as something else with a warning
+    doReturn( 1 ).when( statement ).executeUpdate( anyString() );
+    doReturn( new SQLWarning( "Data truncated for column 'id' at row 1" ) ).when( statement ).getWarnings();
+    MySqlBulkWriter writer = new MySqlBulkWriter( database, "", "t", rowMeta );
+    writer.writeRow( new Object[] { 1L } );
+    try {
+      writer.flush();
+      fail( "Warnings should fail the load" );
+    } catch ( HopDatabaseException e ) {
+      assertEquals( "Data truncated for column 'id' at row 1", e.getCause().getMessage() );
+    }
+  }
+}
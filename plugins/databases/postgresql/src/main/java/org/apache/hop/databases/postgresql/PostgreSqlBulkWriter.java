@@ -0,0 +1,64 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.databases.postgresql;
+
+import org.apache.hop.core.database.BaseDatabaseBulkWriter;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+
+/**
+ * Loads rows with COPY ... FROM STDIN through the CopyManager of the PostgreSQL JDBC driver.
+ */
+public class PostgreSqlBulkWriter extends BaseDatabaseBulkWriter {
+
+  private final String copyStatement;
+
+  public PostgreSqlBulkWriter( Database database, String schemaName, String tableName, IRowMeta rowMeta ) {
+    super( database, schemaName, tableName, rowMeta, DEFAULT_BUFFER_SIZE );
+    this.copyStatement = "COPY " + schemaTable + " " + getColumnList() + " FROM STDIN";
+  }
+
+  @Override
+  protected long load( InputStream data, long nrRows ) throws HopDatabaseException {
+    try {
+      PGConnection connection = database.getConnection().unwrap( PGConnection.class );
+      return connection.getCopyAPI().copyIn( copyStatement, data );
+    } catch ( SQLException | IOException e ) {
+      throw new HopDatabaseException( "Error loading " + nrRows + " rows with: " + copyStatement, e );
+    }
+  }
+
+  /**
+   * @return the COPY statement used to load the rows
+   */
+  public String getCopyStatement() {
+    return copyStatement;
+  }
+}
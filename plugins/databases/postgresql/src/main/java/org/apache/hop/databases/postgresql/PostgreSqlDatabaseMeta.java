@@ -23,11 +23,15 @@
 package org.apache.hop.databases.postgresql;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.database.BaseDatabaseBulkWriter;
 import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.IDatabase;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IDatabaseBulkWriter;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
 /**
@@ -533,6 +537,20 @@ public class PostgreSqlDatabaseMeta extends BaseDatabaseMeta implements IDatabas
     return true;
   }
 
+  /**
+   * Rows are bulk loaded with COPY ... FROM STDIN
+   */
+  @Override
+  public boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return getAccessType() == DatabaseMeta.TYPE_ACCESS_NATIVE && BaseDatabaseBulkWriter.isSupported( rowMeta );
+  }
+
+  @Override
+  public IDatabaseBulkWriter createBulkWriter( Database database, String schemaName, String tableName,
+                                               IRowMeta rowMeta ) {
+    return new PostgreSqlBulkWriter( database, schemaName, tableName, rowMeta );
+  }
+
   @Override
   public int getMaxVARCHARLength() {
     return GB_LIMIT;
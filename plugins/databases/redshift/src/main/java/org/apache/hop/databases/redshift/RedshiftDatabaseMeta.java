@@ -24,6 +24,7 @@ package org.apache.hop.databases.redshift;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
 
 /**
@@ -90,4 +91,14 @@ public class RedshiftDatabaseMeta extends PostgreSqlDatabaseMeta {
   public boolean supportsSetMaxRows() {
     return false;
   }
+
+  /**
+   * Redshift only loads data with COPY from S3 and the like, not from the client
+   *
+   * @return false
+   */
+  @Override
+  public boolean supportsBulkLoad( IRowMeta rowMeta ) {
+    return false;
+  }
 }
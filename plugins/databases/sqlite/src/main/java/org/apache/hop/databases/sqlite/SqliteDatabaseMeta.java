@@ -208,4 +208,12 @@ public class SqliteDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return true;
   }
 
+  /**
+   * @return 999, the default maximum number of host parameters in a SQLite statement
+   */
+  @Override
+  public int getMaxQueryParameters() {
+    return 999;
+  }
+
 }
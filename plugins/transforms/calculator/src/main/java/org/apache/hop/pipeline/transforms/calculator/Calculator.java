@@ -66,9 +66,10 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> im
 
   @Override
   public boolean processRow() throws HopException {
+    long previousLinesRead = getLinesRead();
 
-    Object[] r = getRow(); // get row, set busy!
-    if ( r == null ) { // no more input to be expected...
+    List<Object[]> rows = getRows( ROWS_IN_BATCH ); // get a batch of rows, set busy!
+    if ( rows == null ) { // no more input to be expected...
       setOutputDone();
       data.clearValuesMetaMapping();
       return false;
@@ -150,29 +151,40 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> im
       }
     }
 
-    if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString( PKG, "Calculator.Log.ReadRow" )
-        + getLinesRead() + " : " + getInputRowMeta().getString( r ) );
-    }
-
+    List<Object[]> outputRows = new ArrayList<>( rows.size() );
     try {
-      Object[] row = calcFields( getInputRowMeta(), r );
-      putRow( data.getOutputRowMeta(), row ); // copy row to possible alternate rowset(s).
+      for ( Object[] r : rows ) {
+        if ( log.isRowLevel() ) {
+          logRowlevel( BaseMessages.getString( PKG, "Calculator.Log.ReadRow" )
+            + getLinesRead() + " : " + getInputRowMeta().getString( r ) );
+        }
+
+        try {
+          outputRows.add( calcFields( getInputRowMeta(), r ) );
+        } catch ( HopFileNotFoundException e ) {
+          if ( meta.isFailIfNoFile() ) {
+            // Pass on what was calculated before the error
+            //
+            putRows( data.getOutputRowMeta(), outputRows );
+            logError( BaseMessages.getString( PKG, "Calculator.Log.NoFile" ) + " : " + e.getFilepath() );
+            setErrors( getErrors() + 1 );
+            return false;
+          }
+        }
+      }
+
+      putRows( data.getOutputRowMeta(), outputRows ); // copy rows to possible alternate rowset(s).
 
       if ( log.isRowLevel() ) {
-        logRowlevel( "Wrote row #" + getLinesWritten() + " : " + getInputRowMeta().getString( r ) );
+        for ( Object[] row : outputRows ) {
+          logRowlevel( "Wrote row : " + data.getOutputRowMeta().getString( row ) );
+        }
       }
-      if ( checkFeedback( getLinesRead() ) ) {
+      if ( checkFeedback( previousLinesRead, getLinesRead() ) ) {
         if ( log.isBasic() ) {
           logBasic( BaseMessages.getString( PKG, "Calculator.Log.Linenr", "" + getLinesRead() ) );
         }
       }
-    } catch ( HopFileNotFoundException e ) {
-      if ( meta.isFailIfNoFile() ) {
-        logError( BaseMessages.getString( PKG, "Calculator.Log.NoFile" ) + " : " + e.getFilepath() );
-        setErrors( getErrors() + 1 );
-        return false;
-      }
     } catch ( HopException e ) {
       logError( BaseMessages.getString( PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage() ) );
       throw new HopTransformException( BaseMessages.getString( PKG, "Calculator.ErrorInTransformRunning" ), e );
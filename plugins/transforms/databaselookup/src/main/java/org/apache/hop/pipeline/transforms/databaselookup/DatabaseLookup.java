@@ -24,11 +24,14 @@ package org.apache.hop.pipeline.transforms.databaselookup;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.logging.Metrics;
+import org.apache.hop.core.metrics.MetricsSnapshotType;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
@@ -42,10 +45,18 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.databaselookup.cachepolicy.ICachePolicy;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Looks up values in a database using keys from input streams.
@@ -57,6 +68,19 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
   private static Class<?> PKG = DatabaseLookupMeta.class; // for i18n purposes, needed by Translator!!
 
+  public static final Metrics METRIC_DATABASE_LOOKUP_ROUND_TRIPS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_ROUND_TRIPS", "Database lookup: queries sent to the database" );
+  public static final Metrics METRIC_DATABASE_LOOKUP_BATCH_KEYS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_BATCH_KEYS", "Database lookup: keys looked up in batches" );
+  public static final Metrics METRIC_DATABASE_LOOKUP_CACHE_HITS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_CACHE_HITS", "Database lookup: rows found in the cache" );
+  public static final Metrics METRIC_DATABASE_LOOKUP_CACHE_MISSES = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_CACHE_MISSES", "Database lookup: rows not found in the cache" );
+  public static final Metrics METRIC_DATABASE_LOOKUP_CACHE_EVICTIONS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_CACHE_EVICTIONS", "Database lookup: rows evicted from the cache" );
+  public static final Metrics METRIC_DATABASE_LOOKUP_CACHE_BYTES = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_DATABASE_LOOKUP_CACHE_BYTES", "Database lookup: estimated cache memory (bytes)" );
+
   public DatabaseLookup( TransformMeta transformMeta, DatabaseLookupMeta meta, DatabaseLookupData data, int copyNr, PipelineMeta pipelineMeta, Pipeline pipeline ) {
     super( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
   }
@@ -72,47 +96,21 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   synchronized Object[] lookupValues( IRowMeta inputRowMeta, Object[] row ) throws HopException {
     Object[] outputRow = RowDataUtil.resizeArray( row, data.outputRowMeta.size() );
 
-    Object[] lookupRow = new Object[ data.lookupMeta.size() ];
-    int lookupIndex = 0;
-
-    for ( int i = 0; i < meta.getStreamKeyField1().length; i++ ) {
-      if ( data.keynrs[ i ] >= 0 ) {
-        IValueMeta input = inputRowMeta.getValueMeta( data.keynrs[ i ] );
-        IValueMeta value = data.lookupMeta.getValueMeta( lookupIndex );
-        lookupRow[ lookupIndex ] = row[ data.keynrs[ i ] ];
-
-        // Try to convert type if needed
-        if ( input.getType() != value.getType()
-          || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType() ) {
-          lookupRow[ lookupIndex ] = value.convertData( input, lookupRow[ lookupIndex ] );
-          value.setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
-        }
-        lookupIndex++;
-      }
-      if ( data.keynrs2[ i ] >= 0 ) {
-        IValueMeta input = inputRowMeta.getValueMeta( data.keynrs2[ i ] );
-        IValueMeta value = data.lookupMeta.getValueMeta( lookupIndex );
-        lookupRow[ lookupIndex ] = row[ data.keynrs2[ i ] ];
-
-        // Try to convert type if needed
-        if ( input.getType() != value.getType()
-          || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType() ) {
-          lookupRow[ lookupIndex ] = value.convertData( input, lookupRow[ lookupIndex ] );
-          value.setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
-        }
-        lookupIndex++;
-      }
-    }
+    Object[] lookupRow = createLookupRow( inputRowMeta, row );
 
     Object[] add;
     boolean cache_now = false;
     boolean cacheHit = false;
+    IRowMeta returnedRowMeta = null;
 
     // First, check if we looked up before
     if ( meta.isCached() ) {
       add = data.cache.getRowFromCache( data.lookupMeta, lookupRow );
       if ( add != null ) {
         cacheHit = true;
+        data.cacheHits++;
+      } else {
+        data.cacheMisses++;
       }
     } else {
       add = null;
@@ -130,8 +128,28 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
             + data.lookupMeta.getString( lookupRow ) );
         }
 
-        data.db.setValuesLookup( data.lookupMeta, lookupRow );
-        add = data.db.getLookup( meta.isFailingOnMultipleResults() );
+        RowMetaAndData batchKey = null;
+        if ( data.batchResults != null ) {
+          batchKey = new RowMetaAndData( data.lookupMeta, lookupRow );
+        }
+        if ( batchKey != null && data.batchResults.containsKey( batchKey ) ) {
+          // This key was looked up together with the other rows of the batch
+          //
+          if ( meta.isFailingOnMultipleResults() && data.batchMultipleResults.contains( batchKey ) ) {
+            throw new HopDatabaseException(
+              "Only 1 row was expected as a result of a lookup, and at least 2 were found!" );
+          }
+          add = data.batchResults.get( batchKey );
+          if ( add != null ) {
+            add = add.clone(); // the same key can occur more than once in a batch
+          }
+          returnedRowMeta = data.batchReturnMeta;
+        } else {
+          data.db.setValuesLookup( data.lookupMeta, lookupRow );
+          add = data.db.getLookup( meta.isFailingOnMultipleResults() );
+          returnedRowMeta = data.db.getReturnRowMeta();
+          data.lookupRoundTrips++;
+        }
         cache_now = true;
       }
     }
@@ -177,7 +195,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         // that should not be a problem.
         //
         for ( int i = 0; i < types.length; i++ ) {
-          IValueMeta returned = data.db.getReturnRowMeta().getValueMeta( i );
+          IValueMeta returned = returnedRowMeta.getValueMeta( i );
           IValueMeta expected = data.returnMeta.getValueMeta( i );
 
           if ( returned != null && types[ i ] > 0 && types[ i ] != returned.getType() ) {
@@ -202,6 +220,44 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     return outputRow;
   }
 
+  /**
+   * Builds the values to look up from an input row, converted to the types of the table key fields.
+   */
+  private Object[] createLookupRow( IRowMeta inputRowMeta, Object[] row ) throws HopException {
+    Object[] lookupRow = new Object[ data.lookupMeta.size() ];
+    int lookupIndex = 0;
+
+    for ( int i = 0; i < meta.getStreamKeyField1().length; i++ ) {
+      if ( data.keynrs[ i ] >= 0 ) {
+        IValueMeta input = inputRowMeta.getValueMeta( data.keynrs[ i ] );
+        IValueMeta value = data.lookupMeta.getValueMeta( lookupIndex );
+        lookupRow[ lookupIndex ] = row[ data.keynrs[ i ] ];
+
+        // Try to convert type if needed
+        if ( input.getType() != value.getType()
+          || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType() ) {
+          lookupRow[ lookupIndex ] = value.convertData( input, lookupRow[ lookupIndex ] );
+          value.setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
+        }
+        lookupIndex++;
+      }
+      if ( data.keynrs2[ i ] >= 0 ) {
+        IValueMeta input = inputRowMeta.getValueMeta( data.keynrs2[ i ] );
+        IValueMeta value = data.lookupMeta.getValueMeta( lookupIndex );
+        lookupRow[ lookupIndex ] = row[ data.keynrs2[ i ] ];
+
+        // Try to convert type if needed
+        if ( input.getType() != value.getType()
+          || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType() ) {
+          lookupRow[ lookupIndex ] = value.convertData( input, lookupRow[ lookupIndex ] );
+          value.setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
+        }
+        lookupIndex++;
+      }
+    }
+    return lookupRow;
+  }
+
   // visible for testing purposes
   void determineFieldsTypesQueryingDb() throws HopException {
     final String[] keyFields = meta.getTableKeyField();
@@ -305,6 +361,10 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.batchRows != null && !data.batchRows.isEmpty() && !lookupBatch() ) {
+        return false;
+      }
+      logLookupStatistics();
       setOutputDone();
       return false;
     }
@@ -359,7 +419,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
 
       if ( meta.isCached() ) {
-        data.cache = DefaultCache.newCache( data, meta.getCacheSize() );
+        data.cache = DefaultCache.newCache( data, meta );
       }
 
       determineFieldsTypesQueryingDb();
@@ -376,6 +436,16 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         loadAllTableDataIntoTheCache();
       }
 
+      // Look up the keys of a number of rows with a single query if we can
+      //
+      if ( meta.getBatchSize() > 1 ) {
+        if ( isBatchLookupPossible() ) {
+          data.batchSize = meta.getBatchSize();
+          data.batchRows = new ArrayList<>( data.batchSize );
+        } else if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.BatchLookupNotPossible" ) );
+        }
+      }
     }
 
     if ( log.isRowLevel() ) {
@@ -383,6 +453,23 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         + getInputRowMeta().getString( r ) );
     }
 
+    if ( data.batchRows != null ) {
+      data.batchRows.add( r );
+      if ( data.batchRows.size() >= data.batchSize ) {
+        return lookupBatch();
+      }
+      return true;
+    }
+
+    return processLookup( r );
+  }
+
+  /**
+   * Looks up the values of one row and passes it on.
+   *
+   * @return false if the transform has to stop
+   */
+  private boolean processLookup( Object[] r ) throws HopException {
     try {
       // add new lookup values to the row
       Object[] outputRow = lookupValues( getInputRowMeta(), r );
@@ -400,21 +487,279 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         }
       }
     } catch ( HopException e ) {
-      if ( getTransformMeta().isDoingErrorHandling() ) {
-        putError( getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001" );
-      } else {
-        logError( BaseMessages.getString( PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing" )
-          + e.getMessage() );
-        setErrors( 1 );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
+      return handleLookupError( r, e );
+    }
+
+    return true;
+  }
+
+  /**
+   * @return false if the transform has to stop
+   */
+  private boolean handleLookupError( Object[] r, HopException e ) throws HopException {
+    if ( getTransformMeta().isDoingErrorHandling() ) {
+      putError( getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001" );
+      return true;
+    }
+    logError( BaseMessages.getString( PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing" )
+      + e.getMessage() );
+    setErrors( 1 );
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
+  /**
+   * A batch lookup needs an "=" condition on every key so the rows that come back can be matched to the keys.
+   */
+  private boolean isBatchLookupPossible() {
+    if ( meta.isCached() && meta.isLoadingAllDataInCache() ) {
+      return false;
+    }
+    if ( data.lookupMeta.isEmpty() || data.lookupMeta.size() != data.conditions.length ) {
+      return false;
+    }
+    for ( int condition : data.conditions ) {
+      if ( condition != DatabaseLookupMeta.CONDITION_EQ ) {
         return false;
       }
     }
-
     return true;
   }
 
+  /**
+   * Looks up the keys of all the rows in the batch that are not in the cache with a single query. After that the rows
+   * are passed on in the order in which they came in.
+   *
+   * @return false if the transform has to stop
+   */
+  private boolean lookupBatch() throws HopException {
+    try {
+      try {
+        queryBatch();
+      } catch ( HopException e ) {
+        // Handle every row of the batch the way a failing single row lookup would be handled
+        //
+        for ( Object[] row : data.batchRows ) {
+          if ( !handleLookupError( row, e ) ) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      for ( Object[] row : data.batchRows ) {
+        if ( !processLookup( row ) ) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+      data.batchResults = null;
+      data.batchMultipleResults = null;
+    }
+  }
+
+  private void queryBatch() throws HopException {
+    data.batchResults = new HashMap<>();
+    data.batchMultipleResults = new HashSet<>();
+
+    // Collect the distinct keys we don't know about yet
+    //
+    List<Object[]> keys = new ArrayList<>();
+    for ( Object[] row : data.batchRows ) {
+      Object[] lookupRow = createLookupRow( getInputRowMeta(), row );
+      RowMetaAndData key = new RowMetaAndData( data.lookupMeta, lookupRow );
+      if ( data.batchResults.containsKey( key ) ) {
+        continue;
+      }
+      if ( meta.isCached() && data.cache.getRowFromCache( data.lookupMeta, lookupRow ) != null ) {
+        continue;
+      }
+      data.batchResults.put( key, null );
+
+      // A null key never matches "=" so there is no need to ask the database
+      //
+      boolean hasNull = false;
+      for ( int i = 0; i < lookupRow.length; i++ ) {
+        hasNull |= data.lookupMeta.getValueMeta( i ).isNull( lookupRow[ i ] );
+      }
+      if ( !hasNull ) {
+        keys.add( lookupRow );
+      }
+    }
+    if ( keys.isEmpty() ) {
+      return;
+    }
+
+    // Databases limit the number of parameters or IN list values in a statement, so large batches take several queries
+    //
+    DatabaseMeta dbMeta = meta.getDatabaseMeta();
+    int keysPerQuery = Math.max( 1, dbMeta.getIDatabase().getMaxQueryParameters() / meta.getTableKeyField().length );
+    boolean unmatched = false;
+    for ( int from = 0; from < keys.size(); from += keysPerQuery ) {
+      unmatched |= queryBatchKeys( keys.subList( from, Math.min( keys.size(), from + keysPerQuery ) ) );
+    }
+
+    if ( unmatched ) {
+      // Look up the keys without a result one at a time, the database has the last word on what matches
+      //
+      data.batchResults.values().removeIf( Objects::isNull );
+    }
+  }
+
+  /**
+   * Looks up the given keys with a single query and stores the results in the batch results.
+   *
+   * @param keys the distinct keys to look up, none of them containing null
+   * @return true if the database returned a key which can't be matched to any of the keys of the batch
+   */
+  private boolean queryBatchKeys( List<Object[]> keys ) throws HopException {
+    DatabaseMeta dbMeta = meta.getDatabaseMeta();
+    String[] keyFields = meta.getTableKeyField();
+    String[] returnFields = meta.getReturnValueField();
+
+    List<String> columns = new ArrayList<>();
+    for ( String returnField : returnFields ) {
+      columns.add( dbMeta.quoteField( returnField ) );
+    }
+    for ( String keyField : keyFields ) {
+      columns.add( dbMeta.quoteField( keyField ) );
+    }
+
+    StringBuilder sql = new StringBuilder( 128 + keys.size() * 8 * keyFields.length );
+    sql.append( "SELECT " ).append( String.join( ", ", columns ) );
+    sql.append( " FROM " ).append( dbMeta.getQuotedSchemaTableCombination(
+      environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta.getTablename() ) ) );
+    sql.append( " WHERE " );
+
+    // key IN ( ?, ?, ... ) or ( key1 = ? AND key2 = ? ) OR ( ... ) for composite keys
+    //
+    IRowMeta paramsMeta = new RowMeta();
+    Object[] params = new Object[ keys.size() * keyFields.length ];
+    int paramIndex = 0;
+    if ( keyFields.length == 1 ) {
+      sql.append( dbMeta.quoteField( keyFields[ 0 ] ) ).append( " IN ( " );
+    }
+    for ( int k = 0; k < keys.size(); k++ ) {
+      if ( keyFields.length == 1 ) {
+        sql.append( k > 0 ? ", ?" : "?" );
+      } else {
+        sql.append( k > 0 ? " OR ( " : "( " );
+        for ( int i = 0; i < keyFields.length; i++ ) {
+          sql.append( i > 0 ? " AND " : "" ).append( dbMeta.quoteField( keyFields[ i ] ) ).append( " = ?" );
+        }
+        sql.append( " )" );
+      }
+      for ( int i = 0; i < keyFields.length; i++ ) {
+        IValueMeta paramMeta = data.lookupMeta.getValueMeta( i ).clone();
+        paramMeta.setName( "key" + paramIndex );
+        paramsMeta.addValueMeta( paramMeta );
+        params[ paramIndex++ ] = keys.get( k )[ i ];
+      }
+    }
+    if ( keyFields.length == 1 ) {
+      sql.append( " )" );
+    }
+    if ( !Utils.isEmpty( meta.getOrderByClause() ) ) {
+      sql.append( " ORDER BY " ).append( meta.getOrderByClause() );
+    }
+
+    if ( log.isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "DatabaseLookup.Log.BatchLookup", String.valueOf( keys.size() ) ) );
+    }
+
+    // The statement is kept apart from the lookup statement of the database so that single row lookups keep working
+    //
+    boolean unmatched = false;
+    PreparedStatement ps = null;
+    ResultSet rs = null;
+    try {
+      ps = data.db.getConnection().prepareStatement( dbMeta.stripCR( sql.toString() ) );
+      data.db.setValues( paramsMeta, params, ps );
+      rs = ps.executeQuery();
+      data.lookupRoundTrips++;
+      data.batchCount++;
+      data.batchKeys += keys.size();
+
+      data.batchReturnMeta = data.db.getMetaFromRow( null, rs.getMetaData() );
+      Object[] row;
+      while ( ( row = data.db.getRow( rs, null, data.batchReturnMeta ) ) != null ) {
+        Object[] keyData = new Object[ keyFields.length ];
+        for ( int i = 0; i < keyFields.length; i++ ) {
+          IValueMeta returned = data.batchReturnMeta.getValueMeta( returnFields.length + i );
+          IValueMeta expected = data.lookupMeta.getValueMeta( i );
+          keyData[ i ] = row[ returnFields.length + i ];
+          if ( returned.getType() != expected.getType() ) {
+            keyData[ i ] = expected.convertData( returned, keyData[ i ] );
+          }
+        }
+        RowMetaAndData key = new RowMetaAndData( data.lookupMeta, keyData );
+        if ( !data.batchResults.containsKey( key ) ) {
+          // The database matched a key we can't match here, think of padded or case insensitive strings
+          unmatched = true;
+        } else if ( data.batchResults.get( key ) == null ) {
+          // The first row wins, just like with a single row lookup
+          data.batchResults.put( key, Arrays.copyOf( row, returnFields.length ) );
+        } else {
+          data.batchMultipleResults.add( key );
+        }
+      }
+    } catch ( SQLException e ) {
+      throw new HopDatabaseException( "Error looking up a batch of rows in database" + Const.CR + sql, e );
+    } finally {
+      try {
+        if ( rs != null ) {
+          rs.close();
+        }
+        if ( ps != null ) {
+          ps.close();
+        }
+      } catch ( SQLException e ) {
+        throw new HopDatabaseException( "Unable to close the batch lookup query", e );
+      }
+    }
+    return unmatched;
+  }
+
+  private void logLookupStatistics() {
+    if ( data.outputRowMeta == null ) {
+      return; // we never received a row
+    }
+    String subject = meta.getDatabaseMeta().getName();
+    log.snap( METRIC_DATABASE_LOOKUP_ROUND_TRIPS, subject, data.lookupRoundTrips );
+    log.snap( METRIC_DATABASE_LOOKUP_BATCH_KEYS, subject, data.batchKeys );
+
+    // The cache metrics are reported per cache policy
+    //
+    ICachePolicy policy = null;
+    if ( data.cache instanceof DefaultCache ) {
+      policy = ( (DefaultCache) data.cache ).getPolicy();
+    }
+    String cacheSubject = policy != null ? policy.getName() : subject;
+    log.snap( METRIC_DATABASE_LOOKUP_CACHE_HITS, cacheSubject, data.cacheHits );
+    log.snap( METRIC_DATABASE_LOOKUP_CACHE_MISSES, cacheSubject, data.cacheMisses );
+    if ( policy != null ) {
+      log.snap( METRIC_DATABASE_LOOKUP_CACHE_EVICTIONS, cacheSubject, policy.getEvictions() );
+      log.snap( METRIC_DATABASE_LOOKUP_CACHE_BYTES, cacheSubject, policy.getBytes() );
+    }
+
+    if ( log.isDetailed() ) {
+      long lookups = data.cacheHits + data.cacheMisses;
+      logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.LookupStatistics",
+        String.valueOf( data.lookupRoundTrips ),
+        String.valueOf( data.batchCount ),
+        String.format( "%.1f", data.batchCount == 0 ? 0.0 : (double) data.batchKeys / data.batchCount ),
+        String.format( "%.1f", lookups == 0 ? 0.0 : 100.0 * data.cacheHits / lookups ) ) );
+      if ( policy != null ) {
+        logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.CacheStatistics", policy.getName(),
+          String.valueOf( policy.size() ), String.format( "%.1f", policy.getBytes() / ( 1024.0 * 1024.0 ) ),
+          String.valueOf( policy.getEvictions() ) ) );
+      }
+    }
+  }
+
   private void loadAllTableDataIntoTheCache() throws HopException {
     DatabaseMeta dbMeta = meta.getDatabaseMeta();
 
@@ -22,12 +22,17 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * @author Matt
  * @since 24-jan-2005
@@ -49,6 +54,18 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public int[] conditions;
   public boolean hasDBCondition;
 
+  public int batchSize; // 0 : look up row by row
+  public List<Object[]> batchRows; // the rows waiting for the next batch lookup
+  public Map<RowMetaAndData, Object[]> batchResults; // the database row per key in the batch, null if not found
+  public Set<RowMetaAndData> batchMultipleResults; // keys of the batch which matched more than one row
+  public IRowMeta batchReturnMeta;
+
+  public long lookupRoundTrips;
+  public long batchCount;
+  public long batchKeys;
+  public long cacheHits;
+  public long cacheMisses;
+
   public DatabaseLookupData() {
     super();
 
@@ -46,6 +46,7 @@ import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.apache.hop.ui.pipeline.transform.ITableItemInsertListener;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.events.*;
 import org.eclipse.swt.layout.FormAttachment;
 import org.eclipse.swt.layout.FormData;
@@ -73,6 +74,15 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
   private Text wCachesize;
   private FormData fdlCachesize, fdCachesize;
 
+  private Label wlCachePolicy;
+  private CCombo wCachePolicy;
+
+  private Label wlCacheMemoryLimit;
+  private Text wCacheMemoryLimit;
+
+  private Label wlBatchSize;
+  private Text wBatchSize;
+
   private Label wlKey;
   private TableView wKey;
   private FormData fdlKey, fdKey;
@@ -293,6 +303,44 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
     fdCachesize.top = new FormAttachment( wCache, margin );
     wCachesize.setLayoutData( fdCachesize );
 
+    // ICache policy line
+    wlCachePolicy = new Label( shell, SWT.RIGHT );
+    wlCachePolicy.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CachePolicy.Label" ) );
+    wlCachePolicy.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CachePolicy.Tooltip" ) );
+    props.setLook( wlCachePolicy );
+    FormData fdlCachePolicy = new FormData();
+    fdlCachePolicy.left = new FormAttachment( 0, 0 );
+    fdlCachePolicy.right = new FormAttachment( middle, -margin );
+    fdlCachePolicy.top = new FormAttachment( wCachesize, margin );
+    wlCachePolicy.setLayoutData( fdlCachePolicy );
+    wCachePolicy = new CCombo( shell, SWT.SINGLE | SWT.READ_ONLY | SWT.BORDER );
+    wCachePolicy.setItems( DatabaseLookupMeta.cachePolicyCodes );
+    props.setLook( wCachePolicy );
+    wCachePolicy.addModifyListener( lsMod );
+    FormData fdCachePolicy = new FormData();
+    fdCachePolicy.left = new FormAttachment( middle, 0 );
+    fdCachePolicy.right = new FormAttachment( 100, 0 );
+    fdCachePolicy.top = new FormAttachment( wCachesize, margin );
+    wCachePolicy.setLayoutData( fdCachePolicy );
+
+    // ICache memory limit line
+    wlCacheMemoryLimit = new Label( shell, SWT.RIGHT );
+    wlCacheMemoryLimit.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheMemoryLimit.Label" ) );
+    props.setLook( wlCacheMemoryLimit );
+    FormData fdlCacheMemoryLimit = new FormData();
+    fdlCacheMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlCacheMemoryLimit.right = new FormAttachment( middle, -margin );
+    fdlCacheMemoryLimit.top = new FormAttachment( wCachePolicy, margin );
+    wlCacheMemoryLimit.setLayoutData( fdlCacheMemoryLimit );
+    wCacheMemoryLimit = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wCacheMemoryLimit );
+    wCacheMemoryLimit.addModifyListener( lsMod );
+    FormData fdCacheMemoryLimit = new FormData();
+    fdCacheMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdCacheMemoryLimit.right = new FormAttachment( 100, 0 );
+    fdCacheMemoryLimit.top = new FormAttachment( wCachePolicy, margin );
+    wCacheMemoryLimit.setLayoutData( fdCacheMemoryLimit );
+
     // ICache : Load all?
     wlCacheLoadAll = new Label( shell, SWT.RIGHT );
     wlCacheLoadAll.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheLoadAll.Label" ) );
@@ -300,13 +348,13 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
     fdlCacheLoadAll = new FormData();
     fdlCacheLoadAll.left = new FormAttachment( 0, 0 );
     fdlCacheLoadAll.right = new FormAttachment( middle, -margin );
-    fdlCacheLoadAll.top = new FormAttachment( wCachesize, margin );
+    fdlCacheLoadAll.top = new FormAttachment( wCacheMemoryLimit, margin );
     wlCacheLoadAll.setLayoutData( fdlCacheLoadAll );
     wCacheLoadAll = new Button( shell, SWT.CHECK );
     props.setLook( wCacheLoadAll );
     fdCacheLoadAll = new FormData();
     fdCacheLoadAll.left = new FormAttachment( middle, 0 );
-    fdCacheLoadAll.top = new FormAttachment( wCachesize, margin );
+    fdCacheLoadAll.top = new FormAttachment( wCacheMemoryLimit, margin );
     wCacheLoadAll.setLayoutData( fdCacheLoadAll );
     wCacheLoadAll.addSelectionListener( new SelectionAdapter() {
       public void widgetSelected( SelectionEvent e ) {
@@ -315,12 +363,32 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
       }
     } );
 
+    // Batch size
+    wlBatchSize = new Label( shell, SWT.RIGHT );
+    wlBatchSize.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.BatchSize.Label" ) );
+    wlBatchSize.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.BatchSize.Tooltip" ) );
+    props.setLook( wlBatchSize );
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment( 0, 0 );
+    fdlBatchSize.right = new FormAttachment( middle, -margin );
+    fdlBatchSize.top = new FormAttachment( wCacheLoadAll, margin );
+    wlBatchSize.setLayoutData( fdlBatchSize );
+    wBatchSize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wBatchSize.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.BatchSize.Tooltip" ) );
+    props.setLook( wBatchSize );
+    wBatchSize.addModifyListener( lsMod );
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment( middle, 0 );
+    fdBatchSize.right = new FormAttachment( 100, 0 );
+    fdBatchSize.top = new FormAttachment( wCacheLoadAll, margin );
+    wBatchSize.setLayoutData( fdBatchSize );
+
     wlKey = new Label( shell, SWT.NONE );
     wlKey.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.Keys.Label" ) );
     props.setLook( wlKey );
     fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wCacheLoadAll, margin );
+    fdlKey.top = new FormAttachment( wBatchSize, margin );
     wlKey.setLayoutData( fdlKey );
 
     int nrKeyCols = 4;
@@ -512,6 +580,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
     wTable.addSelectionListener( lsDef );
     wOrderBy.addSelectionListener( lsDef );
     wCachesize.addSelectionListener( lsDef );
+    wBatchSize.addSelectionListener( lsDef );
+    wCacheMemoryLimit.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -623,8 +693,14 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
 
     wCachesize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
     wlCachesize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wCachePolicy.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wlCachePolicy.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wCacheMemoryLimit.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wlCacheMemoryLimit.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
     wCacheLoadAll.setEnabled( wCache.getSelection() );
     wlCacheLoadAll.setEnabled( wCache.getSelection() );
+    wBatchSize.setEnabled( !( wCache.getSelection() && wCacheLoadAll.getSelection() ) );
+    wlBatchSize.setEnabled( !( wCache.getSelection() && wCacheLoadAll.getSelection() ) );
     wFailMultiple.setEnabled( !wCache.getSelection() );
     wlFailMultiple.setEnabled( !wCache.getSelection() );
   }
@@ -637,7 +713,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
 
     wCache.setSelection( input.isCached() );
     wCachesize.setText( "" + input.getCacheSize() );
+    wCachePolicy.setText( Const.NVL( input.getCachePolicy(), DatabaseLookupMeta.CACHE_POLICY_LRU ) );
+    wCacheMemoryLimit.setText( "" + input.getCacheMemoryLimit() );
     wCacheLoadAll.setSelection( input.isLoadingAllDataInCache() );
+    wBatchSize.setText( "" + input.getBatchSize() );
 
     if ( input.getStreamKeyField1() != null ) {
       for ( int i = 0; i < input.getStreamKeyField1().length; i++ ) {
@@ -719,7 +798,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
 
     input.setCached( wCache.getSelection() );
     input.setCacheSize( Const.toInt( wCachesize.getText(), 0 ) );
+    input.setCachePolicy( wCachePolicy.getText() );
+    input.setCacheMemoryLimit( Const.toInt( wCacheMemoryLimit.getText(), 0 ) );
     input.setLoadingAllDataInCache( wCacheLoadAll.getSelection() );
+    input.setBatchSize( Const.toInt( wBatchSize.getText(), 0 ) );
 
     logDebug( BaseMessages.getString( PKG, "DatabaseLookupDialog.Log.FoundKeys", String.valueOf( nrkeys ) ) );
     //CHECKSTYLE:Indentation:OFF
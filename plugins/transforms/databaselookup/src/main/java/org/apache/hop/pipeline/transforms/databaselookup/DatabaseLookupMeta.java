@@ -80,6 +80,11 @@ public class DatabaseLookupMeta extends BaseTransformMeta implements ITransformM
   public static final int CONDITION_IS_NULL = 8;
   public static final int CONDITION_IS_NOT_NULL = 9;
 
+  public static final String CACHE_POLICY_LRU = "LRU";
+  public static final String CACHE_POLICY_TINY_LFU = "TinyLFU";
+
+  public static final String[] cachePolicyCodes = new String[] { CACHE_POLICY_LRU, CACHE_POLICY_TINY_LFU, };
+
   /**
    * what's the lookup schema name?
    */
@@ -150,6 +155,16 @@ public class DatabaseLookupMeta extends BaseTransformMeta implements ITransformM
    */
   private int cacheSize;
 
+  /**
+   * Which rows stay in the cache once it's full: LRU or TinyLFU
+   */
+  private String cachePolicy;
+
+  /**
+   * Limit the estimated memory used by the cache to this many MB, 0 means no limit
+   */
+  private int cacheMemoryLimit;
+
   /**
    * Flag to make it load all data into the cache at startup
    */
@@ -165,6 +180,11 @@ public class DatabaseLookupMeta extends BaseTransformMeta implements ITransformM
    */
   private boolean eatingRowOnLookupFailure;
 
+  /**
+   * Look up the keys of this many rows with a single query, 0 or 1 looks up one row at a time
+   */
+  private int batchSize;
+
   public DatabaseLookupMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -197,6 +217,48 @@ public class DatabaseLookupMeta extends BaseTransformMeta implements ITransformM
     this.cacheSize = cacheSize;
   }
 
+  /**
+   * @return Returns the cachePolicy.
+   */
+  public String getCachePolicy() {
+    return cachePolicy;
+  }
+
+  /**
+   * @param cachePolicy The cachePolicy to set.
+   */
+  public void setCachePolicy( String cachePolicy ) {
+    this.cachePolicy = cachePolicy;
+  }
+
+  /**
+   * @return Returns the cacheMemoryLimit in MB.
+   */
+  public int getCacheMemoryLimit() {
+    return cacheMemoryLimit;
+  }
+
+  /**
+   * @param cacheMemoryLimit The cacheMemoryLimit in MB to set.
+   */
+  public void setCacheMemoryLimit( int cacheMemoryLimit ) {
+    this.cacheMemoryLimit = cacheMemoryLimit;
+  }
+
+  /**
+   * @return Returns the batchSize.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @param batchSize The batchSize to set.
+   */
+  public void setBatchSize( int batchSize ) {
+    this.batchSize = batchSize;
+  }
+
   /**
    * @return Returns the database.
    */
@@ -422,6 +484,9 @@ public class DatabaseLookupMeta extends BaseTransformMeta implements ITransformM
       loadingAllDataInCache = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "cache_load_all" ) );
       csize = XmlHandler.getTagValue( transformNode, "cache_size" );
       cacheSize = Const.toInt( csize, 0 );
+      cachePolicy = Const.NVL( XmlHandler.getTagValue( transformNode, "cache_policy" ), CACHE_POLICY_LRU );
+      cacheMemoryLimit = Const.toInt( XmlHandler.getTagValue( transformNode, "cache_memory_limit" ), 0 );
+      batchSize = Const.toInt( XmlHandler.getTagValue( transformNode, "batch_size" ), 0 );
       schemaName = XmlHandler.getTagValue( transformNode, "lookup", "schema" );
       tablename = XmlHandler.getTagValue( transformNode, "lookup", "table" );
 
@@ -476,6 +541,9 @@ public class DatabaseLookupMeta extends BaseTransformMeta implements ITransformM
     databaseMeta = null;
     cached = false;
     cacheSize = 0;
+    cachePolicy = CACHE_POLICY_LRU;
+    cacheMemoryLimit = 0;
+    batchSize = 0;
     schemaName = "";
     tablename = BaseMessages.getString( PKG, "DatabaseLookupMeta.Default.TableName" );
 
@@ -541,6 +609,9 @@ public class DatabaseLookupMeta extends BaseTransformMeta implements ITransformM
     retval.append( "    " ).append( XmlHandler.addTagValue( "cache", cached ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "cache_load_all", loadingAllDataInCache ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "cache_size", cacheSize ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "cache_policy", cachePolicy ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "cache_memory_limit", cacheMemoryLimit ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "batch_size", batchSize ) );
     retval.append( "    <lookup>" ).append( Const.CR );
     retval.append( "      " ).append( XmlHandler.addTagValue( "schema", schemaName ) );
     retval.append( "      " ).append( XmlHandler.addTagValue( "table", tablename ) );
@@ -23,57 +23,73 @@
 package org.apache.hop.pipeline.transforms.databaselookup;
 
 import org.apache.hop.core.RowMetaAndData;
-import org.apache.hop.core.TimedRow;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
-import java.util.LinkedHashMap;
-import java.util.List;
+import org.apache.hop.pipeline.transforms.databaselookup.cachepolicy.ICachePolicy;
+import org.apache.hop.pipeline.transforms.databaselookup.cachepolicy.LruCachePolicy;
+import org.apache.hop.pipeline.transforms.databaselookup.cachepolicy.TinyLfuCachePolicy;
 
 /**
- * Old code, copied from {@linkplain DatabaseLookup}
+ * Old code, copied from {@linkplain DatabaseLookup}. Which rows stay in the cache once it is full is decided by an
+ * {@link ICachePolicy}.
  *
  * @author Andrey Khayrutdinov
  */
 public class DefaultCache implements DatabaseLookupData.ICache {
 
+  /**
+   * @return an LRU cache limited to a number of rows, 0 means no limit
+   */
   public static DefaultCache newCache( DatabaseLookupData data, int cacheSize ) {
-    if ( cacheSize > 0 ) {
-      cacheSize = (int) ( cacheSize * 1.5 );
+    return new DefaultCache( data, new LruCachePolicy( cacheSize, 0L ) );
+  }
+
+  /**
+   * @return a cache with the policy and the row and memory limits of the transform
+   */
+  public static DefaultCache newCache( DatabaseLookupData data, DatabaseLookupMeta meta ) {
+    // If you had previously set a cache size and then turned on load all, we don't want to throw out entries
+    //
+    long maxRows = meta.isLoadingAllDataInCache() ? 0L : meta.getCacheSize();
+    long maxBytes = meta.isLoadingAllDataInCache() ? 0L : meta.getCacheMemoryLimit() * 1024L * 1024L;
+
+    ICachePolicy policy;
+    if ( DatabaseLookupMeta.CACHE_POLICY_TINY_LFU.equals( meta.getCachePolicy() ) ) {
+      policy = new TinyLfuCachePolicy( maxRows, maxBytes );
     } else {
-      cacheSize = 16;
+      policy = new LruCachePolicy( maxRows, maxBytes );
     }
-    return new DefaultCache( data, cacheSize );
+    return new DefaultCache( data, policy );
   }
 
-
   private final DatabaseLookupData data;
-  private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private final ICachePolicy policy;
 
-  DefaultCache( DatabaseLookupData data, int capacity ) {
+  DefaultCache( DatabaseLookupData data, ICachePolicy policy ) {
     this.data = data;
-    map = new LinkedHashMap<>( capacity );
+    this.policy = policy;
+  }
+
+  /**
+   * @return the policy deciding which rows stay in the cache
+   */
+  public ICachePolicy getPolicy() {
+    return policy;
   }
 
   @Override
   public Object[] getRowFromCache( IRowMeta lookupMeta, Object[] lookupRow ) throws HopException {
     if ( data.allEquals ) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong results
-      TimedRow timedRow = map.get( new RowMetaAndData( data.lookupMeta, lookupRow ) );
-      if ( timedRow != null ) {
-        return timedRow.getRow();
-      }
+      return policy.get( new RowMetaAndData( data.lookupMeta, lookupRow ) );
     } else { // special handling of conditions <,>, <> etc.
       if ( !data.hasDBCondition ) { // e.g. LIKE not handled by this routine, yet
         // TODO: find an alternative way to look up the data based on the condition.
         // Not all conditions are "=" so we are going to have to evaluate row by row
         // A sorted list or index might be a good solution here...
         //
-        for ( RowMetaAndData key : map.keySet() ) {
+        for ( RowMetaAndData key : policy.keys() ) {
           // Now verify that the key is matching our conditions...
           //
           boolean match = true;
@@ -130,9 +146,9 @@ public class DefaultCache implements DatabaseLookupData.ICache {
             lookupIndex++;
           }
           if ( match ) {
-            TimedRow timedRow = map.get( key );
-            if ( timedRow != null ) {
-              return timedRow.getRow();
+            Object[] row = policy.get( key );
+            if ( row != null ) {
+              return row;
             }
           }
         }
@@ -155,43 +171,6 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     // if (!data.look.containsKey(rowMetaAndData)) {
     // data.look.put(rowMetaAndData, new TimedRow(add));
     // }
-    map.put( rowMetaAndData, new TimedRow( add ) );
-
-    // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
-
-    // DEinspanjer 2009-02-01: If you had previously set a cache size and then turned on load all, this
-    // method would throw out entries if the previous cache size wasn't big enough.
-    if ( !meta.isLoadingAllDataInCache() && meta.getCacheSize() > 0 && map.size() > meta.getCacheSize() ) {
-      List<RowMetaAndData> keys = new ArrayList<RowMetaAndData>( map.keySet() );
-      List<Date> samples = new ArrayList<Date>();
-      int incr = keys.size() / 10;
-      if ( incr == 0 ) {
-        incr = 1;
-      }
-      for ( int k = 0; k < keys.size(); k += incr ) {
-        RowMetaAndData key = keys.get( k );
-        TimedRow timedRow = map.get( key );
-        samples.add( timedRow.getLogDate() );
-      }
-
-      Collections.sort( samples );
-
-      if ( samples.size() > 1 ) {
-        Date smallest = samples.get( 1 );
-
-        // Everything below the smallest date goes away...
-        for ( RowMetaAndData key : keys ) {
-          TimedRow timedRow = map.get( key );
-
-          if ( timedRow.getLogDate().compareTo( smallest ) < 0 ) {
-            map.remove( key );
-          }
-        }
-      }
-    }
+    policy.put( rowMetaAndData, add );
   }
 }
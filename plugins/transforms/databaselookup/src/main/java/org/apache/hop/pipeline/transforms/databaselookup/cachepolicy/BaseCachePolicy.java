@@ -0,0 +1,130 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.cachepolicy;
+
+import org.apache.hop.core.RowMetaAndData;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Keeps track of the row and byte limits of a cache policy and estimates the memory used by the cached rows.
+ */
+public abstract class BaseCachePolicy implements ICachePolicy {
+
+  /**
+   * The map entry, the key and its row metadata reference and the entry itself
+   */
+  private static final long ENTRY_OVERHEAD = 96L;
+
+  private static final long ARRAY_OVERHEAD = 16L;
+  private static final long REFERENCE_SIZE = 8L;
+
+  /**
+   * 0 means no limit
+   */
+  protected final long maxRows;
+
+  /**
+   * 0 means no limit
+   */
+  protected final long maxBytes;
+
+  protected long bytes;
+  protected long evictions;
+
+  protected BaseCachePolicy( long maxRows, long maxBytes ) {
+    this.maxRows = Math.max( 0L, maxRows );
+    this.maxBytes = Math.max( 0L, maxBytes );
+  }
+
+  @Override
+  public long getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public long getEvictions() {
+    return evictions;
+  }
+
+  protected boolean isOverLimit() {
+    return ( maxRows > 0 && size() > maxRows ) || ( maxBytes > 0 && bytes > maxBytes );
+  }
+
+  /**
+   * A cached row with its estimated size
+   */
+  protected static class Entry {
+    Object[] row;
+    long bytes;
+
+    Entry( Object[] row, long bytes ) {
+      this.row = row;
+      this.bytes = bytes;
+    }
+  }
+
+  /**
+   * Estimate the memory used by a cache entry. The estimate is based on the sizes of the usual value classes on a 64
+   * bit JVM, it doesn't need to be exact to keep a cache within a memory budget.
+   *
+   * @param key the lookup key
+   * @param row the looked up row
+   * @return the estimated size of the entry in bytes
+   */
+  public static long estimateBytes( RowMetaAndData key, Object[] row ) {
+    return ENTRY_OVERHEAD + estimateBytes( key.getData() ) + estimateBytes( row );
+  }
+
+  static long estimateBytes( Object[] row ) {
+    if ( row == null ) {
+      return 0L;
+    }
+    long size = ARRAY_OVERHEAD + REFERENCE_SIZE * row.length;
+    for ( Object value : row ) {
+      size += estimateValueBytes( value );
+    }
+    return size;
+  }
+
+  private static long estimateValueBytes( Object value ) {
+    if ( value == null ) {
+      return 0L;
+    }
+    if ( value instanceof String ) {
+      return 40L + 2L * ( (String) value ).length();
+    }
+    if ( value instanceof byte[] ) {
+      return ARRAY_OVERHEAD + ( (byte[]) value ).length;
+    }
+    if ( value instanceof BigDecimal ) {
+      return 64L;
+    }
+    if ( value instanceof Date ) {
+      return 32L;
+    }
+    return 16L; // Long, Double, Boolean
+  }
+}
@@ -0,0 +1,105 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.cachepolicy;
+
+/**
+ * Estimates how often a key was used recently. Every key hashes to 4 counters of 4 bits, the estimate is the smallest
+ * of them. There are 16 counters per expected key. All counters are halved once the number of increments reaches 10
+ * times the number of expected keys so that old popularity fades away.
+ */
+class FrequencySketch {
+
+  private static final int[] SEEDS = { 0x97cb3127, 0xb4f5c7e1, 0x5b7d0d2f, 0xe3b9a7c5 };
+  private static final int MAX_COUNT = 15;
+  private static final int MAX_COUNTERS = 1 << 24;
+
+  private final byte[] table; // two counters per byte
+  private final int mask;
+  private final long sampleSize;
+  private long additions;
+
+  /**
+   * @param expectedKeys the number of keys the cache is expected to hold
+   */
+  FrequencySketch( long expectedKeys ) {
+    expectedKeys = Math.max( 16L, expectedKeys );
+    int counters = 256;
+    while ( counters < expectedKeys * 16 && counters < MAX_COUNTERS ) {
+      counters <<= 1;
+    }
+    table = new byte[ counters / 2 ];
+    mask = counters - 1;
+    sampleSize = 10 * expectedKeys;
+  }
+
+  void increment( int hash ) {
+    boolean added = false;
+    for ( int i = 0; i < SEEDS.length; i++ ) {
+      int counter = indexOf( hash, i );
+      int count = getCount( counter );
+      if ( count < MAX_COUNT ) {
+        setCount( counter, count + 1 );
+        added = true;
+      }
+    }
+    if ( added && ++additions >= sampleSize ) {
+      reset();
+    }
+  }
+
+  int frequency( int hash ) {
+    int frequency = MAX_COUNT;
+    for ( int i = 0; i < SEEDS.length; i++ ) {
+      frequency = Math.min( frequency, getCount( indexOf( hash, i ) ) );
+    }
+    return frequency;
+  }
+
+  private int getCount( int counter ) {
+    int shift = ( counter & 1 ) << 2;
+    return ( table[ counter >>> 1 ] >>> shift ) & 0x0F;
+  }
+
+  private void setCount( int counter, int count ) {
+    int shift = ( counter & 1 ) << 2;
+    int index = counter >>> 1;
+    table[ index ] = (byte) ( ( table[ index ] & ~( 0x0F << shift ) ) | ( count << shift ) );
+  }
+
+  /**
+   * Halve both counters of every byte
+   */
+  private void reset() {
+    for ( int i = 0; i < table.length; i++ ) {
+      table[ i ] = (byte) ( ( table[ i ] >>> 1 ) & 0x77 );
+    }
+    additions /= 2;
+  }
+
+  private int indexOf( int hash, int i ) {
+    int h = ( hash ^ SEEDS[ i ] ) * 0x9E3779B9;
+    h ^= h >>> 16;
+    return h & mask;
+  }
+}
@@ -0,0 +1,75 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.cachepolicy;
+
+import org.apache.hop.core.RowMetaAndData;
+
+import java.util.List;
+
+/**
+ * Decides which looked up rows stay in the cache of the
+ * {@linkplain org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookup DatabaseLookup} transform once it is
+ * full. A cache can be limited in rows, in (estimated) bytes or both.
+ */
+public interface ICachePolicy {
+
+  /**
+   * @return the name of the policy, used to report the cache metrics
+   */
+  String getName();
+
+  /**
+   * @param key the lookup key
+   * @return the cached row or null if the key is not in the cache
+   */
+  Object[] get( RowMetaAndData key );
+
+  /**
+   * Store a row in the cache, this can evict other rows.
+   *
+   * @param key the lookup key
+   * @param row the looked up row
+   */
+  void put( RowMetaAndData key, Object[] row );
+
+  /**
+   * @return a snapshot of the keys in the cache
+   */
+  List<RowMetaAndData> keys();
+
+  /**
+   * @return the number of rows in the cache
+   */
+  int size();
+
+  /**
+   * @return the estimated memory used by the rows in the cache in bytes
+   */
+  long getBytes();
+
+  /**
+   * @return the number of rows evicted so far
+   */
+  long getEvictions();
+}
@@ -0,0 +1,89 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.cachepolicy;
+
+import org.apache.hop.core.RowMetaAndData;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evicts the least recently used rows first.
+ */
+public class LruCachePolicy extends BaseCachePolicy {
+
+  public static final String NAME = "LRU";
+
+  private final LinkedHashMap<RowMetaAndData, Entry> map;
+
+  /**
+   * @param maxRows  the maximum number of rows in the cache, 0 for no limit
+   * @param maxBytes the maximum estimated size of the cache in bytes, 0 for no limit
+   */
+  public LruCachePolicy( long maxRows, long maxBytes ) {
+    super( maxRows, maxBytes );
+    map = new LinkedHashMap<>( 16, 0.75f, true );
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public Object[] get( RowMetaAndData key ) {
+    Entry entry = map.get( key );
+    return entry == null ? null : entry.row;
+  }
+
+  @Override
+  public void put( RowMetaAndData key, Object[] row ) {
+    long size = estimateBytes( key, row );
+    Entry previous = map.put( key, new Entry( row, size ) );
+    if ( previous != null ) {
+      bytes -= previous.bytes;
+    }
+    bytes += size;
+
+    Iterator<Map.Entry<RowMetaAndData, Entry>> iterator = map.entrySet().iterator();
+    while ( isOverLimit() && iterator.hasNext() ) {
+      bytes -= iterator.next().getValue().bytes;
+      iterator.remove();
+      evictions++;
+    }
+  }
+
+  @Override
+  public List<RowMetaAndData> keys() {
+    return new ArrayList<>( map.keySet() );
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+}
@@ -0,0 +1,203 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.cachepolicy;
+
+import org.apache.hop.core.RowMetaAndData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A W-TinyLFU cache policy. New rows enter a small LRU window. Rows leaving the window are only admitted to the main
+ * part of the cache if they were used more often than the row they would replace, according to a {@link
+ * FrequencySketch}. The main part is a segmented LRU: rows hit a second time move from probation to a protected
+ * segment which holds up to 80% of the main part. This keeps popular keys in the cache when a skewed key distribution
+ * mixes them with a stream of keys that are used only once.
+ */
+public class TinyLfuCachePolicy extends BaseCachePolicy {
+
+  public static final String NAME = "TinyLFU";
+
+  private static final int WINDOW_PERCENTAGE = 1;
+  private static final int PROTECTED_PERCENTAGE = 80;
+
+  private final LinkedHashMap<RowMetaAndData, Entry> window;
+  private final LinkedHashMap<RowMetaAndData, Entry> probation;
+  private final LinkedHashMap<RowMetaAndData, Entry> protectedSegment;
+  private final FrequencySketch sketch;
+
+  /**
+   * @param maxRows  the maximum number of rows in the cache, 0 for no limit
+   * @param maxBytes the maximum estimated size of the cache in bytes, 0 for no limit
+   */
+  public TinyLfuCachePolicy( long maxRows, long maxBytes ) {
+    super( maxRows, maxBytes );
+    window = new LinkedHashMap<>( 16, 0.75f, true );
+    probation = new LinkedHashMap<>( 16, 0.75f, true );
+    protectedSegment = new LinkedHashMap<>( 16, 0.75f, true );
+
+    long expectedKeys;
+    if ( maxRows > 0 ) {
+      expectedKeys = maxRows;
+    } else if ( maxBytes > 0 ) {
+      expectedKeys = maxBytes / 256;
+    } else {
+      expectedKeys = 1024;
+    }
+    sketch = new FrequencySketch( expectedKeys );
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public Object[] get( RowMetaAndData key ) {
+    Entry entry = window.get( key );
+    if ( entry == null ) {
+      entry = protectedSegment.get( key );
+    }
+    if ( entry == null ) {
+      entry = probation.remove( key );
+      if ( entry != null ) {
+        // Used again: promote it
+        protectedSegment.put( key, entry );
+        demoteProtected();
+      }
+    }
+    if ( entry == null ) {
+      return null; // a miss is counted when the row is stored
+    }
+    sketch.increment( key.hashCode() );
+    return entry.row;
+  }
+
+  @Override
+  public void put( RowMetaAndData key, Object[] row ) {
+    sketch.increment( key.hashCode() );
+    long size = estimateBytes( key, row );
+
+    Entry entry = window.get( key );
+    if ( entry == null ) {
+      entry = protectedSegment.get( key );
+    }
+    if ( entry == null ) {
+      entry = probation.get( key );
+    }
+    if ( entry != null ) {
+      bytes += size - entry.bytes;
+      entry.row = row;
+      entry.bytes = size;
+    } else {
+      window.put( key, new Entry( row, size ) );
+      bytes += size;
+      evictFromWindow();
+    }
+
+    // A row can be larger than the rows it replaced, keep evicting until we're within the limits.
+    //
+    while ( isOverLimit() ) {
+      if ( !evictEldest( probation ) && !evictEldest( protectedSegment ) && !evictEldest( window ) ) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Rows leaving the window compete with the least recently used row on probation for a place in the cache.
+   */
+  private void evictFromWindow() {
+    while ( window.size() > getMaxWindowSize() ) {
+      RowMetaAndData candidate = eldest( window );
+      Entry candidateEntry = window.remove( candidate );
+      probation.put( candidate, candidateEntry );
+      if ( !isOverLimit() ) {
+        continue;
+      }
+
+      LinkedHashMap<RowMetaAndData, Entry> victimSegment = probation;
+      RowMetaAndData victim = eldest( probation );
+      if ( victim == candidate ) {
+        victimSegment = protectedSegment;
+        victim = eldest( protectedSegment );
+      }
+
+      if ( victim == null || sketch.frequency( candidate.hashCode() ) <= sketch.frequency( victim.hashCode() ) ) {
+        evict( probation, candidate );
+      } else {
+        evict( victimSegment, victim );
+      }
+    }
+  }
+
+  private void demoteProtected() {
+    int maxProtected = Math.max( 1, ( probation.size() + protectedSegment.size() ) * PROTECTED_PERCENTAGE / 100 );
+    while ( protectedSegment.size() > maxProtected ) {
+      RowMetaAndData key = eldest( protectedSegment );
+      probation.put( key, protectedSegment.remove( key ) );
+    }
+  }
+
+  private long getMaxWindowSize() {
+    long rows = maxRows > 0 ? maxRows : size();
+    return Math.max( 1L, rows * WINDOW_PERCENTAGE / 100 );
+  }
+
+  private boolean evictEldest( LinkedHashMap<RowMetaAndData, Entry> segment ) {
+    RowMetaAndData key = eldest( segment );
+    if ( key == null ) {
+      return false;
+    }
+    evict( segment, key );
+    return true;
+  }
+
+  private void evict( LinkedHashMap<RowMetaAndData, Entry> segment, RowMetaAndData key ) {
+    Entry entry = segment.remove( key );
+    if ( entry != null ) {
+      bytes -= entry.bytes;
+      evictions++;
+    }
+  }
+
+  private static RowMetaAndData eldest( LinkedHashMap<RowMetaAndData, Entry> segment ) {
+    return segment.isEmpty() ? null : segment.keySet().iterator().next();
+  }
+
+  @Override
+  public List<RowMetaAndData> keys() {
+    List<RowMetaAndData> keys = new ArrayList<>( size() );
+    keys.addAll( window.keySet() );
+    keys.addAll( probation.keySet() );
+    keys.addAll( protectedSegment.keySet() );
+    return keys;
+  }
+
+  @Override
+  public int size() {
+    return window.size() + probation.size() + protectedSegment.size();
+  }
+}
@@ -66,7 +66,8 @@ public class DatabaseLookupMetaTest implements IInitializer<ITransformMeta> {
     PluginRegistry.init( false );
     List<String> attributes =
       Arrays.asList( "schemaName", "tablename", "databaseMeta", "orderByClause", "cached",
-        "cacheSize", "loadingAllDataInCache", "failingOnMultipleResults", "eatingRowOnLookupFailure",
+        "cacheSize", "cachePolicy", "cacheMemoryLimit", "batchSize", "loadingAllDataInCache",
+        "failingOnMultipleResults", "eatingRowOnLookupFailure",
         "streamKeyField1", "streamKeyField2", "keyCondition", "tableKeyField", "returnValueField",
         "returnValueNewName", "returnValueDefault", "returnValueDefaultType" );
 
@@ -49,6 +49,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -58,13 +59,16 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -79,7 +83,9 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -430,6 +436,119 @@ public class DatabaseLookupUTest {
     assertNotNull( data.cache.getRowFromCache( data.lookupMeta, new Object[] { 2L } ) );
   }
 
+  @Test
+  public void batchLookupUsesOneQueryAndKeepsRowOrder() throws Exception {
+    Connection connection = mock( Connection.class );
+    DatabaseLookupData data = new DatabaseLookupData();
+    List<Object[]> output = runBatchLookup( new GenericDatabaseMeta(), connection, data );
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+    verify( connection, times( 1 ) ).prepareStatement( sql.capture() );
+    assertTrue( sql.getValue(), sql.getValue().contains( "IN ( ?, ?, ? )" ) );
+
+    assertEquals( 4, output.size() );
+    assertEquals( "one", output.get( 0 )[ 1 ] );
+    assertEquals( null, output.get( 1 )[ 1 ] );
+    assertEquals( "one", output.get( 2 )[ 1 ] );
+    assertEquals( "three", output.get( 3 )[ 1 ] );
+    assertEquals( 1L, data.lookupRoundTrips );
+    assertEquals( 1L, data.batchCount );
+    assertEquals( 3L, data.batchKeys );
+  }
+
+  @Test
+  public void batchLookupSplitsKeysOverQueriesBelowParameterLimit() throws Exception {
+    GenericDatabaseMeta genericMeta = new GenericDatabaseMeta() {
+      @Override public int getMaxQueryParameters() {
+        return 2;
+      }
+    };
+    Connection connection = mock( Connection.class );
+    DatabaseLookupData data = new DatabaseLookupData();
+    List<Object[]> output = runBatchLookup( genericMeta, connection, data );
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+    verify( connection, times( 2 ) ).prepareStatement( sql.capture() );
+    assertTrue( sql.getAllValues().get( 0 ), sql.getAllValues().get( 0 ).contains( "IN ( ?, ? )" ) );
+    assertTrue( sql.getAllValues().get( 1 ), sql.getAllValues().get( 1 ).contains( "IN ( ? )" ) );
+
+    assertEquals( 4, output.size() );
+    assertEquals( "one", output.get( 0 )[ 1 ] );
+    assertEquals( null, output.get( 1 )[ 1 ] );
+    assertEquals( "one", output.get( 2 )[ 1 ] );
+    assertEquals( "three", output.get( 3 )[ 1 ] );
+    assertEquals( 2L, data.lookupRoundTrips );
+    assertEquals( 2L, data.batchCount );
+    assertEquals( 3L, data.batchKeys );
+  }
+
+  /**
+   * Looks up the keys 1, 2, 1 and 3 in batches of 10 rows. The table holds the keys 1 and 3.
+   *
+   * @return the output rows
+   */
+  private List<Object[]> runBatchLookup( GenericDatabaseMeta genericMeta, Connection connection,
+                                         DatabaseLookupData data ) throws Exception {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "key" ) );
+    IRowSet rowSet = mock( IRowSet.class );
+    when( rowSet.getRowWait( anyLong(), any( TimeUnit.class ) ) )
+      .thenReturn( new Object[] { 1L }, new Object[] { 2L }, new Object[] { 1L }, new Object[] { 3L }, null );
+    when( rowSet.getRowMeta() ).thenReturn( inputRowMeta );
+    when( mockHelper.pipeline.findRowSet( anyString(), anyInt(), anyString(), anyInt() ) ).thenReturn( rowSet );
+
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setIDatabase( genericMeta );
+
+    DatabaseLookupMeta meta = new DatabaseLookupMeta();
+    meta.setDefault();
+    meta.setDatabaseMeta( dbMeta );
+    meta.setTablename( "VirtualTable" );
+    meta.allocate( 1, 1 );
+    meta.setStreamKeyField1( new String[] { "key" } );
+    meta.setStreamKeyField2( new String[] { null } );
+    meta.setTableKeyField( new String[] { ID_FIELD } );
+    meta.setKeyCondition( new String[] { "=" } );
+    meta.setReturnValueField( new String[] { "value" } );
+    meta.setReturnValueNewName( new String[] { "value" } );
+    meta.setReturnValueDefault( new String[] { null } );
+    meta.setReturnValueDefaultType( new int[] { IValueMeta.TYPE_STRING } );
+    meta.setBatchSize( 10 );
+
+    IRowMeta tableRowMeta = new RowMeta();
+    tableRowMeta.addValueMeta( new ValueMetaString( "value" ) );
+    tableRowMeta.addValueMeta( new ValueMetaInteger( ID_FIELD ) );
+
+    ResultSet rs = mock( ResultSet.class );
+    PreparedStatement ps = mock( PreparedStatement.class );
+    when( ps.executeQuery() ).thenReturn( rs );
+    when( connection.prepareStatement( anyString() ) ).thenReturn( ps );
+
+    Database db = mock( Database.class );
+    when( db.getConnection() ).thenReturn( connection );
+    when( db.getTableFields( anyString() ) ).thenReturn( tableRowMeta );
+    when( db.getMetaFromRow( any( Object[].class ), any( ResultSetMetaData.class ) ) ).thenReturn( tableRowMeta );
+    when( db.getRow( eq( rs ), any( ResultSetMetaData.class ), any( IRowMeta.class ) ) )
+      .thenReturn( new Object[] { "one", 1L }, new Object[] { "three", 3L }, null );
+
+    DatabaseLookup lookup = spyLookup( mockHelper, meta, data, db, dbMeta );
+    final List<Object[]> output = new ArrayList<>();
+    doAnswer( new Answer() {
+      @Override public Object answer( InvocationOnMock invocation ) throws Throwable {
+        output.add( (Object[]) invocation.getArguments()[ 1 ] );
+        return null;
+      }
+    } ).when( lookup ).putRow( any( IRowMeta.class ), any( Object[].class ) );
+
+    lookup.init();
+    while ( lookup.processRow() ) {
+      // keep going
+    }
+
+    verify( db, never() ).getLookup( anyBoolean() );
+    return output;
+  }
+
   public class MockDatabaseLookup extends DatabaseLookup {
     public MockDatabaseLookup( TransformMeta transformMeta, DatabaseLookupMeta meta, DatabaseLookupData data, int copyNr, PipelineMeta pipelineMeta, Pipeline pipeline ) {
       super( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
@@ -0,0 +1,86 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.cachepolicy;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LruCachePolicyTest {
+
+  static RowMetaAndData key( long value ) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    return new RowMetaAndData( rowMeta, new Object[] { value } );
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    LruCachePolicy policy = new LruCachePolicy( 2, 0 );
+    policy.put( key( 1 ), new Object[] { "one" } );
+    policy.put( key( 2 ), new Object[] { "two" } );
+    assertNotNull( policy.get( key( 1 ) ) );
+
+    policy.put( key( 3 ), new Object[] { "three" } );
+
+    assertEquals( 2, policy.size() );
+    assertEquals( 1L, policy.getEvictions() );
+    assertEquals( "one", policy.get( key( 1 ) )[ 0 ] );
+    assertNull( policy.get( key( 2 ) ) );
+    assertEquals( "three", policy.get( key( 3 ) )[ 0 ] );
+  }
+
+  @Test
+  public void testMemoryLimit() {
+    long entryBytes = BaseCachePolicy.estimateBytes( key( 1 ), new Object[] { "value" } );
+    LruCachePolicy policy = new LruCachePolicy( 0, entryBytes * 10 );
+    for ( long i = 0; i < 100; i++ ) {
+      policy.put( key( i ), new Object[] { "value" } );
+    }
+    assertEquals( 10, policy.size() );
+    assertEquals( 90L, policy.getEvictions() );
+    assertTrue( policy.getBytes() <= entryBytes * 10 );
+
+    // Replacing a row keeps the accounting right
+    policy.put( key( 99 ), new Object[] { "value" } );
+    assertEquals( entryBytes * 10, policy.getBytes() );
+  }
+
+  @Test
+  public void testNoLimits() {
+    LruCachePolicy policy = new LruCachePolicy( 0, 0 );
+    for ( long i = 0; i < 1000; i++ ) {
+      policy.put( key( i ), new Object[] { i } );
+    }
+    assertEquals( 1000, policy.size() );
+    assertEquals( 0L, policy.getEvictions() );
+  }
+}
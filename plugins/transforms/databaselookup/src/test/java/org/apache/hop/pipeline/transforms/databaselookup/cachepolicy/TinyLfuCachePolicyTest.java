@@ -0,0 +1,90 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.cachepolicy;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.apache.hop.pipeline.transforms.databaselookup.cachepolicy.LruCachePolicyTest.key;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TinyLfuCachePolicyTest {
+
+  @Test
+  public void testStaysWithinLimits() {
+    TinyLfuCachePolicy policy = new TinyLfuCachePolicy( 100, 0 );
+    for ( long i = 0; i < 10000; i++ ) {
+      if ( policy.get( key( i ) ) == null ) {
+        policy.put( key( i ), new Object[] { i } );
+      }
+    }
+    assertEquals( 100, policy.size() );
+    assertEquals( 9900L, policy.getEvictions() );
+    assertEquals( 100, policy.keys().size() );
+  }
+
+  @Test
+  public void testKeepsPopularKeysWhenScanning() {
+    TinyLfuCachePolicy tinyLfu = new TinyLfuCachePolicy( 100, 0 );
+    LruCachePolicy lru = new LruCachePolicy( 100, 0 );
+
+    // 50 popular keys mixed with a scan of keys that are used only once
+    //
+    Random random = new Random( 42 );
+    long tinyLfuHits = 0;
+    long lruHits = 0;
+    for ( int i = 0; i < 20000; i++ ) {
+      long id = random.nextInt( 3 ) == 0 ? random.nextInt( 50 ) : 1000L + i;
+      tinyLfuHits += lookup( tinyLfu, id );
+      lruHits += lookup( lru, id );
+    }
+
+    assertTrue( "TinyLFU " + tinyLfuHits + " vs LRU " + lruHits, tinyLfuHits > lruHits );
+    for ( long id = 0; id < 50; id++ ) {
+      assertNotNull( tinyLfu.get( key( id ) ) );
+    }
+  }
+
+  @Test
+  public void testMemoryLimit() {
+    long entryBytes = BaseCachePolicy.estimateBytes( key( 1 ), new Object[] { "value" } );
+    TinyLfuCachePolicy policy = new TinyLfuCachePolicy( 0, entryBytes * 10 );
+    for ( long i = 0; i < 100; i++ ) {
+      policy.put( key( i ), new Object[] { "value" } );
+    }
+    assertEquals( 10, policy.size() );
+    assertTrue( policy.getBytes() <= entryBytes * 10 );
+  }
+
+  private static int lookup( ICachePolicy policy, long id ) {
+    if ( policy.get( key( id ) ) != null ) {
+      return 1;
+    }
+    policy.put( key( id ), new Object[] { id } );
+    return 0;
+  }
+}
@@ -23,20 +23,26 @@
 package org.apache.hop.pipeline.transforms.dimensionlookup;
 
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class will act as a special purpose dimension Cache. The idea here is to not only cache the last version of a
  * dimension entry, but all versions. So basically, the entry key is the natural key as well as the from-to date range.
  * <p>
- * The way to achieve that result is to keep a sorted list in memory. Because we want as few conversion errors as
- * possible, we'll use the same row as we get from the database.
+ * The rows are kept in a list in the order in which they were added. A hash index on the natural key points to the
+ * versions of every key, sorted on the start of their date range. Adding a row and looking one up don't depend on the
+ * number of rows in the cache. Because we want as few conversion errors as possible, we'll use the same row as we get
+ * from the database.
  *
  * @author matt
  */
@@ -47,6 +53,11 @@ public class DimensionCache implements Comparator<Object[]> {
   private int fromDateIndex;
   private int toDateIndex;
 
+  /**
+   * The natural key mapped to the indexes of its versions in the row cache, sorted on the start of the date range
+   */
+  private Map<NaturalKey, int[]> keyIndex;
+
   /**
    * Create a new dimension cache object
    *
@@ -60,15 +71,19 @@ public class DimensionCache implements Comparator<Object[]> {
     this.keyIndexes = keyIndexes;
     this.fromDateIndex = fromDateIndex;
     this.toDateIndex = toDateIndex;
+    this.rowCache = new ArrayList<>();
+    this.keyIndex = new HashMap<>();
   }
 
   /**
-   * Add a row to the back of the list
+   * Add a row to the back of the list and index it on its natural key
    *
    * @param row the row to add
+   * @throws HopException in case the natural key or the start of the date range can't be read
    */
-  public void addRow( Object[] row ) {
+  public void addRow( Object[] row ) throws HopException {
     rowCache.add( row );
+    indexRow( rowCache.size() - 1 );
   }
 
   /**
@@ -82,99 +97,202 @@ public class DimensionCache implements Comparator<Object[]> {
   }
 
   /**
-   * Insert a row into the list on a certain index
+   * Rows are no longer kept in sorted order: the index is ignored and the row is added to the back of the list.
    *
-   * @param index the index on which the row should be inserted
+   * @param index not used
    * @param row   the row to add
+   * @deprecated use {@link #addRow(Object[])}
    */
-  public void addRow( int index, Object[] row ) {
-    rowCache.add( index, row );
+  @Deprecated
+  public void addRow( int index, Object[] row ) throws HopException {
+    addRow( row );
   }
 
   /**
-   * Looks up a row in the (sorted) cache.
+   * Looks up the version of a natural key which is valid on the lookup date.
    *
    * @param lookupRowData The data of the lookup row. Make sure that on the index of the from date, you put the lookup date.
+   * @return the index of the row in the cache or -1 if there is no valid version of the key
    * @throws a HopException in case there are conversion errors during the lookup of the row
    */
   public int lookupRow( Object[] lookupRowData ) throws HopException {
     try {
-      // First perform the lookup!
+      int[] versions = keyIndex.get( new NaturalKey( lookupRowData ) );
+      if ( versions == null ) {
+        return -1;
+      }
+
+      // Find the last version which starts on or before the lookup date
       //
-      int index = Collections.binarySearch( rowCache, lookupRowData, this );
-      if ( index < 0 ) {
-        // What we have now is the insertion point.
-        // Since we only compare on the start of the date range (see also: below in Compare.compare())
-        // we will usually get the insertion point of the row
-        // However, that insertion point is the actual row index IF the supplied lookup date (in the lookup row) is
-        // between
-        //
-        // This row at the insertion point where the natural keys match and the start
-        //
-        int insertionPoint = -( index + 1 );
-        if ( insertionPoint < rowCache.size() - 1 ) {
-          // Get the row in question
-          //
-          Object[] row = rowCache.get( insertionPoint );
-
-          // See if the natural key matches...
-          //
-          int cmp = rowMeta.compare( row, lookupRowData, keyIndexes );
-          if ( cmp == 0 ) {
-            // The natural keys match, now see if the lookup date (lookupRowData[fromDateIndex]) is between
-            // row[fromDateIndex] and row[toDateIndex]
-            //
-            Date fromDate = rowMeta.getDate( row, fromDateIndex );
-            Date toDate = rowMeta.getDate( row, toDateIndex );
-            Date lookupDate = rowMeta.getDate( lookupRowData, fromDateIndex );
-
-            if ( fromDate == null && toDate != null ) {
-              // This is the case where the fromDate is null and the toDate is not.
-              // This is a special case where null as a start date means -Infinity
-              //
-              if ( toDate.compareTo( lookupDate ) > 0 ) {
-                return insertionPoint; // found the key!!
-              } else {
-                // This should never happen, it's a flaw in the data or the binary search algorithm...
-                // TODO: print the row perhaps?
-                //
-                throw new HopException(
-                  "Key sorting problem detected during row cache lookup: the lookup date of "
-                    + "the row retrieved is higher than or equal to the end of the date range." );
-              }
-            } else if ( fromDate != null && toDate == null ) {
-              // This is the case where the toDate is null and the fromDate is not.
-              // This is a special case where null as an end date means +Infinity
-              //
-              if ( fromDate.compareTo( lookupDate ) <= 0 ) {
-                return insertionPoint; // found the key!!
-              } else {
-                // This should never happen, it's a flaw in the data or the binary search algorithm...
-                // TODO: print the row perhaps?
-                //
-                throw new HopException(
-                  "Key sorting problem detected during row cache lookup: the lookup date of the row "
-                    + "retrieved is lower than or equal to the start of the date range." );
-              }
-            } else {
-              // Both dates are available: simply see if the lookup date falls in between...
-              //
-              if ( fromDate.compareTo( lookupDate ) <= 0 && toDate.compareTo( lookupDate ) > 0 ) {
-                return insertionPoint;
-              }
-              // Else this is a cache miss.
-            }
-          }
+      IValueMeta fromDateMeta = rowMeta.getValueMeta( fromDateIndex );
+      Date lookupDate = fromDateMeta.getDate( lookupRowData[ fromDateIndex ] );
+      int low = 0;
+      int high = versions.length - 1;
+      int found = -1;
+      while ( low <= high ) {
+        int mid = ( low + high ) >>> 1;
+        if ( compareDates( getFromDate( versions[ mid ] ), lookupDate ) <= 0 ) {
+          found = mid;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
         }
       }
-      return index;
+      if ( found < 0 ) {
+        return -1;
+      }
+
+      // The version is valid if it hasn't ended yet on the lookup date, a null end date means +Infinity
+      //
+      Object[] row = rowCache.get( versions[ found ] );
+      Date toDate = rowMeta.getValueMeta( toDateIndex ).getDate( row[ toDateIndex ] );
+      if ( toDate == null || lookupDate == null || toDate.compareTo( lookupDate ) > 0 ) {
+        return versions[ found ];
+      }
+      return -1;
     } catch ( RuntimeException e ) {
       throw new HopException( e );
     }
   }
 
+  /**
+   * (Re-)build the natural key index for all the rows in the cache.
+   *
+   * @throws HopException in case the natural key or the start of the date range can't be read
+   */
+  public void indexRows() throws HopException {
+    keyIndex = new HashMap<>( Math.max( 16, (int) ( rowCache.size() / 0.75f ) + 1 ) );
+    for ( int i = 0; i < rowCache.size(); i++ ) {
+      indexRow( i );
+    }
+  }
+
+  /**
+   * The rows no longer need to be sorted, this (re-)builds the natural key index.
+   *
+   * @deprecated use {@link #indexRows()}
+   */
+  @Deprecated
   public void sortRows() {
-    Collections.sort( rowCache, this );
+    try {
+      indexRows();
+    } catch ( HopException e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
+  /**
+   * Add the row on the given index in the row cache to the versions of its natural key
+   */
+  private void indexRow( int index ) throws HopException {
+    try {
+      NaturalKey key = new NaturalKey( rowCache.get( index ) );
+      int[] versions = keyIndex.get( key );
+      if ( versions == null ) {
+        keyIndex.put( key, new int[] { index } );
+        return;
+      }
+
+      // Versions usually arrive in order: look for the insertion point from the back
+      //
+      Date fromDate = getFromDate( index );
+      int position = versions.length;
+      while ( position > 0 && compareDates( getFromDate( versions[ position - 1 ] ), fromDate ) > 0 ) {
+        position--;
+      }
+      int[] newVersions = Arrays.copyOf( versions, versions.length + 1 );
+      System.arraycopy( versions, position, newVersions, position + 1, versions.length - position );
+      newVersions[ position ] = index;
+      keyIndex.put( key, newVersions );
+    } catch ( RuntimeException e ) {
+      throw new HopException( e );
+    }
+  }
+
+  private Date getFromDate( int index ) throws HopValueException {
+    return rowMeta.getValueMeta( fromDateIndex ).getDate( rowCache.get( index )[ fromDateIndex ] );
+  }
+
+  /**
+   * Compare two start dates, null means -Infinity
+   */
+  private static int compareDates( Date date1, Date date2 ) {
+    if ( date1 == null ) {
+      return date2 == null ? 0 : -1;
+    }
+    if ( date2 == null ) {
+      return 1;
+    }
+    return date1.compareTo( date2 );
+  }
+
+  /**
+   * The natural key of a row, hashed and compared with the row metadata
+   */
+  private class NaturalKey {
+    private final Object[] row;
+    private final int hashCode;
+
+    NaturalKey( Object[] row ) {
+      this.row = row;
+      try {
+        int hash = 1;
+        for ( int keyIndex : keyIndexes ) {
+          hash = 31 * hash + hashValue( rowMeta.getValueMeta( keyIndex ), row[ keyIndex ] );
+        }
+        this.hashCode = hash;
+      } catch ( HopValueException e ) {
+        throw new RuntimeException( "Unable to calculate the hash code of a natural key", e );
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    /**
+     * Values which compare as equal need the same hash code: take case insensitive strings and the scale of big
+     * numbers into account.
+     */
+    private int hashValue( IValueMeta valueMeta, Object object ) throws HopValueException {
+      if ( valueMeta.isNull( object ) ) {
+        return 0;
+      }
+      switch ( valueMeta.getType() ) {
+        case IValueMeta.TYPE_STRING:
+          String string = valueMeta.getString( object );
+          if ( valueMeta.isIgnoreWhitespace() ) {
+            string = string.trim();
+          }
+          if ( valueMeta.isCaseInsensitive() ) {
+            // Fold every char the way String.compareToIgnoreCase does, not with the rules of the default locale
+            int hash = 0;
+            for ( int i = 0; i < string.length(); i++ ) {
+              hash = 31 * hash + Character.toLowerCase( Character.toUpperCase( string.charAt( i ) ) );
+            }
+            return hash;
+          }
+          return string.hashCode();
+        case IValueMeta.TYPE_BIGNUMBER:
+          return Double.hashCode( valueMeta.getBigNumber( object ).doubleValue() );
+        default:
+          return valueMeta.hashCode( object );
+      }
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+      if ( !( obj instanceof NaturalKey ) ) {
+        return false;
+      }
+      NaturalKey other = (NaturalKey) obj;
+      try {
+        return hashCode == other.hashCode && rowMeta.compare( row, other.row, keyIndexes ) == 0;
+      } catch ( HopValueException e ) {
+        throw new RuntimeException( "Unable to compare natural keys", e );
+      }
+    }
   }
 
   /**
@@ -252,6 +370,8 @@ public class DimensionCache implements Comparator<Object[]> {
   }
 
   /**
+   * Replace the rows in the cache, call {@link #indexRows()} afterwards to index them.
+   *
    * @param rowCache the rowCache to set
    */
   public void setRowCache( List<Object[]> rowCache ) {
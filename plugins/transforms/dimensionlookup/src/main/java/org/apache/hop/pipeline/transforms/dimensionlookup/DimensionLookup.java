@@ -32,6 +32,8 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashMap;
+import org.apache.hop.core.logging.Metrics;
+import org.apache.hop.core.metrics.MetricsSnapshotType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
@@ -65,6 +67,11 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
   private static Class<?> PKG = DimensionLookupMeta.class; // for i18n purposes, needed by Translator!!
 
+  public static final Metrics METRIC_DIMENSION_LOOKUP_PRELOAD_ROWS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DIMENSION_LOOKUP_PRELOAD_ROWS", "Dimension lookup: rows pre-loaded in the cache" );
+  public static final Metrics METRIC_DIMENSION_LOOKUP_PRELOAD_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DIMENSION_LOOKUP_PRELOAD_TIME", "Dimension lookup: time to pre-load the cache (ms)" );
+
   private static final int CREATION_METHOD_AUTOINC = 1;
   private static final int CREATION_METHOD_SEQUENCE = 2;
   private static final int CREATION_METHOD_TABLEMAX = 3;
@@ -282,7 +289,9 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       sql += " FROM " + data.schemaTable;
       logDetailed( "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR );
 
+      long startTime = System.currentTimeMillis();
       List<Object[]> rows = data.db.getRows( sql, -1 );
+      long readTime = System.currentTimeMillis() - startTime;
       IRowMeta rowMeta = data.db.getReturnRowMeta();
 
       data.preloadKeyIndexes = new int[ meta.getKeyLookup().length ];
@@ -295,10 +304,16 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       data.preloadCache =
         new DimensionCache( rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex );
       data.preloadCache.setRowCache( rows );
+      data.preloadCache.indexRows();
 
-      logDetailed( "Sorting the cache rows..." );
-      data.preloadCache.sortRows();
-      logDetailed( "Sorting of cached rows finished." );
+      long preloadTime = System.currentTimeMillis() - startTime;
+      log.snap( METRIC_DIMENSION_LOOKUP_PRELOAD_ROWS, data.schemaTable, rows.size() );
+      log.snap( METRIC_DIMENSION_LOOKUP_PRELOAD_TIME, data.schemaTable, preloadTime );
+      if ( log.isDetailed() ) {
+        long rowsPerSecond = preloadTime > 0 ? rows.size() * 1000L / preloadTime : rows.size();
+        logDetailed( BaseMessages.getString( PKG, "DimensionLookup.Log.CachePreloaded", rows.size(), readTime,
+          preloadTime - readTime, rowsPerSecond ) );
+      }
 
       // Also see what indexes to take to populate the lookup row...
       // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
@@ -24,12 +24,19 @@ package org.apache.hop.pipeline.transforms.dimensionlookup;
 
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.row.value.ValueMetaTimestamp;
 import org.apache.hop.core.util.Assert;
 import org.junit.Test;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
 
 public class DimensionCacheTest {
 
@@ -74,6 +81,82 @@ public class DimensionCacheTest {
     assertCompareDateInterval( dc, null, D4, D5, null, -1 ); // NPE
   }
 
+  @Test
+  public void testLookupVersions() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "CODE" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+
+    long t0 = 1425300000000L;
+    final Date D1 = new Timestamp( t0 );
+    final Date D2 = new Timestamp( t0 + 3600000L );
+    final Date D3 = new Timestamp( t0 + 3600000L * 2 );
+    final Date D4 = new Timestamp( t0 + 3600000L * 3 );
+
+    // The versions of A arrive out of order, B has a gap between D2 and D3
+    //
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { 2L, "A", D2, D3 } );
+    rows.add( new Object[] { 1L, "A", null, D2 } );
+    rows.add( new Object[] { 4L, "B", D1, D2 } );
+    rows.add( new Object[] { 3L, "A", D3, null } );
+    rows.add( new Object[] { 5L, "B", D3, D4 } );
+
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 2, 3 );
+    dc.setRowCache( rows );
+    dc.indexRows();
+
+    assertEquals( 1L, lookupTechnicalKey( dc, "A", D1 ) );
+    assertEquals( 2L, lookupTechnicalKey( dc, "A", D2 ) );
+    assertEquals( 3L, lookupTechnicalKey( dc, "A", D3 ) );
+    assertEquals( 3L, lookupTechnicalKey( dc, "A", new Timestamp( t0 + 3600000L * 100 ) ) );
+    assertEquals( 4L, lookupTechnicalKey( dc, "B", D1 ) );
+    assertEquals( -1L, lookupTechnicalKey( dc, "B", new Timestamp( t0 - 1L ) ) );
+    assertEquals( -1L, lookupTechnicalKey( dc, "B", new Timestamp( t0 + 3600000L + 1L ) ) );
+    assertEquals( 5L, lookupTechnicalKey( dc, "B", D3 ) );
+    assertEquals( -1L, lookupTechnicalKey( dc, "B", D4 ) );
+    assertEquals( -1L, lookupTechnicalKey( dc, "C", D1 ) );
+
+    // Rows added later are found right away
+    //
+    dc.addRow( new Object[] { 6L, "C", D1, null } );
+    dc.addRow( new Object[] { 7L, "B", D4, null } );
+    assertEquals( 6L, lookupTechnicalKey( dc, "C", D1 ) );
+    assertEquals( 7L, lookupTechnicalKey( dc, "B", D4 ) );
+    assertEquals( 5L, lookupTechnicalKey( dc, "B", D3 ) );
+  }
+
+  @Test
+  public void testCaseInsensitiveKeysIgnoreTheDefaultLocale() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    ValueMetaString code = new ValueMetaString( "CODE" );
+    code.setCaseInsensitive( true );
+    rowMeta.addValueMeta( code );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+
+    // In Turkish the lower case of I is a dotless i, compareToIgnoreCase doesn't care about the locale
+    Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault( new Locale( "tr", "TR" ) );
+    try {
+      DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 2, 3 );
+      dc.setRowCache( new ArrayList<>() );
+      dc.indexRows();
+      dc.addRow( new Object[] { 1L, "TITLE", null, null } );
+      assertEquals( 1L, lookupTechnicalKey( dc, "title", new Timestamp( 1425300000000L ) ) );
+    } finally {
+      Locale.setDefault( defaultLocale );
+    }
+  }
+
+  private static long lookupTechnicalKey( DimensionCache dc, String code, Date date ) throws Exception {
+    int index = dc.lookupRow( new Object[] { null, code, date, null } );
+    return index < 0 ? -1L : (Long) dc.getRow( index )[ 0 ];
+  }
+
   private static void assertCompareDateInterval( DimensionCache dc, Object from1, Object to1, Object from2, Object to2,
                                                  int expectedValue ) {
 
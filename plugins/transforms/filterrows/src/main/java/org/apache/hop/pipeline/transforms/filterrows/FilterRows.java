@@ -36,6 +36,7 @@ import org.apache.hop.pipeline.transform.ITransformMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.errorhandling.IStream;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -67,11 +68,10 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> im
   }
 
   public boolean processRow() throws HopException {
+    long previousLinesRead = getLinesRead();
 
-    boolean keep;
-
-    Object[] r = getRow(); // Get next usable row from input rowset(s)!
-    if ( r == null ) { // no more input to be expected...
+    List<Object[]> rows = getRows( ROWS_IN_BATCH ); // Get next usable rows from input rowset(s)!
+    if ( rows == null ) { // no more input to be expected...
 
       setOutputDone();
       return false;
@@ -112,30 +112,34 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> im
       }
     }
 
-    keep = keepRow( getInputRowMeta(), r ); // Keep this row?
-    if ( !data.chosesTargetTransforms ) {
-      if ( keep ) {
-        putRow( data.outputRowMeta, r ); // copy row to output rowset(s);
-      }
-    } else {
-      if ( keep ) {
-        if ( data.trueRowSet != null ) {
-          if ( log.isRowLevel() ) {
-            logRowlevel( "Sending row to true  :" + data.trueTransformName + " : " + getInputRowMeta().getString( r ) );
-          }
-          putRowTo( data.outputRowMeta, r, data.trueRowSet );
+    List<Object[]> keptRows = new ArrayList<>( rows.size() );
+    for ( Object[] r : rows ) {
+      boolean keep = keepRow( getInputRowMeta(), r ); // Keep this row?
+      if ( !data.chosesTargetTransforms ) {
+        if ( keep ) {
+          keptRows.add( r );
         }
       } else {
-        if ( data.falseRowSet != null ) {
-          if ( log.isRowLevel() ) {
-            logRowlevel( "Sending row to false :" + data.falseTransformName + " : " + getInputRowMeta().getString( r ) );
+        if ( keep ) {
+          if ( data.trueRowSet != null ) {
+            if ( log.isRowLevel() ) {
+              logRowlevel( "Sending row to true  :" + data.trueTransformName + " : " + getInputRowMeta().getString( r ) );
+            }
+            putRowTo( data.outputRowMeta, r, data.trueRowSet );
+          }
+        } else {
+          if ( data.falseRowSet != null ) {
+            if ( log.isRowLevel() ) {
+              logRowlevel( "Sending row to false :" + data.falseTransformName + " : " + getInputRowMeta().getString( r ) );
+            }
+            putRowTo( data.outputRowMeta, r, data.falseRowSet );
           }
-          putRowTo( data.outputRowMeta, r, data.falseRowSet );
         }
       }
     }
+    putRows( data.outputRowMeta, keptRows ); // copy kept rows to output rowset(s);
 
-    if ( checkFeedback( getLinesRead() ) ) {
+    if ( checkFeedback( previousLinesRead, getLinesRead() ) ) {
       if ( log.isBasic() ) {
         logBasic( BaseMessages.getString( PKG, "FilterRows.Log.LineNumber" ) + getLinesRead() );
       }
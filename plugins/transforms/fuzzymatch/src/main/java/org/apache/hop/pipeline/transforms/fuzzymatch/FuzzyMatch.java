@@ -25,10 +25,6 @@ package org.apache.hop.pipeline.transforms.fuzzymatch;
 import com.wcohen.ss.Jaro;
 import com.wcohen.ss.JaroWinkler;
 import com.wcohen.ss.NeedlemanWunsch;
-import org.apache.commons.codec.language.DoubleMetaphone;
-import org.apache.commons.codec.language.Metaphone;
-import org.apache.commons.codec.language.RefinedSoundex;
-import org.apache.commons.codec.language.Soundex;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
@@ -49,7 +45,12 @@ import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transform.ITransformMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Performs a fuzzy match for each main stream field row An approximative match is done in a lookup stream
@@ -238,13 +239,19 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
     // Reserve room
     Object[] rowData = buildEmptyRow();
 
-    Iterator<Object[]> it = data.look.iterator();
-
     long distance = -1;
 
     // Object o=row[data.indexOfMainField];
     String lookupvalue = getInputRowMeta().getString( row, data.indexOfMainField );
 
+    // Only the cached values within the maximal distance
+    Iterator<Object[]> it;
+    if ( data.index == null ) {
+      it = data.look.iterator();
+    } else {
+      it = data.index.getDistanceCandidates( lookupvalue, data.maximalDistance ).iterator();
+    }
+
     while ( it.hasNext() ) {
       // Get cached row data
       Object[] cachedData = it.next();
@@ -310,13 +317,19 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
     // Reserve room
     Object[] rowData = buildEmptyRow();
 
-    Iterator<Object[]> it = data.look.iterator();
-
     Object o = row[ data.indexOfMainField ];
     String lookupvalue = (String) o;
 
     String lookupValueMF = getEncodedMF( lookupvalue, meta.getAlgorithmType() );
 
+    // Only the cached values with the same code
+    Iterator<Object[]> it;
+    if ( data.index == null ) {
+      it = data.look.iterator();
+    } else {
+      it = data.index.getPhoneticCandidates( lookupValueMF ).iterator();
+    }
+
     while ( it.hasNext() ) {
       // Get cached row data
       Object[] cachedData = it.next();
@@ -350,32 +363,13 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
   }
 
   private String getEncodedMF( String value, Integer algorithmType ) {
-    String encodedValueMF = "";
-    switch ( algorithmType ) {
-      case FuzzyMatchMeta.OPERATION_TYPE_METAPHONE:
-        encodedValueMF = ( new Metaphone() ).metaphone( value );
-        break;
-      case FuzzyMatchMeta.OPERATION_TYPE_DOUBLE_METAPHONE:
-        encodedValueMF = ( ( new DoubleMetaphone() ).doubleMetaphone( value ) );
-        break;
-      case FuzzyMatchMeta.OPERATION_TYPE_SOUNDEX:
-        encodedValueMF = ( new Soundex() ).encode( value );
-        break;
-      case FuzzyMatchMeta.OPERATION_TYPE_REFINED_SOUNDEX:
-        encodedValueMF = ( new RefinedSoundex() ).encode( value );
-        break;
-      default:
-        break;
-    }
-    return encodedValueMF;
+    return FuzzyMatchIndex.getEncodedMF( value, algorithmType );
   }
 
   private Object[] doSimilarity( Object[] row ) {
 
     // Reserve room
     Object[] rowData = buildEmptyRow();
-    // prepare to read from cache ...
-    Iterator<Object[]> it = data.look.iterator();
     double similarity = 0;
 
     // get current value from main stream
@@ -383,6 +377,14 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
 
     String lookupvalue = o == null ? "" : (String) o;
 
+    // prepare to read from cache ...
+    Iterator<Object[]> it;
+    if ( data.index == null ) {
+      it = data.look.iterator();
+    } else {
+      it = data.index.getSimilarityCandidates( lookupvalue, data.minimalSimilarity ).iterator();
+    }
+
     while ( it.hasNext() ) {
       // Get cached row data
       Object[] cachedData = it.next();
@@ -466,6 +468,18 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
       if ( isDetailed() ) {
         logDetailed( BaseMessages.getString( PKG, "FuzzyMatch.Log.ReadValuesInMemory", data.look.size() ) );
       }
+
+      // Index the lookup values
+      data.index = buildIndex();
+      if ( data.index == null ) {
+        // Stopped while waiting for the other copies
+        setOutputDone();
+        return false;
+      }
+      data.look.clear();
+      if ( isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "FuzzyMatch.Log.IndexedValues", data.index.size() ) );
+      }
     }
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
@@ -609,9 +623,82 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
     return false;
   }
 
+  /**
+   * Build the index over the cached lookup values. When the transform runs in several copies a single index is built
+   * and shared: if the lookup transform distributes its rows every copy adds its part, if it copies the rows only the
+   * first copy adds them.
+   *
+   * @return the index or null if the transform was stopped while waiting for the other copies
+   */
+  private FuzzyMatchIndex buildIndex() throws HopException {
+    int nrCopies = getTransformMeta().getCopies();
+    if ( nrCopies <= 1 ) {
+      return new FuzzyMatchIndex( data.look, meta.getAlgorithmType(), meta.isCaseSensitive() );
+    }
+
+    Map<String, Object> dataMap = getPipeline().getExtensionDataMap();
+    String key = FuzzyMatch.class.getName() + ":" + getTransformName();
+    SharedIndex sharedIndex;
+    synchronized ( dataMap ) {
+      sharedIndex = (SharedIndex) dataMap.get( key );
+      if ( sharedIndex == null ) {
+        sharedIndex = new SharedIndex( nrCopies );
+        dataMap.put( key, sharedIndex );
+      }
+      sharedIndex.nrUsers++;
+    }
+    data.sharedIndexKey = key;
+
+    boolean contribute = getCopy() == 0 || data.infoStream.getTransformMeta().isDistributes();
+    try {
+      return sharedIndex.addRows( this, contribute ? data.look : Collections.<Object[]>emptyList() );
+    } catch ( InterruptedException e ) {
+      throw new HopException( e );
+    }
+  }
+
   public void dispose(){
     data.look.clear();
+    data.index = null;
+    if ( data.sharedIndexKey != null ) {
+      Map<String, Object> dataMap = getPipeline().getExtensionDataMap();
+      synchronized ( dataMap ) {
+        SharedIndex sharedIndex = (SharedIndex) dataMap.get( data.sharedIndexKey );
+        if ( sharedIndex != null && --sharedIndex.nrUsers <= 0 ) {
+          dataMap.remove( data.sharedIndexKey );
+        }
+      }
+      data.sharedIndexKey = null;
+    }
     super.dispose();
   }
 
+  /**
+   * The index shared between the copies of this transform: the last copy to add its rows builds it.
+   */
+  private static class SharedIndex {
+    private final List<Object[]> rows = new ArrayList<>();
+    private int nrPending;
+    private int nrUsers;
+    private FuzzyMatchIndex index;
+
+    private SharedIndex( int nrCopies ) {
+      this.nrPending = nrCopies;
+    }
+
+    private synchronized FuzzyMatchIndex addRows( FuzzyMatch copy, Collection<Object[]> copyRows )
+      throws InterruptedException {
+      rows.addAll( copyRows );
+      if ( --nrPending == 0 ) {
+        index = new FuzzyMatchIndex( rows, copy.meta.getAlgorithmType(), copy.meta.isCaseSensitive() );
+        rows.clear();
+        notifyAll();
+      }
+      while ( index == null && !copy.isStopped() ) {
+        wait( 500 );
+      }
+      return index;
+    }
+  }
+
 }
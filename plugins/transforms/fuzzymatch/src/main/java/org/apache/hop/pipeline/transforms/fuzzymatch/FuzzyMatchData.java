@@ -42,6 +42,16 @@ public class FuzzyMatchData extends BaseTransformData implements ITransformData
    */
   public HashSet<Object[]> look;
 
+  /**
+   * read-only index over the cached lookup values, possibly shared with the other copies
+   */
+  public FuzzyMatchIndex index;
+
+  /**
+   * key of the index in the pipeline extension data map when shared between copies
+   */
+  public String sharedIndexKey;
+
   public boolean readLookupValues;
 
   /**
@@ -0,0 +1,373 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.apache.commons.codec.language.Metaphone;
+import org.apache.commons.codec.language.RefinedSoundex;
+import org.apache.commons.codec.language.Soundex;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only index over the rows cached from the lookup stream.<br>
+ * Instead of scoring every cached value for every main stream row, the index hands out the candidates that can possibly
+ * match:
+ * <ul>
+ * <li>Levenshtein and Damerau-Levenshtein: a BK-tree searched within the maximal distance</li>
+ * <li>Jaro, Jaro-Winkler and pair letters similarity: inverted q-gram lists, only used with a minimal similarity</li>
+ * <li>Phonetic algorithms: hash buckets on the encoded value</li>
+ * </ul>
+ * Candidates are always returned in the order the rows were added so the results are the same as a full scan. Once
+ * built the index is never modified and can be queried by several transform copies at the same time.
+ */
+public class FuzzyMatchIndex {
+
+  private final int algorithmType;
+  private final boolean caseSensitive;
+  private final Object[][] rows;
+
+  /**
+   * BK-tree for the edit distance algorithms
+   */
+  private BkNode root;
+
+  /**
+   * Row numbers by phonetic code or by q-gram
+   */
+  private Map<String, int[]> buckets;
+
+  public FuzzyMatchIndex( Collection<Object[]> lookupRows, int algorithmType, boolean caseSensitive ) {
+    this.algorithmType = algorithmType;
+    this.caseSensitive = caseSensitive;
+    this.rows = lookupRows.toArray( new Object[ lookupRows.size() ][] );
+
+    switch ( algorithmType ) {
+      case FuzzyMatchMeta.OPERATION_TYPE_LEVENSHTEIN:
+      case FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN:
+        buildTree();
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_DOUBLE_METAPHONE:
+      case FuzzyMatchMeta.OPERATION_TYPE_METAPHONE:
+      case FuzzyMatchMeta.OPERATION_TYPE_SOUNDEX:
+      case FuzzyMatchMeta.OPERATION_TYPE_REFINED_SOUNDEX:
+        buildPhoneticBuckets();
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_JARO:
+      case FuzzyMatchMeta.OPERATION_TYPE_JARO_WINKLER:
+      case FuzzyMatchMeta.OPERATION_TYPE_PAIR_SIMILARITY:
+        buildGramBuckets();
+        break;
+      default:
+        // Needleman-Wunsch is not a metric: nothing to index, every row is a candidate
+        break;
+    }
+  }
+
+  /**
+   * @return the number of cached rows in the index
+   */
+  public int size() {
+    return rows.length;
+  }
+
+  /**
+   * @return all the cached rows
+   */
+  public List<Object[]> getRows() {
+    return Collections.unmodifiableList( Arrays.asList( rows ) );
+  }
+
+  /**
+   * Get the rows that can be within the maximal edit distance of the given value.
+   *
+   * @param value           the main stream value
+   * @param maximalDistance the maximal distance
+   * @return the candidate rows in cache order
+   */
+  public List<Object[]> getDistanceCandidates( String value, int maximalDistance ) {
+    if ( root == null ) {
+      return getRows();
+    }
+    if ( maximalDistance < 0 ) {
+      return Collections.emptyList();
+    }
+
+    // One transposition costs 2 Levenshtein operations so the Levenshtein tree also bounds Damerau-Levenshtein
+    //
+    int radius = maximalDistance;
+    if ( algorithmType == FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN ) {
+      radius = maximalDistance > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : maximalDistance * 2;
+    }
+
+    String key = normalize( value );
+    BitSet found = new BitSet( rows.length );
+    Deque<BkNode> stack = new ArrayDeque<>();
+    stack.push( root );
+    while ( !stack.isEmpty() ) {
+      BkNode node = stack.pop();
+      int distance = StringUtils.getLevenshteinDistance( node.key, key );
+      if ( distance <= radius ) {
+        for ( int i = 0; i < node.size; i++ ) {
+          found.set( node.rowNrs[ i ] );
+        }
+      }
+      if ( node.children != null ) {
+        // Triangle inequality: only children at [distance - radius, distance + radius] can hold matches
+        //
+        int from = Math.max( 1, distance - radius );
+        long to = (long) distance + radius;
+        if ( to - from < node.children.size() ) {
+          for ( int d = from; d <= to; d++ ) {
+            BkNode child = node.children.get( d );
+            if ( child != null ) {
+              stack.push( child );
+            }
+          }
+        } else {
+          for ( Map.Entry<Integer, BkNode> entry : node.children.entrySet() ) {
+            if ( entry.getKey() >= from && entry.getKey() <= to ) {
+              stack.push( entry.getValue() );
+            }
+          }
+        }
+      }
+    }
+    return toRows( found );
+  }
+
+  /**
+   * Get the rows with the same phonetic code.
+   *
+   * @param encodedValue the encoded main stream value
+   * @return the candidate rows in cache order
+   */
+  public List<Object[]> getPhoneticCandidates( String encodedValue ) {
+    if ( buckets == null ) {
+      return getRows();
+    }
+    return toRows( buckets.get( encodedValue ) );
+  }
+
+  /**
+   * Get the rows that can reach the minimal similarity with the given value. Values without a q-gram in common with
+   * the main stream value have a similarity of 0 and are skipped.
+   *
+   * @param value             the main stream value
+   * @param minimalSimilarity the minimal similarity
+   * @return the candidate rows in cache order
+   */
+  public List<Object[]> getSimilarityCandidates( String value, double minimalSimilarity ) {
+    if ( buckets == null || !( minimalSimilarity > 0 ) ) {
+      return getRows();
+    }
+    Set<String> grams = getGrams( value );
+    if ( grams.isEmpty() ) {
+      // Empty or single letter values can match without sharing a pair
+      return getRows();
+    }
+    BitSet found = new BitSet( rows.length );
+    for ( String gram : grams ) {
+      int[] rowNrs = buckets.get( gram );
+      if ( rowNrs != null ) {
+        for ( int rowNr : rowNrs ) {
+          found.set( rowNr );
+        }
+      }
+    }
+    return toRows( found );
+  }
+
+  /**
+   * Encode a value with one of the phonetic algorithms.
+   *
+   * @param value         the value to encode
+   * @param algorithmType the phonetic algorithm
+   * @return the encoded value
+   */
+  static String getEncodedMF( String value, int algorithmType ) {
+    String encodedValueMF = "";
+    switch ( algorithmType ) {
+      case FuzzyMatchMeta.OPERATION_TYPE_METAPHONE:
+        encodedValueMF = ( new Metaphone() ).metaphone( value );
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_DOUBLE_METAPHONE:
+        encodedValueMF = ( ( new DoubleMetaphone() ).doubleMetaphone( value ) );
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_SOUNDEX:
+        encodedValueMF = ( new Soundex() ).encode( value );
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_REFINED_SOUNDEX:
+        encodedValueMF = ( new RefinedSoundex() ).encode( value );
+        break;
+      default:
+        break;
+    }
+    return encodedValueMF;
+  }
+
+  private void buildTree() {
+    for ( int rowNr = 0; rowNr < rows.length; rowNr++ ) {
+      String key = normalize( (String) rows[ rowNr ][ 0 ] );
+      if ( root == null ) {
+        root = new BkNode( key, rowNr );
+        continue;
+      }
+      BkNode node = root;
+      while ( true ) {
+        int distance = StringUtils.getLevenshteinDistance( node.key, key );
+        if ( distance == 0 ) {
+          node.addRowNr( rowNr );
+          break;
+        }
+        if ( node.children == null ) {
+          node.children = new HashMap<>();
+        }
+        BkNode child = node.children.get( distance );
+        if ( child == null ) {
+          node.children.put( distance, new BkNode( key, rowNr ) );
+          break;
+        }
+        node = child;
+      }
+    }
+  }
+
+  private void buildPhoneticBuckets() {
+    Map<String, List<Integer>> map = new HashMap<>();
+    for ( int rowNr = 0; rowNr < rows.length; rowNr++ ) {
+      String code = getEncodedMF( (String) rows[ rowNr ][ 0 ], algorithmType );
+      map.computeIfAbsent( code, k -> new ArrayList<>() ).add( rowNr );
+    }
+    buckets = toBuckets( map );
+  }
+
+  private void buildGramBuckets() {
+    Map<String, List<Integer>> map = new HashMap<>();
+    for ( int rowNr = 0; rowNr < rows.length; rowNr++ ) {
+      for ( String gram : getGrams( (String) rows[ rowNr ][ 0 ] ) ) {
+        map.computeIfAbsent( gram, k -> new ArrayList<>() ).add( rowNr );
+      }
+    }
+    buckets = toBuckets( map );
+  }
+
+  /**
+   * Pair letters similarity compares the upper case letter pairs of each word. Jaro and Jaro-Winkler only score values
+   * with common characters so single letters, folded to one case, are used.
+   */
+  private Set<String> getGrams( String value ) {
+    Set<String> grams = new HashSet<>();
+    if ( value == null ) {
+      return grams;
+    }
+    if ( algorithmType == FuzzyMatchMeta.OPERATION_TYPE_PAIR_SIMILARITY ) {
+      grams.addAll( LetterPairSimilarity.wordLetterPairs( value.toUpperCase() ) );
+    } else {
+      for ( int i = 0; i < value.length(); i++ ) {
+        grams.add( String.valueOf( Character.toLowerCase( Character.toUpperCase( value.charAt( i ) ) ) ) );
+      }
+    }
+    return grams;
+  }
+
+  private String normalize( String value ) {
+    if ( value == null ) {
+      return "";
+    }
+    return caseSensitive ? value : value.toLowerCase();
+  }
+
+  private static Map<String, int[]> toBuckets( Map<String, List<Integer>> map ) {
+    Map<String, int[]> result = new HashMap<>( map.size() * 4 / 3 + 1 );
+    for ( Map.Entry<String, List<Integer>> entry : map.entrySet() ) {
+      List<Integer> list = entry.getValue();
+      int[] rowNrs = new int[ list.size() ];
+      for ( int i = 0; i < rowNrs.length; i++ ) {
+        rowNrs[ i ] = list.get( i );
+      }
+      result.put( entry.getKey(), rowNrs );
+    }
+    return result;
+  }
+
+  private List<Object[]> toRows( BitSet rowNrs ) {
+    List<Object[]> result = new ArrayList<>( rowNrs.cardinality() );
+    for ( int rowNr = rowNrs.nextSetBit( 0 ); rowNr >= 0; rowNr = rowNrs.nextSetBit( rowNr + 1 ) ) {
+      result.add( rows[ rowNr ] );
+    }
+    return result;
+  }
+
+  private List<Object[]> toRows( final int[] rowNrs ) {
+    if ( rowNrs == null ) {
+      return Collections.emptyList();
+    }
+    return new AbstractList<Object[]>() {
+      @Override public Object[] get( int index ) {
+        return rows[ rowNrs[ index ] ];
+      }
+
+      @Override public int size() {
+        return rowNrs.length;
+      }
+    };
+  }
+
+  /**
+   * A BK-tree node: all rows with the same (normalized) key share a node, children are keyed on their distance.
+   */
+  private static class BkNode {
+    private final String key;
+    private int[] rowNrs;
+    private int size;
+    private Map<Integer, BkNode> children;
+
+    private BkNode( String key, int rowNr ) {
+      this.key = key;
+      this.rowNrs = new int[] { rowNr };
+      this.size = 1;
+    }
+
+    private void addRowNr( int rowNr ) {
+      if ( size == rowNrs.length ) {
+        rowNrs = Arrays.copyOf( rowNrs, size * 2 );
+      }
+      rowNrs[ size++ ] = rowNr;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.util.Utils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuzzyMatchIndexTest {
+
+  private static final String[] NAMES = { "Catrine", "Catriny", "Katrine", "John", "Jon", "Johan", "joHN", "Joan",
+    "Mary", "Marie", "Maria", "", "Smith", "Smyth", "Schmidt", "Catherine Smith", "a", "ab", "ba" };
+
+  private List<Object[]> buildRows( String... values ) {
+    List<Object[]> rows = new ArrayList<>();
+    for ( String value : values ) {
+      rows.add( new Object[] { value, value.length() } );
+    }
+    return rows;
+  }
+
+  private List<Object[]> randomRows( int nrRows ) {
+    Random random = new Random( 42 );
+    List<Object[]> rows = buildRows( NAMES );
+    for ( int i = 0; i < nrRows; i++ ) {
+      StringBuilder value = new StringBuilder();
+      int length = random.nextInt( 8 );
+      for ( int j = 0; j < length; j++ ) {
+        value.append( "abcdeAB ".charAt( random.nextInt( 8 ) ) );
+      }
+      rows.add( new Object[] { value.toString(), i } );
+    }
+    return rows;
+  }
+
+  @Test
+  public void testLevenshteinCandidates() {
+    List<Object[]> rows = randomRows( 2000 );
+    for ( boolean caseSensitive : new boolean[] { true, false } ) {
+      FuzzyMatchIndex index = new FuzzyMatchIndex( rows, FuzzyMatchMeta.OPERATION_TYPE_LEVENSHTEIN, caseSensitive );
+      for ( int maximalDistance = 0; maximalDistance < 4; maximalDistance++ ) {
+        for ( Object[] query : rows.subList( 0, 50 ) ) {
+          String value = caseSensitive ? (String) query[ 0 ] : ( (String) query[ 0 ] ).toLowerCase();
+          List<Object[]> expected = new ArrayList<>();
+          for ( Object[] row : rows ) {
+            String key = caseSensitive ? (String) row[ 0 ] : ( (String) row[ 0 ] ).toLowerCase();
+            if ( StringUtils.getLevenshteinDistance( key, value ) <= maximalDistance ) {
+              expected.add( row );
+            }
+          }
+          assertEquals( expected, index.getDistanceCandidates( (String) query[ 0 ], maximalDistance ) );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDamerauLevenshteinCandidates() {
+    List<Object[]> rows = randomRows( 2000 );
+    FuzzyMatchIndex index = new FuzzyMatchIndex( rows, FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN, true );
+    for ( Object[] query : rows.subList( 0, 50 ) ) {
+      List<Object[]> candidates = index.getDistanceCandidates( (String) query[ 0 ], 1 );
+      for ( Object[] row : rows ) {
+        if ( Utils.getDamerauLevenshteinDistance( (String) row[ 0 ], (String) query[ 0 ] ) <= 1 ) {
+          assertTrue( candidates.contains( row ) );
+        }
+      }
+    }
+    assertTrue( index.getDistanceCandidates( "ab", 1 ).contains( rows.get( 18 ) ) );
+  }
+
+  @Test
+  public void testPhoneticCandidates() {
+    List<Object[]> rows = buildRows( NAMES );
+    FuzzyMatchIndex index = new FuzzyMatchIndex( rows, FuzzyMatchMeta.OPERATION_TYPE_SOUNDEX, false );
+    List<Object[]> candidates = index.getPhoneticCandidates( FuzzyMatchIndex.getEncodedMF( "Smith", FuzzyMatchMeta.OPERATION_TYPE_SOUNDEX ) );
+    assertEquals( 3, candidates.size() );
+    assertEquals( "Smith", candidates.get( 0 )[ 0 ] );
+    assertEquals( "Smyth", candidates.get( 1 )[ 0 ] );
+    assertEquals( "Schmidt", candidates.get( 2 )[ 0 ] );
+    assertTrue( index.getPhoneticCandidates( "Z000" ).isEmpty() );
+  }
+
+  @Test
+  public void testPairSimilarityCandidates() {
+    List<Object[]> rows = randomRows( 2000 );
+    FuzzyMatchIndex index = new FuzzyMatchIndex( rows, FuzzyMatchMeta.OPERATION_TYPE_PAIR_SIMILARITY, false );
+    for ( Object[] query : rows.subList( 0, 50 ) ) {
+      List<Object[]> candidates = index.getSimilarityCandidates( (String) query[ 0 ], 0.1 );
+      for ( Object[] row : rows ) {
+        double similarity = LetterPairSimilarity.getSimiliarity( (String) row[ 0 ], (String) query[ 0 ] );
+        if ( similarity >= 0.1 ) {
+          assertTrue( candidates.contains( row ) );
+        }
+      }
+    }
+    // No minimal similarity: every value is a candidate
+    assertEquals( rows, index.getSimilarityCandidates( "John", 0 ) );
+  }
+
+  @Test
+  public void testJaroCandidates() {
+    List<Object[]> rows = buildRows( NAMES );
+    FuzzyMatchIndex index = new FuzzyMatchIndex( rows, FuzzyMatchMeta.OPERATION_TYPE_JARO_WINKLER, false );
+    List<Object[]> candidates = index.getSimilarityCandidates( "xyz", 0.5 );
+    assertEquals( 3, candidates.size() );
+    for ( Object[] candidate : candidates ) {
+      assertTrue( ( (String) candidate[ 0 ] ).toLowerCase().contains( "y" ) );
+    }
+  }
+
+  @Test
+  public void testNeedlemanWunschScansAllRows() {
+    List<Object[]> rows = buildRows( NAMES );
+    FuzzyMatchIndex index = new FuzzyMatchIndex( rows, FuzzyMatchMeta.OPERATION_TYPE_NEEDLEMAN_WUNSH, false );
+    assertEquals( rows, index.getDistanceCandidates( "John", 1 ) );
+    assertEquals( NAMES.length, index.size() );
+  }
+}
@@ -60,6 +60,11 @@ import java.net.URI;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Retrieves data from an Http endpoint
@@ -76,6 +81,11 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
   }
 
   private Object[] execHttp( IRowMeta rowMeta, Object[] row ) throws HopException {
+    findArgumentFields( rowMeta );
+    return callHttpService( rowMeta, row );
+  }
+
+  private void findArgumentFields( IRowMeta rowMeta ) throws HopException {
     if ( first ) {
       first = false;
       data.argnrs = new int[ meta.getArgumentField().length ];
@@ -89,12 +99,15 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
         }
       }
     }
-
-    return callHttpService( rowMeta, row );
   }
 
   @VisibleForTesting
   Object[] callHttpService( IRowMeta rowMeta, Object[] rowData ) throws HopException {
+    CloseableHttpClient httpClient = data.httpClient != null ? data.httpClient : createHttpClient();
+    return executeRequest( httpClient, createRequest( rowMeta, rowData ), rowMeta, rowData );
+  }
+
+  private CloseableHttpClient createHttpClient() {
     HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
 
     if ( data.realConnectionTimeout > -1 ) {
@@ -110,15 +123,17 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
       clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return clientBuilder.build();
+  }
 
-    // Prepare Http get
-    URI uri = null;
+  /**
+   * Prepare the Http get for a row. This reads the row so it needs to happen on the transform thread.
+   */
+  private HttpGet createRequest( IRowMeta rowMeta, Object[] rowData ) throws HopException {
     try {
       URIBuilder uriBuilder = constructUrlBuilder( rowMeta, rowData );
 
-      uri = uriBuilder.build();
-      HttpGet method = new HttpGet( uri );
+      HttpGet method = new HttpGet( uriBuilder.build() );
 
       // Add Custom Http headers
       if ( data.useHeaderParameters ) {
@@ -132,7 +147,19 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
           }
         }
       }
+      return method;
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "HTTP.Log.UnableGetResult", data.realUrl ), e );
+    }
+  }
 
+  /**
+   * Execute the Http get and add the results to a copy of the row. This doesn't touch the row metadata so it can run
+   * on another thread.
+   */
+  private Object[] executeRequest( CloseableHttpClient httpClient, HttpGet method, IRowMeta rowMeta, Object[] rowData ) throws HopException {
+    URI uri = method.getURI();
+    try {
       Object[] newRow = null;
       if ( rowData != null ) {
         newRow = rowData.clone();
@@ -287,6 +314,12 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.executor != null ) {
+        // Wait for the requests still in flight
+        if ( !putFinishedCalls( 0 ) ) {
+          return false;
+        }
+      }
       setOutputDone();
       return false;
     }
@@ -345,6 +378,10 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
 
     } // end if first
 
+    if ( data.executor != null ) {
+      return processRowAsynchronous( r );
+    }
+
     try {
       Object[] outputRowData = execHttp( getInputRowMeta(), r ); // add new values to the row
       putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
@@ -355,25 +392,101 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
         }
       }
     } catch ( HopException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleRowError( r, e );
+    }
+
+    return true;
+  }
+
+  /**
+   * Send the request of a row to the executor and pass on the rows of the requests which are finished. When the maximum
+   * number of requests is in flight this waits for the oldest one (preserving order) or the first one to finish.
+   */
+  private boolean processRowAsynchronous( Object[] r ) throws HopException {
+    HttpCall call;
+    try {
+      findArgumentFields( getInputRowMeta() );
+      call = new HttpCall( r, createRequest( getInputRowMeta(), r ) );
+    } catch ( HopException e ) {
+      return handleRowError( r, e );
+    }
 
-      if ( getTransformMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
+    if ( meta.isPreserveOrder() ) {
+      data.pendingCalls.add( data.executor.submit( call ) );
+    } else {
+      data.completionService.submit( call );
+      data.nrPendingCalls++;
+    }
+
+    return putFinishedCalls( data.maxConcurrentRequests - 1 );
+  }
+
+  /**
+   * Pass on the rows of the finished requests and wait until no more than the given number of requests is in flight.
+   *
+   * @param maxPending the number of requests which can stay in flight
+   * @return false if the transform stopped because of an error
+   */
+  private boolean putFinishedCalls( int maxPending ) throws HopException {
+    try {
+      if ( meta.isPreserveOrder() ) {
+        while ( !data.pendingCalls.isEmpty()
+          && ( data.pendingCalls.size() > maxPending || data.pendingCalls.peek().isDone() ) ) {
+          if ( !putCall( data.pendingCalls.poll().get() ) ) {
+            return false;
+          }
+        }
       } else {
-        logError( BaseMessages.getString( PKG, "HTTP.ErrorInTransformRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+        while ( data.nrPendingCalls > 0 ) {
+          Future<HttpCall> future = data.nrPendingCalls > maxPending ? data.completionService.take() : data.completionService.poll();
+          if ( future == null ) {
+            break;
+          }
+          data.nrPendingCalls--;
+          if ( !putCall( future.get() ) ) {
+            return false;
+          }
+        }
       }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTP001" );
+    } catch ( InterruptedException | ExecutionException e ) {
+      throw new HopException( BaseMessages.getString( PKG, "HTTP.Exception.AsynchronousRequestFailed" ), e );
+    }
+    return true;
+  }
+
+  private boolean putCall( HttpCall call ) throws HopException {
+    if ( call.error != null ) {
+      return handleRowError( call.row, call.error );
+    }
+
+    putRow( data.outputRowMeta, call.result ); // copy row to output rowset(s);
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      if ( isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "HTTP.LineNumber" ) + getLinesRead() );
       }
     }
+    return true;
+  }
 
+  private boolean handleRowError( Object[] r, HopException e ) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
+    if ( getTransformMeta().isDoingErrorHandling() ) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError( BaseMessages.getString( PKG, "HTTP.ErrorInTransformRunning" ) + e.getMessage() );
+      setErrors( 1 );
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if ( sendToErrorRow ) {
+      // Simply add this row to the error row
+      putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTP001" );
+    }
     return true;
   }
 
@@ -389,8 +502,61 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
       data.realSocketTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
       data.realConnectionTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
 
+      // One client for all rows, the connections are pooled and kept alive by the HttpClientManager
+      data.httpClient = createHttpClient();
+
+      if ( meta.isAsynchronous() ) {
+        data.maxConcurrentRequests = Math.max( 1, Const.toInt( environmentSubstitute( meta.getMaxConcurrentRequests() ),
+          HttpMeta.DEFAULT_MAX_CONCURRENT_REQUESTS ) );
+        data.executor = Executors.newFixedThreadPool( data.maxConcurrentRequests, runnable -> {
+          Thread thread = new Thread( runnable, getTransformName() + " Http request" );
+          thread.setDaemon( true );
+          return thread;
+        } );
+        if ( !meta.isPreserveOrder() ) {
+          data.completionService = new ExecutorCompletionService<>( data.executor );
+        }
+      }
+
       return true;
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if ( data.executor != null ) {
+      data.executor.shutdownNow();
+      data.executor = null;
+    }
+    data.pendingCalls.clear();
+    // The client shares the connection pool of the HttpClientManager so it isn't closed here
+
+    super.dispose();
+  }
+
+  /**
+   * The request for one row, executed on the threads of the executor in asynchronous mode
+   */
+  class HttpCall implements Callable<HttpCall> {
+    private final Object[] row;
+    private final HttpGet method;
+    private Object[] result;
+    private HopException error;
+
+    HttpCall( Object[] row, HttpGet method ) {
+      this.row = row;
+      this.method = method;
+    }
+
+    @Override
+    public HttpCall call() {
+      try {
+        result = executeRequest( data.httpClient, method, data.inputRowMeta, row );
+      } catch ( HopException e ) {
+        error = e;
+      }
+      return this;
+    }
+  }
 }
@@ -26,6 +26,13 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * @author Matt
@@ -49,6 +56,29 @@ public class HttpData extends BaseTransformData implements ITransformData {
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
 
+  /**
+   * The client used for all the requests of this transform copy
+   */
+  public CloseableHttpClient httpClient;
+
+  /**
+   * Asynchronous mode: runs the requests
+   */
+  public ExecutorService executor;
+
+  /**
+   * Asynchronous mode, out of order: hands out the calls as they finish
+   */
+  public CompletionService<Http.HttpCall> completionService;
+
+  /**
+   * Asynchronous mode, in order: the calls in flight in input order
+   */
+  public Deque<Future<Http.HttpCall>> pendingCalls;
+
+  public int nrPendingCalls;
+  public int maxConcurrentRequests;
+
   /**
    * Default constructor.
    */
@@ -59,5 +89,6 @@ public class HttpData extends BaseTransformData implements ITransformData {
     realProxyPort = 8080;
     realHttpLogin = null;
     realHttpPassword = null;
+    pendingCalls = new ArrayDeque<>();
   }
 }
@@ -132,6 +132,14 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
   private Label wlCloseIdleConnectionsTime;
   private TextVar wCloseIdleConnectionsTime;
 
+  private Button wAsynchronous;
+
+  private Label wlMaxConcurrentRequests;
+  private TextVar wMaxConcurrentRequests;
+
+  private Label wlPreserveOrder;
+  private Button wPreserveOrder;
+
   public HttpDialog( Shell parent, Object in, PipelineMeta pipelineMeta, String sname ) {
     super( parent, (BaseTransformMeta) in, pipelineMeta, sname );
     input = (HttpMeta) in;
@@ -382,6 +390,69 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     fdCloseIdleConnectionsTime.right = new FormAttachment( 100, 0 );
     wCloseIdleConnectionsTime.setLayoutData( fdCloseIdleConnectionsTime );
 
+    Label wlAsynchronous = new Label( gSettings, SWT.RIGHT );
+    wlAsynchronous.setText( BaseMessages.getString( PKG, "HTTPDialog.Asynchronous.Label" ) );
+    props.setLook( wlAsynchronous );
+    FormData fdlAsynchronous = new FormData();
+    fdlAsynchronous.top = new FormAttachment( wCloseIdleConnectionsTime, margin );
+    fdlAsynchronous.left = new FormAttachment( 0, 0 );
+    fdlAsynchronous.right = new FormAttachment( middle, -margin );
+    wlAsynchronous.setLayoutData( fdlAsynchronous );
+    wAsynchronous = new Button( gSettings, SWT.CHECK );
+    wAsynchronous.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.Asynchronous.Tooltip" ) );
+    props.setLook( wAsynchronous );
+    FormData fdAsynchronous = new FormData();
+    fdAsynchronous.top = new FormAttachment( wlAsynchronous, 0, SWT.CENTER );
+    fdAsynchronous.left = new FormAttachment( middle, 0 );
+    fdAsynchronous.right = new FormAttachment( 100, 0 );
+    wAsynchronous.setLayoutData( fdAsynchronous );
+    wAsynchronous.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        activeAsynchronous();
+      }
+    } );
+
+    wlMaxConcurrentRequests = new Label( gSettings, SWT.RIGHT );
+    wlMaxConcurrentRequests.setText( BaseMessages.getString( PKG, "HTTPDialog.MaxConcurrentRequests.Label" ) );
+    props.setLook( wlMaxConcurrentRequests );
+    FormData fdlMaxConcurrentRequests = new FormData();
+    fdlMaxConcurrentRequests.top = new FormAttachment( wAsynchronous, margin );
+    fdlMaxConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlMaxConcurrentRequests.right = new FormAttachment( middle, -margin );
+    wlMaxConcurrentRequests.setLayoutData( fdlMaxConcurrentRequests );
+    wMaxConcurrentRequests = new TextVar( pipelineMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxConcurrentRequests.addModifyListener( lsMod );
+    wMaxConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.MaxConcurrentRequests.Tooltip" ) );
+    props.setLook( wMaxConcurrentRequests );
+    FormData fdMaxConcurrentRequests = new FormData();
+    fdMaxConcurrentRequests.top = new FormAttachment( wAsynchronous, margin );
+    fdMaxConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdMaxConcurrentRequests.right = new FormAttachment( 100, 0 );
+    wMaxConcurrentRequests.setLayoutData( fdMaxConcurrentRequests );
+
+    wlPreserveOrder = new Label( gSettings, SWT.RIGHT );
+    wlPreserveOrder.setText( BaseMessages.getString( PKG, "HTTPDialog.PreserveOrder.Label" ) );
+    props.setLook( wlPreserveOrder );
+    FormData fdlPreserveOrder = new FormData();
+    fdlPreserveOrder.top = new FormAttachment( wMaxConcurrentRequests, margin );
+    fdlPreserveOrder.left = new FormAttachment( 0, 0 );
+    fdlPreserveOrder.right = new FormAttachment( middle, -margin );
+    wlPreserveOrder.setLayoutData( fdlPreserveOrder );
+    wPreserveOrder = new Button( gSettings, SWT.CHECK );
+    wPreserveOrder.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.PreserveOrder.Tooltip" ) );
+    props.setLook( wPreserveOrder );
+    FormData fdPreserveOrder = new FormData();
+    fdPreserveOrder.top = new FormAttachment( wlPreserveOrder, 0, SWT.CENTER );
+    fdPreserveOrder.left = new FormAttachment( middle, 0 );
+    fdPreserveOrder.right = new FormAttachment( 100, 0 );
+    wPreserveOrder.setLayoutData( fdPreserveOrder );
+    wPreserveOrder.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, 0 );
     fdSettings.right = new FormAttachment( 100, 0 );
@@ -815,6 +886,7 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     getData();
     wTabFolder.setSelection( 0 );
     activeUrlInfield();
+    activeAsynchronous();
     input.setChanged( changed );
 
     shell.open();
@@ -872,6 +944,13 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     wUrl.setEnabled( !wUrlInField.getSelection() );
   }
 
+  private void activeAsynchronous() {
+    wlMaxConcurrentRequests.setEnabled( wAsynchronous.getSelection() );
+    wMaxConcurrentRequests.setEnabled( wAsynchronous.getSelection() );
+    wlPreserveOrder.setEnabled( wAsynchronous.getSelection() );
+    wPreserveOrder.setEnabled( wAsynchronous.getSelection() );
+  }
+
   /**
    * Copy information from the meta-data input to the dialog fields.
    */
@@ -902,6 +981,9 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     wSocketTimeOut.setText( Const.NVL( input.getSocketTimeout(), "" ) );
     wConnectionTimeOut.setText( Const.NVL( input.getConnectionTimeout(), "" ) );
     wCloseIdleConnectionsTime.setText( Const.NVL( input.getCloseIdleConnectionsTime(), "" ) );
+    wAsynchronous.setSelection( input.isAsynchronous() );
+    wMaxConcurrentRequests.setText( Const.NVL( input.getMaxConcurrentRequests(), "" ) );
+    wPreserveOrder.setSelection( input.isPreserveOrder() );
 
     wUrl.setText( Const.NVL( input.getUrl(), "" ) );
     wUrlInField.setSelection( input.isUrlInField() );
@@ -991,6 +1073,9 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     input.setSocketTimeout( wSocketTimeOut.getText() );
     input.setConnectionTimeout( wConnectionTimeOut.getText() );
     input.setCloseIdleConnectionsTime( wCloseIdleConnectionsTime.getText() );
+    input.setAsynchronous( wAsynchronous.getSelection() );
+    input.setMaxConcurrentRequests( wMaxConcurrentRequests.getText() );
+    input.setPreserveOrder( wPreserveOrder.getSelection() );
 
     transformName = wTransformName.getText(); // return value
 
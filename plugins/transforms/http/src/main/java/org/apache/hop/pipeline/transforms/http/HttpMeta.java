@@ -72,6 +72,11 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
 
+  /**
+   * Default number of requests in flight in asynchronous mode
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 10;
+
   private String socketTimeout;
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
@@ -120,6 +125,21 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
   private String[] headerParameter;
   private String[] headerField;
 
+  /**
+   * Keep several requests in flight instead of waiting for every response
+   */
+  private boolean asynchronous;
+
+  /**
+   * The maximum number of requests in flight in asynchronous mode
+   */
+  private String maxConcurrentRequests;
+
+  /**
+   * In asynchronous mode, pass rows on in input order instead of as soon as their response arrives
+   */
+  private boolean preserveOrder;
+
   public HttpMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -312,6 +332,9 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
     socketTimeout = String.valueOf( DEFAULT_SOCKET_TIMEOUT );
     connectionTimeout = String.valueOf( DEFAULT_CONNECTION_TIMEOUT );
     closeIdleConnectionsTime = String.valueOf( DEFAULT_CLOSE_CONNECTIONS_TIME );
+    asynchronous = false;
+    maxConcurrentRequests = String.valueOf( DEFAULT_MAX_CONCURRENT_REQUESTS );
+    preserveOrder = true;
     int i;
     int nrargs;
     int nrquery;
@@ -380,6 +403,9 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
     retval.append( "    " + XmlHandler.addTagValue( "socketTimeout", socketTimeout ) );
     retval.append( "    " + XmlHandler.addTagValue( "connectionTimeout", connectionTimeout ) );
     retval.append( "    " + XmlHandler.addTagValue( "closeIdleConnectionsTime", closeIdleConnectionsTime ) );
+    retval.append( "    " + XmlHandler.addTagValue( "asynchronous", asynchronous ) );
+    retval.append( "    " + XmlHandler.addTagValue( "maxConcurrentRequests", maxConcurrentRequests ) );
+    retval.append( "    " + XmlHandler.addTagValue( "preserveOrder", preserveOrder ) );
 
     retval.append( "    <lookup>" ).append( Const.CR );
 
@@ -424,6 +450,9 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
       socketTimeout = XmlHandler.getTagValue( transformNode, "socketTimeout" );
       connectionTimeout = XmlHandler.getTagValue( transformNode, "connectionTimeout" );
       closeIdleConnectionsTime = XmlHandler.getTagValue( transformNode, "closeIdleConnectionsTime" );
+      asynchronous = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "asynchronous" ) );
+      maxConcurrentRequests = XmlHandler.getTagValue( transformNode, "maxConcurrentRequests" );
+      preserveOrder = !"N".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "preserveOrder" ) );
 
       Node lookup = XmlHandler.getSubNode( transformNode, "lookup" );
       nrargs = XmlHandler.countNodes( lookup, "arg" );
@@ -622,4 +651,46 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
   public void setResponseHeaderFieldName( String responseHeaderFieldName ) {
     this.responseHeaderFieldName = responseHeaderFieldName;
   }
+
+  /**
+   * @return true if several requests are kept in flight instead of waiting for every response
+   */
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  /**
+   * @param asynchronous true to keep several requests in flight instead of waiting for every response
+   */
+  public void setAsynchronous( boolean asynchronous ) {
+    this.asynchronous = asynchronous;
+  }
+
+  /**
+   * @return the maximum number of requests in flight in asynchronous mode
+   */
+  public String getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  /**
+   * @param maxConcurrentRequests the maximum number of requests in flight in asynchronous mode
+   */
+  public void setMaxConcurrentRequests( String maxConcurrentRequests ) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * @return true if rows are passed on in input order in asynchronous mode
+   */
+  public boolean isPreserveOrder() {
+    return preserveOrder;
+  }
+
+  /**
+   * @param preserveOrder true to pass rows on in input order in asynchronous mode
+   */
+  public void setPreserveOrder( boolean preserveOrder ) {
+    this.preserveOrder = preserveOrder;
+  }
 }
@@ -0,0 +1,254 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Runs the asynchronous mode against a local HTTP server which answers the requests in a different order than they
+ * were sent.
+ */
+public class HttpAsynchronousTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final int NR_CONCURRENT = 4;
+  private static final int NR_ROWS = 20;
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private String baseUrl;
+  private AtomicInteger maxInFlight;
+
+  private List<Object[]> output;
+  private List<Object[]> errors;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    output = Collections.synchronizedList( new ArrayList<>() );
+    errors = Collections.synchronizedList( new ArrayList<>() );
+    maxInFlight = new AtomicInteger();
+
+    // The first requests are only answered once they are all in flight. In every group of requests the later ones
+    // get their answer first.
+    //
+    CountDownLatch allInFlight = new CountDownLatch( NR_CONCURRENT );
+    AtomicInteger inFlight = new AtomicInteger();
+    server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 50 );
+    server.createContext( "/service", exchange -> {
+      maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+      try {
+        allInFlight.countDown();
+        allInFlight.await( 10, TimeUnit.SECONDS );
+        int id = Integer.parseInt( exchange.getRequestURI().getQuery().substring( "id=".length() ) );
+        Thread.sleep( ( NR_CONCURRENT - id % NR_CONCURRENT ) * 50L );
+        inFlight.decrementAndGet();
+        if ( id % 5 == 2 ) {
+          respond( exchange, 401, "unauthorized" );
+        } else {
+          respond( exchange, 200, "response " + id );
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    } );
+    serverExecutor = Executors.newCachedThreadPool();
+    server.setExecutor( serverExecutor );
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort() + "/service";
+  }
+
+  @After
+  public void tearDown() {
+    server.stop( 0 );
+    serverExecutor.shutdownNow();
+  }
+
+  @Test( timeout = 30000 )
+  public void testRowOrderIsPreserved() throws Exception {
+    List<Object[]> input = createInput();
+    runHttp( true, input );
+
+    List<Object[]> expected = new ArrayList<>();
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      if ( i % 5 != 2 ) {
+        expected.add( input.get( i ) );
+      }
+    }
+    assertEquals( expected.size(), output.size() );
+    for ( int i = 0; i < expected.size(); i++ ) {
+      assertEquals( expected.get( i )[ 0 ], output.get( i )[ 0 ] );
+      assertEquals( "response " + getId( output.get( i ) ), output.get( i )[ 1 ] );
+      assertEquals( 200L, output.get( i )[ 2 ] );
+    }
+    assertErrorRows();
+    assertEquals( NR_CONCURRENT, maxInFlight.get() );
+  }
+
+  @Test( timeout = 30000 )
+  public void testRowsArriveAsTheyAreAnswered() throws Exception {
+    runHttp( false, createInput() );
+
+    // The fourth request of the first group is answered first
+    assertEquals( 3, getId( output.get( 0 ) ) );
+
+    Set<Integer> ids = new HashSet<>();
+    for ( Object[] row : output ) {
+      int id = getId( row );
+      assertTrue( "Row " + id + " was passed on twice", ids.add( id ) );
+      assertEquals( "response " + id, row[ 1 ] );
+    }
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      assertEquals( "Row " + i, i % 5 != 2, ids.contains( i ) );
+    }
+    assertErrorRows();
+    assertEquals( NR_CONCURRENT, maxInFlight.get() );
+  }
+
+  /**
+   * Every failed request went to the error handling once, with the original row
+   */
+  private void assertErrorRows() {
+    Set<Integer> errorIds = new HashSet<>();
+    for ( Object[] row : errors ) {
+      assertEquals( 1, row.length );
+      errorIds.add( getId( row ) );
+    }
+    assertEquals( errors.size(), errorIds.size() );
+    Set<Integer> expected = new HashSet<>();
+    for ( int i = 2; i < NR_ROWS; i += 5 ) {
+      expected.add( i );
+    }
+    assertEquals( expected, errorIds );
+  }
+
+  private List<Object[]> createInput() {
+    List<Object[]> input = new ArrayList<>();
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      input.add( new Object[] { baseUrl + "?id=" + i } );
+    }
+    return input;
+  }
+
+  private static int getId( Object[] row ) {
+    String url = (String) row[ 0 ];
+    return Integer.parseInt( url.substring( url.indexOf( "?id=" ) + "?id=".length() ) );
+  }
+
+  private static void respond( HttpExchange exchange, int status, String body ) throws IOException {
+    byte[] bytes = body.getBytes( StandardCharsets.UTF_8 );
+    exchange.sendResponseHeaders( status, bytes.length );
+    try ( OutputStream out = exchange.getResponseBody() ) {
+      out.write( bytes );
+    }
+  }
+
+  private void runHttp( boolean preserveOrder, List<Object[]> input ) throws Exception {
+    HttpMeta meta = new HttpMeta();
+    meta.setDefault();
+    meta.setUrlInField( true );
+    meta.setUrlField( "url" );
+    meta.setFieldName( "result" );
+    meta.setResultCodeFieldName( "status" );
+    meta.setAsynchronous( true );
+    meta.setMaxConcurrentRequests( String.valueOf( NR_CONCURRENT ) );
+    meta.setPreserveOrder( preserveOrder );
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "url" ) );
+
+    TransformMeta transformMeta = mock( TransformMeta.class );
+    doReturn( "http" ).when( transformMeta ).getName();
+    doReturn( true ).when( transformMeta ).isDoingErrorHandling();
+    doReturn( mock( TransformPartitioningMeta.class ) ).when( transformMeta ).getTargetTransformPartitioningMeta();
+    doReturn( meta ).when( transformMeta ).getTransform();
+    PipelineMeta pipelineMeta = mock( PipelineMeta.class );
+    doReturn( transformMeta ).when( pipelineMeta ).findTransform( anyString() );
+
+    HttpData data = new HttpData();
+    Http http = spy( new Http( transformMeta, meta, data, 0, pipelineMeta, mock( Pipeline.class ) ) );
+    doReturn( transformMeta ).when( http ).getTransformMeta();
+    doReturn( rowMeta ).when( http ).getInputRowMeta();
+    final Iterator<Object[]> rows = input.iterator();
+    doAnswer( invocation -> rows.hasNext() ? rows.next() : null ).when( http ).getRow();
+    doAnswer( invocation -> output.add( (Object[]) invocation.getArguments()[ 1 ] ) )
+      .when( http ).putRow( any( IRowMeta.class ), any( Object[].class ) );
+    doAnswer( invocation -> errors.add( (Object[]) invocation.getArguments()[ 1 ] ) )
+      .when( http ).putError( any( IRowMeta.class ), any( Object[].class ), anyLong(), anyString(), anyString(), anyString() );
+
+    assertTrue( http.init() );
+    try {
+      while ( http.processRow() ) {
+        // keep going until the input is exhausted
+      }
+    } finally {
+      http.dispose();
+    }
+    assertEquals( 0, http.getErrors() );
+  }
+}
@@ -52,7 +52,7 @@ public class HttpMetaLoadSaveTest {
       Arrays.asList( "url", "urlInField", "urlField", "encoding", "httpLogin", "httpPassword", "proxyHost",
         "proxyPort", "socketTimeout", "connectionTimeout", "closeIdleConnectionsTime", "argumentField",
         "argumentParameter", "headerField", "headerParameter", "fieldName", "resultCodeFieldName",
-        "responseTimeFieldName", "responseHeaderFieldName" );
+        "responseTimeFieldName", "responseHeaderFieldName", "asynchronous", "maxConcurrentRequests", "preserveOrder" );
     Map<String, IFieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<String, IFieldLoadSaveValidator<?>>();
 
@@ -46,6 +46,7 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 import org.apache.poi.util.IOUtils;
 
 import java.io.ByteArrayInputStream;
@@ -255,7 +256,6 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   private void parseNextInputToRowSet( InputStream input ) throws HopException {
     try {
       data.readerRowSet = data.reader.parse( input );
-      input.close();
     } catch ( HopException ke ) {
       logInputError( ke );
       throw new JsonInputException( ke );
@@ -265,6 +265,22 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     }
   }
 
+  /**
+   * Close the input being parsed. The streaming reader reads from it until its last row was read, the other reader is
+   * done with it as soon as it was parsed.
+   */
+  private void closeReaderInput() {
+    if ( data.readerInput != null ) {
+      try {
+        data.readerInput.close();
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "JsonInput.Log.UnexpectedError", e.toString() ), e );
+        incrementErrors();
+      }
+      data.readerInput = null;
+    }
+  }
+
   private void logInputError( HopException e ) {
     logError( e.getLocalizedMessage(), e );
     inputError( e.getLocalizedMessage() );
@@ -321,18 +337,16 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     }
     Object[] rawReaderRow = null;
     while ( ( rawReaderRow = data.readerRowSet.getRow() ) == null ) {
+      closeReaderInput();
       if ( data.inputs.hasNext() && data.readerRowSet.isDone() ) {
-        try ( InputStream nextIn = data.inputs.next() ) {
-
-          if ( nextIn != null ) {
-            parseNextInputToRowSet( nextIn );
-          } else {
-            parseNextInputToRowSet( new ByteArrayInputStream( EMPTY_JSON ) );
+        InputStream nextIn = data.inputs.next();
+        data.readerInput = nextIn != null ? nextIn : new ByteArrayInputStream( EMPTY_JSON );
+        try {
+          parseNextInputToRowSet( data.readerInput );
+        } finally {
+          if ( !data.streaming ) {
+            closeReaderInput();
           }
-
-        } catch ( IOException e ) {
-          logError( BaseMessages.getString( PKG, "JsonInput.Log.UnexpectedError", e.toString() ), e );
-          incrementErrors();
         }
       } else {
         if ( isDetailed() ) {
@@ -446,7 +460,15 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader( inputFields, meta.isDefaultPathLeafToNull(), log );
+    data.streaming = meta.isStreaming() && StreamingJsonReader.isSupported( inputFields );
+    if ( data.streaming ) {
+      data.reader = new StreamingJsonReader( inputFields, log );
+    } else {
+      if ( meta.isStreaming() ) {
+        logBasic( BaseMessages.getString( PKG, "JsonInput.Log.StreamingNotSupported" ) );
+      }
+      data.reader = new FastJsonReader( inputFields, meta.isDefaultPathLeafToNull(), log );
+    }
     data.reader.setIgnoreMissingPath( meta.isIgnoreMissingPath() );
   }
 
@@ -455,6 +477,10 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     if ( data.file != null ) {
       IOUtils.closeQuietly( data.file );
     }
+    if ( data.readerRowSet != null ) {
+      data.readerRowSet.clear();
+    }
+    closeReaderInput();
     data.inputs = null;
     data.reader = null;
     data.readerRowSet = null;
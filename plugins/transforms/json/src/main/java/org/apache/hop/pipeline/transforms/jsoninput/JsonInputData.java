@@ -61,6 +61,12 @@ public class JsonInputData extends BaseFileInputTransformData implements ITransf
   public Iterator<InputStream> inputs;
   public IJsonReader reader;
   public IRowSet readerRowSet;
+
+  /**
+   * input being parsed, kept open by the streaming reader until its last row was read
+   */
+  public InputStream readerInput;
+  public boolean streaming;
   public BitSet repeatedFields;
 
   public JsonInputData() {
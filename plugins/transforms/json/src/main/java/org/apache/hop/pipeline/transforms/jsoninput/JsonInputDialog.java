@@ -135,6 +135,8 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
 
   private Button wDefaultPathLeafToNull;
 
+  private Button wStreaming;
+
   private Button wdoNotFailIfNoFile;
 
   private TextVar wShortFileFieldName;
@@ -599,12 +601,34 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wDefaultPathLeafToNull.setLayoutData( fdDefaultPathLeafToNull );
     // default path leaf to null - end
 
+    // streaming
+    Label wlStreaming = new Label( wConf, SWT.RIGHT );
+    wlStreaming.setText( BaseMessages.getString( PKG, "JsonInputDialog.Streaming.Label" ) );
+    props.setLook( wlStreaming );
+    FormData fdlStreaming = new FormData();
+    fdlStreaming.left = new FormAttachment( 0, 0 );
+    fdlStreaming.top = new FormAttachment( wDefaultPathLeafToNull, margin );
+    fdlStreaming.right = new FormAttachment( middle, -margin );
+    wlStreaming.setLayoutData( fdlStreaming );
+    wStreaming = new Button( wConf, SWT.CHECK );
+    props.setLook( wStreaming );
+    wStreaming.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+    wStreaming.setToolTipText( BaseMessages.getString( PKG, "JsonInputDialog.Streaming.Tooltip" ) );
+    FormData fdStreaming = new FormData();
+    fdStreaming.left = new FormAttachment( middle, 0 );
+    fdStreaming.top = new FormAttachment( wDefaultPathLeafToNull, margin );
+    wStreaming.setLayoutData( fdStreaming );
+
     wlLimit = new Label( wConf, SWT.RIGHT );
     wlLimit.setText( BaseMessages.getString( PKG, "JsonInputDialog.Limit.Label" ) );
     props.setLook( wlLimit );
     FormData fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment( 0, 0 );
-    fdlLimit.top = new FormAttachment( wDefaultPathLeafToNull, margin );
+    fdlLimit.top = new FormAttachment( wStreaming, margin );
     fdlLimit.right = new FormAttachment( middle, -margin );
     wlLimit.setLayoutData( fdlLimit );
     wLimit = new Text( wConf, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
@@ -612,7 +636,7 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wLimit.addModifyListener( lsMod );
     FormData fdLimit = new FormData();
     fdLimit.left = new FormAttachment( middle, 0 );
-    fdLimit.top = new FormAttachment( wDefaultPathLeafToNull, margin );
+    fdLimit.top = new FormAttachment( wStreaming, margin );
     fdLimit.right = new FormAttachment( 100, 0 );
     wLimit.setLayoutData( fdLimit );
 
@@ -1202,6 +1226,7 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wdoNotFailIfNoFile.setSelection( in.isDoNotFailIfNoFile() );
     wIgnoreMissingPath.setSelection( in.isIgnoreMissingPath() );
     wDefaultPathLeafToNull.setSelection( in.isDefaultPathLeafToNull() );
+    wStreaming.setSelection( in.isStreaming() );
     wremoveSourceField.setSelection( in.isRemoveSourceField() );
     wSourceStreamField.setSelection( in.isInFields() );
     wSourceIsAFile.setSelection( in.getIsAFile() );
@@ -1344,6 +1369,7 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     in.setDoNotFailIfNoFile( wdoNotFailIfNoFile.getSelection() );
     in.setIgnoreMissingPath( wIgnoreMissingPath.getSelection() );
     in.setDefaultPathLeafToNull( wDefaultPathLeafToNull.getSelection() );
+    in.setStreaming( wStreaming.getSelection() );
     in.setRemoveSourceField( wremoveSourceField.getSelection() );
     in.setInFields( wSourceStreamField.getSelection() );
     in.setIsAFile( wSourceIsAFile.getSelection() );
@@ -260,6 +260,8 @@ public class JsonInputMeta
 
   private boolean defaultPathLeafToNull;
 
+  private boolean streaming;
+
   public JsonInputMeta() {
     additionalOutputFields = new AdditionalFileOutputFields();
     inputFiles = new InputFiles();
@@ -284,6 +286,24 @@ public class JsonInputMeta
     this.defaultPathLeafToNull = defaultPathLeafToNull;
   }
 
+  /**
+   * Returns true if the input is parsed as a stream, one record at a time, instead of as a whole document.
+   *
+   * @return streaming
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * Set the streaming
+   *
+   * @param streaming the streaming to set.
+   */
+  public void setStreaming( boolean streaming ) {
+    this.streaming = streaming;
+  }
+
   /**
    * @return Returns the shortFileFieldName.
    */
@@ -642,6 +662,7 @@ public class JsonInputMeta
     retval.append( "    " + XmlHandler.addTagValue( "doNotFailIfNoFile", doNotFailIfNoFile ) );
     retval.append( "    " + XmlHandler.addTagValue( "ignoreMissingPath", ignoreMissingPath ) );
     retval.append( "    " + XmlHandler.addTagValue( "defaultPathLeafToNull", defaultPathLeafToNull ) );
+    retval.append( "    " + XmlHandler.addTagValue( "streaming", streaming ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "rownum_field", rowNumberField ) );
 
     retval.append( "    <file>" ).append( Const.CR );
@@ -701,6 +722,7 @@ public class JsonInputMeta
       isIgnoreEmptyFile = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "IsIgnoreEmptyFile" ) );
       ignoreMissingPath = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "ignoreMissingPath" ) );
       defaultPathLeafToNull = getDefaultPathLeafToNull( transformNode );
+      streaming = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "streaming" ) );
       doNotFailIfNoFile = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "doNotFailIfNoFile" ) );
       includeRowNumber = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "rownum" ) );
       rowNumberField = XmlHandler.getTagValue( transformNode, "rownum_field" );
@@ -780,6 +802,7 @@ public class JsonInputMeta
     isIgnoreEmptyFile = false;
     ignoreMissingPath = true;
     defaultPathLeafToNull = true;
+    streaming = false;
     doNotFailIfNoFile = true;
     includeFilename = false;
     filenameField = "";
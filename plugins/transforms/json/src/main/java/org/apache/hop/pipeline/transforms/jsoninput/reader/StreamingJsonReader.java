@@ -0,0 +1,507 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.minidev.json.JSONArray;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Reads JSON with a streaming parser and evaluates the field paths one record at a time: rows are available as soon as
+ * their record is parsed and only the current record is kept in memory.<br>
+ * Only a subset of JsonPath is supported: child names (<code>.name</code> or <code>['name']</code>), array indexes and
+ * <code>[*]</code> wildcards, nested arrays included. All fields have to share the same record path, which is the path
+ * up to and including the last wildcard, e.g. <code>$.orders[*].lines[*]</code> for the fields
+ * <code>$.orders[*].lines[*].sku</code> and <code>$.orders[*].lines[*].price.amount</code>.<br>
+ * Missing leaves are always returned as null.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static Class<?> PKG = JsonInputMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private final ObjectMapper mapper;
+  private final ILogChannel log;
+
+  private boolean ignoreMissingPath;
+
+  private JsonInputField[] fields;
+  private List<Segment> recordPath;
+  private List<List<Segment>> fieldPaths;
+
+  public StreamingJsonReader( JsonInputField[] fields, ILogChannel log ) throws HopException {
+    this.mapper = new ObjectMapper();
+    this.log = log;
+    this.ignoreMissingPath = false;
+    setFields( fields );
+  }
+
+  /**
+   * @param fields the input fields
+   * @return true if the paths of all the fields can be evaluated by the streaming reader
+   */
+  public static boolean isSupported( JsonInputField[] fields ) {
+    if ( fields == null || fields.length == 0 ) {
+      return false;
+    }
+    List<Segment> recordPath = null;
+    for ( JsonInputField field : fields ) {
+      List<Segment> path = compilePath( field.getPath() );
+      if ( path == null ) {
+        return false;
+      }
+      List<Segment> fieldRecordPath = path.subList( 0, getRecordPathLength( path ) );
+      if ( recordPath == null ) {
+        recordPath = fieldRecordPath;
+      } else if ( !recordPath.equals( fieldRecordPath ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void setFields( JsonInputField[] fields ) throws HopException {
+    if ( !isSupported( fields ) ) {
+      throw new HopException( BaseMessages.getString( PKG, "JsonReader.Error.StreamingPathsNotSupported" ) );
+    }
+    this.fields = fields;
+    this.fieldPaths = new ArrayList<>( fields.length );
+    for ( JsonInputField field : fields ) {
+      List<Segment> path = compilePath( field.getPath() );
+      int recordPathLength = getRecordPathLength( path );
+      if ( recordPath == null ) {
+        recordPath = path.subList( 0, recordPathLength );
+      }
+      fieldPaths.add( path.subList( recordPathLength, path.size() ) );
+    }
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath( boolean value ) {
+    this.ignoreMissingPath = value;
+  }
+
+  /**
+   * Starts parsing the input: the returned row set reads the following records as rows are asked for. The input is
+   * closed once the last row was read.
+   */
+  @Override
+  public IRowSet parse( InputStream in ) throws HopException {
+    try {
+      StreamingRowSet rowSet = new StreamingRowSet( mapper.getFactory().createParser( in ) );
+      rowSet.prefetch();
+      return rowSet;
+    } catch ( IOException e ) {
+      throw new JsonInputException( e );
+    }
+  }
+
+  private class StreamingRowSet extends SingleRowRowSet {
+    private final JsonParser parser;
+
+    /**
+     * Containers being walked along the record path
+     */
+    private final Deque<Container> containers = new ArrayDeque<>();
+
+    /**
+     * the parser is on the first token of a value to match with the record path segment at this level
+     */
+    private int valueLevel;
+    private boolean started;
+
+    private final BitSet foundFields = new BitSet();
+    private long nrRecords;
+    private long nrRows;
+    private Object[] nextRow;
+    private boolean done;
+
+    private StreamingRowSet( JsonParser parser ) {
+      super();
+      this.parser = parser;
+      this.valueLevel = -1;
+    }
+
+    private void prefetch() throws JsonInputException, IOException {
+      try {
+        nextRow = readRow();
+      } catch ( JsonInputException | IOException e ) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override
+    public Object[] getRow() {
+      Object[] row = nextRow;
+      if ( row != null ) {
+        try {
+          nextRow = readRow();
+        } catch ( JsonInputException | IOException e ) {
+          close();
+          throw new IllegalStateException( e.getMessage(), e );
+        }
+      }
+      return row;
+    }
+
+    @Override
+    public int size() {
+      return nextRow == null ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return nextRow == null;
+    }
+
+    @Override
+    public void clear() {
+      nextRow = null;
+      close();
+    }
+
+    private void close() {
+      done = true;
+      try {
+        parser.close();
+      } catch ( IOException e ) {
+        if ( log.isDebug() ) {
+          log.logDebug( e.getLocalizedMessage(), e );
+        }
+      }
+    }
+
+    /**
+     * @return the next row or null at the end of the input
+     */
+    private Object[] readRow() throws JsonInputException, IOException {
+      while ( !done ) {
+        JsonNode record = nextRecord();
+        if ( record == null ) {
+          close();
+          return endOfInput();
+        }
+        nrRecords++;
+
+        Object[] row = new Object[ fields.length ];
+        boolean allNulls = true;
+        for ( int i = 0; i < fields.length; i++ ) {
+          row[ i ] = getValue( evaluate( record, fieldPaths.get( i ) ) );
+          if ( row[ i ] != null ) {
+            foundFields.set( i );
+            allNulls = false;
+          }
+        }
+        // skip null-only rows, as the in-memory reader does
+        if ( !allNulls ) {
+          nrRows++;
+          return row;
+        }
+      }
+      return null;
+    }
+
+    private Object[] endOfInput() throws JsonInputException {
+      if ( log.isDetailed() ) {
+        log.logDetailed( BaseMessages.getString( PKG, "JsonInput.Log.NrRecords", nrRecords ) );
+      }
+      if ( !isIgnoreMissingPath() ) {
+        int missing = foundFields.nextClearBit( 0 );
+        if ( missing < fields.length ) {
+          throw new JsonInputException( BaseMessages.getString(
+            PKG, "JsonReader.Error.CanNotFindPath", fields[ missing ].getPath() ) );
+        }
+      }
+      if ( nrRows == 0 && nrRecords <= 1 ) {
+        // no data: a single empty row
+        nrRows++;
+        return new Object[ fields.length ];
+      }
+      return null;
+    }
+
+    /**
+     * Walk the tokens until the next value matching the record path.
+     *
+     * @return the next record or null at the end of the input
+     */
+    private JsonNode nextRecord() throws IOException {
+      if ( !started ) {
+        started = true;
+        if ( parser.nextToken() == null ) {
+          return null;
+        }
+        valueLevel = 0;
+      }
+      while ( true ) {
+        if ( valueLevel >= 0 ) {
+          int level = valueLevel;
+          valueLevel = -1;
+          if ( level == recordPath.size() ) {
+            return mapper.readTree( parser );
+          }
+          Segment segment = recordPath.get( level );
+          JsonToken token = parser.getCurrentToken();
+          if ( token == JsonToken.START_OBJECT && segment.index < 0 ) {
+            containers.push( new Container( segment, level, false ) );
+          } else if ( token == JsonToken.START_ARRAY && segment.name == null ) {
+            containers.push( new Container( segment, level, true ) );
+          } else {
+            parser.skipChildren();
+          }
+          continue;
+        }
+
+        Container container = containers.peek();
+        if ( container == null ) {
+          // the document is done
+          return null;
+        }
+        JsonToken token = parser.nextToken();
+        if ( token == null ) {
+          return null;
+        }
+        if ( token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY ) {
+          containers.pop();
+          continue;
+        }
+        boolean matches;
+        if ( container.array ) {
+          int index = container.nextIndex++;
+          matches = container.segment.wildcard || container.segment.index == index;
+        } else {
+          String name = parser.getCurrentName();
+          parser.nextToken();
+          matches = container.segment.wildcard || container.segment.name.equals( name );
+        }
+        if ( matches ) {
+          valueLevel = container.level + 1;
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private static JsonNode evaluate( JsonNode node, List<Segment> path ) {
+    for ( Segment segment : path ) {
+      if ( node == null ) {
+        return null;
+      }
+      if ( segment.name != null ) {
+        node = node.isObject() ? node.get( segment.name ) : null;
+      } else {
+        node = node.isArray() ? node.get( segment.index ) : null;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Convert to the same kind of values JsonPath returns so both readers produce the same output.
+   */
+  private Object getValue( JsonNode node ) {
+    if ( node == null || node.isNull() || node.isMissingNode() ) {
+      return null;
+    }
+    if ( node.isTextual() ) {
+      return node.textValue();
+    }
+    if ( node.isNumber() ) {
+      return node.numberValue();
+    }
+    if ( node.isBoolean() ) {
+      return node.booleanValue();
+    }
+    if ( node.isObject() ) {
+      return mapper.convertValue( node, LinkedHashMap.class );
+    }
+    if ( node.isArray() ) {
+      JSONArray array = new JSONArray();
+      array.addAll( mapper.convertValue( node, List.class ) );
+      return array;
+    }
+    return node.asText();
+  }
+
+  /**
+   * The record path ends with the last wildcard of the path.
+   */
+  private static int getRecordPathLength( List<Segment> path ) {
+    for ( int i = path.size() - 1; i >= 0; i-- ) {
+      if ( path.get( i ).wildcard ) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Compile the supported subset of JsonPath.
+   *
+   * @param path the path, e.g. <code>$.data[*].name</code>
+   * @return the segments of the path or null if the path isn't supported
+   */
+  static List<Segment> compilePath( String path ) {
+    if ( path == null ) {
+      return null;
+    }
+    String p = path.trim();
+    if ( !p.startsWith( "$" ) ) {
+      return null;
+    }
+    List<Segment> segments = new ArrayList<>();
+    int i = 1;
+    while ( i < p.length() ) {
+      char c = p.charAt( i );
+      if ( c == '.' ) {
+        i++;
+        if ( i >= p.length() || p.charAt( i ) == '.' ) {
+          // deep scan
+          return null;
+        }
+        if ( p.charAt( i ) == '*' ) {
+          segments.add( Segment.WILDCARD );
+          i++;
+          continue;
+        }
+        int end = i;
+        while ( end < p.length() && p.charAt( end ) != '.' && p.charAt( end ) != '[' ) {
+          end++;
+        }
+        String name = p.substring( i, end );
+        if ( name.isEmpty() || name.indexOf( '(' ) >= 0 ) {
+          // functions
+          return null;
+        }
+        segments.add( new Segment( name, -1, false ) );
+        i = end;
+      } else if ( c == '[' ) {
+        int end = p.indexOf( ']', i );
+        if ( end < 0 ) {
+          return null;
+        }
+        String content = p.substring( i + 1, end ).trim();
+        if ( content.length() >= 2 && ( content.charAt( 0 ) == '\'' || content.charAt( 0 ) == '"' ) ) {
+          char quote = content.charAt( 0 );
+          int start = p.indexOf( quote, i ) + 1;
+          int close = p.indexOf( quote, start );
+          if ( close < 0 ) {
+            return null;
+          }
+          end = p.indexOf( ']', close );
+          if ( end < 0 || !p.substring( close + 1, end ).trim().isEmpty() ) {
+            // union of names
+            return null;
+          }
+          segments.add( new Segment( p.substring( start, close ), -1, false ) );
+        } else if ( "*".equals( content ) ) {
+          segments.add( Segment.WILDCARD );
+        } else if ( !content.isEmpty() && content.chars().allMatch( Character::isDigit ) ) {
+          try {
+            segments.add( new Segment( null, Integer.parseInt( content ), false ) );
+          } catch ( NumberFormatException e ) {
+            return null;
+          }
+        } else {
+          // filters, slices, unions and negative indexes
+          return null;
+        }
+        i = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * A step of a path: a child name, an array index or a wildcard
+   */
+  static final class Segment {
+    static final Segment WILDCARD = new Segment( null, -1, true );
+
+    final String name;
+    final int index;
+    final boolean wildcard;
+
+    Segment( String name, int index, boolean wildcard ) {
+      this.name = name;
+      this.index = index;
+      this.wildcard = wildcard;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( !( o instanceof Segment ) ) {
+        return false;
+      }
+      Segment other = (Segment) o;
+      return index == other.index && wildcard == other.wildcard
+        && ( name == null ? other.name == null : name.equals( other.name ) );
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * ( 31 * ( name == null ? 0 : name.hashCode() ) + index ) + ( wildcard ? 1 : 0 );
+    }
+  }
+
+  private static class Container {
+    private final Segment segment;
+    private final int level;
+    private final boolean array;
+    private int nextIndex;
+
+    private Container( Segment segment, int level, boolean array ) {
+      this.segment = segment;
+      this.level = level;
+      this.array = array;
+    }
+  }
+}
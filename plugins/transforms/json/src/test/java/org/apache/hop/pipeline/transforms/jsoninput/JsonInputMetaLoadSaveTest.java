@@ -47,7 +47,7 @@ public class JsonInputMetaLoadSaveTest implements IInitializer<ITransformMeta> {
   @Test
   public void testLoadSave() throws HopException {
     List<String> attributes = Arrays.asList( "includeFilename", "filenameField", "includeRowNumber", "addResultFile",
-      "ReadUrl", "removeSourceField", "IgnoreEmptyFile", "doNotFailIfNoFile", "ignoreMissingPath", "defaultPathLeafToNull", "rowNumberField",
+      "ReadUrl", "removeSourceField", "IgnoreEmptyFile", "doNotFailIfNoFile", "ignoreMissingPath", "defaultPathLeafToNull", "streaming", "rowNumberField",
       "FileName", "FileMask", "ExcludeFileMask", "FileRequired", "IncludeSubFolders", "InputFields", "rowLimit",
       "inFields", "isAFile", "FieldValue", "ShortFileNameField", "PathField", "HiddenField",
       "LastModificationDateField", "UriField", "UriField", "ExtensionField", "SizeField" );
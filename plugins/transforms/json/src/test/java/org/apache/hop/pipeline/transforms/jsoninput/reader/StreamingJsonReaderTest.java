@@ -0,0 +1,192 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class StreamingJsonReaderTest {
+  private ILogChannel logMock = mock( ILogChannel.class );
+
+  private static JsonInputField[] fields( String... paths ) {
+    JsonInputField[] fields = new JsonInputField[ paths.length ];
+    for ( int i = 0; i < paths.length; i++ ) {
+      fields[ i ] = new JsonInputField( "field" + i );
+      fields[ i ].setPath( paths[ i ] );
+    }
+    return fields;
+  }
+
+  private List<Object[]> readAll( StreamingJsonReader reader, String json ) throws HopException {
+    IRowSet rowSet = reader.parse( new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) ) );
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ( ( row = rowSet.getRow() ) != null ) {
+      rows.add( row );
+    }
+    assertTrue( rowSet.isDone() );
+    return rows;
+  }
+
+  @Test
+  public void testSupportedPaths() {
+    assertTrue( StreamingJsonReader.isSupported( fields( "$.data[*].name", "$.data[*]['first name']", "$.data[*].a[0].b" ) ) );
+    assertTrue( StreamingJsonReader.isSupported( fields( "$[*].name" ) ) );
+    assertTrue( StreamingJsonReader.isSupported( fields( "$.name", "$.address.city" ) ) );
+    assertTrue( StreamingJsonReader.isSupported( fields( "$.orders[*].lines[*].sku", "$.orders[*].lines[*].qty" ) ) );
+
+    assertFalse( StreamingJsonReader.isSupported( fields( "$..name" ) ) );
+    assertFalse( StreamingJsonReader.isSupported( fields( "$.data[?(@.id > 1)].name" ) ) );
+    assertFalse( StreamingJsonReader.isSupported( fields( "$.data[0:2].name" ) ) );
+    assertFalse( StreamingJsonReader.isSupported( fields( "$.data[*]['a','b']" ) ) );
+    assertFalse( StreamingJsonReader.isSupported( fields( "$.data.length()" ) ) );
+    assertFalse( StreamingJsonReader.isSupported( fields( "$.data[*].name", "$.other[*].name" ) ) );
+    assertFalse( StreamingJsonReader.isSupported( fields( "$.orders[*].id", "$.orders[*].lines[*].sku" ) ) );
+    assertFalse( StreamingJsonReader.isSupported( fields() ) );
+  }
+
+  @Test
+  public void testRecords() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$.data[*].name", "$.data[*].age", "$.data[*].tags", "$.data[*].address" ), logMock );
+    reader.setIgnoreMissingPath( true );
+    List<Object[]> rows = readAll( reader, "{ \"count\": 3, \"data\": ["
+      + "{ \"name\": \"Ann\", \"age\": 31, \"tags\": [ \"a\", \"b\" ], \"address\": { \"city\": \"Ghent\" } },"
+      + "{ \"age\": 2.5, \"skip\": { \"name\": \"nested\" } },"
+      + "{ \"name\": \"Bob\", \"age\": null } ], \"name\": \"after\" }" );
+
+    assertEquals( 3, rows.size() );
+    assertEquals( "Ann", rows.get( 0 )[ 0 ] );
+    assertEquals( 31, rows.get( 0 )[ 1 ] );
+    assertEquals( "[\"a\",\"b\"]", rows.get( 0 )[ 2 ].toString() );
+    assertEquals( "Ghent", ( (Map<?, ?>) rows.get( 0 )[ 3 ] ).get( "city" ) );
+    assertArrayEquals( new Object[] { null, 2.5, null, null }, rows.get( 1 ) );
+    assertArrayEquals( new Object[] { "Bob", null, null, null }, rows.get( 2 ) );
+  }
+
+  @Test
+  public void testNestedArrays() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$.orders[*].lines[*].sku", "$.orders[*]['lines'][*].qty" ), logMock );
+    List<Object[]> rows = readAll( reader, "{ \"orders\": ["
+      + "{ \"id\": 1, \"lines\": [ { \"sku\": \"A\", \"qty\": 1 }, { \"sku\": \"B\", \"qty\": 2 } ] },"
+      + "{ \"id\": 2, \"lines\": [] },"
+      + "{ \"id\": 3, \"lines\": [ { \"sku\": \"C\", \"qty\": 3 } ] } ] }" );
+
+    assertEquals( 3, rows.size() );
+    assertArrayEquals( new Object[] { "A", 1 }, rows.get( 0 ) );
+    assertArrayEquals( new Object[] { "B", 2 }, rows.get( 1 ) );
+    assertArrayEquals( new Object[] { "C", 3 }, rows.get( 2 ) );
+  }
+
+  @Test
+  public void testIndexAndRootArray() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$[*].values[1]", "$[*].values[5]" ), logMock );
+    reader.setIgnoreMissingPath( true );
+    List<Object[]> rows = readAll( reader, "[ { \"values\": [ 1, 2, 3 ] }, { \"values\": [ true, false ] }, 4 ]" );
+
+    assertEquals( 2, rows.size() );
+    assertArrayEquals( new Object[] { 2, null }, rows.get( 0 ) );
+    assertArrayEquals( new Object[] { false, null }, rows.get( 1 ) );
+  }
+
+  @Test
+  public void testSingleRecord() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$.name", "$.address.city" ), logMock );
+    List<Object[]> rows = readAll( reader, "{ \"name\": \"Ann\", \"address\": { \"city\": \"Ghent\" } }" );
+
+    assertEquals( 1, rows.size() );
+    assertArrayEquals( new Object[] { "Ann", "Ghent" }, rows.get( 0 ) );
+  }
+
+  @Test
+  public void testNoRecords() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$.data[*].name" ), logMock );
+    reader.setIgnoreMissingPath( true );
+    List<Object[]> rows = readAll( reader, "{ \"data\": [] }" );
+
+    // a single empty row, as the in-memory reader returns
+    assertEquals( 1, rows.size() );
+    assertNull( rows.get( 0 )[ 0 ] );
+  }
+
+  @Test( expected = HopException.class )
+  public void testMissingPath() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$.data[*].name" ), logMock );
+    readAll( reader, "{ \"data\": [] }" );
+  }
+
+  @Test( expected = HopException.class )
+  public void testInvalidJson() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$.data[*].name" ), logMock );
+    readAll( reader, "{ \"data\": [ { \"name\" " );
+  }
+
+  @Test
+  public void testRowsAreReadIncrementally() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader( fields( "$.data[*].id" ), logMock );
+    int nrRecords = 100000;
+    int[] record = { -1 };
+    InputStream in = new InputStream() {
+      private byte[] buffer = "{ \"data\": [".getBytes( StandardCharsets.UTF_8 );
+      private int position;
+
+      @Override
+      public int read() {
+        if ( position == buffer.length ) {
+          record[ 0 ]++;
+          if ( record[ 0 ] > nrRecords ) {
+            return -1;
+          }
+          String json = record[ 0 ] == nrRecords ? "] }" : ( record[ 0 ] > 0 ? "," : "" ) + "{ \"id\": " + record[ 0 ] + " }";
+          buffer = json.getBytes( StandardCharsets.UTF_8 );
+          position = 0;
+        }
+        return buffer[ position++ ];
+      }
+    };
+    IRowSet rowSet = reader.parse( in );
+    // only the parser buffer was read to produce the first row
+    assertTrue( record[ 0 ] < nrRecords / 10 );
+    for ( int i = 0; i < nrRecords; i++ ) {
+      assertEquals( i, rowSet.getRow()[ 0 ] );
+    }
+    assertNull( rowSet.getRow() );
+  }
+}
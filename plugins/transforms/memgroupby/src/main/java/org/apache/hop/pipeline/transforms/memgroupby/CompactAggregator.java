@@ -0,0 +1,678 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps the groups and aggregates of the Memory Group By transform in compact form. The group fields are serialized
+ * into a byte array per group which is hashed and compared byte by byte. The state of the aggregates is kept in
+ * primitive arrays per aggregate, indexed by group number. This only works for sum, average, count, minimum and maximum
+ * of Integer and Number fields, see {@link #isSupported(IRowMeta, IRowMeta, int[], int[], int[], IRowMeta)}.
+ * <p>
+ * When the transform runs low on memory the groups are written to a fixed number of temporary files, partitioned by
+ * the hash of their key, and the in-memory table starts over. When all rows are read the partitions are read back and
+ * aggregated one at a time. A partition has to fit in memory, that's about 1/64th of all the groups.
+ */
+public class CompactAggregator {
+
+  /**
+   * Receives the aggregated groups
+   */
+  public interface IGroupConsumer {
+    /**
+     * @param groupData the values of the group fields, in normal storage as described by {@link #getKeyMeta()}
+     * @param aggregate the aggregate of the group, to be passed to MemoryGroupBy.getAggregateResult()
+     */
+    void groupAggregated( Object[] groupData, Aggregate aggregate ) throws HopException;
+  }
+
+  public static final int NR_PARTITIONS = 64;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private static final byte FLAG_HAS_VALUE = 1;
+  private static final byte FLAG_SAW_NULL = 2;
+
+  private final IRowMeta inputRowMeta;
+  private final IRowMeta keyMeta;
+  private final int[] groupnrs;
+  private final int[] subjectnrs;
+  private final int[] aggregateTypes;
+  private final boolean minNullIsValued;
+  private final String directory;
+
+  /**
+   * Per aggregate: true if the state is kept as a long, false for a double
+   */
+  private final boolean[] integerState;
+
+  // The group index: open addressing on the group numbers plus one, 0 is an empty slot
+  //
+  private int[] slots;
+  private int nrGroups;
+  private byte[][] keys;
+  private int[] hashes;
+
+  // The state of the aggregates, per aggregate and per group
+  //
+  /**
+   * The estimated heap size of the table arrays per group of capacity, and of the serialized keys
+   */
+  private int tableBytesPerGroup;
+  private long keyBytes;
+
+  private long[][] longs;
+  private double[][] doubles;
+  private long[][] counts;
+  private byte[][] flags;
+
+  private final KeyBuffer keyBuffer;
+  private final DataOutputStream keyOutput;
+  private final Object[] keyData;
+
+  private FileObject[] partitionFiles;
+  private DataOutputStream[] partitionOutputs;
+
+  /**
+   * @param inputRowMeta    the layout of the input rows
+   * @param groupnrs        the indexes of the group fields in the input rows
+   * @param subjectnrs      the indexes of the aggregated fields in the input rows
+   * @param aggregateTypes  the type of aggregation per aggregated field, MemoryGroupByMeta.TYPE_GROUP_*
+   * @param aggMeta         the layout of the aggregates
+   * @param minNullIsValued true if a null value is the minimum of a group, see HOP_AGGREGATION_MIN_NULL_IS_VALUED
+   * @param directory       the directory to write temporary files to
+   */
+  public CompactAggregator( IRowMeta inputRowMeta, int[] groupnrs, int[] subjectnrs, int[] aggregateTypes,
+                            IRowMeta aggMeta, boolean minNullIsValued, String directory ) {
+    this.inputRowMeta = inputRowMeta;
+    this.groupnrs = groupnrs;
+    this.subjectnrs = subjectnrs;
+    this.aggregateTypes = aggregateTypes;
+    this.minNullIsValued = minNullIsValued;
+    this.directory = directory;
+
+    keyMeta = new RowMeta();
+    for ( int groupnr : groupnrs ) {
+      IValueMeta normalMeta = inputRowMeta.getValueMeta( groupnr ).clone();
+      normalMeta.setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
+      keyMeta.addValueMeta( normalMeta );
+    }
+
+    integerState = new boolean[ subjectnrs.length ];
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      switch ( aggregateTypes[ i ] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          integerState[ i ] = aggMeta.getValueMeta( i ).isInteger();
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          integerState[ i ] = inputRowMeta.getValueMeta( subjectnrs[ i ] ).isInteger();
+          break;
+        default:
+          break;
+      }
+    }
+
+    keyBuffer = new KeyBuffer();
+    keyOutput = new DataOutputStream( keyBuffer );
+    keyData = new Object[ groupnrs.length ];
+
+    allocate( INITIAL_CAPACITY );
+  }
+
+  /**
+   * See if the groups and aggregates can be kept in compact form: all aggregates need to be a sum, average, count,
+   * minimum or maximum of an Integer or Number field and the group fields need to be equal exactly when their
+   * serialized forms are.
+   *
+   * @return true if a compact aggregator can be used
+   */
+  public static boolean isSupported( IRowMeta inputRowMeta, IRowMeta groupMeta, int[] groupnrs, int[] subjectnrs,
+                                     int[] aggregateTypes, IRowMeta aggMeta ) {
+    for ( int i = 0; i < groupnrs.length; i++ ) {
+      IValueMeta valueMeta = groupMeta.getValueMeta( i );
+      switch ( valueMeta.getType() ) {
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_DATE:
+        case IValueMeta.TYPE_BOOLEAN:
+        case IValueMeta.TYPE_BINARY:
+          break;
+        case IValueMeta.TYPE_STRING:
+          if ( valueMeta.isCaseInsensitive() || valueMeta.isIgnoreWhitespace() || !valueMeta.isCollatorDisabled() ) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+    }
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      switch ( aggregateTypes[ i ] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          if ( !isIntegerOrNumber( aggMeta.getValueMeta( i ) ) ) {
+            return false;
+          }
+          // fall through: the subject needs to be numeric too
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if ( !isIntegerOrNumber( inputRowMeta.getValueMeta( subjectnrs[ i ] ) ) ) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isIntegerOrNumber( IValueMeta valueMeta ) {
+    return valueMeta.getType() == IValueMeta.TYPE_INTEGER || valueMeta.getType() == IValueMeta.TYPE_NUMBER;
+  }
+
+  /**
+   * @return the layout of the group data passed to the {@link IGroupConsumer}
+   */
+  public IRowMeta getKeyMeta() {
+    return keyMeta;
+  }
+
+  /**
+   * @return the number of groups in memory
+   */
+  public int getNrGroups() {
+    return nrGroups;
+  }
+
+  /**
+   * @return the estimated number of bytes the groups in memory take on the heap
+   */
+  public long getEstimatedSize() {
+    return (long) keys.length * tableBytesPerGroup + keyBytes;
+  }
+
+  /**
+   * @return true if no groups were aggregated, in memory or on disk
+   */
+  public boolean isEmpty() {
+    return nrGroups == 0 && partitionFiles == null;
+  }
+
+  /**
+   * Add a row to the aggregates of its group.
+   *
+   * @param r the input row
+   * @throws HopException in case of a conversion error
+   */
+  public void addRow( Object[] r ) throws HopException {
+    for ( int i = 0; i < groupnrs.length; i++ ) {
+      Object value = inputRowMeta.getValueMeta( groupnrs[ i ] ).convertToNormalStorageType( r[ groupnrs[ i ] ] );
+      // An empty string and null are the same group unless HOP_EMPTY_STRING_DIFFERS_FROM_NULL is set
+      //
+      keyData[ i ] = keyMeta.getValueMeta( i ).isNull( value ) ? null : value;
+    }
+    keyBuffer.reset();
+    keyMeta.writeData( keyOutput, keyData );
+
+    int group = findOrAddGroup( keyBuffer.getBuffer(), keyBuffer.size() );
+
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      int aggregateType = aggregateTypes[ i ];
+      if ( aggregateType == MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY ) {
+        counts[ i ][ group ]++;
+        continue;
+      }
+      IValueMeta subjMeta = inputRowMeta.getValueMeta( subjectnrs[ i ] );
+      Object subj = r[ subjectnrs[ i ] ];
+      if ( subjMeta.isNull( subj ) ) {
+        if ( flags[ i ] != null ) {
+          flags[ i ][ group ] |= FLAG_SAW_NULL;
+        }
+        continue;
+      }
+      switch ( aggregateType ) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+          counts[ i ][ group ]++;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          counts[ i ][ group ]++;
+          // fall through: the average is calculated from the sum
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+          if ( integerState[ i ] ) {
+            longs[ i ][ group ] += subjMeta.getInteger( subj );
+          } else {
+            doubles[ i ][ group ] += subjMeta.getNumber( subj );
+          }
+          flags[ i ][ group ] |= FLAG_HAS_VALUE;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          boolean min = aggregateType == MemoryGroupByMeta.TYPE_GROUP_MIN;
+          boolean hasValue = ( flags[ i ][ group ] & FLAG_HAS_VALUE ) != 0;
+          if ( integerState[ i ] ) {
+            long value = subjMeta.getInteger( subj );
+            if ( !hasValue || ( min ? value < longs[ i ][ group ] : value > longs[ i ][ group ] ) ) {
+              longs[ i ][ group ] = value;
+            }
+          } else {
+            double value = subjMeta.getNumber( subj );
+            if ( !hasValue || ( min ? Double.compare( value, doubles[ i ][ group ] ) < 0
+              : Double.compare( value, doubles[ i ][ group ] ) > 0 ) ) {
+              doubles[ i ][ group ] = value;
+            }
+          }
+          flags[ i ][ group ] |= FLAG_HAS_VALUE;
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * Write all groups in memory to the temporary files and start over with an empty table.
+   *
+   * @throws HopException in case the groups couldn't be written
+   */
+  public void spill() throws HopException {
+    if ( nrGroups == 0 ) {
+      return;
+    }
+    try {
+      if ( partitionFiles == null ) {
+        partitionFiles = new FileObject[ NR_PARTITIONS ];
+        partitionOutputs = new DataOutputStream[ NR_PARTITIONS ];
+        for ( int p = 0; p < NR_PARTITIONS; p++ ) {
+          partitionFiles[ p ] = HopVfs.createTempFile( "memgroupby", ".tmp", directory );
+          partitionOutputs[ p ] =
+            new DataOutputStream( new BufferedOutputStream( HopVfs.getOutputStream( partitionFiles[ p ], false ), 65536 ) );
+        }
+      }
+      for ( int group = 0; group < nrGroups; group++ ) {
+        writeGroup( partitionOutputs[ partitionOf( hashes[ group ] ) ], group );
+      }
+    } catch ( IOException e ) {
+      throw new HopFileException( "Unable to write aggregates to a temporary file", e );
+    }
+    allocate( INITIAL_CAPACITY );
+  }
+
+  /**
+   * Pass all groups with their aggregates to the consumer and clear the aggregator. If groups were written to disk
+   * they are read back one partition at a time.
+   *
+   * @param consumer the receiver of the groups
+   * @throws HopException in case of an error reading back the groups or passing them on
+   */
+  public void emit( IGroupConsumer consumer ) throws HopException {
+    if ( partitionFiles == null ) {
+      emitGroups( consumer );
+      allocate( INITIAL_CAPACITY );
+      return;
+    }
+
+    spill();
+    try {
+      for ( DataOutputStream output : partitionOutputs ) {
+        output.close();
+      }
+      partitionOutputs = null;
+
+      for ( FileObject partitionFile : partitionFiles ) {
+        try ( DataInputStream input =
+                new DataInputStream( new BufferedInputStream( HopVfs.getInputStream( partitionFile ), 65536 ) ) ) {
+          while ( readGroup( input ) ) {
+            // Merge all groups from this partition
+          }
+        }
+        emitGroups( consumer );
+        allocate( INITIAL_CAPACITY );
+      }
+    } catch ( IOException e ) {
+      throw new HopFileException( "Unable to read back aggregates from a temporary file", e );
+    } finally {
+      cleanUp();
+    }
+  }
+
+  /**
+   * Close and remove any temporary files and free the memory.
+   */
+  public void cleanUp() {
+    if ( partitionOutputs != null ) {
+      for ( DataOutputStream output : partitionOutputs ) {
+        try {
+          if ( output != null ) {
+            output.close();
+          }
+        } catch ( IOException e ) {
+          // Ignore, we're removing the file anyway
+        }
+      }
+      partitionOutputs = null;
+    }
+    if ( partitionFiles != null ) {
+      for ( FileObject partitionFile : partitionFiles ) {
+        try {
+          if ( partitionFile != null ) {
+            partitionFile.delete();
+          }
+        } catch ( IOException e ) {
+          // Ignore, it's a temporary file
+        }
+      }
+      partitionFiles = null;
+    }
+    allocate( INITIAL_CAPACITY );
+  }
+
+  private void emitGroups( IGroupConsumer consumer ) throws HopException {
+    for ( int group = 0; group < nrGroups; group++ ) {
+      Aggregate aggregate = new Aggregate();
+      aggregate.agg = new Object[ subjectnrs.length ];
+      aggregate.counts = new long[ subjectnrs.length ];
+      for ( int i = 0; i < subjectnrs.length; i++ ) {
+        switch ( aggregateTypes[ i ] ) {
+          case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+          case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+            aggregate.counts[ i ] = counts[ i ][ group ];
+            break;
+          case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+            aggregate.counts[ i ] = counts[ i ][ group ];
+            aggregate.agg[ i ] = getValue( i, group );
+            break;
+          case MemoryGroupByMeta.TYPE_GROUP_MIN:
+            if ( !minNullIsValued || ( flags[ i ][ group ] & FLAG_SAW_NULL ) == 0 ) {
+              aggregate.agg[ i ] = getValue( i, group );
+            }
+            break;
+          default:
+            aggregate.agg[ i ] = getValue( i, group );
+            break;
+        }
+      }
+      consumer.groupAggregated( RowMeta.getRow( keyMeta, keys[ group ] ), aggregate );
+    }
+  }
+
+  /**
+   * @return the sum, minimum or maximum of a group, null if there were only null values
+   */
+  private Object getValue( int i, int group ) {
+    if ( ( flags[ i ][ group ] & FLAG_HAS_VALUE ) == 0 ) {
+      return null;
+    }
+    return integerState[ i ] ? (Object) Long.valueOf( longs[ i ][ group ] ) : (Object) Double.valueOf( doubles[ i ][ group ] );
+  }
+
+  private void writeGroup( DataOutputStream output, int group ) throws IOException {
+    output.writeInt( keys[ group ].length );
+    output.write( keys[ group ] );
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      if ( flags[ i ] != null ) {
+        output.writeByte( flags[ i ][ group ] );
+      }
+      if ( longs[ i ] != null ) {
+        output.writeLong( longs[ i ][ group ] );
+      }
+      if ( doubles[ i ] != null ) {
+        output.writeDouble( doubles[ i ][ group ] );
+      }
+      if ( counts[ i ] != null ) {
+        output.writeLong( counts[ i ][ group ] );
+      }
+    }
+  }
+
+  /**
+   * Read a group written by {@link #writeGroup(DataOutputStream, int)} and merge it with the groups in memory.
+   *
+   * @return false if there are no more groups to read
+   */
+  private boolean readGroup( DataInputStream input ) throws IOException {
+    int length;
+    try {
+      length = input.readInt();
+    } catch ( EOFException e ) {
+      return false;
+    }
+    byte[] key = new byte[ length ];
+    input.readFully( key );
+    int group = findOrAddGroup( key, length );
+
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      byte otherFlags = flags[ i ] != null ? input.readByte() : 0;
+      long otherLong = longs[ i ] != null ? input.readLong() : 0L;
+      double otherDouble = doubles[ i ] != null ? input.readDouble() : 0.0;
+      long otherCount = counts[ i ] != null ? input.readLong() : 0L;
+
+      if ( counts[ i ] != null ) {
+        counts[ i ][ group ] += otherCount;
+      }
+      if ( flags[ i ] == null ) {
+        continue;
+      }
+      boolean hasValue = ( flags[ i ][ group ] & FLAG_HAS_VALUE ) != 0;
+      flags[ i ][ group ] |= otherFlags;
+      if ( ( otherFlags & FLAG_HAS_VALUE ) == 0 ) {
+        continue;
+      }
+      switch ( aggregateTypes[ i ] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          if ( integerState[ i ] ) {
+            longs[ i ][ group ] += otherLong;
+          } else {
+            doubles[ i ][ group ] += otherDouble;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          if ( integerState[ i ] ) {
+            longs[ i ][ group ] = hasValue ? Math.min( longs[ i ][ group ], otherLong ) : otherLong;
+          } else {
+            doubles[ i ][ group ] = hasValue && Double.compare( doubles[ i ][ group ], otherDouble ) <= 0
+              ? doubles[ i ][ group ] : otherDouble;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if ( integerState[ i ] ) {
+            longs[ i ][ group ] = hasValue ? Math.max( longs[ i ][ group ], otherLong ) : otherLong;
+          } else {
+            doubles[ i ][ group ] = hasValue && Double.compare( doubles[ i ][ group ], otherDouble ) >= 0
+              ? doubles[ i ][ group ] : otherDouble;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Look up the group with the given serialized key, add it if it's not there.
+   *
+   * @param key    the buffer holding the serialized key
+   * @param length the length of the key in the buffer
+   * @return the group number
+   */
+  private int findOrAddGroup( byte[] key, int length ) {
+    int hash = hash( key, length );
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    int check = slots[ slot ];
+    while ( check != 0 ) {
+      int group = check - 1;
+      if ( hashes[ group ] == hash && equals( keys[ group ], key, length ) ) {
+        return group;
+      }
+      slot = ( slot + 1 ) & mask;
+      check = slots[ slot ];
+    }
+
+    if ( nrGroups == keys.length ) {
+      grow();
+      return findOrAddGroup( key, length );
+    }
+
+    int group = nrGroups++;
+    keys[ group ] = Arrays.copyOf( key, length );
+    // The array header and the padding to 8 bytes
+    keyBytes += 16 + ( ( length + 7 ) & ~7 );
+    hashes[ group ] = hash;
+    slots[ slot ] = group + 1;
+    return group;
+  }
+
+  /**
+   * Allocate an empty table for the given number of groups.
+   */
+  private void allocate( int capacity ) {
+    nrGroups = 0;
+    keyBytes = 0;
+    // Two slots, the key reference and the hash
+    tableBytesPerGroup = 2 * 4 + 8 + 4;
+    slots = new int[ 2 * capacity ];
+    keys = new byte[ capacity ][];
+    hashes = new int[ capacity ];
+    longs = new long[ subjectnrs.length ][];
+    doubles = new double[ subjectnrs.length ][];
+    counts = new long[ subjectnrs.length ][];
+    flags = new byte[ subjectnrs.length ][];
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      switch ( aggregateTypes[ i ] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          counts[ i ] = new long[ capacity ];
+          tableBytesPerGroup += 8;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          counts[ i ] = new long[ capacity ];
+          tableBytesPerGroup += 8;
+          // fall through: the sum is kept as well
+        default:
+          flags[ i ] = new byte[ capacity ];
+          tableBytesPerGroup += 1 + 8;
+          if ( integerState[ i ] ) {
+            longs[ i ] = new long[ capacity ];
+          } else {
+            doubles[ i ] = new double[ capacity ];
+          }
+          break;
+      }
+    }
+  }
+
+  /**
+   * Double the capacity of the table, the slots are filled at most half.
+   */
+  private void grow() {
+    int capacity = 2 * keys.length;
+    keys = Arrays.copyOf( keys, capacity );
+    hashes = Arrays.copyOf( hashes, capacity );
+    for ( int i = 0; i < subjectnrs.length; i++ ) {
+      if ( longs[ i ] != null ) {
+        longs[ i ] = Arrays.copyOf( longs[ i ], capacity );
+      }
+      if ( doubles[ i ] != null ) {
+        doubles[ i ] = Arrays.copyOf( doubles[ i ], capacity );
+      }
+      if ( counts[ i ] != null ) {
+        counts[ i ] = Arrays.copyOf( counts[ i ], capacity );
+      }
+      if ( flags[ i ] != null ) {
+        flags[ i ] = Arrays.copyOf( flags[ i ], capacity );
+      }
+    }
+
+    slots = new int[ 2 * capacity ];
+    int mask = slots.length - 1;
+    for ( int group = 0; group < nrGroups; group++ ) {
+      int slot = hashes[ group ] & mask;
+      while ( slots[ slot ] != 0 ) {
+        slot = ( slot + 1 ) & mask;
+      }
+      slots[ slot ] = group + 1;
+    }
+  }
+
+  private static int partitionOf( int hash ) {
+    // The low bits select the slot, use the high bits for the partition
+    //
+    return hash >>> 26;
+  }
+
+  private static int hash( byte[] key, int length ) {
+    int h = 1;
+    for ( int i = 0; i < length; i++ ) {
+      h = 31 * h + key[ i ];
+    }
+    // Spread the bits so that both the low and the high bits are usable
+    //
+    h *= 0x9E3779B9;
+    return h ^ ( h >>> 16 );
+  }
+
+  private static boolean equals( byte[] key, byte[] other, int length ) {
+    if ( key.length != length ) {
+      return false;
+    }
+    for ( int i = 0; i < length; i++ ) {
+      if ( key[ i ] != other[ i ] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A reusable buffer to serialize keys in.
+   */
+  private static final class KeyBuffer extends ByteArrayOutputStream {
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+}
@@ -154,6 +154,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       //
       newAggregate( r, null );
 
+      if ( meta.isCompactAggregation() && r != null ) {
+        initCompactAggregator();
+      }
+
       // for speed: groupMeta+aggMeta
       //
       data.groupAggMeta = new RowMeta();
@@ -187,27 +191,25 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   }
 
   private void handleLastOfGroup() throws HopException {
-    // Dump the content of the map...
-    //
-    for ( HashEntry entry : data.map.keySet() ) {
-      Aggregate aggregate = data.map.get( entry );
-      Object[] aggregateResult = getAggregateResult( aggregate );
+    boolean empty;
+    if ( data.compactAggregator != null ) {
+      empty = data.compactAggregator.isEmpty();
+      final IRowMeta keyMeta = data.compactAggregator.getKeyMeta();
+      data.compactAggregator.emit( ( groupData, aggregate ) -> putGroupRow( keyMeta, groupData, aggregate ) );
+    } else {
+      empty = data.map.isEmpty();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
-      int index = 0;
-      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
-        outputRowData[ index++ ] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[ i ] );
-      }
-      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
-        outputRowData[ index++ ] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[ i ] );
+      // Dump the content of the map...
+      //
+      for ( HashEntry entry : data.map.keySet() ) {
+        putGroupRow( data.groupMeta, entry.getGroupData(), data.map.get( entry ) );
       }
-      putRow( data.outputRowMeta, outputRowData );
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if ( data.map.isEmpty() && meta.isAlwaysGivingBackOneRow() ) {
+    if ( empty && meta.isAlwaysGivingBackOneRow() ) {
       Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
       int index = 0;
       for ( int i = 0; i < data.groupMeta.size(); i++ ) {
@@ -226,6 +228,41 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  private void putGroupRow( IRowMeta groupMeta, Object[] groupData, Aggregate aggregate ) throws HopException {
+    Object[] aggregateResult = getAggregateResult( aggregate );
+
+    Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+    int index = 0;
+    for ( int i = 0; i < groupMeta.size(); i++ ) {
+      outputRowData[ index++ ] = groupMeta.getValueMeta( i ).convertToNormalStorageType( groupData[ i ] );
+    }
+    for ( int i = 0; i < data.aggMeta.size(); i++ ) {
+      outputRowData[ index++ ] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[ i ] );
+    }
+    putRow( data.outputRowMeta, outputRowData );
+  }
+
+  /**
+   * Keep the groups and aggregates in a compact aggregator if all group fields and aggregates allow it.
+   */
+  private void initCompactAggregator() {
+    if ( !CompactAggregator.isSupported( data.inputRowMeta, data.groupMeta, data.groupnrs, data.subjectnrs,
+      meta.getAggregateType(), data.aggMeta ) ) {
+      logBasic( BaseMessages.getString( PKG, "MemoryGroupBy.Log.CompactAggregationNotSupported" ) );
+      return;
+    }
+
+    // The compact aggregator hands out sums, minimums and maximums in normal storage
+    //
+    for ( IValueMeta valueMeta : data.aggMeta.getValueMetaList() ) {
+      valueMeta.setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
+    }
+    data.memoryLimit = Const.toLong( environmentSubstitute( meta.getMemoryLimit() ),
+      MemoryGroupByMeta.DEFAULT_MEMORY_LIMIT ) * 1024 * 1024;
+    data.compactAggregator = new CompactAggregator( data.inputRowMeta, data.groupnrs, data.subjectnrs,
+      meta.getAggregateType(), data.aggMeta, minNullIsValued, environmentSubstitute( meta.getDirectory() ) );
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -234,6 +271,22 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
    */
   @SuppressWarnings( "unchecked" ) void addToAggregate( Object[] r ) throws HopException {
 
+    if ( data.compactAggregator != null ) {
+      data.compactAggregator.addRow( r );
+
+      // The free memory of the JVM counts garbage as used, so the aggregator keeps track of its own size
+      //
+      long size = data.compactAggregator.getEstimatedSize();
+      if ( size > data.memoryLimit ) {
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Log.SpillingToDisk", size / ( 1024 * 1024 ),
+            data.compactAggregator.getNrGroups() ) );
+        }
+        data.compactAggregator.spill();
+      }
+      return;
+    }
+
     Object[] groupData = new Object[ data.groupMeta.size() ];
     for ( int i = 0; i < data.groupnrs.length; i++ ) {
       groupData[ i ] = r[ data.groupnrs[ i ] ];
@@ -561,6 +614,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   @Override
   public void dispose() {
     super.dispose();
+    if ( data.compactAggregator != null ) {
+      data.compactAggregator.cleanUp();
+    }
     ( (MemoryGroupByData) data ).clear();
   }
 
@@ -98,6 +98,16 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /**
+   * The groups and aggregates in compact mode, null if the map is used
+   */
+  public CompactAggregator compactAggregator;
+
+  /**
+   * The number of bytes the compact aggregates can take before they are written to disk
+   */
+  public long memoryLimit;
+
   public MemoryGroupByData() {
     super();
 
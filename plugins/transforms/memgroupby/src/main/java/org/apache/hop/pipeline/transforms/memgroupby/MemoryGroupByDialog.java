@@ -34,6 +34,7 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.*;
@@ -60,6 +61,18 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
   private Button wAlwaysAddResult;
   private FormData fdlAlwaysAddResult, fdAlwaysAddResult;
 
+  private Label wlCompactAggregation;
+  private Button wCompactAggregation;
+  private FormData fdlCompactAggregation, fdCompactAggregation;
+
+  private Label wlDirectory;
+  private TextVar wDirectory;
+  private FormData fdlDirectory, fdDirectory;
+
+  private Label wlMemoryLimit;
+  private TextVar wMemoryLimit;
+  private FormData fdlMemoryLimit, fdMemoryLimit;
+
   private Button wGet, wGetAgg;
   private FormData fdGet, fdGetAgg;
   private Listener lsGet, lsGetAgg;
@@ -151,12 +164,82 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     wAlwaysAddResult.setLayoutData( fdAlwaysAddResult );
     wAlwaysAddResult.addSelectionListener( lsSel );
 
+    // Keep simple aggregates in compact form, spill to disk when memory runs low
+    //
+    wlCompactAggregation = new Label( shell, SWT.RIGHT );
+    wlCompactAggregation.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.CompactAggregation.Label" ) );
+    wlCompactAggregation
+      .setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.CompactAggregation.ToolTip" ) );
+    props.setLook( wlCompactAggregation );
+    fdlCompactAggregation = new FormData();
+    fdlCompactAggregation.left = new FormAttachment( 0, 0 );
+    fdlCompactAggregation.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlCompactAggregation.right = new FormAttachment( middle, -margin );
+    wlCompactAggregation.setLayoutData( fdlCompactAggregation );
+    wCompactAggregation = new Button( shell, SWT.CHECK );
+    wCompactAggregation
+      .setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.CompactAggregation.ToolTip" ) );
+    props.setLook( wCompactAggregation );
+    fdCompactAggregation = new FormData();
+    fdCompactAggregation.left = new FormAttachment( middle, 0 );
+    fdCompactAggregation.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdCompactAggregation.right = new FormAttachment( 100, 0 );
+    wCompactAggregation.setLayoutData( fdCompactAggregation );
+    wCompactAggregation.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        wDirectory.setEnabled( wCompactAggregation.getSelection() );
+        wMemoryLimit.setEnabled( wCompactAggregation.getSelection() );
+      }
+    } );
+
+    // Spill directory
+    //
+    wlDirectory = new Label( shell, SWT.RIGHT );
+    wlDirectory.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Directory.Label" ) );
+    props.setLook( wlDirectory );
+    fdlDirectory = new FormData();
+    fdlDirectory.left = new FormAttachment( 0, 0 );
+    fdlDirectory.top = new FormAttachment( wCompactAggregation, margin );
+    fdlDirectory.right = new FormAttachment( middle, -margin );
+    wlDirectory.setLayoutData( fdlDirectory );
+    wDirectory = new TextVar( pipelineMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wDirectory );
+    wDirectory.addModifyListener( lsMod );
+    fdDirectory = new FormData();
+    fdDirectory.left = new FormAttachment( middle, 0 );
+    fdDirectory.top = new FormAttachment( wCompactAggregation, margin );
+    fdDirectory.right = new FormAttachment( 100, 0 );
+    wDirectory.setLayoutData( fdDirectory );
+
+    // Memory limit of the compact aggregates
+    //
+    wlMemoryLimit = new Label( shell, SWT.RIGHT );
+    wlMemoryLimit.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.Label" ) );
+    wlMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.ToolTip" ) );
+    props.setLook( wlMemoryLimit );
+    fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlMemoryLimit.top = new FormAttachment( wDirectory, margin );
+    fdlMemoryLimit.right = new FormAttachment( middle, -margin );
+    wlMemoryLimit.setLayoutData( fdlMemoryLimit );
+    wMemoryLimit = new TextVar( pipelineMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.ToolTip" ) );
+    props.setLook( wMemoryLimit );
+    wMemoryLimit.addModifyListener( lsMod );
+    fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdMemoryLimit.top = new FormAttachment( wDirectory, margin );
+    fdMemoryLimit.right = new FormAttachment( 100, 0 );
+    wMemoryLimit.setLayoutData( fdMemoryLimit );
+
     wlGroup = new Label( shell, SWT.NONE );
     wlGroup.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Group.Label" ) );
     props.setLook( wlGroup );
     fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment( 0, 0 );
-    fdlGroup.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlGroup.top = new FormAttachment( wMemoryLimit, margin );
     wlGroup.setLayoutData( fdlGroup );
 
     int nrKeyCols = 1;
@@ -358,6 +441,11 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     logDebug( BaseMessages.getString( PKG, "MemoryGroupByDialog.Log.GettingKeyInfo" ) );
 
     wAlwaysAddResult.setSelection( input.isAlwaysGivingBackOneRow() );
+    wCompactAggregation.setSelection( input.isCompactAggregation() );
+    wDirectory.setText( Const.NVL( input.getDirectory(), "" ) );
+    wDirectory.setEnabled( input.isCompactAggregation() );
+    wMemoryLimit.setText( Const.NVL( input.getMemoryLimit(), "" ) );
+    wMemoryLimit.setEnabled( input.isCompactAggregation() );
 
     if ( input.getGroupField() != null ) {
       for ( int i = 0; i < input.getGroupField().length; i++ ) {
@@ -408,6 +496,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     int nrFields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow( wAlwaysAddResult.getSelection() );
+    input.setCompactAggregation( wCompactAggregation.getSelection() );
+    input.setDirectory( wDirectory.getText() );
+    input.setMemoryLimit( wMemoryLimit.getText() );
 
     input.allocate( sizegroup, nrFields );
 
@@ -68,6 +68,9 @@ import java.util.List;
 public class MemoryGroupByMeta extends BaseTransformMeta implements ITransformMeta<MemoryGroupBy, MemoryGroupByData> {
   private static Class<?> PKG = MemoryGroupByMeta.class; // for i18n purposes, needed by Translator!!
 
+  /** The default size in MB the compact aggregates can take before they are spilled to disk */
+  public static final long DEFAULT_MEMORY_LIMIT = 256;
+
   public static final int TYPE_GROUP_NONE = 0;
 
   public static final int TYPE_GROUP_SUM = 1;
@@ -149,6 +152,18 @@ public class MemoryGroupByMeta extends BaseTransformMeta implements ITransformMe
   /** Flag to indicate that we always give back one row. Defaults to true for existing pipelines. */
   private boolean alwaysGivingBackOneRow;
 
+  @Injection( name = "COMPACTAGGREGATION", group = "FIELDS" )
+  /** Flag to indicate that simple aggregates are kept in compact form and spilled to disk when memory runs low */
+  private boolean compactAggregation;
+
+  @Injection( name = "DIRECTORY", group = "FIELDS" )
+  /** Directory to spill the compact aggregates to */
+  private String directory;
+
+  @Injection( name = "MEMORYLIMIT", group = "FIELDS" )
+  /** The size in MB the compact aggregates can take before they are spilled to disk */
+  private String memoryLimit;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -292,6 +307,16 @@ public class MemoryGroupByMeta extends BaseTransformMeta implements ITransformMe
       } else {
         alwaysGivingBackOneRow = "Y".equalsIgnoreCase( giveBackRow );
       }
+
+      compactAggregation = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "compact_aggregation" ) );
+      directory = XmlHandler.getTagValue( transformNode, "directory" );
+      if ( Utils.isEmpty( directory ) ) {
+        directory = "%%java.io.tmpdir%%";
+      }
+      memoryLimit = XmlHandler.getTagValue( transformNode, "memory_limit" );
+      if ( Utils.isEmpty( memoryLimit ) ) {
+        memoryLimit = Long.toString( DEFAULT_MEMORY_LIMIT );
+      }
     } catch ( Exception e ) {
       throw new HopXmlException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnableToLoadTransformMetaFromXML" ), e );
@@ -332,6 +357,10 @@ public class MemoryGroupByMeta extends BaseTransformMeta implements ITransformMe
     int nrFields = 0;
 
     allocate( sizegroup, nrFields );
+
+    compactAggregation = false;
+    directory = "%%java.io.tmpdir%%";
+    memoryLimit = Long.toString( DEFAULT_MEMORY_LIMIT );
   }
 
   @Override
@@ -448,6 +477,9 @@ public class MemoryGroupByMeta extends BaseTransformMeta implements ITransformMe
     StringBuilder retval = new StringBuilder( 500 );
 
     retval.append( "      " ).append( XmlHandler.addTagValue( "give_back_row", alwaysGivingBackOneRow ) );
+    retval.append( "      " ).append( XmlHandler.addTagValue( "compact_aggregation", compactAggregation ) );
+    retval.append( "      " ).append( XmlHandler.addTagValue( "directory", directory ) );
+    retval.append( "      " ).append( XmlHandler.addTagValue( "memory_limit", memoryLimit ) );
 
     retval.append( "      <group>" ).append( Const.CR );
     for ( int i = 0; i < groupField.length; i++ ) {
@@ -509,6 +541,48 @@ public class MemoryGroupByMeta extends BaseTransformMeta implements ITransformMe
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return true if simple aggregates are kept in compact form and spilled to disk when memory runs low
+   */
+  public boolean isCompactAggregation() {
+    return compactAggregation;
+  }
+
+  /**
+   * @param compactAggregation the compactAggregation to set
+   */
+  public void setCompactAggregation( boolean compactAggregation ) {
+    this.compactAggregation = compactAggregation;
+  }
+
+  /**
+   * @return the directory to spill the compact aggregates to
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory the directory to set
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the size in MB the compact aggregates can take before they are spilled to disk
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit the memoryLimit to set
+   */
+  public void setMemoryLimit( String memoryLimit ) {
+    this.memoryLimit = memoryLimit;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
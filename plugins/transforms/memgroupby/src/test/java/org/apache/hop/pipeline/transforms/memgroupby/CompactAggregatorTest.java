@@ -0,0 +1,282 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompactAggregatorTest {
+
+  private static final int[] AGGREGATE_TYPES = new int[] {
+    MemoryGroupByMeta.TYPE_GROUP_SUM,
+    MemoryGroupByMeta.TYPE_GROUP_AVERAGE,
+    MemoryGroupByMeta.TYPE_GROUP_MIN,
+    MemoryGroupByMeta.TYPE_GROUP_MAX,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY,
+    MemoryGroupByMeta.TYPE_GROUP_SUM,
+    MemoryGroupByMeta.TYPE_GROUP_MAX,
+  };
+
+  private IRowMeta inputRowMeta;
+  private IRowMeta aggMeta;
+  private File directory;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "intg" ) );
+    inputRowMeta.addValueMeta( new ValueMetaNumber( "num" ) );
+
+    aggMeta = new RowMeta();
+    aggMeta.addValueMeta( new ValueMetaInteger( "intg_sum" ) );
+    aggMeta.addValueMeta( new ValueMetaInteger( "intg_ave" ) );
+    aggMeta.addValueMeta( new ValueMetaInteger( "intg_min" ) );
+    aggMeta.addValueMeta( new ValueMetaInteger( "intg_max" ) );
+    aggMeta.addValueMeta( new ValueMetaInteger( "intg_count" ) );
+    aggMeta.addValueMeta( new ValueMetaInteger( "intg_count_any" ) );
+    aggMeta.addValueMeta( new ValueMetaNumber( "num_sum" ) );
+    aggMeta.addValueMeta( new ValueMetaNumber( "num_max" ) );
+
+    directory = Files.createTempDirectory( "compactaggregator" ).toFile();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if ( files != null ) {
+      for ( File file : files ) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void testIsSupported() {
+    int[] groupnrs = new int[] { 0 };
+    int[] subjectnrs = new int[] { 1, 1, 1, 1, 1, 0, 2, 2 };
+    IRowMeta groupMeta = new RowMeta();
+    groupMeta.addValueMeta( inputRowMeta.getValueMeta( 0 ) );
+
+    assertTrue( CompactAggregator.isSupported( inputRowMeta, groupMeta, groupnrs, subjectnrs, AGGREGATE_TYPES, aggMeta ) );
+
+    // Case insensitive strings can be equal with different bytes
+    //
+    inputRowMeta.getValueMeta( 0 ).setCaseInsensitive( true );
+    assertFalse( CompactAggregator.isSupported( inputRowMeta, groupMeta, groupnrs, subjectnrs, AGGREGATE_TYPES, aggMeta ) );
+    inputRowMeta.getValueMeta( 0 ).setCaseInsensitive( false );
+
+    // Concatenation is not supported
+    //
+    int[] concat = AGGREGATE_TYPES.clone();
+    concat[ 0 ] = MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA;
+    assertFalse( CompactAggregator.isSupported( inputRowMeta, groupMeta, groupnrs, subjectnrs, concat, aggMeta ) );
+
+    // Neither is a big number key
+    //
+    IRowMeta bigGroupMeta = new RowMeta();
+    bigGroupMeta.addValueMeta( new ValueMetaBigNumber( "key" ) );
+    assertFalse( CompactAggregator.isSupported( inputRowMeta, bigGroupMeta, groupnrs, subjectnrs, AGGREGATE_TYPES, aggMeta ) );
+  }
+
+  @Test
+  public void testAggregate() throws Exception {
+    CompactAggregator aggregator = newAggregator( false );
+    addRows( aggregator );
+
+    Map<String, Object[]> results = emit( aggregator );
+    assertExpectedResults( results );
+    assertTrue( aggregator.isEmpty() );
+  }
+
+  @Test
+  public void testAggregateMinNullIsValued() throws Exception {
+    CompactAggregator aggregator = newAggregator( true );
+    addRows( aggregator );
+
+    Map<String, Object[]> results = emit( aggregator );
+    assertNull( results.get( "a" )[ 2 ] );
+    assertEquals( 1L, results.get( "b" )[ 2 ] );
+  }
+
+  @Test
+  public void testAggregateWithSpills() throws Exception {
+    CompactAggregator aggregator = newAggregator( false );
+
+    // Write the groups to disk after every row so every group is merged from several partitions
+    //
+    Object[][] rows = getRows();
+    for ( Object[] row : rows ) {
+      aggregator.addRow( row );
+      aggregator.spill();
+      assertEquals( 0, aggregator.getNrGroups() );
+      assertFalse( aggregator.isEmpty() );
+    }
+    assertEquals( CompactAggregator.NR_PARTITIONS, directory.listFiles().length );
+
+    Map<String, Object[]> results = emit( aggregator );
+    assertExpectedResults( results );
+    assertTrue( aggregator.isEmpty() );
+    assertEquals( 0, directory.listFiles().length );
+  }
+
+  @Test
+  public void testManyGroups() throws Exception {
+    CompactAggregator aggregator = newAggregator( false );
+    for ( long i = 0; i < 50000; i++ ) {
+      aggregator.addRow( new Object[] { "key" + ( i % 20000 ), i, (double) i } );
+      if ( i == 30000 ) {
+        aggregator.spill();
+      }
+    }
+
+    Map<String, Object[]> results = emit( aggregator );
+    assertEquals( 20000, results.size() );
+    for ( long k = 0; k < 20000; k++ ) {
+      long expectedSum = 0;
+      long expectedCount = 0;
+      for ( long i = k; i < 50000; i += 20000 ) {
+        expectedSum += i;
+        expectedCount++;
+      }
+      Object[] result = results.get( "key" + k );
+      assertEquals( expectedSum, result[ 0 ] );
+      assertEquals( k, result[ 2 ] );
+      assertEquals( expectedCount, result[ 5 ] );
+    }
+  }
+
+  @Test
+  public void testEstimatedSize() throws Exception {
+    CompactAggregator aggregator = newAggregator( false );
+    long emptySize = aggregator.getEstimatedSize();
+    assertTrue( emptySize > 0 );
+
+    aggregator.addRow( new Object[] { "key", 1L, 1.0 } );
+    long oneGroup = aggregator.getEstimatedSize();
+    assertTrue( oneGroup > emptySize );
+
+    // The same group doesn't take more room
+    //
+    aggregator.addRow( new Object[] { "key", 2L, 2.0 } );
+    assertEquals( oneGroup, aggregator.getEstimatedSize() );
+
+    // Growing the table counts the bigger arrays
+    //
+    for ( long i = 0; i < 5000; i++ ) {
+      aggregator.addRow( new Object[] { "key" + i, i, (double) i } );
+    }
+    assertTrue( aggregator.getEstimatedSize() > 5000 * 50 );
+
+    aggregator.spill();
+    assertEquals( emptySize, aggregator.getEstimatedSize() );
+  }
+
+  private CompactAggregator newAggregator( boolean minNullIsValued ) {
+    return new CompactAggregator( inputRowMeta, new int[] { 0 }, new int[] { 1, 1, 1, 1, 1, 0, 2, 2 },
+      AGGREGATE_TYPES, aggMeta, minNullIsValued, directory.getAbsolutePath() );
+  }
+
+  private Object[][] getRows() {
+    return new Object[][] {
+      { "a", 3L, 1.5 },
+      { "b", 1L, null },
+      { "a", null, -2.0 },
+      { "a", -4L, 0.25 },
+      { "c", null, null },
+      { "b", 7L, null },
+      { "", 5L, 1.0 },
+      { null, 6L, 2.0 },
+    };
+  }
+
+  private void addRows( CompactAggregator aggregator ) throws HopException {
+    for ( Object[] row : getRows() ) {
+      aggregator.addRow( row );
+    }
+  }
+
+  /**
+   * @return the aggregates per key, averages are still sums here, counts are added at the end
+   */
+  private Map<String, Object[]> emit( CompactAggregator aggregator ) throws HopException {
+    Map<String, Object[]> results = new HashMap<>();
+    aggregator.emit( ( groupData, aggregate ) -> {
+      Object[] result = new Object[ AGGREGATE_TYPES.length ];
+      for ( int i = 0; i < AGGREGATE_TYPES.length; i++ ) {
+        switch ( AGGREGATE_TYPES[ i ] ) {
+          case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+          case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+            result[ i ] = aggregate.counts[ i ];
+            break;
+          default:
+            result[ i ] = aggregate.agg[ i ];
+            break;
+        }
+      }
+      assertEquals( 1, groupData.length );
+      results.put( (String) groupData[ 0 ], result );
+    } );
+    return results;
+  }
+
+  private void assertExpectedResults( Map<String, Object[]> results ) {
+    // The empty string and null are the same group
+    //
+    assertEquals( 4, results.size() );
+
+    assertArrayEquals( new Object[] { -1L, -1L, -4L, 3L, 2L, 3L, -0.25, 1.5 }, results.get( "a" ) );
+    assertArrayEquals( new Object[] { 8L, 8L, 1L, 7L, 2L, 2L, null, null }, results.get( "b" ) );
+    assertArrayEquals( new Object[] { null, null, null, null, 0L, 1L, null, null }, results.get( "c" ) );
+    assertArrayEquals( new Object[] { 11L, 11L, 5L, 6L, 2L, 2L, 3.0, 2.0 }, results.get( null ) );
+  }
+}
@@ -78,5 +78,23 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
         return meta.isAlwaysGivingBackOneRow();
       }
     } );
+    check( "COMPACTAGGREGATION", new IBooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isCompactAggregation();
+      }
+    } );
+    check( "DIRECTORY", new IStringGetter() {
+      @Override
+      public String get() {
+        return meta.getDirectory();
+      }
+    } );
+    check( "MEMORYLIMIT", new IStringGetter() {
+      @Override
+      public String get() {
+        return meta.getMemoryLimit();
+      }
+    } );
   }
 }
@@ -0,0 +1,549 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Writes rows in the PostgreSQL binary COPY format. Every value is encoded straight into one reusable buffer which is
+ * handed to the COPY stream when it is full, so there are no intermediate strings or byte arrays per value. The
+ * encoding of a column depends on the type of the target column: binary COPY doesn't convert, an int4 column needs 4
+ * bytes.
+ * <p>
+ * Supported column types are int2, int4, int8, float4, float8, numeric, bool, text, varchar, bpchar, name, date,
+ * timestamp, timestamptz and bytea. Use {@link #isSupported(String)} to see if a column can be loaded in binary.
+ */
+public class PGBinaryCopyEncoder {
+
+  /**
+   * The number of bytes buffered before they are written to the COPY stream
+   */
+  public static final int DEFAULT_FLUSH_SIZE = 1024 * 1024;
+
+  private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+
+  private static final int TYPE_INT2 = 1;
+  private static final int TYPE_INT4 = 2;
+  private static final int TYPE_INT8 = 3;
+  private static final int TYPE_FLOAT4 = 4;
+  private static final int TYPE_FLOAT8 = 5;
+  private static final int TYPE_NUMERIC = 6;
+  private static final int TYPE_BOOL = 7;
+  private static final int TYPE_TEXT = 8;
+  private static final int TYPE_DATE = 9;
+  private static final int TYPE_TIMESTAMP = 10;
+  private static final int TYPE_TIMESTAMPTZ = 11;
+  private static final int TYPE_BYTEA = 12;
+
+  /**
+   * 2000-01-01, the PostgreSQL epoch, in days since 1970-01-01
+   */
+  private static final long PG_EPOCH_DAYS = 10957L;
+  private static final long PG_EPOCH_MICROS = PG_EPOCH_DAYS * 86400L * 1000000L;
+
+  private static final short NUMERIC_POS = 0x0000;
+  private static final short NUMERIC_NEG = 0x4000;
+  private static final short NUMERIC_NAN = (short) 0xC000;
+
+  private final IRowMeta rowMeta;
+  private final int[] fieldNrs;
+  private final int[] columnTypes;
+  private final boolean[] truncateToDate;
+  private final ZoneId zoneId;
+  private final int flushSize;
+
+  private final CharsetEncoder charsetEncoder;
+  private final boolean utf8;
+
+  private OutputStream outputStream;
+  private byte[] buffer;
+  private int position;
+
+  /**
+   * Reused to hold the base 10000 digits of numeric values
+   */
+  private short[] numericDigits;
+
+  private long rowsWritten;
+  private long bytesWritten;
+
+  /**
+   * @param rowMeta         the layout of the rows to load
+   * @param fieldNrs        the fields to load, in the order of the columns in the COPY command
+   * @param columnTypeNames the PostgreSQL type names of the columns
+   * @param truncateToDate  per column: write the date only, without the time of day
+   * @param encoding        the client encoding for text values
+   * @param flushSize       the number of bytes to buffer before writing to the COPY stream
+   * @throws HopException in case one of the column types is not supported
+   */
+  public PGBinaryCopyEncoder( IRowMeta rowMeta, int[] fieldNrs, String[] columnTypeNames, boolean[] truncateToDate,
+                              Charset encoding, int flushSize ) throws HopException {
+    this.rowMeta = rowMeta;
+    this.fieldNrs = fieldNrs;
+    this.truncateToDate = truncateToDate;
+    this.zoneId = ZoneId.systemDefault();
+    this.flushSize = flushSize;
+
+    this.columnTypes = new int[ columnTypeNames.length ];
+    for ( int i = 0; i < columnTypeNames.length; i++ ) {
+      columnTypes[ i ] = getColumnType( columnTypeNames[ i ] );
+      if ( columnTypes[ i ] == 0 ) {
+        throw new HopException( "Column type '" + columnTypeNames[ i ] + "' can't be loaded in binary COPY format" );
+      }
+    }
+
+    this.utf8 = StandardCharsets.UTF_8.equals( encoding );
+    this.charsetEncoder = encoding.newEncoder()
+      .onMalformedInput( CodingErrorAction.REPLACE )
+      .onUnmappableCharacter( CodingErrorAction.REPLACE );
+
+    this.buffer = new byte[ flushSize ];
+    this.numericDigits = new short[ 16 ];
+  }
+
+  /**
+   * @param columnTypeName the PostgreSQL type name of a column
+   * @return true if values can be written to a column of this type
+   */
+  public static boolean isSupported( String columnTypeName ) {
+    return getColumnType( columnTypeName ) != 0;
+  }
+
+  private static int getColumnType( String columnTypeName ) {
+    if ( columnTypeName == null ) {
+      return 0;
+    }
+    switch ( columnTypeName.toLowerCase( Locale.ROOT ) ) {
+      case "int2":
+        return TYPE_INT2;
+      case "int4":
+      case "serial":
+        return TYPE_INT4;
+      case "int8":
+      case "bigserial":
+        return TYPE_INT8;
+      case "float4":
+        return TYPE_FLOAT4;
+      case "float8":
+        return TYPE_FLOAT8;
+      case "numeric":
+        return TYPE_NUMERIC;
+      case "bool":
+        return TYPE_BOOL;
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "name":
+        return TYPE_TEXT;
+      case "date":
+        return TYPE_DATE;
+      case "timestamp":
+        return TYPE_TIMESTAMP;
+      case "timestamptz":
+        return TYPE_TIMESTAMPTZ;
+      case "bytea":
+        return TYPE_BYTEA;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Write the header of the binary COPY data
+   *
+   * @param outputStream the COPY stream
+   */
+  public void start( OutputStream outputStream ) throws HopException {
+    this.outputStream = outputStream;
+    ensureCapacity( SIGNATURE.length + 8 );
+    System.arraycopy( SIGNATURE, 0, buffer, position, SIGNATURE.length );
+    position += SIGNATURE.length;
+    writeInt( 0 ); // flags
+    writeInt( 0 ); // header extension length
+  }
+
+  /**
+   * Encode one row into the buffer, writing the buffer to the COPY stream if it's full.
+   *
+   * @param row the row with the layout of the row metadata
+   */
+  public void writeRow( Object[] row ) throws HopException {
+    ensureCapacity( 2 );
+    writeShort( (short) fieldNrs.length );
+    for ( int i = 0; i < fieldNrs.length; i++ ) {
+      IValueMeta valueMeta = rowMeta.getValueMeta( fieldNrs[ i ] );
+      Object valueData = row[ fieldNrs[ i ] ];
+      try {
+        if ( valueMeta.isNull( valueData ) ) {
+          ensureCapacity( 4 );
+          writeInt( -1 );
+        } else {
+          writeValue( i, valueMeta, valueData );
+        }
+      } catch ( HopValueException e ) {
+        throw new HopException( "Unable to encode field '" + valueMeta.getName() + "' for binary COPY", e );
+      }
+    }
+    rowsWritten++;
+  }
+
+  /**
+   * Write the trailer and hand the remaining bytes to the COPY stream
+   */
+  public void end() throws HopException {
+    ensureCapacity( 2 );
+    writeShort( (short) -1 );
+    flush();
+  }
+
+  /**
+   * @return the number of rows encoded
+   */
+  public long getRowsWritten() {
+    return rowsWritten;
+  }
+
+  /**
+   * @return the number of bytes written to the COPY stream
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  private void writeValue( int column, IValueMeta valueMeta, Object valueData ) throws HopException {
+    switch ( columnTypes[ column ] ) {
+      case TYPE_INT2:
+        long shortValue = valueMeta.getInteger( valueData );
+        if ( shortValue < Short.MIN_VALUE || shortValue > Short.MAX_VALUE ) {
+          throw new HopValueException( "Value " + shortValue + " is out of range for int2" );
+        }
+        ensureCapacity( 6 );
+        writeInt( 2 );
+        writeShort( (short) shortValue );
+        break;
+      case TYPE_INT4:
+        long intValue = valueMeta.getInteger( valueData );
+        if ( intValue < Integer.MIN_VALUE || intValue > Integer.MAX_VALUE ) {
+          throw new HopValueException( "Value " + intValue + " is out of range for int4" );
+        }
+        ensureCapacity( 8 );
+        writeInt( 4 );
+        writeInt( (int) intValue );
+        break;
+      case TYPE_INT8:
+        ensureCapacity( 12 );
+        writeInt( 8 );
+        writeLong( valueMeta.getInteger( valueData ) );
+        break;
+      case TYPE_FLOAT4:
+        ensureCapacity( 8 );
+        writeInt( 4 );
+        writeInt( Float.floatToIntBits( valueMeta.getNumber( valueData ).floatValue() ) );
+        break;
+      case TYPE_FLOAT8:
+        ensureCapacity( 12 );
+        writeInt( 8 );
+        writeLong( Double.doubleToLongBits( valueMeta.getNumber( valueData ) ) );
+        break;
+      case TYPE_NUMERIC:
+        writeNumeric( valueMeta, valueData );
+        break;
+      case TYPE_BOOL:
+        ensureCapacity( 5 );
+        writeInt( 1 );
+        buffer[ position++ ] = valueMeta.getBoolean( valueData ) ? (byte) 1 : (byte) 0;
+        break;
+      case TYPE_TEXT:
+        writeText( valueMeta.getString( valueData ) );
+        break;
+      case TYPE_DATE:
+        ensureCapacity( 8 );
+        writeInt( 4 );
+        writeInt( (int) ( toLocalDateTime( valueMeta.getDate( valueData ) ).toLocalDate().toEpochDay()
+          - PG_EPOCH_DAYS ) );
+        break;
+      case TYPE_TIMESTAMP:
+        LocalDateTime dateTime = toLocalDateTime( valueMeta.getDate( valueData ) );
+        long micros = ( dateTime.toLocalDate().toEpochDay() - PG_EPOCH_DAYS ) * 86400L * 1000000L;
+        if ( !truncateToDate[ column ] ) {
+          micros += dateTime.toLocalTime().toNanoOfDay() / 1000L;
+        }
+        ensureCapacity( 12 );
+        writeInt( 8 );
+        writeLong( micros );
+        break;
+      case TYPE_TIMESTAMPTZ:
+        Date date = valueMeta.getDate( valueData );
+        if ( truncateToDate[ column ] ) {
+          date = Timestamp.valueOf( toLocalDateTime( date ).toLocalDate().atStartOfDay() );
+        }
+        Instant instant = toInstant( date );
+        ensureCapacity( 12 );
+        writeInt( 8 );
+        writeLong( instant.getEpochSecond() * 1000000L + instant.getNano() / 1000L - PG_EPOCH_MICROS );
+        break;
+      case TYPE_BYTEA:
+        byte[] bytes = valueMeta.getBinary( valueData );
+        ensureCapacity( 4 );
+        writeInt( bytes.length );
+        writeBytes( bytes, 0, bytes.length );
+        break;
+      default:
+        throw new HopException( "Unknown column type for binary COPY" );
+    }
+  }
+
+  /**
+   * Numeric values are sent as base 10000 digits: ndigits, weight, sign, dscale followed by the digits.
+   */
+  private void writeNumeric( IValueMeta valueMeta, Object valueData ) throws HopException {
+    BigDecimal value;
+    if ( valueMeta.getType() == IValueMeta.TYPE_NUMBER ) {
+      double number = valueMeta.getNumber( valueData );
+      if ( Double.isInfinite( number ) ) {
+        throw new HopValueException( "Value " + number + " can't be stored in a numeric column" );
+      }
+      if ( Double.isNaN( number ) ) {
+        ensureCapacity( 12 );
+        writeInt( 8 );
+        writeShort( (short) 0 );
+        writeShort( (short) 0 );
+        writeShort( NUMERIC_NAN );
+        writeShort( (short) 0 );
+        return;
+      }
+      value = BigDecimal.valueOf( number );
+    } else {
+      value = valueMeta.getBigNumber( valueData );
+    }
+
+    short sign = value.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS;
+    value = value.abs();
+    if ( value.scale() < 0 ) {
+      value = value.setScale( 0 );
+    }
+    int dscale = value.scale();
+
+    // Split the unscaled value in base 10000 groups, aligned on the decimal point
+    //
+    BigInteger unscaled = value.unscaledValue();
+    int fractionGroups = ( dscale + 3 ) / 4;
+    int padding = fractionGroups * 4 - dscale;
+    if ( padding > 0 ) {
+      unscaled = unscaled.multiply( BigInteger.TEN.pow( padding ) );
+    }
+    int nrDigits = 0;
+    BigInteger tenThousand = BigInteger.valueOf( 10000 );
+    if ( unscaled.bitLength() < 63 ) {
+      long rest = unscaled.longValue();
+      while ( rest != 0 ) {
+        addNumericDigit( nrDigits++, (short) ( rest % 10000 ) );
+        rest /= 10000;
+      }
+    } else {
+      while ( unscaled.signum() != 0 ) {
+        BigInteger[] divRem = unscaled.divideAndRemainder( tenThousand );
+        addNumericDigit( nrDigits++, divRem[ 1 ].shortValue() );
+        unscaled = divRem[ 0 ];
+      }
+    }
+    // The digits were collected least significant first
+    int weight = nrDigits - fractionGroups - 1;
+
+    // Leading zeros are dropped by the loop above, drop trailing zero groups too
+    int low = 0;
+    while ( low < nrDigits && numericDigits[ low ] == 0 ) {
+      low++;
+    }
+    int ndigits = nrDigits - low;
+    if ( ndigits == 0 ) {
+      weight = 0;
+      sign = NUMERIC_POS;
+    }
+
+    ensureCapacity( 12 + ndigits * 2 );
+    writeInt( 8 + ndigits * 2 );
+    writeShort( (short) ndigits );
+    writeShort( (short) weight );
+    writeShort( sign );
+    writeShort( (short) dscale );
+    for ( int d = nrDigits - 1; d >= low; d-- ) {
+      writeShort( numericDigits[ d ] );
+    }
+  }
+
+  private void addNumericDigit( int index, short digit ) {
+    if ( index >= numericDigits.length ) {
+      short[] digits = new short[ numericDigits.length * 2 ];
+      System.arraycopy( numericDigits, 0, digits, 0, numericDigits.length );
+      numericDigits = digits;
+    }
+    numericDigits[ index ] = digit;
+  }
+
+  /**
+   * Text is encoded straight into the buffer, the length in front of it is filled in afterwards.
+   */
+  private void writeText( String string ) throws HopException {
+    if ( utf8 ) {
+      // Up to 3 bytes per UTF-16 char, a surrogate pair takes 4 bytes for 2 chars
+      ensureCapacity( 4 + string.length() * 3 );
+      int lengthPosition = position;
+      position += 4;
+      int start = position;
+      writeUtf8( string );
+      writeIntAt( lengthPosition, position - start );
+      return;
+    }
+
+    int maxLength = (int) Math.ceil( string.length() * (double) charsetEncoder.maxBytesPerChar() );
+    ensureCapacity( 4 + maxLength );
+    int lengthPosition = position;
+    position += 4;
+    ByteBuffer out = ByteBuffer.wrap( buffer, position, buffer.length - position );
+    charsetEncoder.reset();
+    CharBuffer in = CharBuffer.wrap( string );
+    CoderResult result = charsetEncoder.encode( in, out, true );
+    if ( !result.isUnderflow() ) {
+      throw new HopException( "Unable to encode text for binary COPY: " + result );
+    }
+    charsetEncoder.flush( out );
+    writeIntAt( lengthPosition, out.position() - position );
+    position = out.position();
+  }
+
+  private void writeUtf8( String string ) {
+    for ( int i = 0; i < string.length(); i++ ) {
+      char c = string.charAt( i );
+      if ( c < 0x80 ) {
+        buffer[ position++ ] = (byte) c;
+      } else if ( c < 0x800 ) {
+        buffer[ position++ ] = (byte) ( 0xC0 | ( c >> 6 ) );
+        buffer[ position++ ] = (byte) ( 0x80 | ( c & 0x3F ) );
+      } else if ( Character.isHighSurrogate( c ) && i + 1 < string.length()
+        && Character.isLowSurrogate( string.charAt( i + 1 ) ) ) {
+        int codePoint = Character.toCodePoint( c, string.charAt( ++i ) );
+        buffer[ position++ ] = (byte) ( 0xF0 | ( codePoint >> 18 ) );
+        buffer[ position++ ] = (byte) ( 0x80 | ( ( codePoint >> 12 ) & 0x3F ) );
+        buffer[ position++ ] = (byte) ( 0x80 | ( ( codePoint >> 6 ) & 0x3F ) );
+        buffer[ position++ ] = (byte) ( 0x80 | ( codePoint & 0x3F ) );
+      } else if ( Character.isSurrogate( c ) ) {
+        buffer[ position++ ] = (byte) '?'; // unpaired surrogate
+      } else {
+        buffer[ position++ ] = (byte) ( 0xE0 | ( c >> 12 ) );
+        buffer[ position++ ] = (byte) ( 0x80 | ( ( c >> 6 ) & 0x3F ) );
+        buffer[ position++ ] = (byte) ( 0x80 | ( c & 0x3F ) );
+      }
+    }
+  }
+
+  private LocalDateTime toLocalDateTime( Date date ) {
+    return LocalDateTime.ofInstant( toInstant( date ), zoneId );
+  }
+
+  /**
+   * java.sql.Date doesn't support toInstant() and Timestamp keeps its nanoseconds apart.
+   */
+  private static Instant toInstant( Date date ) {
+    if ( date instanceof Timestamp ) {
+      return ( (Timestamp) date ).toInstant();
+    }
+    return Instant.ofEpochMilli( date.getTime() );
+  }
+
+  /**
+   * Make room for a number of bytes: write the buffer to the COPY stream if needed and grow it for very large values.
+   */
+  private void ensureCapacity( int length ) throws HopException {
+    if ( position + length <= buffer.length ) {
+      return;
+    }
+    flush();
+    if ( length > buffer.length ) {
+      buffer = new byte[ Math.max( length, flushSize ) ];
+    }
+  }
+
+  private void flush() throws HopException {
+    if ( position == 0 ) {
+      return;
+    }
+    try {
+      outputStream.write( buffer, 0, position );
+    } catch ( IOException e ) {
+      throw new HopException( "Error writing binary COPY data", e );
+    }
+    bytesWritten += position;
+    position = 0;
+  }
+
+  private void writeBytes( byte[] bytes, int offset, int length ) throws HopException {
+    ensureCapacity( length );
+    System.arraycopy( bytes, offset, buffer, position, length );
+    position += length;
+  }
+
+  private void writeShort( short value ) {
+    buffer[ position++ ] = (byte) ( value >>> 8 );
+    buffer[ position++ ] = (byte) value;
+  }
+
+  private void writeInt( int value ) {
+    writeIntAt( position, value );
+    position += 4;
+  }
+
+  private void writeIntAt( int at, int value ) {
+    buffer[ at ] = (byte) ( value >>> 24 );
+    buffer[ at + 1 ] = (byte) ( value >>> 16 );
+    buffer[ at + 2 ] = (byte) ( value >>> 8 );
+    buffer[ at + 3 ] = (byte) value;
+  }
+
+  private void writeLong( long value ) {
+    writeInt( (int) ( value >>> 32 ) );
+    writeInt( (int) value );
+  }
+}
@@ -54,6 +54,7 @@ import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -126,9 +127,13 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     contents.append( " FROM STDIN" ); // FIFO file
 
     // The "FORMAT" clause
-    contents.append( " WITH CSV DELIMITER AS '" ).append( environmentSubstitute( meta.getDelimiter() ) )
-      .append( "' QUOTE AS '" ).append(
-      environmentSubstitute( meta.getEnclosure() ) ).append( "'" );
+    if ( data.binaryEncoder != null ) {
+      contents.append( " WITH BINARY" );
+    } else {
+      contents.append( " WITH CSV DELIMITER AS '" ).append( environmentSubstitute( meta.getDelimiter() ) )
+        .append( "' QUOTE AS '" ).append(
+        environmentSubstitute( meta.getEnclosure() ) ).append( "'" );
+    }
     contents.append( ";" ).append( Const.CR );
 
     return contents.toString();
@@ -157,9 +162,45 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     }
   }
 
+  /**
+   * Looks up the type names of the target columns so the rows can be encoded in the binary COPY format.
+   *
+   * @return the column type names in the order of the stream fields or null if one of them can't be encoded
+   */
+  String[] getTargetColumnTypes() throws Exception {
+    DatabaseMeta dm = meta.getDatabaseMeta();
+    String tableName =
+      dm.getQuotedSchemaTableCombination( environmentSubstitute( meta.getSchemaName() ),
+        environmentSubstitute( meta.getTableName() ) );
+    String[] tableFields = meta.getFieldTable();
+
+    StringBuilder sql = new StringBuilder( "SELECT " );
+    for ( int i = 0; i < tableFields.length; i++ ) {
+      if ( i != 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( dm.quoteField( tableFields[ i ] ) );
+    }
+    sql.append( " FROM " ).append( tableName ).append( " WHERE 1=0" );
+
+    try ( Statement statement = data.db.getConnection().createStatement();
+          ResultSet rs = statement.executeQuery( sql.toString() ) ) {
+      ResultSetMetaData rsMeta = rs.getMetaData();
+      String[] typeNames = new String[ tableFields.length ];
+      for ( int i = 0; i < typeNames.length; i++ ) {
+        typeNames[ i ] = rsMeta.getColumnTypeName( i + 1 );
+        if ( !PGBinaryCopyEncoder.isSupported( typeNames[ i ] ) ) {
+          logBasic( BaseMessages.getString( PKG, "PGBulkLoader.Log.BinaryFormatNotSupported", tableFields[ i ], typeNames[ i ] ) );
+          return null;
+        }
+      }
+      return typeNames;
+    }
+  }
+
   private void do_copy( PGBulkLoaderMeta meta, boolean wait ) throws HopException {
     data.db = getDatabase( this, meta );
-    String copyCmd = getCopyCommand();
+    String copyCmd = null;
     try {
       connect();
 
@@ -167,11 +208,27 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
 
       processTruncate();
 
+      if ( meta.isBinaryFormat() ) {
+        String[] typeNames = getTargetColumnTypes();
+        if ( typeNames != null ) {
+          boolean[] truncateToDate = new boolean[ data.keynrs.length ];
+          for ( int i = 0; i < truncateToDate.length; i++ ) {
+            truncateToDate[ i ] = data.dateFormatChoices[ i ] == PGBulkLoaderMeta.NR_DATE_MASK_DATE;
+          }
+          data.binaryEncoder = new PGBinaryCopyEncoder( getInputRowMeta(), data.keynrs, typeNames, truncateToDate,
+            clientEncoding, PGBinaryCopyEncoder.DEFAULT_FLUSH_SIZE );
+        }
+      }
+
+      copyCmd = getCopyCommand();
       logBasic( "Launching command: " + copyCmd );
       pgCopyOut = new PGCopyOutputStream( (PGConnection) data.db.getConnection(), copyCmd );
 
+      if ( data.binaryEncoder != null ) {
+        data.binaryEncoder.start( pgCopyOut );
+      }
     } catch ( Exception ex ) {
-      throw new HopException( "Error while preparing the COPY " + copyCmd, ex );
+      throw new HopException( "Error while preparing the COPY " + Const.NVL( copyCmd, "" ), ex );
     }
   }
 
@@ -228,6 +285,11 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         // Close the output stream...
         // will be null if no records (empty stream)
         if ( data != null && pgCopyOut != null ) {
+          if ( data.binaryEncoder != null ) {
+            data.binaryEncoder.end();
+            logDetailed( BaseMessages.getString( PKG, "PGBulkLoader.Log.BinaryFormatStatistics",
+              data.binaryEncoder.getRowsWritten(), data.binaryEncoder.getBytesWritten() ) );
+          }
           pgCopyOut.flush();
           pgCopyOut.endCopy();
 
@@ -255,7 +317,11 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         //
       }
 
-      writeRowToPostgres( getInputRowMeta(), r );
+      if ( data.binaryEncoder != null ) {
+        data.binaryEncoder.writeRow( r );
+      } else {
+        writeRowToPostgres( getInputRowMeta(), r );
+      }
 
       putRow( getInputRowMeta(), r );
       incrementLinesOutput();
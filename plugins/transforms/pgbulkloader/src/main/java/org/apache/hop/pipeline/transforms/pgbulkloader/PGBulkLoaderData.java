@@ -62,6 +62,11 @@ public class PGBulkLoaderData extends BaseTransformData implements ITransformDat
   public IValueMeta dateMeta;
   public IValueMeta dateTimeMeta;
 
+  /**
+   * Encodes the rows in the binary COPY format, null when loading CSV
+   */
+  public PGBinaryCopyEncoder binaryEncoder;
+
   /**
    * Default constructor.
    */
@@ -107,6 +107,8 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
   private Button wStopOnError;
   private FormData fdlStopOnError, fdStopOnError;
 
+  private Button wBinaryFormat;
+
   private PGBulkLoaderMeta input;
 
   private static final String[] ALL_FILETYPES = new String[] { BaseMessages.getString(
@@ -332,6 +334,30 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
       }
     } );
 
+    // Binary format line
+    Label wlBinaryFormat = new Label( shell, SWT.RIGHT );
+    wlBinaryFormat.setText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.BinaryFormat.Label" ) );
+    wlBinaryFormat.setToolTipText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.BinaryFormat.Tooltip" ) );
+    props.setLook( wlBinaryFormat );
+    FormData fdlBinaryFormat = new FormData();
+    fdlBinaryFormat.left = new FormAttachment( 0, 0 );
+    fdlBinaryFormat.top = new FormAttachment( wStopOnError, margin );
+    fdlBinaryFormat.right = new FormAttachment( middle, -margin );
+    wlBinaryFormat.setLayoutData( fdlBinaryFormat );
+    wBinaryFormat = new Button( shell, SWT.CHECK );
+    props.setLook( wBinaryFormat );
+    FormData fdBinaryFormat = new FormData();
+    fdBinaryFormat.left = new FormAttachment( middle, 0 );
+    fdBinaryFormat.top = new FormAttachment( wStopOnError, margin );
+    fdBinaryFormat.right = new FormAttachment( 100, 0 );
+    wBinaryFormat.setLayoutData( fdBinaryFormat );
+
+    wBinaryFormat.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     // THE BUTTONS
     wOk = new Button( shell, SWT.PUSH );
     wOk.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -348,7 +374,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     props.setLook( wlReturn );
     fdlReturn = new FormData();
     fdlReturn.left = new FormAttachment( 0, 0 );
-    fdlReturn.top = new FormAttachment( wStopOnError, margin );
+    fdlReturn.top = new FormAttachment( wBinaryFormat, margin );
     wlReturn.setLayoutData( fdlReturn );
 
     int UpInsCols = 3;
@@ -468,6 +494,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     wEnclosure.addSelectionListener( lsDef );
     wDelimiter.addSelectionListener( lsDef );
     wStopOnError.addSelectionListener( lsDef );
+    wBinaryFormat.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -546,6 +573,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
       wEnclosure.setText( input.getEnclosure() );
     }
     wStopOnError.setSelection( input.isStopOnError() );
+    wBinaryFormat.setSelection( input.isBinaryFormat() );
     if ( input.getDbNameOverride() != null ) {
       wDbNameOverride.setText( input.getDbNameOverride() );
     }
@@ -739,6 +767,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     inf.setDelimiter( wDelimiter.getText() );
     inf.setEnclosure( wEnclosure.getText() );
     inf.setStopOnError( wStopOnError.getSelection() );
+    inf.setBinaryFormat( wBinaryFormat.getSelection() );
 
     /*
      * /* Set the loadaction
@@ -116,6 +116,11 @@ public class PGBulkLoaderMeta extends BaseTransformMeta implements ITransformMet
    */
   private boolean stopOnError;
 
+  /**
+   * Load in the binary COPY format instead of CSV
+   */
+  private boolean binaryFormat;
+
   /*
    * Do not translate following values!!! They are will end up in the workflow export.
    */
@@ -236,6 +241,7 @@ public class PGBulkLoaderMeta extends BaseTransformMeta implements ITransformMet
       loadAction = XmlHandler.getTagValue( transformNode, "load_action" );
       dbNameOverride = XmlHandler.getTagValue( transformNode, "dbname_override" );
       stopOnError = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "stop_on_error" ) );
+      binaryFormat = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "binary_format" ) );
 
       int nrvalues = XmlHandler.countNodes( transformNode, "mapping" );
       allocate( nrvalues );
@@ -276,6 +282,7 @@ public class PGBulkLoaderMeta extends BaseTransformMeta implements ITransformMet
     delimiter = ";";
     enclosure = "\"";
     stopOnError = false;
+    binaryFormat = false;
     int nrvalues = 0;
     allocate( nrvalues );
   }
@@ -293,6 +300,7 @@ public class PGBulkLoaderMeta extends BaseTransformMeta implements ITransformMet
     retval.append( "    " ).append( XmlHandler.addTagValue( "enclosure", enclosure ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "delimiter", delimiter ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "stop_on_error", stopOnError ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "binary_format", binaryFormat ) );
 
     for ( int i = 0; i < fieldTable.length; i++ ) {
       retval.append( "      <mapping>" ).append( Const.CR );
@@ -632,4 +640,18 @@ public class PGBulkLoaderMeta extends BaseTransformMeta implements ITransformMet
     this.stopOnError = value;
   }
 
+  /**
+   * @return true if the rows are loaded in the binary COPY format instead of CSV
+   */
+  public boolean isBinaryFormat() {
+    return binaryFormat;
+  }
+
+  /**
+   * @param binaryFormat true to load the rows in the binary COPY format instead of CSV
+   */
+  public void setBinaryFormat( boolean binaryFormat ) {
+    this.binaryFormat = binaryFormat;
+  }
+
 }
@@ -0,0 +1,172 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PGBinaryCopyEncoderTest {
+
+  private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+
+  @Test
+  public void testIsSupported() {
+    assertTrue( PGBinaryCopyEncoder.isSupported( "int4" ) );
+    assertTrue( PGBinaryCopyEncoder.isSupported( "VARCHAR" ) );
+    assertTrue( PGBinaryCopyEncoder.isSupported( "timestamptz" ) );
+    assertFalse( PGBinaryCopyEncoder.isSupported( "jsonb" ) );
+    assertFalse( PGBinaryCopyEncoder.isSupported( null ) );
+  }
+
+  @Test( expected = HopException.class )
+  public void testUnsupportedColumnType() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "s" ) );
+    new PGBinaryCopyEncoder( rowMeta, new int[] { 0 }, new String[] { "uuid" }, new boolean[ 1 ],
+      StandardCharsets.UTF_8, PGBinaryCopyEncoder.DEFAULT_FLUSH_SIZE );
+  }
+
+  @Test
+  public void testEncodeRows() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "big" ) );
+
+    // A small flush size forces the buffer to be written out several times
+    PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder( rowMeta, new int[] { 0, 1, 2, 3 },
+      new String[] { "int4", "varchar", "numeric", "int8" }, new boolean[ 4 ], StandardCharsets.UTF_8, 16 );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    encoder.start( out );
+    encoder.writeRow( new Object[] { 42L, "h\u00e9llo", new BigDecimal( "-12345.678" ), 1L << 40 } );
+    encoder.writeRow( new Object[] { null, null, null, null } );
+    encoder.end();
+
+    assertEquals( 2, encoder.getRowsWritten() );
+    assertEquals( out.size(), encoder.getBytesWritten() );
+
+    DataInputStream in = new DataInputStream( new ByteArrayInputStream( out.toByteArray() ) );
+    byte[] signature = new byte[ SIGNATURE.length ];
+    in.readFully( signature );
+    assertArrayEquals( SIGNATURE, signature );
+    assertEquals( 0, in.readInt() );
+    assertEquals( 0, in.readInt() );
+
+    // First row
+    assertEquals( 4, in.readShort() );
+    assertEquals( 4, in.readInt() );
+    assertEquals( 42, in.readInt() );
+    byte[] name = readValue( in );
+    assertEquals( "h\u00e9llo", new String( name, StandardCharsets.UTF_8 ) );
+    assertEquals( new BigDecimal( "-12345.678" ), readNumeric( in ) );
+    assertEquals( 8, in.readInt() );
+    assertEquals( 1L << 40, in.readLong() );
+
+    // Second row: all nulls
+    assertEquals( 4, in.readShort() );
+    for ( int i = 0; i < 4; i++ ) {
+      assertEquals( -1, in.readInt() );
+    }
+
+    // Trailer
+    assertEquals( -1, in.readShort() );
+    assertEquals( -1, in.read() );
+  }
+
+  @Test( expected = HopException.class )
+  public void testInt2OutOfRange() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "i" ) );
+    PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder( rowMeta, new int[] { 0 }, new String[] { "int2" },
+      new boolean[ 1 ], StandardCharsets.UTF_8, PGBinaryCopyEncoder.DEFAULT_FLUSH_SIZE );
+    encoder.start( new ByteArrayOutputStream() );
+    encoder.writeRow( new Object[] { 100000L } );
+  }
+
+  @Test
+  public void testInfiniteNumeric() throws Exception {
+    for ( double infinite : new double[] { Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY } ) {
+      try {
+        createNumericEncoder().writeRow( new Object[] { infinite } );
+        fail( infinite + " can't be stored in a numeric column" );
+      } catch ( HopException e ) {
+        // expected
+      }
+    }
+
+    // NaN is a valid numeric
+    PGBinaryCopyEncoder encoder = createNumericEncoder();
+    encoder.writeRow( new Object[] { Double.NaN } );
+    encoder.end();
+    assertEquals( 1, encoder.getRowsWritten() );
+  }
+
+  private static PGBinaryCopyEncoder createNumericEncoder() throws HopException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaNumber( "n" ) );
+    PGBinaryCopyEncoder encoder = new PGBinaryCopyEncoder( rowMeta, new int[] { 0 }, new String[] { "numeric" },
+      new boolean[ 1 ], StandardCharsets.UTF_8, PGBinaryCopyEncoder.DEFAULT_FLUSH_SIZE );
+    encoder.start( new ByteArrayOutputStream() );
+    return encoder;
+  }
+
+  private static byte[] readValue( DataInputStream in ) throws IOException {
+    byte[] value = new byte[ in.readInt() ];
+    in.readFully( value );
+    return value;
+  }
+
+  private static BigDecimal readNumeric( DataInputStream in ) throws IOException {
+    in.readInt(); // length
+    int ndigits = in.readShort();
+    int weight = in.readShort();
+    int sign = in.readShort() & 0xFFFF;
+    int dscale = in.readShort();
+    BigDecimal value = BigDecimal.ZERO;
+    for ( int i = 0; i < ndigits; i++ ) {
+      value = value.add( BigDecimal.valueOf( in.readShort() ).scaleByPowerOfTen( 4 * ( weight - i ) ) );
+    }
+    value = value.setScale( dscale );
+    return sign == 0x4000 ? value.negate() : value;
+  }
+}
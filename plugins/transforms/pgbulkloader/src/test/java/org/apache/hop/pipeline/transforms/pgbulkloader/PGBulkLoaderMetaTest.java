@@ -70,7 +70,7 @@ public class PGBulkLoaderMetaTest {
     PluginRegistry.init( false );
     List<String> attributes =
       Arrays.asList( "schemaName", "tableName", "loadAction", "dbNameOverride", "delimiter",
-        "enclosure", "stopOnError", "fieldTable", "fieldStream", "dateMask", "databaseMeta" );
+        "enclosure", "stopOnError", "binaryFormat", "fieldTable", "fieldStream", "dateMask", "databaseMeta" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
@@ -81,6 +81,7 @@ public class PGBulkLoaderMetaTest {
         put( "delimiter", "getDelimiter" );
         put( "enclosure", "getEnclosure" );
         put( "stopOnError", "isStopOnError" );
+        put( "binaryFormat", "isBinaryFormat" );
         put( "fieldTable", "getFieldTable" );
         put( "fieldStream", "getFieldStream" );
         put( "dateMask", "getDateMask" );
@@ -96,6 +97,7 @@ public class PGBulkLoaderMetaTest {
         put( "delimiter", "setDelimiter" );
         put( "enclosure", "setEnclosure" );
         put( "stopOnError", "setStopOnError" );
+        put( "binaryFormat", "setBinaryFormat" );
         put( "fieldTable", "setFieldTable" );
         put( "fieldStream", "setFieldStream" );
         put( "dateMask", "setDateMask" );
@@ -23,6 +23,7 @@
 package org.apache.hop.pipeline.transforms.rest;
 
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.UniformInterfaceException;
 import com.sun.jersey.api.client.WebResource;
@@ -33,11 +34,13 @@ import com.sun.jersey.client.apache4.config.ApacheHttpClient4Config;
 import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
 import com.sun.jersey.core.util.MultivaluedMapImpl;
+import org.apache.commons.io.IOUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -49,7 +52,13 @@ import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
 import org.json.simple.JSONObject;
 
 import javax.net.ssl.HostnameVerifier;
@@ -62,17 +71,34 @@ import javax.ws.rs.core.UriBuilder;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 
 
 public class Rest extends BaseTransform<RestMeta, RestData> implements ITransform<RestMeta, RestData> {
   private static Class<?> PKG = RestMeta.class; // for i18n purposes, needed by Translator!! $NON-NLS-1$
 
+  /**
+   * The longest wait before a retry in ms, also when the server asks for a longer one
+   */
+  static final long MAX_RETRY_DELAY = 60000L;
+
+  /**
+   * How often a waiting retry checks if the transform was stopped, in ms
+   */
+  private static final long RETRY_SLICE = 100L;
+
   public Rest( TransformMeta transformMeta, RestMeta meta, RestData data, int copyNr, PipelineMeta pipelineMeta, Pipeline pipeline ) {
     super( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
   }
@@ -85,37 +111,44 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
   }
 
   protected Object[] callRest( Object[] rowData ) throws HopException {
+    return executeCall( prepareCall( rowData ) );
+  }
+
+  private Client getClient() {
+    if ( data.client == null ) {
+      // create an instance of the com.sun.jersey.api.client.Client class, shared by all requests
+      data.client = ApacheHttpClient4.create( data.config );
+      if ( data.basicAuthentication != null ) {
+        data.client.addFilter( data.basicAuthentication );
+      }
+    }
+    return data.client;
+  }
+
+  /**
+   * Build the request for a row. This reads the row so it needs to happen on the transform thread.
+   */
+  private RestCall prepareCall( Object[] rowData ) throws HopException {
     // get dynamic url ?
+    String url = data.realUrl;
     if ( meta.isUrlInField() ) {
-      data.realUrl = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
+      url = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
     }
     // get dynamic method?
+    String method = data.method;
     if ( meta.isDynamicMethod() ) {
-      data.method = data.inputRowMeta.getString( rowData, data.indexOfMethod );
-      if ( Utils.isEmpty( data.method ) ) {
+      method = data.inputRowMeta.getString( rowData, data.indexOfMethod );
+      if ( Utils.isEmpty( method ) ) {
         throw new HopException( BaseMessages.getString( PKG, "Rest.Error.MethodMissing" ) );
       }
     }
-    WebResource webResource = null;
-    Client client = null;
-    Object[] newRow = null;
-    if ( rowData != null ) {
-      newRow = rowData.clone();
-    }
+    RestCall call = new RestCall( rowData, url, method );
     try {
       if ( isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", data.realUrl ) );
-      }
-      // create an instance of the com.sun.jersey.api.client.Client class
-      client = ApacheHttpClient4.create( data.config );
-      if ( data.basicAuthentication != null ) {
-        client.addFilter( data.basicAuthentication );
+        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", url ) );
       }
       // create a WebResource object, which encapsulates a web resource for the client
-      webResource = client.resource( data.realUrl );
-
-      // used for calculating the responseTime
-      long startTime = System.currentTimeMillis();
+      WebResource webResource = getClient().resource( url );
 
       if ( data.useMatrixParams ) {
         // Add matrix parameters
@@ -127,7 +160,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
           }
           builder = builder.matrixParam( data.matrixParamNames[ i ], UriComponent.encode( value, UriComponent.Type.QUERY_PARAM ) );
         }
-        webResource = client.resource( builder.build() );
+        webResource = getClient().resource( builder.build() );
       }
 
       if ( data.useParams ) {
@@ -143,17 +176,16 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
       if ( isDebug() ) {
         logDebug( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", webResource.getURI() ) );
       }
-      WebResource.Builder builder = webResource.getRequestBuilder();
-      String contentType = null; // media type override, if not null
+      call.builder = webResource.getRequestBuilder();
       if ( data.useHeaders ) {
         // Add headers
         for ( int i = 0; i < data.nrheader; i++ ) {
           String value = data.inputRowMeta.getString( rowData, data.indexOfHeaderFields[ i ] );
 
           // unsure if an already set header will be returned to builder
-          builder = builder.header( data.headerNames[ i ], value );
+          call.builder = call.builder.header( data.headerNames[ i ], value );
           if ( "Content-Type".equals( data.headerNames[ i ] ) ) {
-            contentType = value;
+            call.contentType = value;
           }
           if ( isDebug() ) {
             logDebug( BaseMessages.getString( PKG, "Rest.Log.HeaderValue", data.headerNames[ i ], value ) );
@@ -161,53 +193,44 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         }
       }
 
-      ClientResponse response = null;
-      String entityString = null;
       if ( data.useBody ) {
         // Set Http request entity
-        entityString = Const.NVL( data.inputRowMeta.getString( rowData, data.indexOfBodyField ), null );
+        call.entityString = Const.NVL( data.inputRowMeta.getString( rowData, data.indexOfBodyField ), null );
         if ( isDebug() ) {
-          logDebug( BaseMessages.getString( PKG, "Rest.Log.BodyValue", entityString ) );
+          logDebug( BaseMessages.getString( PKG, "Rest.Log.BodyValue", call.entityString ) );
         }
       }
-      try {
-        if ( data.method.equals( RestMeta.HTTP_METHOD_GET ) ) {
-          response = builder.get( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_POST ) ) {
-          if ( null != contentType ) {
-            response = builder.type( contentType ).post( ClientResponse.class, entityString );
-          } else {
-            response = builder.type( data.mediaType ).post( ClientResponse.class, entityString );
-          }
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
-          if ( null != contentType ) {
-            response = builder.type( contentType ).put( ClientResponse.class, entityString );
-          } else {
-            response = builder.type( data.mediaType ).put( ClientResponse.class, entityString );
-          }
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
-          response = builder.delete( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
-          response = builder.head();
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
-          response = builder.options( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
-          if ( null != contentType ) {
-            response = builder.type( contentType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class, entityString );
-          } else {
-            response = builder.type( data.mediaType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class,
-              entityString );
-          }
-        } else {
-          throw new HopException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", data.method ) );
-        }
-      } catch ( UniformInterfaceException u ) {
-        response = u.getResponse();
+
+      if ( data.responseFolder != null ) {
+        call.responseFile = data.responseFolder + "/" + getTransformName() + "_" + getCopy() + "_" + ( ++data.nrResponseFiles );
       }
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", url ), e );
+    }
+    return call;
+  }
+
+  /**
+   * Send the request and add the results to a copy of the row. This doesn't touch the row metadata so it can run on
+   * another thread.
+   */
+  private Object[] executeCall( RestCall call ) throws HopException {
+    Object[] newRow = null;
+    if ( call.row != null ) {
+      newRow = call.row.clone();
+    }
+    // used for calculating the responseTime
+    long startTime = System.currentTimeMillis();
+    if ( data.metrics != null ) {
+      data.metrics.requestStarted();
+    }
+    try {
+      ClientResponse response = sendWithRetries( call );
+
       // Get response time
       long responseTime = System.currentTimeMillis() - startTime;
       if ( isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), data.realUrl ) );
+        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), call.url ) );
       }
 
       // Get status
@@ -221,7 +244,11 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
       String body;
       String headerString = null;
       try {
-        body = response.getEntity( String.class );
+        if ( call.responseFile != null ) {
+          body = writeResponseFile( response, call.responseFile );
+        } else {
+          body = response.getEntity( String.class );
+        }
       } catch ( UniformInterfaceException ex ) {
         body = "";
       }
@@ -262,18 +289,178 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, headerString );
       }
     } catch ( Exception e ) {
-      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", data.realUrl ), e );
+      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", call.url ), e );
     } finally {
-      if ( webResource != null ) {
-        webResource = null;
-      }
-      if ( client != null ) {
-        client.destroy();
+      if ( data.metrics != null ) {
+        data.metrics.requestFinished( System.currentTimeMillis() - startTime );
       }
     }
     return newRow;
   }
 
+  /**
+   * Send the request, retry after connection errors and responses telling us to back off. A POST or PATCH which might
+   * have reached the server is not sent again since that could apply it twice.
+   */
+  private ClientResponse sendWithRetries( RestCall call ) throws HopException, InterruptedException {
+    boolean idempotent = isIdempotent( call.method );
+    for ( int attempt = 0; ; attempt++ ) {
+      ClientResponse response;
+      try {
+        response = send( call );
+      } catch ( ClientHandlerException e ) {
+        // The request didn't get through, or we don't know if it did
+        if ( attempt >= data.maxRetries || !( idempotent || isConnectFailure( e ) ) ) {
+          throw e;
+        }
+        waitBeforeRetry( call, attempt, null, e.getMessage() );
+        continue;
+      }
+
+      int status = response.getStatus();
+      if ( attempt < data.maxRetries && isRetryStatus( status, idempotent ) ) {
+        String retryAfter = response.getHeaders().getFirst( "Retry-After" );
+        response.close();
+        waitBeforeRetry( call, attempt, retryAfter, String.valueOf( status ) );
+        continue;
+      }
+      return response;
+    }
+  }
+
+  private ClientResponse send( RestCall call ) throws HopException {
+    WebResource.Builder builder = call.builder;
+    String contentType = call.contentType; // media type override, if not null
+    String entityString = call.entityString;
+    ClientResponse response;
+    try {
+      if ( call.method.equals( RestMeta.HTTP_METHOD_GET ) ) {
+        response = builder.get( ClientResponse.class );
+      } else if ( call.method.equals( RestMeta.HTTP_METHOD_POST ) ) {
+        if ( null != contentType ) {
+          response = builder.type( contentType ).post( ClientResponse.class, entityString );
+        } else {
+          response = builder.type( data.mediaType ).post( ClientResponse.class, entityString );
+        }
+      } else if ( call.method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
+        if ( null != contentType ) {
+          response = builder.type( contentType ).put( ClientResponse.class, entityString );
+        } else {
+          response = builder.type( data.mediaType ).put( ClientResponse.class, entityString );
+        }
+      } else if ( call.method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
+        response = builder.delete( ClientResponse.class );
+      } else if ( call.method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
+        response = builder.head();
+      } else if ( call.method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
+        response = builder.options( ClientResponse.class );
+      } else if ( call.method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
+        if ( null != contentType ) {
+          response = builder.type( contentType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class, entityString );
+        } else {
+          response = builder.type( data.mediaType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class,
+            entityString );
+        }
+      } else {
+        throw new HopException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", call.method ) );
+      }
+    } catch ( UniformInterfaceException u ) {
+      response = u.getResponse();
+    }
+    return response;
+  }
+
+  /**
+   * Too many requests and service unavailable are worth another try. Bad gateway and gateway timeout only for
+   * idempotent methods: the request might have been processed behind the gateway.
+   */
+  static boolean isRetryStatus( int status, boolean idempotent ) {
+    if ( status == 429 || status == 503 ) {
+      return true;
+    }
+    return idempotent && ( status == 502 || status == 504 );
+  }
+
+  /**
+   * @return true if sending the request twice has the same effect as sending it once
+   */
+  static boolean isIdempotent( String method ) {
+    return !RestMeta.HTTP_METHOD_POST.equals( method ) && !RestMeta.HTTP_METHOD_PATCH.equals( method );
+  }
+
+  /**
+   * @return true if the connection couldn't be made, so the server never saw the request
+   */
+  static boolean isConnectFailure( Throwable e ) {
+    for ( Throwable cause = e; cause != null; cause = cause.getCause() ) {
+      if ( cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+        || cause instanceof UnknownHostException ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void waitBeforeRetry( RestCall call, int attempt, String retryAfter, String reason )
+    throws HopException, InterruptedException {
+    long delay = getRetryDelay( data.retryDelay, attempt, Const.toLong( retryAfter, -1L ) );
+    if ( isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "Rest.Log.Retry", call.url, String.valueOf( delay ), reason ) );
+    }
+    if ( data.metrics != null ) {
+      data.metrics.retried();
+    }
+    // Wait in slices so a stopped pipeline doesn't have to wait for the retry
+    long end = System.currentTimeMillis() + delay;
+    for ( long left = delay; left > 0; left = end - System.currentTimeMillis() ) {
+      if ( isStopped() ) {
+        throw new HopException( BaseMessages.getString( PKG, "Rest.Exception.StoppedWhileRetrying", call.url ) );
+      }
+      Thread.sleep( Math.min( left, RETRY_SLICE ) );
+    }
+  }
+
+  /**
+   * Exponential backoff, unless the server asks us to wait longer, but never more than {@link #MAX_RETRY_DELAY}
+   *
+   * @param retryDelay        the delay before the first retry in ms
+   * @param attempt           the number of the attempt which failed, starting at 0
+   * @param retryAfterSeconds the Retry-After header of the response or -1
+   * @return the time to wait in ms
+   */
+  static long getRetryDelay( long retryDelay, int attempt, long retryAfterSeconds ) {
+    long delay = Math.min( retryDelay << Math.min( attempt, 16 ), MAX_RETRY_DELAY );
+    if ( retryAfterSeconds > 0 ) {
+      delay = Math.max( delay, Math.min( retryAfterSeconds * 1000, MAX_RETRY_DELAY ) );
+    }
+    return delay;
+  }
+
+  /**
+   * Stream the response body to a file instead of keeping it in memory
+   *
+   * @return the name of the file written
+   */
+  private String writeResponseFile( ClientResponse response, String baseFilename ) throws IOException, HopException {
+    String extension = ".txt";
+    MediaType type = response.getType();
+    if ( type != null ) {
+      if ( type.getSubtype().contains( "json" ) ) {
+        extension = ".json";
+      } else if ( type.getSubtype().contains( "xml" ) ) {
+        extension = ".xml";
+      }
+    }
+    String filename = baseFilename + extension;
+    try ( InputStream inputStream = response.getEntityInputStream();
+          OutputStream outputStream = HopVfs.getOutputStream( filename, false ) ) {
+      if ( inputStream != null ) {
+        IOUtils.copy( inputStream, outputStream );
+      }
+    }
+    return filename;
+  }
+
   private void setConfig() throws HopException {
     if ( data.config == null ) {
       // Use ApacheHttpClient for supporting proxy authentication.
@@ -307,6 +494,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
 
           SSLContext ctx = SSLContext.getInstance( "SSL" );
           ctx.init( null, tmf.getTrustManagers(), null );
+          data.sslContext = ctx;
 
           HostnameVerifier hv = new HostnameVerifier() {
             public boolean verify( String hostname, SSLSession session ) {
@@ -331,6 +519,17 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
           throw new HopException( BaseMessages.getString( PKG, "Rest.Error.KeyManagementException" ), e );
         }
       }
+
+      // Pool the connections per host: they are kept alive and shared by the concurrent requests
+      SchemeRegistry schemeRegistry = SchemeRegistryFactory.createDefault();
+      if ( data.sslContext != null ) {
+        schemeRegistry.register( new Scheme( "https", 443,
+          new SSLSocketFactory( data.sslContext, SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER ) ) );
+      }
+      PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager( schemeRegistry );
+      connectionManager.setDefaultMaxPerRoute( data.maxConcurrentRequests );
+      connectionManager.setMaxTotal( data.maxConcurrentRequests * 2 );
+      data.config.getProperties().put( ApacheHttpClient4Config.PROPERTY_CONNECTION_MANAGER, connectionManager );
     }
   }
 
@@ -344,6 +543,13 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
 
     if ( r == null ) {
       // no more input to be expected...
+      if ( data.executor != null ) {
+        // Wait for the requests still in flight
+        if ( !putFinishedCalls( 0 ) ) {
+          return false;
+        }
+      }
+      logBasic( getMetricsSummary() );
       setOutputDone();
       return false;
     }
@@ -456,33 +662,105 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         }
       }
     } // end if first
+
+    if ( data.executor != null ) {
+      return processRowConcurrently( r );
+    }
+
     try {
       Object[] outputRowData = callRest( r );
       putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
-      if ( checkFeedback( getLinesRead() ) ) {
-        if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "Rest.LineNumber" ) + getLinesRead() );
-        }
-      }
+      logProgress();
     } catch ( HopException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-      if ( getTransformMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "Rest.ErrorInTransformRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        logError( Const.getStackTracker( e ) );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+      return handleRowError( r, e );
+    }
+    return true;
+  }
+
+  /**
+   * Send the request of a row to the executor and pass on the rows of the requests which are finished. When the maximum
+   * number of requests is in flight this waits for the oldest one so the rows keep their order.
+   */
+  private boolean processRowConcurrently( Object[] r ) throws HopException {
+    try {
+      data.pendingCalls.add( data.executor.submit( prepareCall( r ) ) );
+    } catch ( HopException e ) {
+      return handleRowError( r, e );
+    }
+    return putFinishedCalls( data.maxConcurrentRequests - 1 );
+  }
+
+  /**
+   * Pass on the rows of the finished requests in input order and wait until no more than the given number of requests
+   * is in flight.
+   *
+   * @param maxPending the number of requests which can stay in flight
+   * @return false if the transform stopped because of an error
+   */
+  private boolean putFinishedCalls( int maxPending ) throws HopException {
+    try {
+      while ( !data.pendingCalls.isEmpty()
+        && ( data.pendingCalls.size() > maxPending || data.pendingCalls.peek().isDone() ) ) {
+        RestCall call = data.pendingCalls.poll().get();
+        if ( call.error != null ) {
+          if ( !handleRowError( call.row, call.error ) ) {
+            return false;
+          }
+        } else {
+          putRow( data.outputRowMeta, call.result ); // copy row to output rowset(s);
+          logProgress();
+        }
       }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "Rest001" );
+    } catch ( InterruptedException | ExecutionException e ) {
+      throw new HopException( BaseMessages.getString( PKG, "Rest.Exception.ConcurrentRequestFailed" ), e );
+    }
+    return true;
+  }
+
+  private void logProgress() {
+    if ( checkFeedback( getLinesRead() ) ) {
+      if ( isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "Rest.LineNumber" ) + getLinesRead() );
+        logDetailed( getMetricsSummary() );
       }
     }
+  }
+
+  private String getMetricsSummary() {
+    RestMetrics metrics = data.metrics;
+    return BaseMessages.getString( PKG, "Rest.Log.Metrics",
+      String.valueOf( metrics.getNrRequests() ),
+      String.valueOf( metrics.getNrRetries() ),
+      String.valueOf( metrics.getInFlight() ),
+      String.valueOf( metrics.getMaxInFlight() ),
+      String.valueOf( metrics.getLatencyPercentile( 50 ) ),
+      String.valueOf( metrics.getLatencyPercentile( 90 ) ),
+      String.valueOf( metrics.getLatencyPercentile( 99 ) ),
+      String.valueOf( metrics.getMaxLatency() ) );
+  }
+
+  private boolean handleRowError( Object[] r, HopException e ) throws HopException {
+    if ( isStopped() ) {
+      // The request was abandoned because the pipeline stopped
+      return false;
+    }
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+    if ( getTransformMeta().isDoingErrorHandling() ) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError( BaseMessages.getString( PKG, "Rest.ErrorInTransformRunning" ) + e.getMessage() );
+      setErrors( 1 );
+      logError( Const.getStackTracker( e ) );
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if ( sendToErrorRow ) {
+      // Simply add this row to the error row
+      putError( getInputRowMeta(), r, 1, errorMessage, null, "Rest001" );
+    }
     return true;
   }
 
@@ -511,6 +789,13 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
       data.trustStoreFile = environmentSubstitute( meta.getTrustStoreFile() );
       data.trustStorePassword = environmentSubstitute( meta.getTrustStorePassword() );
 
+      data.maxConcurrentRequests = Math.max( 1, Const.toInt( environmentSubstitute( meta.getMaxConcurrentRequests() ),
+        RestMeta.DEFAULT_MAX_CONCURRENT_REQUESTS ) );
+      data.maxRetries = Math.max( 0, Const.toInt( environmentSubstitute( meta.getMaxRetries() ), RestMeta.DEFAULT_MAX_RETRIES ) );
+      data.retryDelay = Math.max( 0, Const.toInt( environmentSubstitute( meta.getRetryDelay() ), RestMeta.DEFAULT_RETRY_DELAY ) );
+      String responseFolder = environmentSubstitute( meta.getResponseFolder() );
+      data.responseFolder = Utils.isEmpty( responseFolder ) ? null : responseFolder;
+
       String applicationType = Const.NVL( meta.getApplicationType(), "" );
       if ( applicationType.equals( RestMeta.APPLICATION_TYPE_XML ) ) {
         data.mediaType = MediaType.APPLICATION_XML_TYPE;
@@ -537,6 +822,14 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         logError( BaseMessages.getString( PKG, "Rest.Error.Config" ), e );
         return false;
       }
+
+      if ( data.maxConcurrentRequests > 1 ) {
+        data.executor = Executors.newFixedThreadPool( data.maxConcurrentRequests, runnable -> {
+          Thread thread = new Thread( runnable, getTransformName() + " REST request" );
+          thread.setDaemon( true );
+          return thread;
+        } );
+      }
       return true;
     }
     return false;
@@ -544,6 +837,16 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
 
   public void dispose() {
 
+    if ( data.executor != null ) {
+      data.executor.shutdownNow();
+      data.executor = null;
+    }
+    data.pendingCalls.clear();
+    if ( data.client != null ) {
+      // This also closes the pooled connections
+      data.client.destroy();
+      data.client = null;
+    }
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
@@ -551,4 +854,35 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
     super.dispose();
   }
 
+  /**
+   * The request for one row. It is prepared on the transform thread and executed on the threads of the executor when
+   * several requests can be in flight.
+   */
+  class RestCall implements Callable<RestCall> {
+    private final Object[] row;
+    private final String url;
+    private final String method;
+    private WebResource.Builder builder;
+    private String contentType;
+    private String entityString;
+    private String responseFile;
+    private Object[] result;
+    private HopException error;
+
+    RestCall( Object[] row, String url, String method ) {
+      this.row = row;
+      this.url = url;
+      this.method = method;
+    }
+
+    @Override
+    public RestCall call() {
+      try {
+        result = executeCall( this );
+      } catch ( HopException e ) {
+        error = e;
+      }
+      return this;
+    }
+  }
 }
@@ -22,13 +22,19 @@
 
 package org.apache.hop.pipeline.transforms.rest;
 
+import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
+import javax.net.ssl.SSLContext;
 import javax.ws.rs.core.MediaType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * @author Samatar
@@ -126,6 +132,37 @@ public class RestData extends BaseTransformData implements ITransformData {
 
   public MediaType mediaType;
 
+  /**
+   * SSL context of the trust store, null if no trust store is used
+   **/
+  public SSLContext sslContext;
+
+  /**
+   * The client used for all the requests of this transform copy
+   **/
+  public Client client;
+
+  /**
+   * Concurrency: the executor running the requests and the requests in flight in input order
+   **/
+  public int maxConcurrentRequests;
+  public ExecutorService executor;
+  public Deque<Future<Rest.RestCall>> pendingCalls;
+
+  /**
+   * Retries
+   **/
+  public int maxRetries;
+  public long retryDelay;
+
+  /**
+   * Folder to stream response bodies to
+   **/
+  public String responseFolder;
+  public long nrResponseFiles;
+
+  public RestMetrics metrics;
+
   public RestData() {
     super();
     this.indexOfUrlField = -1;
@@ -148,6 +185,9 @@ public class RestData extends BaseTransformData implements ITransformData {
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.basicAuthentication = null;
+    this.maxConcurrentRequests = RestMeta.DEFAULT_MAX_CONCURRENT_REQUESTS;
+    this.pendingCalls = new ArrayDeque<>();
+    this.metrics = new RestMetrics();
   }
 
 }
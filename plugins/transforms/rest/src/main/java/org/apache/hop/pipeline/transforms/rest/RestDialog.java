@@ -151,6 +151,11 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
   private TextVar wResponseHeader;
   private FormData fdlResponseHeader, fdResponseHeader;
 
+  private TextVar wMaxConcurrentRequests;
+  private TextVar wMaxRetries;
+  private TextVar wRetryDelay;
+  private TextVar wResponseFolder;
+
   private Label wlTrustStorePassword;
   private TextVar wTrustStorePassword;
   private FormData fdlTrustStorePassword, fdTrustStorePassword;
@@ -559,6 +564,102 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     // END Output Fields GROUP
     // ////////////////////////
 
+    // ////////////////////////
+    // START Performance GROUP
+
+    Group gPerformance = new Group( wGeneralComp, SWT.SHADOW_ETCHED_IN );
+    gPerformance.setText( BaseMessages.getString( PKG, "RestDialog.PerformanceGroup.Label" ) );
+    FormLayout performanceLayout = new FormLayout();
+    performanceLayout.marginWidth = 3;
+    performanceLayout.marginHeight = 3;
+    gPerformance.setLayout( performanceLayout );
+    props.setLook( gPerformance );
+
+    // Maximum concurrent requests
+    Label wlMaxConcurrentRequests = new Label( gPerformance, SWT.RIGHT );
+    wlMaxConcurrentRequests.setText( BaseMessages.getString( PKG, "RestDialog.MaxConcurrentRequests.Label" ) );
+    props.setLook( wlMaxConcurrentRequests );
+    FormData fdlMaxConcurrentRequests = new FormData();
+    fdlMaxConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlMaxConcurrentRequests.right = new FormAttachment( middle, -margin );
+    fdlMaxConcurrentRequests.top = new FormAttachment( 0, margin );
+    wlMaxConcurrentRequests.setLayoutData( fdlMaxConcurrentRequests );
+    wMaxConcurrentRequests = new TextVar( pipelineMeta, gPerformance, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "RestDialog.MaxConcurrentRequests.Tooltip" ) );
+    props.setLook( wMaxConcurrentRequests );
+    wMaxConcurrentRequests.addModifyListener( lsMod );
+    FormData fdMaxConcurrentRequests = new FormData();
+    fdMaxConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdMaxConcurrentRequests.top = new FormAttachment( 0, margin );
+    fdMaxConcurrentRequests.right = new FormAttachment( 100, 0 );
+    wMaxConcurrentRequests.setLayoutData( fdMaxConcurrentRequests );
+
+    // Maximum retries
+    Label wlMaxRetries = new Label( gPerformance, SWT.RIGHT );
+    wlMaxRetries.setText( BaseMessages.getString( PKG, "RestDialog.MaxRetries.Label" ) );
+    props.setLook( wlMaxRetries );
+    FormData fdlMaxRetries = new FormData();
+    fdlMaxRetries.left = new FormAttachment( 0, 0 );
+    fdlMaxRetries.right = new FormAttachment( middle, -margin );
+    fdlMaxRetries.top = new FormAttachment( wMaxConcurrentRequests, margin );
+    wlMaxRetries.setLayoutData( fdlMaxRetries );
+    wMaxRetries = new TextVar( pipelineMeta, gPerformance, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxRetries.setToolTipText( BaseMessages.getString( PKG, "RestDialog.MaxRetries.Tooltip" ) );
+    props.setLook( wMaxRetries );
+    wMaxRetries.addModifyListener( lsMod );
+    FormData fdMaxRetries = new FormData();
+    fdMaxRetries.left = new FormAttachment( middle, 0 );
+    fdMaxRetries.top = new FormAttachment( wMaxConcurrentRequests, margin );
+    fdMaxRetries.right = new FormAttachment( 100, 0 );
+    wMaxRetries.setLayoutData( fdMaxRetries );
+
+    // Retry delay
+    Label wlRetryDelay = new Label( gPerformance, SWT.RIGHT );
+    wlRetryDelay.setText( BaseMessages.getString( PKG, "RestDialog.RetryDelay.Label" ) );
+    props.setLook( wlRetryDelay );
+    FormData fdlRetryDelay = new FormData();
+    fdlRetryDelay.left = new FormAttachment( 0, 0 );
+    fdlRetryDelay.right = new FormAttachment( middle, -margin );
+    fdlRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    wlRetryDelay.setLayoutData( fdlRetryDelay );
+    wRetryDelay = new TextVar( pipelineMeta, gPerformance, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRetryDelay.setToolTipText( BaseMessages.getString( PKG, "RestDialog.RetryDelay.Tooltip" ) );
+    props.setLook( wRetryDelay );
+    wRetryDelay.addModifyListener( lsMod );
+    FormData fdRetryDelay = new FormData();
+    fdRetryDelay.left = new FormAttachment( middle, 0 );
+    fdRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdRetryDelay.right = new FormAttachment( 100, 0 );
+    wRetryDelay.setLayoutData( fdRetryDelay );
+
+    // Response folder
+    Label wlResponseFolder = new Label( gPerformance, SWT.RIGHT );
+    wlResponseFolder.setText( BaseMessages.getString( PKG, "RestDialog.ResponseFolder.Label" ) );
+    props.setLook( wlResponseFolder );
+    FormData fdlResponseFolder = new FormData();
+    fdlResponseFolder.left = new FormAttachment( 0, 0 );
+    fdlResponseFolder.right = new FormAttachment( middle, -margin );
+    fdlResponseFolder.top = new FormAttachment( wRetryDelay, margin );
+    wlResponseFolder.setLayoutData( fdlResponseFolder );
+    wResponseFolder = new TextVar( pipelineMeta, gPerformance, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wResponseFolder.setToolTipText( BaseMessages.getString( PKG, "RestDialog.ResponseFolder.Tooltip" ) );
+    props.setLook( wResponseFolder );
+    wResponseFolder.addModifyListener( lsMod );
+    FormData fdResponseFolder = new FormData();
+    fdResponseFolder.left = new FormAttachment( middle, 0 );
+    fdResponseFolder.top = new FormAttachment( wRetryDelay, margin );
+    fdResponseFolder.right = new FormAttachment( 100, 0 );
+    wResponseFolder.setLayoutData( fdResponseFolder );
+
+    FormData fdPerformance = new FormData();
+    fdPerformance.left = new FormAttachment( 0, 0 );
+    fdPerformance.right = new FormAttachment( 100, 0 );
+    fdPerformance.top = new FormAttachment( gOutputFields, margin );
+    gPerformance.setLayoutData( fdPerformance );
+
+    // END Performance GROUP
+    // ////////////////////////
+
     fdGeneralComp = new FormData();
     fdGeneralComp.left = new FormAttachment( 0, 0 );
     fdGeneralComp.top = new FormAttachment( wTransformName, margin );
@@ -1276,6 +1377,10 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     if ( input.getResponseTimeFieldName() != null ) {
       wResponseTime.setText( input.getResponseTimeFieldName() );
     }
+    wMaxConcurrentRequests.setText( Const.NVL( input.getMaxConcurrentRequests(), "" ) );
+    wMaxRetries.setText( Const.NVL( input.getMaxRetries(), "" ) );
+    wRetryDelay.setText( Const.NVL( input.getRetryDelay(), "" ) );
+    wResponseFolder.setText( Const.NVL( input.getResponseFolder(), "" ) );
 
     if ( input.getHttpLogin() != null ) {
       wHttpLogin.setText( input.getHttpLogin() );
@@ -1357,6 +1462,10 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     input.setResultCodeFieldName( wResultCode.getText() );
     input.setResponseTimeFieldName( wResponseTime.getText() );
     input.setResponseHeaderFieldName( wResponseHeader.getText() );
+    input.setMaxConcurrentRequests( wMaxConcurrentRequests.getText() );
+    input.setMaxRetries( wMaxRetries.getText() );
+    input.setRetryDelay( wRetryDelay.getText() );
+    input.setResponseFolder( wResponseFolder.getText() );
 
     input.setHttpLogin( wHttpLogin.getText() );
     input.setHttpPassword( wHttpPassword.getText() );
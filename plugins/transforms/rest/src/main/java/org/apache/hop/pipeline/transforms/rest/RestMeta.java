@@ -85,6 +85,10 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
   public static final String HTTP_METHOD_OPTIONS = "OPTIONS";
   public static final String HTTP_METHOD_PATCH = "PATCH";
 
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 1;
+  public static final int DEFAULT_MAX_RETRIES = 0;
+  public static final int DEFAULT_RETRY_DELAY = 1000;
+
   /**
    * URL / service to be called
    */
@@ -145,6 +149,18 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
   private String trustStoreFile;
   private String trustStorePassword;
 
+  /**
+   * Concurrency and retries
+   **/
+  private String maxConcurrentRequests;
+  private String maxRetries;
+  private String retryDelay;
+
+  /**
+   * Folder to stream the response bodies to instead of keeping them in the result field
+   **/
+  private String responseFolder;
+
   public RestMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -418,6 +434,10 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.applicationType = APPLICATION_TYPE_TEXT_PLAIN;
+    this.maxConcurrentRequests = String.valueOf( DEFAULT_MAX_CONCURRENT_REQUESTS );
+    this.maxRetries = String.valueOf( DEFAULT_MAX_RETRIES );
+    this.retryDelay = String.valueOf( DEFAULT_RETRY_DELAY );
+    this.responseFolder = null;
   }
 
   @Override
@@ -473,6 +493,10 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
     retval.append( "    " ).append( XmlHandler.addTagValue( "trustStoreFile", trustStoreFile ) );
     retval.append( "    " ).append(
       XmlHandler.addTagValue( "trustStorePassword", Encr.encryptPasswordIfNotUsingVariables( trustStorePassword ) ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "maxConcurrentRequests", maxConcurrentRequests ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "maxRetries", maxRetries ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "retryDelay", retryDelay ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "responseFolder", responseFolder ) );
 
     retval.append( "    <headers>" ).append( Const.CR );
     for ( int i = 0, len = ( headerName != null ? headerName.length : 0 ); i < len; i++ ) {
@@ -532,6 +556,10 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
       trustStoreFile = XmlHandler.getTagValue( transformNode, "trustStoreFile" );
       trustStorePassword =
         Encr.decryptPasswordOptionallyEncrypted( XmlHandler.getTagValue( transformNode, "trustStorePassword" ) );
+      maxConcurrentRequests = XmlHandler.getTagValue( transformNode, "maxConcurrentRequests" );
+      maxRetries = XmlHandler.getTagValue( transformNode, "maxRetries" );
+      retryDelay = XmlHandler.getTagValue( transformNode, "retryDelay" );
+      responseFolder = XmlHandler.getTagValue( transformNode, "responseFolder" );
 
       Node headernode = XmlHandler.getSubNode( transformNode, "headers" );
       int nrheaders = XmlHandler.countNodes( headernode, "header" );
@@ -796,6 +824,63 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
     this.responseHeaderFieldName = responseHeaderFieldName;
   }
 
+  /**
+   * @return the maximum number of requests in flight
+   */
+  public String getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  /**
+   * @param maxConcurrentRequests the maximum number of requests in flight
+   */
+  public void setMaxConcurrentRequests( String maxConcurrentRequests ) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * @return the number of times a request is retried after a connection error or a 429, 502, 503 or 504 status
+   */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @param maxRetries the number of times a request is retried after a connection error or a 429, 502, 503 or 504
+   *                   status
+   */
+  public void setMaxRetries( String maxRetries ) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * @return the delay in ms before the first retry, doubled for every next one
+   */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /**
+   * @param retryDelay the delay in ms before the first retry, doubled for every next one
+   */
+  public void setRetryDelay( String retryDelay ) {
+    this.retryDelay = retryDelay;
+  }
+
+  /**
+   * @return the folder the response bodies are written to, the result field then contains the filename
+   */
+  public String getResponseFolder() {
+    return responseFolder;
+  }
+
+  /**
+   * @param responseFolder the folder the response bodies are written to, the result field then contains the filename
+   */
+  public void setResponseFolder( String responseFolder ) {
+    this.responseFolder = responseFolder;
+  }
+
   public static boolean isActiveBody( String method ) {
     if ( Utils.isEmpty( method ) ) {
       return false;
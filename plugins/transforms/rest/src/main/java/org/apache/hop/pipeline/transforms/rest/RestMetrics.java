@@ -0,0 +1,119 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.rest;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the requests of one Rest transform copy: the number of requests, retries and requests in flight and
+ * the latency percentiles. The latencies are kept in a fixed size reservoir sample so memory use doesn't grow with the
+ * number of rows.
+ */
+public class RestMetrics {
+
+  private static final int RESERVOIR_SIZE = 10000;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final AtomicLong nrRequests = new AtomicLong();
+  private final AtomicLong nrRetries = new AtomicLong();
+
+  private final long[] latencies = new long[ RESERVOIR_SIZE ];
+  private final Random random = new Random();
+  private long nrLatencies;
+  private long maxLatency;
+
+  /**
+   * A request is sent
+   */
+  public void requestStarted() {
+    int current = inFlight.incrementAndGet();
+    maxInFlight.accumulateAndGet( current, Math::max );
+    nrRequests.incrementAndGet();
+  }
+
+  /**
+   * A request is finished
+   *
+   * @param latency the time in ms it took, including retries
+   */
+  public synchronized void requestFinished( long latency ) {
+    inFlight.decrementAndGet();
+
+    if ( nrLatencies < RESERVOIR_SIZE ) {
+      latencies[ (int) nrLatencies ] = latency;
+    } else {
+      long index = (long) ( random.nextDouble() * ( nrLatencies + 1 ) );
+      if ( index < RESERVOIR_SIZE ) {
+        latencies[ (int) index ] = latency;
+      }
+    }
+    nrLatencies++;
+    maxLatency = Math.max( maxLatency, latency );
+  }
+
+  /**
+   * A request is sent again after a failure
+   */
+  public void retried() {
+    nrRetries.incrementAndGet();
+  }
+
+  /**
+   * @param percentile the percentile between 0 and 100
+   * @return the latency in ms below which the given percentage of the requests finished
+   */
+  public synchronized long getLatencyPercentile( double percentile ) {
+    int size = (int) Math.min( nrLatencies, RESERVOIR_SIZE );
+    if ( size == 0 ) {
+      return 0L;
+    }
+    long[] sorted = Arrays.copyOf( latencies, size );
+    Arrays.sort( sorted );
+    int index = (int) Math.ceil( percentile / 100.0 * size ) - 1;
+    return sorted[ Math.max( 0, Math.min( size - 1, index ) ) ];
+  }
+
+  public synchronized long getMaxLatency() {
+    return maxLatency;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight.get();
+  }
+
+  public long getNrRequests() {
+    return nrRequests.get();
+  }
+
+  public long getNrRetries() {
+    return nrRetries.get();
+  }
+}
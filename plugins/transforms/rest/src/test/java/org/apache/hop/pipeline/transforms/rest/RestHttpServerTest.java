@@ -0,0 +1,309 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Runs the transform against a local HTTP server to check the retries and the concurrent requests.
+ */
+public class RestHttpServerTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private String baseUrl;
+  private Map<String, AtomicInteger> hits;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    hits = new ConcurrentHashMap<>();
+    server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 50 );
+    serverExecutor = Executors.newCachedThreadPool();
+    server.setExecutor( serverExecutor );
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop( 0 );
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testGetIsRetriedUntilTheServiceIsAvailable() throws Exception {
+    server.createContext( "/flaky", exchange -> {
+      int hit = countHit( exchange );
+      if ( hit < 3 ) {
+        respond( exchange, 503, "busy" );
+      } else {
+        respond( exchange, 200, "ok" );
+      }
+    } );
+
+    RestMeta meta = createMeta( RestMeta.HTTP_METHOD_GET, 1, 3 );
+    RestData data = new RestData();
+    List<Object[]> output = runRest( meta, data, rows( baseUrl + "/flaky" ) );
+
+    assertEquals( 1, output.size() );
+    assertEquals( "ok", output.get( 0 )[ 1 ] );
+    assertEquals( 200L, output.get( 0 )[ 2 ] );
+    assertEquals( 3, hits.get( "/flaky" ).get() );
+    assertEquals( 2, data.metrics.getNrRetries() );
+  }
+
+  @Test
+  public void testPostIsNotRetriedAfterBadGateway() throws Exception {
+    server.createContext( "/gateway", exchange -> {
+      countHit( exchange );
+      respond( exchange, 502, "bad gateway" );
+    } );
+
+    RestMeta meta = createMeta( RestMeta.HTTP_METHOD_POST, 1, 3 );
+    RestData data = new RestData();
+    List<Object[]> output = runRest( meta, data, rows( baseUrl + "/gateway" ) );
+
+    // The upstream server might have processed it, so it's passed on as it is
+    assertEquals( 1, output.size() );
+    assertEquals( 502L, output.get( 0 )[ 2 ] );
+    assertEquals( 1, hits.get( "/gateway" ).get() );
+    assertEquals( 0, data.metrics.getNrRetries() );
+  }
+
+  @Test
+  public void testPostIsNotRetriedWhenTheResponseIsLost() throws Exception {
+    server.createContext( "/lost", exchange -> {
+      countHit( exchange );
+      IOUtils.toByteArray( exchange.getRequestBody() );
+      // Close the connection without an answer: the request arrived but the client can't know
+      exchange.close();
+    } );
+
+    RestMeta meta = createMeta( RestMeta.HTTP_METHOD_POST, 1, 3 );
+    RestData data = new RestData();
+    List<Object[]> output = runRest( meta, data, rows( baseUrl + "/lost" ) );
+
+    assertTrue( output.isEmpty() );
+    assertEquals( 1, hits.get( "/lost" ).get() );
+    assertEquals( 0, data.metrics.getNrRetries() );
+  }
+
+  @Test
+  public void testPostIsRetriedWhenTheConnectionFails() throws Exception {
+    int closedPort;
+    try ( ServerSocket socket = new ServerSocket( 0 ) ) {
+      closedPort = socket.getLocalPort();
+    }
+
+    RestMeta meta = createMeta( RestMeta.HTTP_METHOD_POST, 1, 2 );
+    RestData data = new RestData();
+    List<Object[]> output = runRest( meta, data, rows( "http://localhost:" + closedPort + "/down" ) );
+
+    // Nothing reached the server so trying again is safe
+    assertTrue( output.isEmpty() );
+    assertEquals( 2, data.metrics.getNrRetries() );
+  }
+
+  @Test
+  public void testIdempotentMethods() {
+    assertTrue( Rest.isIdempotent( RestMeta.HTTP_METHOD_GET ) );
+    assertTrue( Rest.isIdempotent( RestMeta.HTTP_METHOD_PUT ) );
+    assertTrue( Rest.isIdempotent( RestMeta.HTTP_METHOD_DELETE ) );
+    assertFalse( Rest.isIdempotent( RestMeta.HTTP_METHOD_POST ) );
+    assertFalse( Rest.isIdempotent( RestMeta.HTTP_METHOD_PATCH ) );
+
+    assertTrue( Rest.isRetryStatus( 503, false ) );
+    assertTrue( Rest.isRetryStatus( 429, false ) );
+    assertFalse( Rest.isRetryStatus( 504, false ) );
+    assertTrue( Rest.isRetryStatus( 504, true ) );
+    assertFalse( Rest.isRetryStatus( 500, true ) );
+  }
+
+  @Test
+  public void testRetryDelayIsCapped() {
+    assertEquals( 100L, Rest.getRetryDelay( 100, 0, -1 ) );
+    assertEquals( 400L, Rest.getRetryDelay( 100, 2, -1 ) );
+    assertEquals( 5000L, Rest.getRetryDelay( 100, 2, 5 ) );
+    assertEquals( Rest.MAX_RETRY_DELAY, Rest.getRetryDelay( 100, 20, -1 ) );
+    assertEquals( Rest.MAX_RETRY_DELAY, Rest.getRetryDelay( 100, 0, 3600 ) );
+  }
+
+  @Test( timeout = 30000 )
+  public void testConcurrentRequestsKeepTheRowOrder() throws Exception {
+    int nrConcurrent = 4;
+    CountDownLatch allInFlight = new CountDownLatch( nrConcurrent );
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    server.createContext( "/slow", exchange -> {
+      int current = inFlight.incrementAndGet();
+      maxInFlight.accumulateAndGet( current, Math::max );
+      try {
+        // The first requests only finish when they are all in flight at the same time, the later rows of every
+        // group of requests get their answer first
+        allInFlight.countDown();
+        allInFlight.await( 10, TimeUnit.SECONDS );
+        int id = Integer.parseInt( exchange.getRequestURI().getQuery().substring( "id=".length() ) );
+        Thread.sleep( ( nrConcurrent - id % nrConcurrent ) * 20L );
+        inFlight.decrementAndGet();
+        respond( exchange, 200, "response " + id );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    } );
+
+    RestMeta meta = createMeta( RestMeta.HTTP_METHOD_GET, nrConcurrent, 0 );
+    RestData data = new RestData();
+    int nrRows = 20;
+    List<Object[]> input = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      input.add( new Object[] { baseUrl + "/slow?id=" + i } );
+    }
+    List<Object[]> output = runRest( meta, data, input );
+
+    assertEquals( nrRows, output.size() );
+    for ( int i = 0; i < nrRows; i++ ) {
+      assertEquals( input.get( i )[ 0 ], output.get( i )[ 0 ] );
+      assertEquals( "response " + i, output.get( i )[ 1 ] );
+    }
+    assertEquals( nrConcurrent, maxInFlight.get() );
+    assertEquals( nrConcurrent, data.metrics.getMaxInFlight() );
+  }
+
+  private int countHit( HttpExchange exchange ) {
+    return hits.computeIfAbsent( exchange.getRequestURI().getPath(), path -> new AtomicInteger() ).incrementAndGet();
+  }
+
+  private static void respond( HttpExchange exchange, int status, String body ) throws IOException {
+    IOUtils.toByteArray( exchange.getRequestBody() );
+    byte[] bytes = body.getBytes( StandardCharsets.UTF_8 );
+    exchange.getResponseHeaders().add( "Content-Type", "text/plain" );
+    exchange.sendResponseHeaders( status, bytes.length );
+    try ( OutputStream out = exchange.getResponseBody() ) {
+      out.write( bytes );
+    }
+  }
+
+  private static List<Object[]> rows( String url ) {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { url } );
+    return rows;
+  }
+
+  private static RestMeta createMeta( String method, int maxConcurrentRequests, int maxRetries ) {
+    RestMeta meta = new RestMeta();
+    meta.setDefault();
+    meta.setMethod( method );
+    meta.setUrlInField( true );
+    meta.setUrlField( "url" );
+    meta.setFieldName( "result" );
+    meta.setResultCodeFieldName( "status" );
+    meta.setMaxConcurrentRequests( String.valueOf( maxConcurrentRequests ) );
+    meta.setMaxRetries( String.valueOf( maxRetries ) );
+    meta.setRetryDelay( "1" );
+    return meta;
+  }
+
+  /**
+   * Runs the transform over the input rows
+   *
+   * @return the rows passed on, the url followed by the result and the status code
+   */
+  private static List<Object[]> runRest( RestMeta meta, RestData data, List<Object[]> input ) throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "url" ) );
+
+    TransformMeta transformMeta = mock( TransformMeta.class );
+    doReturn( "rest" ).when( transformMeta ).getName();
+    doReturn( mock( TransformPartitioningMeta.class ) ).when( transformMeta ).getTargetTransformPartitioningMeta();
+    doReturn( meta ).when( transformMeta ).getTransform();
+    PipelineMeta pipelineMeta = mock( PipelineMeta.class );
+    doReturn( transformMeta ).when( pipelineMeta ).findTransform( anyString() );
+
+    Rest rest = spy( new Rest( transformMeta, meta, data, 0, pipelineMeta, mock( Pipeline.class ) ) );
+    doReturn( transformMeta ).when( rest ).getTransformMeta();
+    doReturn( rowMeta ).when( rest ).getInputRowMeta();
+    final Iterator<Object[]> rows = input.iterator();
+    doAnswer( invocation -> rows.hasNext() ? rows.next() : null ).when( rest ).getRow();
+    final List<Object[]> output = new ArrayList<>();
+    doAnswer( invocation -> output.add( (Object[]) invocation.getArguments()[ 1 ] ) )
+      .when( rest ).putRow( any( IRowMeta.class ), any( Object[].class ) );
+
+    assertTrue( rest.init() );
+    try {
+      while ( rest.processRow() ) {
+        // keep going until the input is exhausted
+      }
+    } finally {
+      rest.dispose();
+    }
+    return output;
+  }
+}
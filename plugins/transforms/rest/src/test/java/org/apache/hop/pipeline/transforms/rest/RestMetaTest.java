@@ -76,7 +76,7 @@ public class RestMetaTest {
         "urlField", "bodyField", "httpLogin", "httpPassword", "proxyHost", "proxyPort", "preemptive",
         "trustStoreFile", "trustStorePassword", "headerField", "headerName", "parameterField", "parameterName",
         "matrixParameterField", "matrixParameterName", "fieldName", "resultCodeFieldName", "responseTimeFieldName",
-        "responseHeaderFieldName" );
+        "responseHeaderFieldName", "maxConcurrentRequests", "maxRetries", "retryDelay", "responseFolder" );
 
     Map<String, IFieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<String, IFieldLoadSaveValidator<?>>();
@@ -0,0 +1,76 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.rest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RestMetricsTest {
+
+  @Test
+  public void testLatencyPercentiles() {
+    RestMetrics metrics = new RestMetrics();
+    assertEquals( 0L, metrics.getLatencyPercentile( 50 ) );
+
+    for ( long latency = 100; latency > 0; latency-- ) {
+      metrics.requestStarted();
+      metrics.requestFinished( latency );
+    }
+
+    assertEquals( 100L, metrics.getNrRequests() );
+    assertEquals( 0, metrics.getInFlight() );
+    assertEquals( 1L, metrics.getLatencyPercentile( 0 ) );
+    assertEquals( 50L, metrics.getLatencyPercentile( 50 ) );
+    assertEquals( 90L, metrics.getLatencyPercentile( 90 ) );
+    assertEquals( 99L, metrics.getLatencyPercentile( 99 ) );
+    assertEquals( 100L, metrics.getLatencyPercentile( 100 ) );
+    assertEquals( 100L, metrics.getMaxLatency() );
+  }
+
+  @Test
+  public void testInFlightAndRetries() {
+    RestMetrics metrics = new RestMetrics();
+    metrics.requestStarted();
+    metrics.requestStarted();
+    metrics.requestStarted();
+    metrics.requestFinished( 10 );
+    metrics.retried();
+
+    assertEquals( 2, metrics.getInFlight() );
+    assertEquals( 3, metrics.getMaxInFlight() );
+    assertEquals( 1L, metrics.getNrRetries() );
+  }
+
+  @Test
+  public void testReservoirKeepsTheDistribution() {
+    RestMetrics metrics = new RestMetrics();
+    for ( int i = 0; i < 100000; i++ ) {
+      metrics.requestStarted();
+      metrics.requestFinished( i % 1000 );
+    }
+    long median = metrics.getLatencyPercentile( 50 );
+    assertEquals( 500.0, median, 50.0 );
+    assertEquals( 999L, metrics.getMaxLatency() );
+  }
+}
@@ -338,23 +338,16 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
   }
 
   public boolean processRow() throws HopException {
-    Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
-    if ( rowData == null ) { // no more input to be expected...
+    long previousLinesRead = getLinesRead();
+
+    // get a batch of rows from rowset, wait for our turn, indicate busy!
+    List<Object[]> rows = getRows( ROWS_IN_BATCH );
+    if ( rows == null ) { // no more input to be expected...
 
       setOutputDone();
       return false;
     }
 
-    Object[] rowCopy = null;
-    if ( getTransformMeta().isDoingErrorHandling() ) {
-      rowCopy = getInputRowMeta().cloneRow( rowData );
-    }
-
-    if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousTransform" )
-        + getInputRowMeta().getString( rowData ) );
-    }
-
     if ( first ) {
       first = false;
 
@@ -366,6 +359,45 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
       meta.getMetadataFields( data.metadataRowMeta, getTransformName(), this );
     }
 
+    List<Object[]> outputRows = new ArrayList<>( rows.size() );
+    for ( Object[] rowData : rows ) {
+      if ( !processRow( rowData, outputRows ) ) {
+        putRows( data.metadataRowMeta, outputRows );
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+    }
+
+    // Send the rows on their way
+    //
+    putRows( data.metadataRowMeta, outputRows );
+
+    if ( checkFeedback( previousLinesRead, getLinesRead() ) ) {
+      logBasic( BaseMessages.getString( PKG, "SelectValues.Log.LineNumber" ) + getLinesRead() );
+    }
+
+    return true;
+  }
+
+  /**
+   * Select, remove and change the values of a single input row.
+   *
+   * @param rowData    the input row
+   * @param outputRows the list to add the output row to
+   * @return false if no more rows should be processed
+   * @throws HopException
+   */
+  private boolean processRow( Object[] rowData, List<Object[]> outputRows ) throws HopException {
+    Object[] rowCopy = null;
+    if ( getTransformMeta().isDoingErrorHandling() ) {
+      rowCopy = getInputRowMeta().cloneRow( rowData );
+    }
+
+    if ( log.isRowLevel() ) {
+      logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousTransform" )
+        + getInputRowMeta().getString( rowData ) );
+    }
+
     try {
       Object[] outputData = rowData;
 
@@ -380,13 +412,10 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
       }
 
       if ( outputData == null ) {
-        setOutputDone(); // signal end to receiver(s)
         return false;
       }
 
-      // Send the row on its way
-      //
-      putRow( data.metadataRowMeta, outputData );
+      outputRows.add( outputData );
       if ( log.isRowLevel() ) {
         logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.WroteRowToNextTransform" )
           + data.metadataRowMeta.getString( outputData ) );
@@ -401,16 +430,18 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
         } else {
           field = null;
         }
+        // Pass on the good rows of this batch first so output and error rows keep their relative order
+        //
+        if ( !outputRows.isEmpty() ) {
+          putRows( data.metadataRowMeta, outputRows );
+          outputRows.clear();
+        }
         putError( getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001" );
       } else {
         throw e;
       }
     }
 
-    if ( checkFeedback( getLinesRead() ) ) {
-      logBasic( BaseMessages.getString( PKG, "SelectValues.Log.LineNumber" ) + getLinesRead() );
-    }
-
     return true;
   }
 
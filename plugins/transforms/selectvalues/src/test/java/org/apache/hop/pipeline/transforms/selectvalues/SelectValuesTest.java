@@ -45,6 +45,7 @@ import org.hibernate.sql.Select;
 import org.junit.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -354,6 +355,13 @@ public class SelectValuesTest {
       rowMeta = rm;
     }
 
+    @Override
+    public void putRows( IRowMeta rm, List<Object[]> rows ) throws HopTransformException {
+      for ( Object[] row : rows ) {
+        putRow( rm, row );
+      }
+    }
+
     /**
      * Find input row set.
      *
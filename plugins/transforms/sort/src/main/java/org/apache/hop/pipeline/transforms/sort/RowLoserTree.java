@@ -0,0 +1,132 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Merges any number of sorted row sources with a tournament tree of losers. Every row handed out costs about log2(k)
+ * comparisons for k sources, where keeping a sorted list of the current rows costs up to k moves. Rows with equal keys
+ * are handed out in the order of their sources.
+ */
+public class RowLoserTree {
+
+  /**
+   * A sorted stream of rows
+   */
+  public interface IRowSource {
+    /**
+     * @return the next row or null if there are no more rows
+     */
+    Object[] next() throws HopException;
+  }
+
+  private final Comparator<Object[]> comparator;
+  private final IRowSource[] sources;
+  private final int k;
+
+  /**
+   * The current row of every source, null once it is exhausted
+   */
+  private final Object[][] current;
+
+  /**
+   * tree[0] is the source with the smallest current row, the other nodes hold the loser of the match played there
+   */
+  private final int[] tree;
+
+  public RowLoserTree( Comparator<Object[]> comparator, IRowSource[] sources ) throws HopException {
+    this.comparator = comparator;
+    this.sources = sources;
+    this.k = sources.length;
+    this.current = new Object[ k ][];
+    this.tree = new int[ Math.max( k, 1 ) ];
+
+    for ( int i = 0; i < k; i++ ) {
+      current[ i ] = sources[ i ].next();
+    }
+
+    // Source number k plays as a row smaller than any other so the first pass fills the tree
+    //
+    Arrays.fill( tree, k );
+    for ( int i = k - 1; i >= 0; i-- ) {
+      replay( i );
+    }
+  }
+
+  /**
+   * @return the smallest row of all sources or null if all sources are exhausted
+   */
+  public Object[] next() throws HopException {
+    if ( k == 0 ) {
+      return null;
+    }
+    int winner = tree[ 0 ];
+    Object[] row = current[ winner ];
+    if ( row != null ) {
+      current[ winner ] = sources[ winner ].next();
+      replay( winner );
+    }
+    return row;
+  }
+
+  /**
+   * Play the matches from the leaf of the given source up to the root.
+   */
+  private void replay( int source ) {
+    int winner = source;
+    for ( int node = ( source + k ) >> 1; node > 0; node >>= 1 ) {
+      if ( beats( tree[ node ], winner ) ) {
+        int loser = winner;
+        winner = tree[ node ];
+        tree[ node ] = loser;
+      }
+    }
+    tree[ 0 ] = winner;
+  }
+
+  /**
+   * @return true if the current row of source a goes before the current row of source b
+   */
+  private boolean beats( int a, int b ) {
+    if ( a == k ) {
+      return true;
+    }
+    if ( b == k ) {
+      return false;
+    }
+    Object[] rowA = current[ a ];
+    Object[] rowB = current[ b ];
+    if ( rowA == null ) {
+      return false;
+    }
+    if ( rowB == null ) {
+      return true;
+    }
+    int cmp = comparator.compare( rowA, rowB );
+    return cmp < 0 || ( cmp == 0 && a < b );
+  }
+}
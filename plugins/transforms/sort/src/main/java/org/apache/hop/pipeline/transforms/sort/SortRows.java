@@ -25,11 +25,18 @@ package org.apache.hop.pipeline.transforms.sort;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.logging.Metrics;
+import org.apache.hop.core.metrics.MetricsSnapshotType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.NormalizedSortKey;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -41,11 +48,14 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import java.io.*;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.ListIterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Sort the rows in the input-streams based on certain criteria
@@ -56,6 +66,15 @@ import java.util.zip.GZIPOutputStream;
 public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implements ITransform<SortRowsMeta, SortRowsData> {
   private static Class<?> PKG = SortRows.class; // for i18n
 
+  public static final Metrics METRIC_SORT_SPILL_BYTES = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_SORT_SPILL_BYTES", "Sort rows: bytes written to temp-files (uncompressed)" );
+  public static final Metrics METRIC_SORT_SPILL_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_SORT_SPILL_TIME", "Sort rows: time encoding and writing temp-files (ms)" );
+  public static final Metrics METRIC_SORT_MERGE_BYTES = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_SORT_MERGE_BYTES", "Sort rows: bytes read back from temp-files (uncompressed)" );
+  public static final Metrics METRIC_SORT_MERGE_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_SORT_MERGE_TIME", "Sort rows: time reading and decoding temp-files (ms)" );
+
   public SortRows( TransformMeta transformMeta, SortRowsMeta meta, SortRowsData data,
                    int copyNr, PipelineMeta pipelineMeta, Pipeline pipeline ) {
     super( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
@@ -70,6 +89,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
       }
     }
 
+    // The normalized sort key is built once and travels with the row in the slot after the last field
+    if ( data.sortKey != null ) {
+      r = RowDataUtil.resizeArray( r, data.sortKeyIndex + 1 );
+      r[ data.sortKeyIndex ] = data.sortKey.getKey( r );
+    }
+
     // Save row
     data.buffer.add( r );
 
@@ -114,70 +139,36 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
       return;
     }
 
+    // In parallel mode the previous buffer may still be written: wait for it before writing the next one
+    if ( data.parallel ) {
+      waitForPendingSpill();
+    }
+
     // First sort the rows in buffer[]
     quickSort( data.buffer );
 
-    // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
+    int bufferSize = data.buffer.size();
 
     try {
       FileObject fileObject =
         HopVfs.createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ));
 
       data.files.add( fileObject ); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream( fileObject, false );
-      if ( data.compressFiles ) {
-        gzos = new GZIPOutputStream( new BufferedOutputStream( outputStream ) );
-        dos = new DataOutputStream( gzos );
-      } else {
-        dos = new DataOutputStream( new BufferedOutputStream( outputStream, 500000 ) );
-        gzos = null;
-      }
 
-      // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<Integer>();
-      Object[] previousRow = null;
-      if ( meta.isOnlyPassingUniqueRows() ) {
-        int index = 0;
-        while ( index < data.buffer.size() ) {
-          Object[] row = data.buffer.get( index );
-          if ( previousRow != null ) {
-            int result = data.outputRowMeta.compare( row, previousRow, data.fieldnrs );
-            if ( result == 0 ) {
-              duplicates.add( index );
-              if ( log.isRowLevel() ) {
-                logRowlevel( BaseMessages.getString( PKG, "SortRows.RowLevel.DuplicateRowRemoved", data.outputRowMeta
-                  .getString( row ) ) );
-              }
-            }
-          }
-          index++;
-          previousRow = row;
-        }
-      }
-
-      // How many records do we have left?
-      data.bufferSizes.add( data.buffer.size() - duplicates.size() );
-
-      int duplicatesIndex = 0;
-      for ( p = 0; p < data.buffer.size(); p++ ) {
-        boolean skip = false;
-        if ( duplicatesIndex < duplicates.size() ) {
-          if ( p == duplicates.get( duplicatesIndex ) ) {
-            skip = true;
-            duplicatesIndex++;
-          }
-        }
-        if ( !skip ) {
-          data.outputRowMeta.writeData( dos, data.buffer.get( p ) );
-        }
+      if ( data.parallel ) {
+        // Write the sorted rows in the background while the next buffer fills up
+        final List<Object[]> sortedRows = data.buffer;
+        data.pendingSpill =
+          data.spillWriter.submit( () -> writeSortedRows( data.spillRowMeta, fileObject, sortedRows ) );
+        data.buffer = new ArrayList<Object[]>( bufferSize );
+      } else {
+        // Then write them to disk...
+        data.bufferSizes.add( writeSortedRows( data.outputRowMeta, fileObject, data.buffer ) );
       }
 
       if ( data.sortSize < 0 ) {
-        if ( data.buffer.size() > data.minSortSize ) {
-          data.minSortSize = data.buffer.size(); // if we did it once, we can do
+        if ( bufferSize > data.minSortSize ) {
+          data.minSortSize = bufferSize; // if we did it once, we can do
           // it again.
 
           // Memory usage goes up over time, even with garbage collection
@@ -191,13 +182,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
       // Clear the list
       data.buffer.clear();
 
-      // Close temp-file
-      dos.close(); // close data stream
-      if ( gzos != null ) {
-        gzos.close(); // close gzip stream
-      }
-      outputStream.close(); // close file stream
-
       // How much memory do we have left?
       //
       data.freeMemoryPct = Const.getPercentageFreeMemory();
@@ -215,18 +199,161 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
     data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream( GZIPInputStream gzipInputStream ) {
-    DataInputStream result = new DataInputStream( gzipInputStream );
-    data.gzis.add( gzipInputStream );
-    return result;
+  /**
+   * Write sorted rows to a temporary file, leaving out duplicates if only unique rows are passed.
+   *
+   * @param rowMeta    the row metadata to write with, not used by another thread at the same time
+   * @param fileObject the temporary file to write to
+   * @param rows       the sorted rows
+   * @return the number of rows written
+   */
+  private int writeSortedRows( IRowMeta rowMeta, FileObject fileObject, List<Object[]> rows ) throws Exception {
+    int p;
+
+    OutputStream outputStream = HopVfs.getOutputStream( fileObject, false );
+    DataOutputStream dos = data.spillCodec.createOutputStream( outputStream, HopVfs.getFilename( fileObject ) );
+
+    // Just write the data, nothing else
+    List<Integer> duplicates = new ArrayList<Integer>();
+    Object[] previousRow = null;
+    if ( meta.isOnlyPassingUniqueRows() ) {
+      int index = 0;
+      while ( index < rows.size() ) {
+        Object[] row = rows.get( index );
+        if ( previousRow != null ) {
+          int result = rowMeta.compare( row, previousRow, data.fieldnrs );
+          if ( result == 0 ) {
+            duplicates.add( index );
+            if ( log.isRowLevel() ) {
+              logRowlevel( BaseMessages.getString( PKG, "SortRows.RowLevel.DuplicateRowRemoved", rowMeta
+                .getString( row ) ) );
+            }
+          }
+        }
+        index++;
+        previousRow = row;
+      }
+    }
+
+    int duplicatesIndex = 0;
+    for ( p = 0; p < rows.size(); p++ ) {
+      boolean skip = false;
+      if ( duplicatesIndex < duplicates.size() ) {
+        if ( p == duplicates.get( duplicatesIndex ) ) {
+          skip = true;
+          duplicatesIndex++;
+        }
+      }
+      if ( !skip ) {
+        writeRow( rowMeta, dos, rows.get( p ) );
+      }
+    }
+
+    // Close temp-file: this flushes the last block through the codec and closes the file stream
+    dos.close();
+
+    // How many records do we have left?
+    return rows.size() - duplicates.size();
+  }
+
+  /**
+   * Write a row to a temporary file, followed by its normalized sort key if there is one.
+   */
+  private void writeRow( IRowMeta rowMeta, DataOutputStream dos, Object[] row ) throws HopFileException {
+    rowMeta.writeData( dos, row );
+    if ( data.sortKey != null ) {
+      byte[] key = (byte[]) row[ data.sortKeyIndex ];
+      try {
+        dos.writeInt( key.length );
+        dos.write( key );
+      } catch ( IOException e ) {
+        throw new HopFileException( "Unable to write sort key to temp-file", e );
+      }
+    }
+  }
+
+  /**
+   * Read a row from a temporary file, followed by its normalized sort key if there is one.
+   */
+  private Object[] readRow( DataInputStream dis ) throws HopFileException, SocketTimeoutException {
+    Object[] row = data.outputRowMeta.readData( dis );
+    if ( data.sortKey != null ) {
+      row = RowDataUtil.resizeArray( row, data.sortKeyIndex + 1 );
+      try {
+        byte[] key = new byte[ dis.readInt() ];
+        dis.readFully( key );
+        row[ data.sortKeyIndex ] = key;
+      } catch ( IOException e ) {
+        throw new HopFileException( "Unable to read sort key from temp-file", e );
+      }
+    }
+    return row;
+  }
+
+  /**
+   * Parallel sort: wait until the previous buffer is written to its temporary file.
+   */
+  private void waitForPendingSpill() throws HopException {
+    if ( data.pendingSpill == null ) {
+      return;
+    }
+    try {
+      data.bufferSizes.add( data.pendingSpill.get() );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while writing a temp-file", e );
+    } catch ( ExecutionException e ) {
+      throw new HopException( "Error processing temp-file!", e.getCause() );
+    } finally {
+      data.pendingSpill = null;
+    }
+  }
+
+  /**
+   * Parallel sort: open all temporary files and get the next row out of the loser tree.
+   *
+   * @return the next row in sort order or null if all files are read
+   */
+  private Object[] getMergedRow() throws HopException {
+    if ( data.merger == null ) {
+      waitForPendingSpill();
+
+      if ( log.isBasic() ) {
+        logBasic( BaseMessages.getString( PKG, "SortRows.Basic.OpeningTempFiles", data.files.size() ) );
+      }
+      RowLoserTree.IRowSource[] sources = new RowLoserTree.IRowSource[ data.files.size() ];
+      try {
+        for ( int f = 0; f < data.files.size(); f++ ) {
+          InputStream fi = HopVfs.getInputStream( data.files.get( f ) );
+          data.fis.add( fi );
+          DataInputStream di = data.spillCodec.createInputStream( fi );
+          data.dis.add( di );
+          sources[ f ] = new TempFileRowSource( di, data.bufferSizes.get( f ) );
+        }
+      } catch ( IOException e ) {
+        throw new HopException( BaseMessages.getString( PKG, "SortRows.Error.ErrorReadingBackTempFiles" ), e );
+      }
+      data.merger = new RowLoserTree( data.rowComparator, sources );
+    }
+
+    Object[] row = data.merger.next();
+    if ( row == null ) {
+      // All files are read: the next batch starts from scratch
+      clearBuffers();
+    }
+    return row;
   }
 
   // get sorted rows from available files in iterative manner.
   // that means call to this method will continue to return rows
   // till all temp files will not be read to the end.
-  Object[] getBuffer() throws HopValueException {
+  Object[] getBuffer() throws HopException {
     Object[] retval;
 
+    if ( data.parallel && !data.files.isEmpty() ) {
+      return getMergedRow();
+    }
+
     // Open all files at once and read one row from each file...
     if ( data.files.size() > 0 && ( data.dis.size() == 0 || data.fis.size() == 0 ) ) {
       if ( log.isBasic() ) {
@@ -241,13 +368,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
             logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.OpeningTempFile", filename ) );
           }
           InputStream fi = HopVfs.getInputStream( fileObject );
-          DataInputStream di;
           data.fis.add( fi );
-          if ( data.compressFiles ) {
-            di = getDataInputStream( new GZIPInputStream( new BufferedInputStream( fi ) ) );
-          } else {
-            di = new DataInputStream( new BufferedInputStream( fi, 50000 ) );
-          }
+          DataInputStream di = data.spillCodec.createInputStream( fi );
           data.dis.add( di );
 
           // How long is the buffer?
@@ -259,7 +381,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
           }
 
           if ( buffersize > 0 ) {
-            Object[] row = data.outputRowMeta.readData( di );
+            Object[] row = readRow( di );
             data.rowbuffer.add( row ); // new row from input stream
             data.tempRows.add( new RowTempFile( row, f ) );
           }
@@ -308,7 +430,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
         InputStream fi = data.fis.get( smallest );
 
         try {
-          Object[] row2 = data.outputRowMeta.readData( di );
+          Object[] row2 = readRow( di );
           RowTempFile extra = new RowTempFile( row2, smallest );
 
           int index = Collections.binarySearch( data.tempRows, extra, data.comparator );
@@ -318,13 +440,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
             data.tempRows.add( index, extra );
           }
         } catch ( HopFileException fe ) { // empty file or EOF mostly
-          GZIPInputStream gzfi = ( data.compressFiles ) ? data.gzis.get( smallest ) : null;
           try {
             di.close();
             fi.close();
-            if ( gzfi != null ) {
-              gzfi.close();
-            }
             file.delete();
           } catch ( IOException e ) {
             logError( BaseMessages.getString( PKG, "SortRows.Error.UnableToCloseFile", smallest, file.toString() ) );
@@ -337,10 +455,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
           data.dis.remove( smallest );
           data.fis.remove( smallest );
 
-          if ( gzfi != null ) {
-            data.gzis.remove( smallest );
-          }
-
           // Also update all file numbers in in data.tempRows if they are larger
           // than smallest.
           //
@@ -423,6 +537,22 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator( data.outputRowMeta, data.fieldnrs );
+
+      // Compare pre-computed binary keys instead of the values when all sort fields allow it
+      if ( NormalizedSortKey.isSupported( data.outputRowMeta, data.fieldnrs ) ) {
+        data.sortKey = new NormalizedSortKey( data.outputRowMeta, data.fieldnrs );
+        data.sortKeyIndex = data.outputRowMeta.size();
+      } else if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.NoNormalizedSortKey" ) );
+      }
+
+      if ( meta.isParallelSort() ) {
+        if ( data.sortKey != null ) {
+          startParallelSort();
+        } else {
+          logBasic( BaseMessages.getString( PKG, "SortRows.Log.ParallelSortNeedsSortKey" ) );
+        }
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -481,11 +611,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
   void passBuffer() throws HopException {
     // Now we can start the output!
     //
+    boolean externalMerge = !data.files.isEmpty();
     Object[] r = getBuffer();
     Object[] previousRow = null;
 
     // log time spent for external merge (expected time consuming operation)
-    if ( log.isDebug() && !data.files.isEmpty() ) {
+    if ( log.isDebug() && externalMerge ) {
       this.logDebug( BaseMessages.getString( PKG, "SortRows.Debug.ExternalMergeStarted" ) );
     }
 
@@ -494,6 +625,11 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
         logRowlevel( BaseMessages.getString( PKG, "SortRows.RowLevel.ReadRow", data.outputRowMeta.getString( r ) ) );
       }
 
+      // The sort key is not passed on to the next transforms
+      if ( data.sortKey != null ) {
+        r[ data.sortKeyIndex ] = null;
+      }
+
       // Do another verification pass for unique rows...
       //
       if ( meta.isOnlyPassingUniqueRows() ) {
@@ -518,15 +654,44 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
       r = getBuffer();
     }
 
-    if ( log.isDebug() && !data.files.isEmpty() ) {
+    if ( log.isDebug() && externalMerge ) {
       this.logDebug( BaseMessages.getString( PKG, "SortRows.Debug.ExternalMergeFinished" ) );
     }
 
+    if ( externalMerge ) {
+      reportSpillThroughput();
+    }
+
     // Clear out the buffer for the next batch
     //
     clearBuffers();
   }
 
+  /**
+   * Report the bytes and time that went through the temp-file codec since the last report, per codec.
+   */
+  private void reportSpillThroughput() {
+    SpillFileCodec codec = data.spillCodec;
+    long spillMs = codec.getSpillNanos() / 1000000L;
+    long mergeMs = codec.getMergeNanos() / 1000000L;
+
+    log.snap( METRIC_SORT_SPILL_BYTES, codec.getName(), codec.getSpillBytes() );
+    log.snap( METRIC_SORT_SPILL_TIME, codec.getName(), spillMs );
+    log.snap( METRIC_SORT_MERGE_BYTES, codec.getName(), codec.getMergeBytes() );
+    log.snap( METRIC_SORT_MERGE_TIME, codec.getName(), mergeMs );
+
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.SpillThroughput", codec.getName(),
+        codec.getSpillBytes() / 1048576L, spillMs, megabytesPerSecond( codec.getSpillBytes(), spillMs ),
+        codec.getMergeBytes() / 1048576L, mergeMs, megabytesPerSecond( codec.getMergeBytes(), mergeMs ) ) );
+    }
+    codec.resetCounters();
+  }
+
+  private static long megabytesPerSecond( long bytes, long ms ) {
+    return ms > 0 ? bytes * 1000L / 1048576L / ms : 0L;
+  }
+
   @Override
   public boolean init() {
 
@@ -552,6 +717,20 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
 
     data.compressFiles = getBooleanValueOfVariable( meta.getCompressFilesVariable(), meta.getCompressFiles() );
 
+    // Without a codec the compression option picks between GZip and no compression, like it always did
+    //
+    String codecName = environmentSubstitute( meta.getSpillCodec() );
+    if ( Utils.isEmpty( codecName ) ) {
+      codecName = data.compressFiles ? "GZip" : "None";
+    }
+    ICompressionProvider compressionProvider =
+      CompressionProviderFactory.getInstance().createCompressionProviderInstance( codecName );
+    if ( compressionProvider == null ) {
+      logError( BaseMessages.getString( PKG, "SortRows.Error.SpillCodecNotFound", codecName ) );
+      return false;
+    }
+    data.spillCodec = new SpillFileCodec( compressionProvider );
+
     data.tempRows = new ArrayList<RowTempFile>();
 
     data.minSortSize = 5000;
@@ -559,8 +738,35 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
     return true;
   }
 
+  /**
+   * Parallel sort: start the pool to sort the buffers in and the thread to write the temporary files with.
+   */
+  private void startParallelSort() {
+    data.parallel = true;
+    data.spillRowMeta = data.outputRowMeta.clone();
+    data.sortPool = new ForkJoinPool( Runtime.getRuntime().availableProcessors() );
+    final String threadName = getPipelineMeta().getName() + " - " + getTransformName() + " - temp-file writer";
+    data.spillWriter = Executors.newSingleThreadExecutor( runnable -> {
+      Thread thread = new Thread( runnable, threadName );
+      thread.setDaemon( true );
+      return thread;
+    } );
+  }
+
   @Override
   public void dispose() {
+    if ( data.pendingSpill != null ) {
+      data.pendingSpill.cancel( true );
+      data.pendingSpill = null;
+    }
+    if ( data.spillWriter != null ) {
+      data.spillWriter.shutdownNow();
+      data.spillWriter = null;
+    }
+    if ( data.sortPool != null ) {
+      data.sortPool.shutdownNow();
+      data.sortPool = null;
+    }
     clearBuffers();
     super.dispose();
   }
@@ -571,6 +777,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
     data.buffer.clear();
     data.getBufferIndex = 0;
     data.rowbuffer.clear();
+    data.merger = null;
 
     // close any open DataInputStream objects
     if ( ( data.dis != null ) && ( data.dis.size() > 0 ) ) {
@@ -595,6 +802,14 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
         logError( e.getLocalizedMessage(), e );
       }
     }
+
+    if ( data.parallel ) {
+      // The merge leaves the files in place: forget about them
+      data.files.clear();
+      data.bufferSizes.clear();
+      data.fis.clear();
+      data.dis.clear();
+    }
   }
 
   /**
@@ -602,7 +817,27 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
    */
   void quickSort( List<Object[]> elements ) throws HopException {
     if ( elements.size() > 0 ) {
-      Collections.sort( elements, data.rowComparator );
+      if ( data.parallel ) {
+        // Sorts chunks of the buffer in the pool of this transform and merges them: a parallel sort started from a
+        // worker thread forks its tasks in the worker's pool instead of the common pool.
+        // The rows are compared on their normalized sort keys, which doesn't touch the value metadata.
+        Object[][] rows = elements.toArray( new Object[ elements.size() ][] );
+        try {
+          data.sortPool.submit( () -> Arrays.parallelSort( rows, data.rowComparator ) ).get();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+          throw new HopException( "Interrupted while sorting rows", e );
+        } catch ( ExecutionException e ) {
+          throw new HopException( "Error sorting rows", e.getCause() );
+        }
+        ListIterator<Object[]> iterator = elements.listIterator();
+        for ( Object[] row : rows ) {
+          iterator.next();
+          iterator.set( row );
+        }
+      } else {
+        Collections.sort( elements, data.rowComparator );
+      }
 
       long nrConversions = 0L;
       for ( IValueMeta valueMeta : data.outputRowMeta.getValueMetaList() ) {
@@ -670,6 +905,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
 
     @Override
     public int compare( RowTempFile o1, RowTempFile o2 ) {
+      if ( data.sortKey != null ) {
+        return NormalizedSortKey.compare( (byte[]) o1.row[ data.sortKeyIndex ], (byte[]) o2.row[ data.sortKeyIndex ] );
+      }
       try {
         return rowMeta.compare( o1.row, o2.row, fieldNrs );
       } catch ( HopValueException e ) {
@@ -679,6 +917,32 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
     }
   }
 
+  /**
+   * Reads the rows of a temporary file for the loser tree
+   */
+  private class TempFileRowSource implements RowLoserTree.IRowSource {
+    private final DataInputStream dis;
+    private int remaining;
+
+    TempFileRowSource( DataInputStream dis, int nrRows ) {
+      this.dis = dis;
+      this.remaining = nrRows;
+    }
+
+    @Override
+    public Object[] next() throws HopException {
+      if ( remaining <= 0 ) {
+        return null;
+      }
+      remaining--;
+      try {
+        return readRow( dis );
+      } catch ( SocketTimeoutException e ) {
+        throw new HopValueException( e ); // should never happen on local files
+      }
+    }
+  }
+
   private class RowObjectArrayComparator extends SortRowsComparator implements Comparator<Object[]> {
     RowObjectArrayComparator( IRowMeta rowMeta, int[] fieldNrs ) {
       super( rowMeta, fieldNrs );
@@ -686,6 +950,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
 
     @Override
     public int compare( Object[] o1, Object[] o2 ) {
+      if ( data.sortKey != null ) {
+        return NormalizedSortKey.compare( (byte[]) o1[ data.sortKeyIndex ], (byte[]) o2[ data.sortKeyIndex ] );
+      }
       try {
         return rowMeta.compare( o1, o2, fieldNrs );
       } catch ( HopValueException e ) {
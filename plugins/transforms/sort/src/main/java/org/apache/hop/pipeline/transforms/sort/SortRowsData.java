@@ -24,6 +24,7 @@ package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.NormalizedSortKey;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -32,7 +33,9 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * @author Matt
@@ -44,7 +47,6 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int getBufferIndex;
 
   public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
   public List<DataInputStream> dis;
   public List<Object[]> rowbuffer;
   public List<Integer> bufferSizes;
@@ -57,6 +59,7 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta;
   public int sortSize;
   public boolean compressFiles;
+  public SpillFileCodec spillCodec;
   public int[] convertKeysToNative;
   public boolean convertAnyKeysToNative;
 
@@ -76,12 +79,29 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int[] groupnrs;
   public boolean newBatch;
 
+  /*
+   * Parallel sort: the sorted buffers are written by a background thread and the files are merged with a loser tree.
+   * Only used when the rows have a normalized sort key: the value metadata used to compare rows isn't thread-safe.
+   * The writer has its own copy of the row metadata, the buffers are sorted in a pool owned by the transform.
+   */
+  public boolean parallel;
+  public IRowMeta spillRowMeta;
+  public ForkJoinPool sortPool;
+  public ExecutorService spillWriter;
+  public Future<Integer> pendingSpill;
+  public RowLoserTree merger;
+
+  /*
+   * Normalized sort key of every row, kept in the row at sortKeyIndex. Null if the sort fields don't allow it.
+   */
+  public NormalizedSortKey sortKey;
+  public int sortKeyIndex;
+
   public SortRowsData() {
     super();
 
     files = new ArrayList<FileObject>();
     fis = new ArrayList<InputStream>();
-    gzis = new ArrayList<GZIPInputStream>();
     dis = new ArrayList<DataInputStream>();
     bufferSizes = new ArrayList<Integer>();
 
@@ -23,6 +23,7 @@
 package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -36,6 +37,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.CheckBoxVar;
 import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.ComboVar;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
@@ -74,12 +76,20 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
 
   private Label wlCompress;
   private CheckBoxVar wCompress;
+
+  private Label wlSpillCodec;
+  private ComboVar wSpillCodec;
+  private FormData fdlSpillCodec, fdSpillCodec;
   private FormData fdlCompress, fdCompress;
 
   private Label wlUniqueRows;
   private Button wUniqueRows;
   private FormData fdlUniqueRows, fdUniqueRows;
 
+  private Label wlParallelSort;
+  private Button wParallelSort;
+  private FormData fdlParallelSort, fdParallelSort;
+
   private Label wlFields;
   private TableView wFields;
   private FormData fdlFields, fdFields;
@@ -254,6 +264,26 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
       }
     } );
 
+    // Which compression for temporary files?
+    wlSpillCodec = new Label( shell, SWT.RIGHT );
+    wlSpillCodec.setText( BaseMessages.getString( PKG, "SortRowsDialog.SpillCodec.Label" ) );
+    props.setLook( wlSpillCodec );
+    fdlSpillCodec = new FormData();
+    fdlSpillCodec.left = new FormAttachment( 0, 0 );
+    fdlSpillCodec.right = new FormAttachment( middle, -margin );
+    fdlSpillCodec.top = new FormAttachment( wCompress, margin );
+    wlSpillCodec.setLayoutData( fdlSpillCodec );
+    wSpillCodec = new ComboVar( pipelineMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSpillCodec.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.SpillCodec.Tooltip" ) );
+    wSpillCodec.setItems( CompressionProviderFactory.getInstance().getCompressionProviderNames() );
+    props.setLook( wSpillCodec );
+    wSpillCodec.addModifyListener( lsMod );
+    fdSpillCodec = new FormData();
+    fdSpillCodec.left = new FormAttachment( middle, 0 );
+    fdSpillCodec.top = new FormAttachment( wCompress, margin );
+    fdSpillCodec.right = new FormAttachment( 100, 0 );
+    wSpillCodec.setLayoutData( fdSpillCodec );
+
     // Using compression for temporary files?
     wlUniqueRows = new Label( shell, SWT.RIGHT );
     wlUniqueRows.setText( BaseMessages.getString( PKG, "SortRowsDialog.UniqueRows.Label" ) );
@@ -261,18 +291,36 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     fdlUniqueRows = new FormData();
     fdlUniqueRows.left = new FormAttachment( 0, 0 );
     fdlUniqueRows.right = new FormAttachment( middle, -margin );
-    fdlUniqueRows.top = new FormAttachment( wCompress, margin );
+    fdlUniqueRows.top = new FormAttachment( wSpillCodec, margin );
     wlUniqueRows.setLayoutData( fdlUniqueRows );
     wUniqueRows = new Button( shell, SWT.CHECK );
     wUniqueRows.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.UniqueRows.Tooltip" ) );
     props.setLook( wUniqueRows );
     fdUniqueRows = new FormData();
     fdUniqueRows.left = new FormAttachment( middle, 0 );
-    fdUniqueRows.top = new FormAttachment( wCompress, margin );
+    fdUniqueRows.top = new FormAttachment( wSpillCodec, margin );
     fdUniqueRows.right = new FormAttachment( 100, 0 );
     wUniqueRows.setLayoutData( fdUniqueRows );
     wUniqueRows.addSelectionListener( new ComponentSelectionListener( input ) );
 
+    wlParallelSort = new Label( shell, SWT.RIGHT );
+    wlParallelSort.setText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSort.Label" ) );
+    props.setLook( wlParallelSort );
+    fdlParallelSort = new FormData();
+    fdlParallelSort.left = new FormAttachment( 0, 0 );
+    fdlParallelSort.right = new FormAttachment( middle, -margin );
+    fdlParallelSort.top = new FormAttachment( wUniqueRows, margin );
+    wlParallelSort.setLayoutData( fdlParallelSort );
+    wParallelSort = new Button( shell, SWT.CHECK );
+    wParallelSort.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSort.Tooltip" ) );
+    props.setLook( wParallelSort );
+    fdParallelSort = new FormData();
+    fdParallelSort.left = new FormAttachment( middle, 0 );
+    fdParallelSort.top = new FormAttachment( wUniqueRows, margin );
+    fdParallelSort.right = new FormAttachment( 100, 0 );
+    wParallelSort.setLayoutData( fdParallelSort );
+    wParallelSort.addSelectionListener( new ComponentSelectionListener( input ) );
+
     wOk = new Button( shell, SWT.PUSH );
     wOk.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
     wGet = new Button( shell, SWT.PUSH );
@@ -288,7 +336,7 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     props.setLook( wlFields );
     fdlFields = new FormData();
     fdlFields.left = new FormAttachment( 0, 0 );
-    fdlFields.top = new FormAttachment( wUniqueRows, margin );
+    fdlFields.top = new FormAttachment( wParallelSort, margin );
     wlFields.setLayoutData( fdlFields );
 
     final int FieldsRows = input.getFieldName().length;
@@ -463,7 +511,9 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     wFreeMemory.setText( Const.NVL( input.getFreeMemoryLimit(), "" ) );
     wCompress.setSelection( input.getCompressFiles() );
     wCompress.setVariableName( input.getCompressFilesVariable() );
+    wSpillCodec.setText( Const.NVL( input.getSpillCodec(), "" ) );
     wUniqueRows.setSelection( input.isOnlyPassingUniqueRows() );
+    wParallelSort.setSelection( input.isParallelSort() );
 
     Table table = wFields.table;
     if ( input.getFieldName().length > 0 ) {
@@ -513,7 +563,9 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     log.logDetailed( "Sort rows", "Compression is set to " + wCompress.getSelection() );
     input.setCompressFiles( wCompress.getSelection() );
     input.setCompressFilesVariable( wCompress.getVariableName() );
+    input.setSpillCodec( wSpillCodec.getText() );
     input.setOnlyPassingUniqueRows( wUniqueRows.getSelection() );
+    input.setParallelSort( wParallelSort.getSelection() );
 
     // Table table = wFields.table;
     int nrFields = wFields.nrNonEmpty();
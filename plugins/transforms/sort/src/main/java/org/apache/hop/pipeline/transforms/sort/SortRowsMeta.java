@@ -144,6 +144,19 @@ public class SortRowsMeta extends BaseTransformMeta implements ITransformMeta<So
    */
   private String compressFilesVariable;
 
+  /**
+   * The name of the compression provider used for temporary files. If empty the compressFiles option decides between
+   * GZip and no compression.
+   */
+  @Injection( name = "SPILL_CODEC" )
+  private String spillCodec;
+
+  /**
+   * Sort the in-memory buffer on all cores, write temporary files in the background and merge them with a loser tree
+   */
+  @Injection( name = "PARALLEL_SORT" )
+  private boolean parallelSort;
+
   public SortRowsMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -249,7 +262,9 @@ public class SortRowsMeta extends BaseTransformMeta implements ITransformMeta<So
       freeMemoryLimit = XmlHandler.getTagValue( transformNode, "free_memory" );
       compressFiles = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "compress" ) );
       compressFilesVariable = XmlHandler.getTagValue( transformNode, "compress_variable" );
+      spillCodec = XmlHandler.getTagValue( transformNode, "spill_codec" );
       onlyPassingUniqueRows = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "unique_rows" ) );
+      parallelSort = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "parallel_sort" ) );
 
       Node fields = XmlHandler.getSubNode( transformNode, "fields" );
       int nrFields = XmlHandler.countNodes( fields, "field" );
@@ -285,7 +300,9 @@ public class SortRowsMeta extends BaseTransformMeta implements ITransformMeta<So
     freeMemoryLimit = null;
     compressFiles = false;
     compressFilesVariable = null;
+    spillCodec = null;
     onlyPassingUniqueRows = false;
+    parallelSort = false;
 
     int nrFields = 0;
 
@@ -309,7 +326,9 @@ public class SortRowsMeta extends BaseTransformMeta implements ITransformMeta<So
     retval.append( "      " ).append( XmlHandler.addTagValue( "free_memory", freeMemoryLimit ) );
     retval.append( "      " ).append( XmlHandler.addTagValue( "compress", compressFiles ) );
     retval.append( "      " ).append( XmlHandler.addTagValue( "compress_variable", compressFilesVariable ) );
+    retval.append( "      " ).append( XmlHandler.addTagValue( "spill_codec", spillCodec ) );
     retval.append( "      " ).append( XmlHandler.addTagValue( "unique_rows", onlyPassingUniqueRows ) );
+    retval.append( "      " ).append( XmlHandler.addTagValue( "parallel_sort", parallelSort ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < fieldName.length; i++ ) {
@@ -530,6 +549,34 @@ public class SortRowsMeta extends BaseTransformMeta implements ITransformMeta<So
     this.compressFilesVariable = compressFilesVariable;
   }
 
+  /**
+   * @return the name of the compression provider used for temporary files
+   */
+  public String getSpillCodec() {
+    return spillCodec;
+  }
+
+  /**
+   * @param spillCodec the name of the compression provider used for temporary files
+   */
+  public void setSpillCodec( String spillCodec ) {
+    this.spillCodec = spillCodec;
+  }
+
+  /**
+   * @return true if the rows are sorted in parallel
+   */
+  public boolean isParallelSort() {
+    return parallelSort;
+  }
+
+  /**
+   * @param parallelSort true to sort the rows in parallel
+   */
+  public void setParallelSort( boolean parallelSort ) {
+    this.parallelSort = parallelSort;
+  }
+
   /**
    * @return the caseSensitive
    */
@@ -0,0 +1,180 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.compress.CompressionInputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads and writes the temporary files of the sort through one of the compression providers (None, GZip, Snappy,
+ * ...). Rows are serialized into blocks which are handed to the codec in one piece, and the files are read with large
+ * sequential reads. The bytes going through the codec and the time spent in it are counted one block at a time.
+ */
+public class SpillFileCodec {
+
+  /**
+   * The size of the blocks handed to the codec when writing
+   */
+  public static final int WRITE_BLOCK_SIZE = 512 * 1024;
+
+  /**
+   * The size of the blocks read from the codec and from the file. A merge keeps two of these per temporary file.
+   */
+  public static final int READ_BLOCK_SIZE = 128 * 1024;
+
+  private final ICompressionProvider provider;
+
+  private final AtomicLong spillBytes = new AtomicLong();
+  private final AtomicLong spillNanos = new AtomicLong();
+  private final AtomicLong mergeBytes = new AtomicLong();
+  private final AtomicLong mergeNanos = new AtomicLong();
+
+  public SpillFileCodec( ICompressionProvider provider ) {
+    this.provider = provider;
+  }
+
+  /**
+   * @return the name of the compression provider
+   */
+  public String getName() {
+    return provider.getName();
+  }
+
+  /**
+   * @param outputStream the temporary file
+   * @param filename     the name of the temporary file, used by codecs with entries like Zip
+   * @return a stream to write rows to. Closing it closes the file.
+   */
+  public DataOutputStream createOutputStream( OutputStream outputStream, String filename ) throws IOException {
+    CompressionOutputStream codecStream =
+      provider.createOutputStream( new BufferedOutputStream( outputStream, WRITE_BLOCK_SIZE ) );
+    codecStream.addEntry( filename, null );
+    return new DataOutputStream( new BufferedOutputStream( new CountingOutputStream( codecStream ),
+      WRITE_BLOCK_SIZE ) );
+  }
+
+  /**
+   * @param inputStream the temporary file
+   * @return a stream to read rows from. Closing it closes the file.
+   */
+  public DataInputStream createInputStream( InputStream inputStream ) throws IOException {
+    CompressionInputStream codecStream =
+      provider.createInputStream( new BufferedInputStream( inputStream, READ_BLOCK_SIZE ) );
+    codecStream.nextEntry();
+    return new DataInputStream( new BufferedInputStream( new CountingInputStream( codecStream ), READ_BLOCK_SIZE ) );
+  }
+
+  /**
+   * @return the number of uncompressed bytes written to temporary files
+   */
+  public long getSpillBytes() {
+    return spillBytes.get();
+  }
+
+  /**
+   * @return the time spent encoding and writing temporary files in nanoseconds
+   */
+  public long getSpillNanos() {
+    return spillNanos.get();
+  }
+
+  /**
+   * @return the number of uncompressed bytes read back from temporary files
+   */
+  public long getMergeBytes() {
+    return mergeBytes.get();
+  }
+
+  /**
+   * @return the time spent reading and decoding temporary files in nanoseconds
+   */
+  public long getMergeNanos() {
+    return mergeNanos.get();
+  }
+
+  /**
+   * Start counting from zero again
+   */
+  public void resetCounters() {
+    spillBytes.set( 0L );
+    spillNanos.set( 0L );
+    mergeBytes.set( 0L );
+    mergeNanos.set( 0L );
+  }
+
+  /**
+   * Counts the blocks written into the codec, the buffer in front of it makes sure this happens a block at a time.
+   */
+  private class CountingOutputStream extends FilterOutputStream {
+    CountingOutputStream( OutputStream out ) {
+      super( out );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+      long start = System.nanoTime();
+      out.write( b, off, len );
+      spillNanos.addAndGet( System.nanoTime() - start );
+      spillBytes.addAndGet( len );
+    }
+
+    @Override
+    public void close() throws IOException {
+      long start = System.nanoTime();
+      super.close();
+      spillNanos.addAndGet( System.nanoTime() - start );
+    }
+  }
+
+  /**
+   * Counts the blocks read out of the codec, the buffer behind it makes sure this happens a block at a time.
+   */
+  private class CountingInputStream extends FilterInputStream {
+    CountingInputStream( InputStream in ) {
+      super( in );
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException {
+      long start = System.nanoTime();
+      int read = in.read( b, off, len );
+      mergeNanos.addAndGet( System.nanoTime() - start );
+      if ( read > 0 ) {
+        mergeBytes.addAndGet( read );
+      }
+      return read;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RowLoserTreeTest {
+
+  private static final Comparator<Object[]> COMPARATOR = ( a, b ) -> Long.compare( (Long) a[ 0 ], (Long) b[ 0 ] );
+
+  @Test
+  public void testNoSources() throws HopException {
+    RowLoserTree tree = new RowLoserTree( COMPARATOR, new RowLoserTree.IRowSource[ 0 ] );
+    assertNull( tree.next() );
+  }
+
+  @Test
+  public void testMergesSortedSources() throws HopException {
+    Random random = new Random( 42 );
+    for ( int k = 1; k <= 17; k++ ) {
+      List<Object[]> expected = new ArrayList<>();
+      RowLoserTree.IRowSource[] sources = new RowLoserTree.IRowSource[ k ];
+      for ( int s = 0; s < k; s++ ) {
+        List<Object[]> rows = new ArrayList<>();
+        int nrRows = random.nextInt( 50 ); // some sources are empty
+        for ( int r = 0; r < nrRows; r++ ) {
+          rows.add( new Object[] { (long) random.nextInt( 100 ) } );
+        }
+        Collections.sort( rows, COMPARATOR );
+        expected.addAll( rows );
+        sources[ s ] = listSource( rows );
+      }
+      Collections.sort( expected, COMPARATOR );
+
+      RowLoserTree tree = new RowLoserTree( COMPARATOR, sources );
+      for ( Object[] row : expected ) {
+        assertEquals( row[ 0 ], tree.next()[ 0 ] );
+      }
+      assertNull( tree.next() );
+      assertNull( tree.next() );
+    }
+  }
+
+  @Test
+  public void testEqualRowsKeepSourceOrder() throws HopException {
+    Object[] first = new Object[] { 1L };
+    Object[] second = new Object[] { 1L };
+    Object[] third = new Object[] { 1L };
+    RowLoserTree tree = new RowLoserTree( COMPARATOR, new RowLoserTree.IRowSource[] {
+      listSource( Arrays.asList( first ) ), listSource( Arrays.asList( second ) ), listSource( Arrays.asList( third ) ) } );
+
+    assertSame( first, tree.next() );
+    assertSame( second, tree.next() );
+    assertSame( third, tree.next() );
+    assertNull( tree.next() );
+  }
+
+  private static RowLoserTree.IRowSource listSource( List<Object[]> rows ) {
+    Iterator<Object[]> iterator = rows.iterator();
+    return () -> iterator.hasNext() ? iterator.next() : null;
+  }
+}
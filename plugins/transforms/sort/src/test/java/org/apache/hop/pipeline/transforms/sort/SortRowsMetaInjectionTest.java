@@ -74,6 +74,18 @@ public class SortRowsMetaInjectionTest extends BaseMetadataInjectionTest<SortRow
         return meta.getCompressFiles();
       }
     } );
+    check( "SPILL_CODEC", new IStringGetter() {
+      @Override
+      public String get() {
+        return meta.getSpillCodec();
+      }
+    } );
+    check( "PARALLEL_SORT", new IBooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isParallelSort();
+      }
+    } );
     check( "NAME", new IStringGetter() {
       @Override
       public String get() {
@@ -45,8 +45,8 @@ public class SortRowsMetaTest {
   @Test
   public void testRoundTrips() throws HopException {
     List<String> attributes = Arrays.asList( "Directory", "Prefix", "SortSize", "FreeMemoryLimit", "CompressFiles",
-      "CompressFilesVariable", "OnlyPassingUniqueRows", "FieldName", "Ascending", "CaseSensitive", "CollatorEnabled",
-      "CollatorStrength", "PreSortedField" );
+      "CompressFilesVariable", "SpillCodec", "OnlyPassingUniqueRows", "ParallelSort", "FieldName", "Ascending",
+      "CaseSensitive", "CollatorEnabled", "CollatorStrength", "PreSortedField" );
 
     Map<String, String> getterMap = new HashMap<>();
     Map<String, String> setterMap = new HashMap<>();
@@ -0,0 +1,81 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.NoneCompressionProvider;
+import org.apache.hop.core.compress.gzip.GzipCompressionProvider;
+import org.apache.hop.core.compress.snappy.SnappyCompressionProvider;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SpillFileCodecTest {
+
+  @Test
+  public void testRoundTrips() throws Exception {
+    ICompressionProvider[] providers =
+      { new NoneCompressionProvider(), new GzipCompressionProvider(), new SnappyCompressionProvider() };
+    for ( ICompressionProvider provider : providers ) {
+      SpillFileCodec codec = new SpillFileCodec( provider );
+
+      // More than a couple of blocks
+      int nrValues = SpillFileCodec.WRITE_BLOCK_SIZE;
+      ByteArrayOutputStream file = new ByteArrayOutputStream();
+      DataOutputStream dos = codec.createOutputStream( file, "sort.tmp" );
+      for ( int i = 0; i < nrValues; i++ ) {
+        dos.writeLong( i % 1000 );
+      }
+      dos.close();
+
+      assertEquals( provider.getName(), nrValues * 8L, codec.getSpillBytes() );
+      assertTrue( provider.getName(), codec.getSpillNanos() > 0 );
+
+      DataInputStream dis = codec.createInputStream( new ByteArrayInputStream( file.toByteArray() ) );
+      for ( int i = 0; i < nrValues; i++ ) {
+        assertEquals( provider.getName(), i % 1000, dis.readLong() );
+      }
+      try {
+        dis.readLong();
+        fail( provider.getName() + ": expected the end of the file" );
+      } catch ( EOFException e ) {
+        // expected
+      }
+      dis.close();
+
+      assertEquals( provider.getName(), nrValues * 8L, codec.getMergeBytes() );
+
+      codec.resetCounters();
+      assertEquals( 0L, codec.getSpillBytes() );
+      assertEquals( 0L, codec.getMergeBytes() );
+    }
+  }
+}
@@ -30,6 +30,7 @@ public class RowSetRow {
   private IRowSet rowSet;
   private IRowMeta rowMeta;
   private Object[] rowData;
+  private byte[] sortKey;
 
   /**
    * @param rowSet
@@ -83,4 +84,18 @@ public class RowSetRow {
   public void setRowMeta( IRowMeta rowMeta ) {
     this.rowMeta = rowMeta;
   }
+
+  /**
+   * @return the normalized sort key of the row or null if the rows are compared on their values
+   */
+  public byte[] getSortKey() {
+    return sortKey;
+  }
+
+  /**
+   * @param sortKey the normalized sort key to set
+   */
+  public void setSortKey( byte[] sortKey ) {
+    this.sortKey = sortKey;
+  }
 }
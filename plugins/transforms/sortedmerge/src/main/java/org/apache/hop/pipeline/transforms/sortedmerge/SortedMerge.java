@@ -26,6 +26,7 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.NormalizedSortKey;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -36,7 +37,9 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Do nothing. Pass all input data to the next transforms.
@@ -114,7 +117,30 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
             }
           }
         }
+      }
+
+      // If all sort fields allow it, build a normalized sort key once per row and compare on that
+      //
+      data.sortKeys = new HashMap<>();
+      for ( RowSetRow rowSetRow : data.sortedBuffer ) {
+        if ( !NormalizedSortKey.isSupported( rowSetRow.getRowMeta(), data.fieldIndices ) ) {
+          data.sortKeys = null;
+          break;
+        }
+        data.sortKeys.put( rowSetRow.getRowSet(), new NormalizedSortKey( rowSetRow.getRowMeta(), data.fieldIndices ) );
+      }
 
+      if ( data.sortKeys != null ) {
+        for ( RowSetRow rowSetRow : data.sortedBuffer ) {
+          setSortKey( rowSetRow );
+        }
+        data.comparator = new Comparator<RowSetRow>() {
+
+          public int compare( RowSetRow o1, RowSetRow o2 ) {
+            return NormalizedSortKey.compare( o1.getSortKey(), o2.getSortKey() );
+          }
+        };
+      } else {
         data.comparator = new Comparator<RowSetRow>() {
 
           public int compare( RowSetRow o1, RowSetRow o2 ) {
@@ -125,11 +151,11 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
             }
           }
         };
-
-        // Now sort the sortedBuffer for the first time.
-        //
-        Collections.sort( data.sortedBuffer, data.comparator );
       }
+
+      // Now sort the sortedBuffer for the first time.
+      //
+      Collections.sort( data.sortedBuffer, data.comparator );
     }
 
     // If our sorted buffer is empty, it means we're done...
@@ -156,6 +182,7 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
       // Add this one to the sortedBuffer
       //
       RowSetRow add = new RowSetRow( smallestRow.getRowSet(), smallestRow.getRowSet().getRowMeta(), extraRow );
+      setSortKey( add );
       int index = Collections.binarySearch( data.sortedBuffer, add, data.comparator );
       if ( index < 0 ) {
         data.sortedBuffer.add( -index - 1, add );
@@ -178,6 +205,12 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
     return outputRowData;
   }
 
+  private void setSortKey( RowSetRow rowSetRow ) throws HopValueException {
+    if ( data.sortKeys != null ) {
+      rowSetRow.setSortKey( data.sortKeys.get( rowSetRow.getRowSet() ).getKey( rowSetRow.getRowData() ) );
+    }
+  }
+
   public boolean processRow() throws HopException {
 
     Object[] row = getRowSorted(); // get row, sorted
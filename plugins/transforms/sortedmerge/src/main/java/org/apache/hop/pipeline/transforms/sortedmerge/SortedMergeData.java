@@ -22,12 +22,15 @@
 
 package org.apache.hop.pipeline.transforms.sortedmerge;
 
+import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.NormalizedSortKey;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Matt
@@ -40,6 +43,11 @@ public class SortedMergeData extends BaseTransformData implements ITransformData
   public List<RowSetRow> sortedBuffer;
   public Comparator<RowSetRow> comparator;
 
+  /**
+   * The normalized sort key builder for every input row set, null if the rows are compared on their values
+   */
+  public Map<IRowSet, NormalizedSortKey> sortKeys;
+
   public SortedMergeData() {
     super();
   }
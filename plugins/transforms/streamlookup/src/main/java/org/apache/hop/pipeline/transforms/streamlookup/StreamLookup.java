@@ -22,12 +22,14 @@
 
 package org.apache.hop.pipeline.transforms.streamlookup;
 
+import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashIndex;
+import org.apache.hop.core.hash.LongHashIndex;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.IRowMeta;
@@ -193,6 +195,7 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
         data.cacheKeyMeta = cacheKeyMeta;
         data.cacheValueMeta = cacheValueMeta;
+        data.usingLongIndex = isSurrogateKeyLookup( cacheKeyMeta, cacheValueMeta );
       }
 
       Object[] keyData = new Object[ keyNrs.length ];
@@ -287,8 +290,36 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     return RowDataUtil.addRowData( row, rowMeta.size(), add );
   }
 
+  /**
+   * See if the lookup maps a single integer key on a single integer value, like a surrogate key lookup. Those are kept
+   * in the long hash index without any objects per entry unless another algorithm was selected.
+   */
+  private boolean isSurrogateKeyLookup( IRowMeta keyMeta, IRowMeta valueMeta ) {
+    if ( meta.isMemoryPreservationActive() && ( meta.isUsingSortedList() || meta.isUsingIntegerPair() ) ) {
+      return false;
+    }
+    return keyMeta.size() == 1 && valueMeta.size() == 1
+      && keyMeta.getValueMeta( 0 ).isInteger() && valueMeta.getValueMeta( 0 ).isInteger()
+      && valueMeta.getValueMeta( 0 ).isStorageNormal();
+  }
+
   private void addToCache( IRowMeta keyMeta, Object[] keyData, IRowMeta valueMeta,
                            Object[] valueData ) throws HopValueException {
+    if ( data.usingLongIndex ) {
+      Long key = keyMeta.getInteger( keyData, 0 );
+      Long value = valueMeta.getInteger( valueData, 0 );
+      if ( key != null && value != null ) {
+        data.longIndex.putLong( key, value );
+        return;
+      }
+
+      // The long index can't hold null keys or values: move what we have to the general purpose cache
+      //
+      data.usingLongIndex = false;
+      data.longIndex.forEach( ( k, v ) -> addToCache( keyMeta, new Object[] { k }, valueMeta, new Object[] { v } ) );
+      data.longIndex = null;
+    }
+
     if ( meta.isMemoryPreservationActive() ) {
       if ( meta.isUsingSortedList() ) {
         KeyValue keyValue = new KeyValue( keyData, valueData );
@@ -314,7 +345,11 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
           Long key = keyMeta.getInteger( keyData, 0 );
           Long value = valueMeta.getInteger( valueData, 0 );
-          data.longIndex.put( key, value );
+          if ( key == null || value == null ) {
+            throw new HopValueException( BaseMessages.getString(
+              PKG, "StreamLookup.Exception.CanNotUseIntegerPairAlgorithm" ) );
+          }
+          data.longIndex.putLong( key, value );
         } else {
           if ( data.hashIndex == null ) {
             data.hashIndex = new ByteArrayHashIndex( keyMeta );
@@ -331,6 +366,9 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
   }
 
   private Object[] getFromCache( IRowMeta keyMeta, Object[] keyData ) throws HopValueException {
+    if ( data.usingLongIndex ) {
+      return getFromLongIndex( keyMeta, keyData );
+    }
     if ( meta.isMemoryPreservationActive() ) {
       if ( meta.isUsingSortedList() ) {
         KeyValue keyValue = new KeyValue( keyData, null );
@@ -343,11 +381,7 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
         return keyValue.getValue();
       } else {
         if ( meta.isUsingIntegerPair() ) {
-          Long value = data.longIndex.get( keyMeta.getInteger( keyData, 0 ) );
-          if ( value == null ) {
-            return null;
-          }
-          return new Object[] { value, };
+          return getFromLongIndex( keyMeta, keyData );
         } else {
           try {
             byte[] value = data.hashIndex.get( RowMeta.extractData( keyMeta, keyData ) );
@@ -366,6 +400,14 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     }
   }
 
+  private Object[] getFromLongIndex( IRowMeta keyMeta, Object[] keyData ) throws HopValueException {
+    Long key = keyMeta.getInteger( keyData, 0 );
+    if ( key == null || !data.longIndex.containsKey( key ) ) {
+      return null;
+    }
+    return new Object[] { data.longIndex.getLong( key, 0L ), };
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
@@ -458,6 +500,9 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     if ( super.init() ) {
       data.readLookupValues = true;
 
+      boolean offHeap = "Y".equalsIgnoreCase( getVariable( Const.HOP_STREAM_LOOKUP_OFF_HEAP, "N" ) );
+      data.longIndex = new LongHashIndex( LongHashIndex.STANDARD_INDEX_SIZE, LongHashIndex.STANDARD_LOAD_FACTOR, offHeap );
+
       return true;
     }
 
@@ -84,6 +84,11 @@ public class StreamLookupData extends BaseTransformData implements ITransformDat
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
 
+  /**
+   * Flag to indicate that the single integer keys and values are kept in the long index
+   */
+  public boolean usingLongIndex;
+
   public IRowMeta lookupMeta;
 
   public IRowMeta infoMeta;
@@ -31,6 +31,7 @@ import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
@@ -242,4 +243,68 @@ public class StreamLookupTest {
   public void testMemoryPreservationWithBinaryStreams() throws HopException {
     doTest( true, false, true );
   }
+
+  @Test
+  public void testSurrogateKeyLookup() throws HopException {
+    Object[][] lookupRows = { { 10L, 1L }, { 20L, 2L }, { 0L, 3L }, { 10L, 4L } };
+    Object[][] dataRows = { { "Name1", 10L }, { "Name2", 20L }, { "Name3", 0L }, { "Name4", 30L }, { "Name5", null } };
+    doIntegerTest( false, lookupRows, dataRows, new Object[] { 4L, 2L, 3L, null, null } );
+    Assert.assertTrue( "The long index should be used", smh.iTransformData.usingLongIndex );
+  }
+
+  @Test
+  public void testSurrogateKeyLookupWithNullValue() throws HopException {
+    Object[][] lookupRows = { { 10L, 1L }, { 20L, null }, { null, 3L } };
+    Object[][] dataRows = { { "Name1", 10L }, { "Name2", 20L }, { "Name3", null }, { "Name4", 30L } };
+    doIntegerTest( false, lookupRows, dataRows, new Object[] { 1L, null, 3L, null } );
+    Assert.assertFalse( "Null values can't be kept in the long index", smh.iTransformData.usingLongIndex );
+  }
+
+  @Test
+  public void testIntegerPairLookup() throws HopException {
+    Object[][] lookupRows = { { 10L, 1L }, { 20L, 2L }, { 0L, 3L } };
+    Object[][] dataRows = { { "Name1", 10L }, { "Name2", 20L }, { "Name3", 0L }, { "Name4", 30L } };
+    doIntegerTest( true, lookupRows, dataRows, new Object[] { 1L, 2L, 3L, null } );
+  }
+
+  /**
+   * Looks up integer "Value" fields by integer "Id" key with memory preservation active.
+   */
+  private void doIntegerTest( boolean integerPair, Object[][] lookupRows, Object[][] dataRows,
+                              Object[] expectedValues ) throws HopException {
+    StreamLookup transform = new StreamLookup( smh.transformMeta, smh.iTransformMeta, smh.iTransformData, 0, smh.pipelineMeta, smh.pipeline );
+    transform.init();
+
+    IRowSet lookupRowSet = smh.getMockInputRowSet( lookupRows );
+    doReturn( "Lookup" ).when( lookupRowSet ).getOriginTransformName();
+    doReturn( "StreamLookup" ).when( lookupRowSet ).getDestinationTransformName();
+    RowMeta lookupRowMeta = new RowMeta();
+    lookupRowMeta.addValueMeta( new ValueMetaInteger( "Id" ) );
+    lookupRowMeta.addValueMeta( new ValueMetaInteger( "Value" ) );
+    doReturn( lookupRowMeta ).when( lookupRowSet ).getRowMeta();
+    transform.addRowSetToInputRowSets( lookupRowSet );
+
+    IRowSet dataRowSet = smh.getMockInputRowSet( dataRows );
+    RowMeta dataRowMeta = new RowMeta();
+    dataRowMeta.addValueMeta( new ValueMetaString( "Name" ) );
+    dataRowMeta.addValueMeta( new ValueMetaInteger( "Id" ) );
+    doReturn( dataRowMeta ).when( dataRowSet ).getRowMeta();
+    transform.addRowSetToInputRowSets( dataRowSet );
+    transform.addRowSetToOutputRowSets( new QueueRowSet() );
+
+    StreamLookupMeta meta = mockProcessRowMeta( true );
+    doReturn( integerPair ).when( meta ).isUsingIntegerPair();
+    doReturn( new int[] { IValueMeta.TYPE_INTEGER } ).when( meta ).getValueDefaultType();
+
+    IRowSet outputRowSet = transform.getOutputRowSets().get( 0 );
+    int rowNumber = 0;
+    while ( transform.processRow() ) {
+      Object[] rowData = outputRowSet.getRow();
+      if ( rowData != null ) {
+        Assert.assertEquals( "Unexpected value at row " + rowNumber, expectedValues[ rowNumber ], rowData[ 2 ] );
+        rowNumber++;
+      }
+    }
+    Assert.assertEquals( "Incorrect output row number", expectedValues.length, rowNumber );
+  }
 }
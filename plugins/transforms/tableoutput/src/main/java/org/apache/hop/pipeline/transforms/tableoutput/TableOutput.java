@@ -26,10 +26,13 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.database.IDatabaseBulkWriter;
 import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.logging.Metrics;
+import org.apache.hop.core.metrics.MetricsSnapshotType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -58,6 +61,11 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private static Class<?> PKG = TableOutputMeta.class; // for i18n purposes, needed by Translator!!
 
+  public static final Metrics METRIC_TABLE_OUTPUT_BULK_ROWS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_TABLE_OUTPUT_BULK_ROWS", "Table output: rows bulk loaded" );
+  public static final Metrics METRIC_TABLE_OUTPUT_BULK_LOAD_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_TABLE_OUTPUT_BULK_LOAD_TIME", "Table output: time spent bulk loading (ms)" );
+
   public TableOutput( TransformMeta transformMeta, TableOutputMeta meta, TableOutputData data, int copyNr, PipelineMeta pipelineMeta,
                       Pipeline pipeline ) {
     super( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
@@ -113,10 +121,19 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           }
         }
       }
+
+      if ( data.bulkMode ) {
+        startBulkLoad();
+      }
     }
 
     try {
-      Object[] outputRowData = writeToTable( getInputRowMeta(), r );
+      Object[] outputRowData;
+      if ( data.bulkWriter != null ) {
+        outputRowData = writeToBulkLoader( getInputRowMeta(), r );
+      } else {
+        outputRowData = writeToTable( getInputRowMeta(), r );
+      }
       if ( outputRowData != null ) {
         putRow( data.outputRowMeta, outputRowData ); // in case we want it go further...
         incrementLinesOutput();
@@ -421,6 +438,67 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return outputRowData;
   }
 
+  /**
+   * Create the bulk writer if the database can load the rows natively, otherwise stay with prepared statements.
+   */
+  void startBulkLoad() throws HopException {
+    IDatabase dbInterface = data.databaseMeta.getIDatabase();
+    if ( !dbInterface.supportsBulkLoad( data.insertRowMeta ) ) {
+      data.bulkMode = false;
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadNotSupported", data.databaseMeta.getName() ) );
+      }
+      return;
+    }
+    data.bulkWriter =
+      dbInterface.createBulkWriter( data.db, environmentSubstitute( meta.getSchemaName() ), data.tableName,
+        data.insertRowMeta );
+    if ( log.isBasic() ) {
+      logBasic( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadEnabled", data.tableName ) );
+    }
+  }
+
+  /**
+   * Hand the row to the bulk writer. The buffered rows are loaded and committed every commit size rows.
+   */
+  protected Object[] writeToBulkLoader( IRowMeta rowMeta, Object[] r ) throws HopException {
+    Object[] insertRowData = r;
+    if ( meta.specifyFields() ) {
+      insertRowData = new Object[ data.valuenrs.length ];
+      for ( int idx = 0; idx < data.valuenrs.length; idx++ ) {
+        insertRowData[ idx ] = r[ data.valuenrs[ idx ] ];
+      }
+    }
+
+    data.bulkWriter.writeRow( insertRowData );
+    if ( isRowLevel() ) {
+      logRowlevel( "Written row: " + data.insertRowMeta.getString( insertRowData ) );
+    }
+
+    Integer commitCounter = data.commitCounterMap.get( data.tableName );
+    commitCounter = commitCounter == null ? 1 : commitCounter + 1;
+    if ( commitCounter >= data.commitSize ) {
+      data.bulkWriter.flush();
+      data.db.commit();
+      commitCounter = 0;
+    }
+    data.commitCounterMap.put( data.tableName, commitCounter );
+
+    return r;
+  }
+
+  private void logBulkLoadStatistics() {
+    IDatabaseBulkWriter writer = data.bulkWriter;
+    long loadMillis = writer.getLoadNanos() / 1000000L;
+    log.snap( METRIC_TABLE_OUTPUT_BULK_ROWS, data.tableName, writer.getRowsLoaded() );
+    log.snap( METRIC_TABLE_OUTPUT_BULK_LOAD_TIME, data.tableName, loadMillis );
+    if ( log.isDetailed() ) {
+      long rowsPerSecond = loadMillis > 0 ? writer.getRowsLoaded() * 1000L / loadMillis : writer.getRowsLoaded();
+      logDetailed( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadStatistics", writer.getRowsLoaded(),
+        data.tableName, loadMillis, rowsPerSecond ) );
+    }
+  }
+
   public boolean isRowLevel() {
     return log.isRowLevel();
   }
@@ -493,6 +571,18 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
             && data.commitSize > 0 && !meta.isReturningGeneratedKeys()
             && !data.useSafePoints;
 
+        // Bulk loading is only possible when
+        // - we write to a single table
+        // - we don't need auto-generated keys
+        // - rows don't have to be handled one by one on errors
+        // Whether the database can load the rows is checked on the first row.
+        //
+        data.bulkMode =
+          meta.useBulkLoad()
+            && !meta.isPartitioningEnabled() && !meta.isTableNameInField()
+            && !meta.isReturningGeneratedKeys() && !meta.ignoreErrors()
+            && !getTransformMeta().isDoingErrorHandling();
+
         // Per PDI-6211 : give a warning that batch mode operation in combination with transform error handling can lead to
         // incorrectly processed rows.
         //
@@ -561,6 +651,13 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
     if ( data.db != null ) {
       try {
+        if ( data.bulkWriter != null ) {
+          if ( getErrors() == 0 ) {
+            data.bulkWriter.flush();
+            data.db.commit();
+          }
+          logBulkLoadStatistics();
+        }
         for ( String schemaTable : data.preparedStatements.keySet() ) {
           // Get a commit counter per prepared statement to keep track of separate tables, etc.
           //
@@ -604,6 +701,11 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       } finally {
         setOutputDone();
 
+        if ( data.bulkWriter != null ) {
+          data.bulkWriter.close();
+          data.bulkWriter = null;
+        }
+
         if ( getErrors() > 0 ) {
           try {
             data.db.rollback();
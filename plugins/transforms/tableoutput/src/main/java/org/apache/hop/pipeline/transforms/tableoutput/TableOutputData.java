@@ -24,6 +24,7 @@ package org.apache.hop.pipeline.transforms.tableoutput;
 
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IDatabaseBulkWriter;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -66,6 +67,12 @@ public class TableOutputData extends BaseTransformData implements ITransformData
    * Use batch mode or not?
    */
   public boolean batchMode;
+
+  /**
+   * Load the rows through the native bulk load API of the database?
+   */
+  public boolean bulkMode;
+  public IDatabaseBulkWriter bulkWriter;
   public int indexOfTableNameField;
 
   public List<Object[]> batchBuffer;
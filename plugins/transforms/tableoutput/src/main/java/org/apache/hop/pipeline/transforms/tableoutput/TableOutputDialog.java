@@ -85,6 +85,9 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlBulkLoad;
+  private Button wBulkLoad;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -486,13 +489,32 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
       }
     } );
 
+    // Bulk load
+    wlBulkLoad = new Label( wMainComp, SWT.RIGHT );
+    wlBulkLoad.setText( BaseMessages.getString( PKG, "TableOutputDialog.BulkLoad.Label" ) );
+    wlBulkLoad.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.BulkLoad.Tooltip" ) );
+    props.setLook( wlBulkLoad );
+    FormData fdlBulkLoad = new FormData();
+    fdlBulkLoad.left = new FormAttachment( 0, 0 );
+    fdlBulkLoad.top = new FormAttachment( wBatch, margin );
+    fdlBulkLoad.right = new FormAttachment( middle, -margin );
+    wlBulkLoad.setLayoutData( fdlBulkLoad );
+    wBulkLoad = new Button( wMainComp, SWT.CHECK );
+    props.setLook( wBulkLoad );
+    FormData fdBulkLoad = new FormData();
+    fdBulkLoad.left = new FormAttachment( middle, 0 );
+    fdBulkLoad.top = new FormAttachment( wlBulkLoad, 0, SWT.CENTER );
+    fdBulkLoad.right = new FormAttachment( 100, 0 );
+    wBulkLoad.setLayoutData( fdBulkLoad );
+    wBulkLoad.addSelectionListener( lsSelMod );
+
     // NameInField
     Label wlNameInField = new Label( wMainComp, SWT.RIGHT );
     wlNameInField.setText( BaseMessages.getString( PKG, "TableOutputDialog.NameInField.Label" ) );
     props.setLook( wlNameInField );
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment( 0, 0 );
-    fdlNameInField.top = new FormAttachment( wBatch, margin * 5 );
+    fdlNameInField.top = new FormAttachment( wBulkLoad, margin * 5 );
     fdlNameInField.right = new FormAttachment( middle, -margin );
     wlNameInField.setLayoutData( fdlNameInField );
     wNameInField = new Button( wMainComp, SWT.CHECK );
@@ -1130,6 +1152,11 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wlBatch.setEnabled( enableBatch );
     wBatch.setEnabled( enableBatch );
 
+    // Bulk loading goes to a single table and doesn't return keys
+    boolean enableBulkLoad = !returnKeys && !usePartitioning && !isTableNameInField;
+    wlBulkLoad.setEnabled( enableBulkLoad );
+    wBulkLoad.setEnabled( enableBulkLoad );
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled( specifyFields );
     wGetFields.setEnabled( specifyFields );
@@ -1175,6 +1202,7 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wTruncate.setSelection( input.truncateTable() );
     wIgnore.setSelection( input.ignoreErrors() );
     wBatch.setSelection( input.useBatchUpdate() );
+    wBulkLoad.setSelection( input.useBulkLoad() );
 
     wCommit.setText( input.getCommitSize() );
 
@@ -1228,6 +1256,7 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     info.setTruncateTable( wTruncate.getSelection() );
     info.setIgnoreErrors( wIgnore.getSelection() );
     info.setUseBatchUpdate( wBatch.getSelection() );
+    info.setUseBulkLoad( wBulkLoad.getSelection() );
     info.setPartitioningEnabled( wUsePart.getSelection() );
     info.setPartitioningField( wPartField.getText() );
     info.setPartitioningDaily( wPartDaily.getSelection() );
@@ -69,6 +69,7 @@ public class TableOutputMeta extends BaseTransformMeta implements ITransformMeta
   private boolean truncateTable;
   private boolean ignoreErrors;
   private boolean useBatchUpdate;
+  private boolean useBulkLoad;
 
   private boolean partitioningEnabled;
   private String partitioningField;
@@ -229,6 +230,7 @@ public class TableOutputMeta extends BaseTransformMeta implements ITransformMeta
   public TableOutputMeta() {
     super(); // allocate BaseTransformMeta
     useBatchUpdate = true;
+    useBulkLoad = false;
     commitSize = "1000";
 
     fieldStream = new String[ 0 ];
@@ -381,6 +383,20 @@ public class TableOutputMeta extends BaseTransformMeta implements ITransformMeta
     return useBatchUpdate;
   }
 
+  /**
+   * @param useBulkLoad The useBulkLoad flag to set.
+   */
+  public void setUseBulkLoad( boolean useBulkLoad ) {
+    this.useBulkLoad = useBulkLoad;
+  }
+
+  /**
+   * @return Returns the useBulkLoad flag: load the rows through the native bulk load API of the database if it has one.
+   */
+  public boolean useBulkLoad() {
+    return useBulkLoad;
+  }
+
   private void readData( Node transformNode, IHopMetadataProvider metadataProvider ) throws HopXmlException {
     try {
       String con = XmlHandler.getTagValue( transformNode, "connection" );
@@ -391,6 +407,8 @@ public class TableOutputMeta extends BaseTransformMeta implements ITransformMeta
       truncateTable = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "truncate" ) );
       ignoreErrors = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "ignore_errors" ) );
       useBatchUpdate = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "use_batch" ) );
+      // Bulk loading is opt-in: pipelines saved before the option existed keep using prepared statements
+      useBulkLoad = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "use_bulk_load" ) );
 
       // If not present it will be false to be compatible with pre-v3.2
       specifyFields = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "specify_fields" ) );
@@ -449,6 +467,7 @@ public class TableOutputMeta extends BaseTransformMeta implements ITransformMeta
     retval.append( "    " + XmlHandler.addTagValue( "truncate", truncateTable ) );
     retval.append( "    " + XmlHandler.addTagValue( "ignore_errors", ignoreErrors ) );
     retval.append( "    " + XmlHandler.addTagValue( "use_batch", useBatchUpdate ) );
+    retval.append( "    " + XmlHandler.addTagValue( "use_bulk_load", useBulkLoad ) );
     retval.append( "    " + XmlHandler.addTagValue( "specify_fields", specifyFields ) );
 
     retval.append( "    " + XmlHandler.addTagValue( "partitioning_enabled", partitioningEnabled ) );
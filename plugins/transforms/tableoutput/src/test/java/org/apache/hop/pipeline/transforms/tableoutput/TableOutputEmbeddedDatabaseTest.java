@@ -0,0 +1,251 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.database.BaseDatabaseBulkWriter;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.databases.h2.H2DatabaseMeta;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Runs the transform against an embedded H2 database. H2 has no bulk loader so the rows have to go through the
+ * prepared statements, and they have to end up the same as when the bulk writer text is loaded.
+ */
+public class TableOutputEmbeddedDatabaseTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private DatabaseMeta databaseMeta;
+  private Database database;
+  private IRowMeta rowMeta;
+  private List<Object[]> rows;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setIDatabase( new H2DatabaseMeta() );
+    databaseMeta.setName( "h2" );
+    databaseMeta.setAccessType( DatabaseMeta.TYPE_ACCESS_NATIVE );
+    databaseMeta.setDBName( "mem:tableoutput;DB_CLOSE_DELAY=-1" );
+
+    database = new Database( mock( ILoggingObject.class ), databaseMeta );
+    database.connect();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "flag" ) );
+
+    rows = new ArrayList<>();
+    rows.add( new Object[] { 1L, "one", true } );
+    rows.add( new Object[] { 2L, "two", false } );
+    rows.add( new Object[] { 3L, null, null } );
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    database.execStatement( "DROP ALL OBJECTS" );
+    database.disconnect();
+  }
+
+  @Test
+  public void testBulkLoadFallsBackToInserts() throws Exception {
+    databaseMeta.setSupportsBooleanDataType( false );
+    createTables( "CHAR(1)" );
+
+    TableOutputData data = runTableOutput();
+    assertFalse( data.bulkMode );
+    assertNull( data.bulkWriter );
+
+    List<List<Object>> inserted = readTable( "t_insert" );
+    assertEquals( Arrays.<Object>asList( 1L, "one", "Y" ), inserted.get( 0 ) );
+    assertEquals( Arrays.<Object>asList( 2L, "two", "N" ), inserted.get( 1 ) );
+    assertEquals( Arrays.<Object>asList( 3L, null, null ), inserted.get( 2 ) );
+
+    assertEquals( readTable( "t_bulk" ), inserted );
+  }
+
+  @Test
+  public void testBulkLoadFallsBackToInsertsWithNativeBooleans() throws Exception {
+    databaseMeta.setSupportsBooleanDataType( true );
+    createTables( "BOOLEAN" );
+
+    TableOutputData data = runTableOutput();
+    assertFalse( data.bulkMode );
+    assertNull( data.bulkWriter );
+
+    List<List<Object>> inserted = readTable( "t_insert" );
+    assertEquals( Arrays.<Object>asList( 1L, "one", true ), inserted.get( 0 ) );
+    assertEquals( Arrays.<Object>asList( 2L, "two", false ), inserted.get( 1 ) );
+    assertEquals( Arrays.<Object>asList( 3L, null, null ), inserted.get( 2 ) );
+
+    assertEquals( readTable( "t_bulk" ), inserted );
+  }
+
+  /**
+   * Creates t_insert for the transform and fills t_bulk with the text the bulk writer produces for the same rows.
+   */
+  private void createTables( String flagType ) throws Exception {
+    for ( String table : new String[] { "t_insert", "t_bulk" } ) {
+      database.execStatement( "CREATE TABLE " + table + " (id BIGINT, name VARCHAR(50), flag " + flagType + ")" );
+    }
+    TextLoader loader = new TextLoader( database, "t_bulk", rowMeta );
+    for ( Object[] row : rows ) {
+      loader.writeRow( row );
+    }
+    loader.flush();
+    database.commit();
+  }
+
+  private TableOutputData runTableOutput() throws Exception {
+    TableOutputMeta meta = new TableOutputMeta();
+    meta.setDatabaseMeta( databaseMeta );
+    meta.setTableName( "t_insert" );
+    meta.setCommitSize( 2 );
+    meta.setUseBulkLoad( true );
+
+    TransformMeta transformMeta = mock( TransformMeta.class );
+    doReturn( "transform" ).when( transformMeta ).getName();
+    doReturn( mock( TransformPartitioningMeta.class ) ).when( transformMeta ).getTargetTransformPartitioningMeta();
+    doReturn( meta ).when( transformMeta ).getTransform();
+    PipelineMeta pipelineMeta = mock( PipelineMeta.class );
+    doReturn( transformMeta ).when( pipelineMeta ).findTransform( anyString() );
+
+    TableOutputData data = new TableOutputData();
+    TableOutput tableOutput =
+      spy( new TableOutput( transformMeta, meta, data, 0, pipelineMeta, mock( Pipeline.class ) ) );
+    doReturn( transformMeta ).when( tableOutput ).getTransformMeta();
+    doReturn( rowMeta ).when( tableOutput ).getInputRowMeta();
+    final Iterator<Object[]> input = rows.iterator();
+    doAnswer( new Answer<Object[]>() {
+      @Override
+      public Object[] answer( InvocationOnMock invocation ) {
+        return input.hasNext() ? input.next() : null;
+      }
+    } ).when( tableOutput ).getRow();
+    doNothing().when( tableOutput ).putRow( any( IRowMeta.class ), any( Object[].class ) );
+
+    assertEquals( true, tableOutput.init() );
+    assertEquals( true, data.bulkMode );
+    while ( tableOutput.processRow() ) {
+      // keep going until the input is exhausted
+    }
+    tableOutput.dispose();
+    assertEquals( 0, tableOutput.getErrors() );
+    return data;
+  }
+
+  private List<List<Object>> readTable( String table ) throws SQLException {
+    List<List<Object>> result = new ArrayList<>();
+    try ( PreparedStatement statement = database.getConnection()
+      .prepareStatement( "SELECT id, name, flag FROM " + table + " ORDER BY id" );
+          ResultSet resultSet = statement.executeQuery() ) {
+      while ( resultSet.next() ) {
+        result.add( Arrays.asList( resultSet.getObject( 1 ), resultSet.getObject( 2 ), resultSet.getObject( 3 ) ) );
+      }
+    }
+    assertEquals( rows.size(), result.size() );
+    return result;
+  }
+
+  /**
+   * Loads the bulk writer text the way a database bulk loader does: every field is handed over as a string and the
+   * database converts it to the column type.
+   */
+  private static class TextLoader extends BaseDatabaseBulkWriter {
+    private final String table;
+
+    TextLoader( Database database, String table, IRowMeta rowMeta ) {
+      super( database, null, table, rowMeta, DEFAULT_BUFFER_SIZE );
+      this.table = table;
+    }
+
+    @Override
+    protected long load( InputStream data, long nrRows ) throws HopDatabaseException {
+      long loaded = 0;
+      try ( BufferedReader reader = new BufferedReader( new InputStreamReader( data, StandardCharsets.UTF_8 ) );
+            PreparedStatement statement = database.getConnection()
+              .prepareStatement( "INSERT INTO " + table + " VALUES (?, ?, ?)" ) ) {
+        String line;
+        while ( ( line = reader.readLine() ) != null ) {
+          String[] fields = line.split( "\t", -1 );
+          for ( int i = 0; i < fields.length; i++ ) {
+            statement.setString( i + 1, "\\N".equals( fields[ i ] ) ? null : fields[ i ] );
+          }
+          loaded += statement.executeUpdate();
+        }
+      } catch ( IOException | SQLException e ) {
+        throw new HopDatabaseException( "Unable to load " + table, e );
+      }
+      return loaded;
+    }
+  }
+}
@@ -51,7 +51,7 @@ public class TableOutputMetaLoadSaveTest implements IInitializer<ITransformMeta>
     HopEnvironment.init();
     PluginRegistry.init( false );
     List<String> attributes =
-      Arrays.asList( "databaseMeta", "schemaName", "tableName", "commitSize", "truncateTable", "ignoreErrors", "useBatchUpdate",
+      Arrays.asList( "databaseMeta", "schemaName", "tableName", "commitSize", "truncateTable", "ignoreErrors", "useBatchUpdate", "useBulkLoad",
         "partitioningEnabled", "partitioningField", "partitioningDaily", "partitioningMonthly", "tableNameInField", "tableNameField",
         "tableNameInTable", "returningGeneratedKeys", "generatedKeyField", "specifyFields", "fieldStream", "fieldDatabase" );
 
@@ -60,6 +60,7 @@ public class TableOutputMetaLoadSaveTest implements IInitializer<ITransformMeta>
         put( "truncateTable", "truncateTable" );
         put( "ignoreErrors", "ignoreErrors" );
         put( "useBatchUpdate", "useBatchUpdate" );
+        put( "useBulkLoad", "useBulkLoad" );
         put( "specifyFields", "specifyFields" );
       }
     };
@@ -119,6 +119,7 @@ public class TableOutputMetaTest {
     assertFalse( tableOutputMeta.ignoreErrors() );
     assertFalse( tableOutputMeta.isPartitioningEnabled() );
     assertTrue( tableOutputMeta.useBatchUpdate() );
+    assertFalse( tableOutputMeta.useBulkLoad() );
     assertFalse( tableOutputMeta.isTableNameInField() );
     assertTrue( tableOutputMeta.isTableNameInTable() );
     assertFalse( tableOutputMeta.isReturningGeneratedKeys() );
@@ -130,6 +131,7 @@ public class TableOutputMetaTest {
       + "    <truncate>Y</truncate>\n"
       + "    <ignore_errors>N</ignore_errors>\n"
       + "    <use_batch>Y</use_batch>\n"
+      + "    <use_bulk_load>N</use_bulk_load>\n"
       + "    <specify_fields>Y</specify_fields>\n"
       + "    <partitioning_enabled>N</partitioning_enabled>\n"
       + "    <partitioning_field/>\n"
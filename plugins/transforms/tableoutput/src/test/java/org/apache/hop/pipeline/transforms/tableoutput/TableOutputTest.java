@@ -24,6 +24,7 @@ package org.apache.hop.pipeline.transforms.tableoutput;
 
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.database.IDatabaseBulkWriter;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -35,14 +36,18 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -205,4 +210,53 @@ public class TableOutputTest {
     HopException ke = new HopException( unsupportedTableOutputMessage );
     verify( tableOutputSpy, times( 1 ) ).logError( "An error occurred intialising this transform: " + ke.getMessage() );
   }
+
+  @Test
+  public void testStartBulkLoad_fallsBackWhenNotSupported() throws Exception {
+    IDatabase dbInterface = mock( IDatabase.class );
+    when( databaseMeta.getIDatabase() ).thenReturn( dbInterface );
+    when( dbInterface.supportsBulkLoad( any( IRowMeta.class ) ) ).thenReturn( false );
+    tableOutputData.databaseMeta = databaseMeta;
+    tableOutputData.bulkMode = true;
+
+    tableOutputSpy.startBulkLoad();
+
+    assertFalse( tableOutputData.bulkMode );
+    assertNull( tableOutputData.bulkWriter );
+    verify( dbInterface, never() ).createBulkWriter( any( Database.class ), anyString(), anyString(),
+      any( IRowMeta.class ) );
+  }
+
+  @Test
+  public void testStartBulkLoad_createsWriter() throws Exception {
+    IDatabase dbInterface = mock( IDatabase.class );
+    IDatabaseBulkWriter bulkWriter = mock( IDatabaseBulkWriter.class );
+    when( databaseMeta.getIDatabase() ).thenReturn( dbInterface );
+    when( dbInterface.supportsBulkLoad( any( IRowMeta.class ) ) ).thenReturn( true );
+    when( dbInterface.createBulkWriter( eq( db ), anyString(), eq( "sas" ), any( IRowMeta.class ) ) )
+      .thenReturn( bulkWriter );
+    tableOutputData.databaseMeta = databaseMeta;
+    tableOutputData.bulkMode = true;
+
+    tableOutputSpy.startBulkLoad();
+
+    assertSame( bulkWriter, tableOutputData.bulkWriter );
+  }
+
+  @Test
+  public void testWriteToBulkLoader_commitsEveryCommitSize() throws Exception {
+    IDatabaseBulkWriter bulkWriter = mock( IDatabaseBulkWriter.class );
+    tableOutputData.bulkWriter = bulkWriter;
+    tableOutputData.commitSize = 2;
+    tableOutputData.commitCounterMap = new HashMap<>();
+
+    for ( int i = 0; i < 5; i++ ) {
+      Object[] row = new Object[] { (long) i };
+      assertSame( row, tableOutputSpy.writeToBulkLoader( mock( IRowMeta.class ), row ) );
+    }
+
+    verify( bulkWriter, times( 5 ) ).writeRow( any( Object[].class ) );
+    verify( bulkWriter, times( 2 ) ).flush();
+    verify( db, times( 2 ) ).commit();
+  }
 }
@@ -594,6 +594,16 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
           logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.OpeningFile", data.file.toString() ) );
         }
 
+        if ( data.staxLoopSteps != null ) {
+          // Read the loop nodes one by one in getStaxXmlRow()
+          openStaxReader( data.file );
+          addFileToResultFilesname( data.file );
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.FileOpened", data.file.toString() ) );
+          }
+          return true;
+        }
+
         // Open the XML document
         if ( !setDocument( null, data.file, false, false ) ) {
           if ( data.stopPruning ) {
@@ -680,8 +690,71 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
     return true;
   }
 
+  private void openStaxReader( FileObject file ) throws Exception {
+    this.prevRow = buildEmptyRow(); // pre-allocate previous row
+
+    // get encoding. By default UTF-8
+    String encoding = "UTF-8";
+    if ( !Utils.isEmpty( meta.getEncoding() ) ) {
+      encoding = meta.getEncoding();
+    }
+    InputStream is = HopVfs.getInputStream( file );
+    try {
+      data.staxReader =
+          new GetXmlDataStaxReader( is, encoding, data.staxLoopSteps, meta.isNamespaceAware(), meta
+              .isIgnoreComments() );
+    } catch ( Exception e ) {
+      BaseTransform.closeQuietly( is );
+      throw e;
+    }
+    data.staxNamespacesPending = meta.isNamespaceAware();
+  }
+
+  private void closeStaxReader() {
+    if ( data.staxReader != null ) {
+      data.staxReader.close();
+      data.staxReader = null;
+    }
+  }
+
+  /**
+   * Read the next loop node of the current file with StAX, opening the next file when needed.
+   */
+  private Object[] getStaxXmlRow() throws HopException {
+    Element node;
+    try {
+      node = data.staxReader == null ? null : data.staxReader.next();
+      while ( node == null ) {
+        closeStaxReader();
+        if ( !openNextFile() ) {
+          data.errorInRowButContinue = false; // stop in all cases
+          return null;
+        }
+        node = data.staxReader == null ? null : data.staxReader.next();
+      }
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Error.UnableReadFile" ), e );
+    }
+
+    if ( data.staxNamespacesPending ) {
+      // only the ancestors and the first loop node are known here
+      prepareNSMap( node.getDocument().getRootElement() );
+      data.staxNamespacesPending = false;
+    }
+
+    data.errorInRowButContinue = false;
+    try {
+      return processPutRow( node );
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Error.UnableReadFile" ), e );
+    }
+  }
+
   private Object[] getXmlRow() throws HopException {
 
+    if ( data.staxLoopSteps != null ) {
+      return getStaxXmlRow();
+    }
     if ( !meta.isInFields() ) {
       while ( ( data.nodenr >= data.nodesize || data.file == null ) ) {
         if ( !openNextFile() ) {
@@ -974,12 +1047,37 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
         }
       }
 
+      if ( meta.isStaxStreaming() && !meta.isInFields() && !meta.isValidating() ) {
+        data.staxLoopSteps = GetXmlDataStaxReader.compileLoopPath( data.PathValue );
+        if ( data.staxLoopSteps == null ) {
+          logBasic( BaseMessages.getString( PKG, "GetXMLData.Log.StaxStreaming.PathNotSupported", data.PathValue ) );
+        } else if ( meta.isuseToken() ) {
+          // the field XPaths are only known per row
+          data.staxLoopSteps = null;
+          logBasic( BaseMessages.getString( PKG, "GetXMLData.Log.StaxStreaming.TokensNotSupported" ) );
+        }
+        for ( int i = 0; i < data.nrInputFields && data.staxLoopSteps != null; i++ ) {
+          String fieldXPath = meta.getInputFields()[ i ].getResolvedXPath();
+          if ( !GetXmlDataStaxReader.isFieldPathStreamable( fieldXPath ) ) {
+            data.staxLoopSteps = null;
+            logBasic( BaseMessages.getString( PKG, "GetXMLData.Log.StaxStreaming.FieldPathNotSupported", fieldXPath ) );
+          }
+        }
+        if ( data.staxLoopSteps != null ) {
+          data.prunePath = null; // the loop nodes are never part of a full document
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.StaxStreaming.Activated" ) );
+          }
+        }
+      }
+
       return true;
     }
     return false;
   }
 
   public void dispose( ) {
+    closeStaxReader();
     if ( data.file != null ) {
       try {
         data.file.close();
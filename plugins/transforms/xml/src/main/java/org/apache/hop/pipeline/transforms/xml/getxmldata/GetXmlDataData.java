@@ -65,6 +65,9 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
   public String PathValue;
   public String prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+  public String[] staxLoopSteps; // compiled loop path, null when the loop nodes are not read with StAX
+  public GetXmlDataStaxReader staxReader;
+  public boolean staxNamespacesPending; // namespaces of the current file still to be collected
   public boolean errorInRowButContinue; // true when actual row has an error and error handling is active: means
                                         // continue (error handling in this step should be redesigned)
   public String tokenStart;
@@ -141,6 +144,9 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
     totalpreviousfields = 0;
     prunePath = "";
     stopPruning = false;
+    staxLoopSteps = null;
+    staxReader = null;
+    staxNamespacesPending = false;
     errorInRowButContinue = false;
     nrReadRow = 0;
   }
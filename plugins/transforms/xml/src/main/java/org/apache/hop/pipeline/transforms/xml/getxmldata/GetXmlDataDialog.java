@@ -148,6 +148,10 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
   private TextVar wPrunePath;
   private FormData fdlPrunePath, fdPrunePath;
 
+  private Label wlStaxStreaming;
+  private Button wStaxStreaming;
+  private FormData fdlStaxStreaming, fdStaxStreaming;
+
   private Label wlEncoding;
   private CCombo wEncoding;
   private FormData fdlEncoding, fdEncoding;
@@ -815,6 +819,23 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     fdPrunePath.right = new FormAttachment( 100, 0 );
     wPrunePath.setLayoutData( fdPrunePath );
 
+    // Read the loop nodes one by one (StAX)
+    wlStaxStreaming = new Label( wXmlConf, SWT.RIGHT );
+    wlStaxStreaming.setText( BaseMessages.getString( PKG, "GetXMLDataDialog.StaxStreaming.Label" ) );
+    props.setLook( wlStaxStreaming );
+    fdlStaxStreaming = new FormData();
+    fdlStaxStreaming.left = new FormAttachment( 0, 0 );
+    fdlStaxStreaming.top = new FormAttachment( wPrunePath, margin );
+    fdlStaxStreaming.right = new FormAttachment( middle, -margin );
+    wlStaxStreaming.setLayoutData( fdlStaxStreaming );
+    wStaxStreaming = new Button( wXmlConf, SWT.CHECK );
+    props.setLook( wStaxStreaming );
+    wStaxStreaming.setToolTipText( BaseMessages.getString( PKG, "GetXMLDataDialog.StaxStreaming.Tooltip" ) );
+    fdStaxStreaming = new FormData();
+    fdStaxStreaming.left = new FormAttachment( middle, 0 );
+    fdStaxStreaming.top = new FormAttachment( wPrunePath, margin );
+    wStaxStreaming.setLayoutData( fdStaxStreaming );
+
     fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment( 0, margin );
     fdXmlConf.top = new FormAttachment( 0, margin );
@@ -1329,6 +1350,8 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     wPreview.setEnabled( !wXMLStreamField.getSelection() );
     wPrunePath.setEnabled( !wXMLStreamField.getSelection() );
     wlPrunePath.setEnabled( !wXMLStreamField.getSelection() );
+    wStaxStreaming.setEnabled( !wXMLStreamField.getSelection() );
+    wlStaxStreaming.setEnabled( !wXMLStreamField.getSelection() );
     wlShortFileFieldName.setEnabled( !wXMLStreamField.getSelection() );
     wShortFileFieldName.setEnabled( !wXMLStreamField.getSelection() );
     wlPathFieldName.setEnabled( !wXMLStreamField.getSelection() );
@@ -1586,6 +1609,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     if ( in.getPrunePath() != null ) {
       wPrunePath.setText( in.getPrunePath() );
     }
+    wStaxStreaming.setSelection( in.isStaxStreaming() );
     if ( in.getLoopXPath() != null ) {
       wLoopXPath.setText( in.getLoopXPath() );
     }
@@ -1720,6 +1744,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit( Const.toLong( wLimit.getText(), 0L ) );
     in.setPrunePath( wPrunePath.getText() );
+    in.setStaxStreaming( wStaxStreaming.getSelection() );
     in.setLoopXPath( wLoopXPath.getText() );
     in.setEncoding( wEncoding.getText() );
     in.setFilenameField( wInclFilenameField.getText() );
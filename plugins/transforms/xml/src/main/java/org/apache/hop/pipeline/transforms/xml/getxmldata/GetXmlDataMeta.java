@@ -156,6 +156,9 @@ public class GetXmlDataMeta extends BaseTransformMeta implements ITransformMeta<
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  /** Flag : read the loop nodes with StAX, without building the document */
+  private boolean staxStreaming;
+
   /** Additional fields **/
   private String shortFileFieldName;
   private String pathFieldName;
@@ -643,6 +646,21 @@ public class GetXmlDataMeta extends BaseTransformMeta implements ITransformMeta<
     this.prunePath = prunePath;
   }
 
+  /**
+   * @return true when the loop nodes are read with StAX
+   */
+  public boolean isStaxStreaming() {
+    return staxStreaming;
+  }
+
+  /**
+   * @param staxStreaming
+   *          true to read the loop nodes with StAX
+   */
+  public void setStaxStreaming( boolean staxStreaming ) {
+    this.staxStreaming = staxStreaming;
+  }
+
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider ) throws HopXmlException {
     readData( transformNode );
   }
@@ -723,6 +741,7 @@ public class GetXmlDataMeta extends BaseTransformMeta implements ITransformMeta<
     retval.append( "    " ).append( XmlHandler.addTagValue( "IsAFile", IsAFile ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "XmlField", xmlField ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "prunePath", prunePath ) );
+    retval.append( "    " ).append( XmlHandler.addTagValue( "staxStreaming", staxStreaming ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "shortFileFieldName", shortFileFieldName ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "pathFieldName", pathFieldName ) );
     retval.append( "    " ).append( XmlHandler.addTagValue( "hiddenFieldName", hiddenFieldName ) );
@@ -812,6 +831,7 @@ public class GetXmlDataMeta extends BaseTransformMeta implements ITransformMeta<
 
       xmlField = XmlHandler.getTagValue( transformNode, "XmlField" );
       prunePath = XmlHandler.getTagValue( transformNode, "prunePath" );
+      staxStreaming = "Y".equalsIgnoreCase( XmlHandler.getTagValue( transformNode, "staxStreaming" ) );
 
       shortFileFieldName = XmlHandler.getTagValue( transformNode, "shortFileFieldName" );
       pathFieldName = XmlHandler.getTagValue( transformNode, "pathFieldName" );
@@ -887,6 +907,7 @@ public class GetXmlDataMeta extends BaseTransformMeta implements ITransformMeta<
     inFields = false;
     xmlField = "";
     prunePath = "";
+    staxStreaming = false;
   }
 
   public void getFields(IRowMeta r, String name, IRowMeta[] info, TransformMeta nextStep,
@@ -0,0 +1,319 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentFactory;
+import org.dom4j.Element;
+import org.dom4j.QName;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the loop nodes of a XML document with StAX, without building the tree of the whole document.<br>
+ * Each loop node is returned as a dom4j element so the field XPaths are evaluated as before, only the node itself is
+ * kept in memory. The element is attached to a skeleton of its ancestors, holding their attributes and namespaces but
+ * none of their other children.<br>
+ * The loop XPath has to be a plain absolute path: element names or <code>*</code> separated by slashes, without
+ * predicates, axes or functions. The field XPaths have to stay within the loop node, see
+ * {@link #isFieldPathStreamable(String)}.
+ */
+public class GetXmlDataStaxReader {
+
+  private static final String WILDCARD = "*";
+
+  private static final Pattern ID_FUNCTION = Pattern.compile( "(^|[^\\w.-])id\\s*\\(" );
+
+  private final InputStream inputStream;
+  private final XMLStreamReader reader;
+  private final String[] loopSteps;
+  private final boolean namespaceAware;
+  private final boolean ignoreComments;
+  private final DocumentFactory factory = DocumentFactory.getInstance();
+
+  /**
+   * Skeleton elements of the matched ancestors of the loop node, by depth
+   */
+  private final List<Element> ancestors = new ArrayList<>();
+  private Document document;
+  private Element previousLoopNode;
+
+  private int depth;
+  private int matchedDepth;
+
+  public GetXmlDataStaxReader( InputStream inputStream, String encoding, String[] loopSteps, boolean namespaceAware,
+                               boolean ignoreComments ) throws XMLStreamException {
+    this.inputStream = inputStream;
+    this.loopSteps = loopSteps;
+    this.namespaceAware = namespaceAware;
+    this.ignoreComments = ignoreComments;
+    this.reader = createInputFactory().createXMLStreamReader( inputStream, encoding );
+  }
+
+  /**
+   * Compile the loop XPath into the names to match at each level.
+   *
+   * @param loopXPath the loop XPath, e.g. <code>/feed/items/item</code>
+   * @return the element names or <code>*</code> by level, null when the path can not be streamed
+   */
+  public static String[] compileLoopPath( String loopXPath ) {
+    if ( loopXPath == null || !loopXPath.startsWith( GetXmlDataMeta.N0DE_SEPARATOR ) || loopXPath.startsWith( "//" ) ) {
+      return null;
+    }
+    String[] steps = loopXPath.substring( 1 ).split( GetXmlDataMeta.N0DE_SEPARATOR, -1 );
+    for ( String step : steps ) {
+      if ( !WILDCARD.equals( step ) && !isName( step ) ) {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  /**
+   * Check that a field XPath only looks inside the loop node. Paths going up (<code>..</code>), using axes such as
+   * <code>preceding-sibling::</code> or <code>ancestor::</code>, starting from the root (<code>/root/header/id</code>,
+   * also inside predicates) or looking up nodes by id would see the skeleton of the ancestors instead of the document,
+   * so they need the whole document.
+   *
+   * @param fieldXPath the resolved field XPath
+   * @return true if the field can be read from the loop node alone
+   */
+  public static boolean isFieldPathStreamable( String fieldXPath ) {
+    if ( fieldXPath == null ) {
+      return true;
+    }
+    if ( fieldXPath.contains( ".." ) || fieldXPath.contains( "::" ) || ID_FUNCTION.matcher( fieldXPath ).find() ) {
+      return false;
+    }
+    char quote = 0;
+    char previous = 0;
+    for ( int i = 0; i < fieldXPath.length(); i++ ) {
+      char c = fieldXPath.charAt( i );
+      if ( quote != 0 ) {
+        // slashes in string literals don't matter
+        if ( c == quote ) {
+          quote = 0;
+        }
+      } else if ( c == '\'' || c == '"' ) {
+        quote = c;
+      } else if ( c == '/' && !continuesPath( previous ) ) {
+        // an absolute path: at the start, after an operator, a bracket or a comma
+        return false;
+      }
+      previous = c;
+    }
+    return true;
+  }
+
+  private static boolean continuesPath( char previous ) {
+    return Character.isLetterOrDigit( previous ) || previous == '_' || previous == '-' || previous == '.'
+      || previous == '*' || previous == ']' || previous == ')' || previous == '/';
+  }
+
+  private static boolean isName( String step ) {
+    if ( step.isEmpty() || step.equals( "." ) || step.equals( ".." ) || step.indexOf( ':' ) != step.lastIndexOf( ':' )
+      || step.startsWith( ":" ) || step.endsWith( ":" ) ) {
+      return false;
+    }
+    for ( int i = 0; i < step.length(); i++ ) {
+      char c = step.charAt( i );
+      if ( !Character.isLetterOrDigit( c ) && c != '_' && c != '-' && c != '.' && c != ':' ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * DTDs are not validated: external DTDs and entities resolve to nothing, as the IgnoreDtdEntityResolver does for the
+   * tree reader.
+   */
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty( XMLInputFactory.IS_COALESCING, true );
+    inputFactory.setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, true );
+    inputFactory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+    inputFactory.setXMLResolver( ( publicID, systemID, baseURI, namespace ) -> new ByteArrayInputStream( new byte[ 0 ] ) );
+    return inputFactory;
+  }
+
+  /**
+   * Read up to the next loop node.
+   *
+   * @return the next loop node or null at the end of the document
+   */
+  public Element next() throws XMLStreamException {
+    if ( previousLoopNode != null ) {
+      // free the previous loop node
+      previousLoopNode.detach();
+      previousLoopNode = null;
+    }
+    while ( reader.hasNext() ) {
+      int event = reader.next();
+      if ( event == XMLStreamConstants.START_ELEMENT ) {
+        depth++;
+        if ( matchedDepth == depth - 1 && depth <= loopSteps.length && matches( loopSteps[ depth - 1 ] ) ) {
+          if ( depth == loopSteps.length ) {
+            Element loopNode = readElement();
+            depth--;
+            attach( loopNode );
+            previousLoopNode = loopNode;
+            return loopNode;
+          }
+          Element ancestor = createElement();
+          attach( ancestor );
+          ancestors.add( ancestor );
+          matchedDepth = depth;
+        }
+      } else if ( event == XMLStreamConstants.END_ELEMENT ) {
+        if ( matchedDepth == depth ) {
+          matchedDepth--;
+          Element ancestor = ancestors.remove( ancestors.size() - 1 );
+          if ( !ancestors.isEmpty() ) {
+            ancestor.detach();
+          }
+        }
+        depth--;
+      }
+    }
+    return null;
+  }
+
+  public void close() {
+    try {
+      reader.close();
+    } catch ( XMLStreamException e ) {
+      // Ignore close errors
+    }
+    try {
+      inputStream.close();
+    } catch ( IOException e ) {
+      // Ignore close errors
+    }
+    ancestors.clear();
+    document = null;
+    previousLoopNode = null;
+  }
+
+  private boolean matches( String step ) {
+    if ( WILDCARD.equals( step ) ) {
+      return true;
+    }
+    String prefix = reader.getPrefix();
+    if ( namespaceAware && step.indexOf( ':' ) < 0 ) {
+      // default namespace prefixes are added to the loop path afterwards
+      return step.equals( reader.getLocalName() );
+    }
+    if ( prefix == null || prefix.isEmpty() ) {
+      return step.equals( reader.getLocalName() );
+    }
+    return step.equals( prefix + ":" + reader.getLocalName() );
+  }
+
+  /**
+   * Add an element below the skeleton of its ancestors.
+   */
+  private void attach( Element element ) {
+    if ( ancestors.isEmpty() ) {
+      document = factory.createDocument( element );
+    } else {
+      ancestors.get( ancestors.size() - 1 ).add( element );
+    }
+  }
+
+  /**
+   * Build the element the reader is positioned on, with all its content, and leave the reader on its end tag.
+   */
+  private Element readElement() throws XMLStreamException {
+    Element element = createElement();
+    Element current = element;
+    int level = 1;
+    while ( level > 0 ) {
+      switch ( reader.next() ) {
+        case XMLStreamConstants.START_ELEMENT:
+          Element child = createElement();
+          current.add( child );
+          current = child;
+          level++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          current = current.getParent();
+          level--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+        case XMLStreamConstants.ENTITY_REFERENCE:
+          current.addText( reader.getText() );
+          break;
+        case XMLStreamConstants.CDATA:
+          current.addCDATA( reader.getText() );
+          break;
+        case XMLStreamConstants.COMMENT:
+          if ( !ignoreComments ) {
+            current.addComment( reader.getText() );
+          }
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          current.addProcessingInstruction( reader.getPITarget(), reader.getPIData() );
+          break;
+        default:
+          break;
+      }
+    }
+    return element;
+  }
+
+  /**
+   * Create an element with the name, namespaces and attributes of the current start tag.
+   */
+  private Element createElement() {
+    Element element = factory.createElement( createQName( reader.getLocalName(), reader.getPrefix(), reader
+      .getNamespaceURI() ) );
+    for ( int i = 0; i < reader.getNamespaceCount(); i++ ) {
+      element.addNamespace( nvl( reader.getNamespacePrefix( i ) ), nvl( reader.getNamespaceURI( i ) ) );
+    }
+    for ( int i = 0; i < reader.getAttributeCount(); i++ ) {
+      element.addAttribute( createQName( reader.getAttributeLocalName( i ), reader.getAttributePrefix( i ), reader
+        .getAttributeNamespace( i ) ), reader.getAttributeValue( i ) );
+    }
+    return element;
+  }
+
+  private QName createQName( String localName, String prefix, String namespaceUri ) {
+    return factory.createQName( localName, nvl( prefix ), nvl( namespaceUri ) );
+  }
+
+  private static String nvl( String value ) {
+    return value == null ? "" : value;
+  }
+}
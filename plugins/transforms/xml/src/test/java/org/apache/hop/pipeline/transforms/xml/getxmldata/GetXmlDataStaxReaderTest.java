@@ -0,0 +1,183 @@
+/*! ******************************************************************************
+ *
+ * Hop : The Hop Orchestration Platform
+ *
+ * http://www.project-hop.org
+*
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.dom4j.Element;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GetXmlDataStaxReaderTest {
+
+  private static final String XML =
+    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+      + "<feed version=\"2\">"
+      + "<header><name>skipped</name></header>"
+      + "<items region=\"north\">"
+      + "<item id=\"1\"><name>first</name><!-- note --><tags><tag>a</tag><tag>b</tag></tags></item>"
+      + "<other><item id=\"x\"/></other>"
+      + "<item id=\"2\"><name><![CDATA[<second>]]></name></item>"
+      + "</items>"
+      + "<items region=\"south\">"
+      + "<item id=\"3\"><name>third</name></item>"
+      + "</items>"
+      + "</feed>";
+
+  private static GetXmlDataStaxReader createReader( String xml, String loopPath, boolean namespaceAware,
+                                                    boolean ignoreComments ) throws Exception {
+    return new GetXmlDataStaxReader( new ByteArrayInputStream( xml.getBytes( StandardCharsets.UTF_8 ) ), "UTF-8",
+      GetXmlDataStaxReader.compileLoopPath( loopPath ), namespaceAware, ignoreComments );
+  }
+
+  @Test
+  public void testCompileLoopPath() {
+    assertArrayEquals( new String[] { "feed", "items", "item" }, GetXmlDataStaxReader.compileLoopPath(
+      "/feed/items/item" ) );
+    assertArrayEquals( new String[] { "feed", "*", "ns:item" }, GetXmlDataStaxReader.compileLoopPath(
+      "/feed/*/ns:item" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "feed/items" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "//item" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "/feed//item" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "/feed/item[@id='1']" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "/feed/item/@id" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "/feed/../item" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "/feed/child::item" ) );
+    assertNull( GetXmlDataStaxReader.compileLoopPath( "/feed/item|/feed/other" ) );
+  }
+
+  @Test
+  public void testFieldPathStreamable() {
+    String[] streamable = new String[] {
+      "name", "@id", "tags/tag[2]", "./name", ".//tag", "tags//tag", "*[1]/text()", "tags/tag[@type='a/b']",
+      "concat(name, '/', @id)", "count(tags/tag) - 1", "valid-id/x" };
+    for ( String path : streamable ) {
+      assertTrue( path, GetXmlDataStaxReader.isFieldPathStreamable( path ) );
+    }
+    String[] notStreamable = new String[] {
+      "/root/header/id", "//id", "../sibling/x", "../@region", "preceding-sibling::item/@id", "ancestor::items/@region",
+      "name[. = /feed/header/name]", "concat(name, /feed/@version)", "id('x')/name", "tags / tag" };
+    for ( String path : notStreamable ) {
+      assertFalse( path, GetXmlDataStaxReader.isFieldPathStreamable( path ) );
+    }
+  }
+
+  @Test
+  public void testReadLoopNodes() throws Exception {
+    GetXmlDataStaxReader reader = createReader( XML, "/feed/items/item", false, false );
+    try {
+      Element item = reader.next();
+      assertEquals( "1", item.valueOf( "@id" ) );
+      assertEquals( "first", item.valueOf( "name" ) );
+      assertEquals( "b", item.valueOf( "tags/tag[2]" ) );
+      assertEquals( "<tags><tag>a</tag><tag>b</tag></tags>", item.selectSingleNode( "tags" ).asXML() );
+      assertEquals( "north", item.valueOf( "../@region" ) );
+      assertEquals( "2", item.valueOf( "/feed/@version" ) );
+
+      item = reader.next();
+      assertEquals( "2", item.valueOf( "@id" ) );
+      assertEquals( "<second>", item.valueOf( "name" ) );
+      // the previous loop node is released
+      assertEquals( 1, item.getParent().elements().size() );
+
+      item = reader.next();
+      assertEquals( "3", item.valueOf( "@id" ) );
+      assertEquals( "south", item.valueOf( "../@region" ) );
+      // the previous ancestors are released too
+      assertEquals( 1, item.getDocument().getRootElement().elements().size() );
+
+      assertNull( reader.next() );
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testWildcardAndComments() throws Exception {
+    GetXmlDataStaxReader reader = createReader( XML, "/feed/*/item", false, false );
+    try {
+      Element item = reader.next();
+      assertEquals( "<item id=\"1\"><name>first</name><!-- note --><tags><tag>a</tag><tag>b</tag></tags></item>", item
+        .asXML() );
+    } finally {
+      reader.close();
+    }
+
+    reader = createReader( XML, "/feed/*/item", false, true );
+    try {
+      Element item = reader.next();
+      assertEquals( "<item id=\"1\"><name>first</name><tags><tag>a</tag><tag>b</tag></tags></item>", item.asXML() );
+      assertEquals( "2", reader.next().valueOf( "@id" ) );
+      assertEquals( "3", reader.next().valueOf( "@id" ) );
+      assertNull( reader.next() );
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testLoopOnRoot() throws Exception {
+    GetXmlDataStaxReader reader = createReader( XML, "/feed", false, false );
+    try {
+      Element feed = reader.next();
+      assertEquals( "third", feed.valueOf( "items[2]/item/name" ) );
+      assertNull( reader.next() );
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testNamespaces() throws Exception {
+    String xml = "<feed xmlns=\"urn:feed\" xmlns:x=\"urn:x\"><x:item x:id=\"1\"><x:name>n</x:name></x:item>"
+      + "<item><name>default</name></item></feed>";
+
+    GetXmlDataStaxReader reader = createReader( xml, "/feed/x:item", false, false );
+    try {
+      Element item = reader.next();
+      assertEquals( "urn:x", item.getNamespaceURI() );
+      assertEquals( "1", item.attribute( 0 ).getValue() );
+      assertNull( reader.next() );
+    } finally {
+      reader.close();
+    }
+
+    // namespace aware loop paths have no prefixes, these are added to the field paths later on
+    reader = createReader( xml, "/feed/item", true, false );
+    try {
+      assertEquals( "urn:x", reader.next().getNamespaceURI() );
+      Element item = reader.next();
+      assertEquals( "urn:feed", item.getNamespaceURI() );
+      assertEquals( "urn:feed", item.getDocument().getRootElement().getNamespaceForPrefix( "" ).getURI() );
+      assertNull( reader.next() );
+    } finally {
+      reader.close();
+    }
+  }
+}
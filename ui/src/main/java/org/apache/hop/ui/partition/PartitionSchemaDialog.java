@@ -23,6 +23,7 @@
 package org.apache.hop.ui.partition;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
@@ -83,6 +84,9 @@ public class PartitionSchemaDialog extends Dialog implements IMetadataDialog {
   private Button wDynamic;
   private TextVar wNumber;
 
+  // Hop servers
+  private TextVar wHopServers;
+
   // Partitions
   private Label wlPartitions;
   private TableView wPartitions;
@@ -214,6 +218,26 @@ public class PartitionSchemaDialog extends Dialog implements IMetadataDialog {
     wNumber.setLayoutData( fdNumber );
     lastControl = wlNumber;
 
+    // The hop servers running the partitions
+    //
+    Label wlHopServers = new Label( shell, SWT.RIGHT );
+    props.setLook( wlHopServers );
+    wlHopServers.setText( BaseMessages.getString( PKG, "PartitionSchemaDialog.HopServers.Label" ) );
+    FormData fdlHopServers = new FormData();
+    fdlHopServers.top = new FormAttachment( lastControl, margin );
+    fdlHopServers.left = new FormAttachment( 0, 0 );
+    fdlHopServers.right = new FormAttachment( middle, 0 );
+    wlHopServers.setLayoutData( fdlHopServers );
+
+    wHopServers = new TextVar( variables, shell, SWT.LEFT | SWT.BORDER | SWT.SINGLE, BaseMessages.getString( PKG, "PartitionSchemaDialog.HopServers.Tooltip" ) );
+    props.setLook( wHopServers );
+    FormData fdHopServers = new FormData();
+    fdHopServers.top = new FormAttachment( wlHopServers, 0, SWT.CENTER );
+    fdHopServers.left = new FormAttachment( middle, margin );
+    fdHopServers.right = new FormAttachment( 95, 0 );
+    wHopServers.setLayoutData( fdHopServers );
+    lastControl = wlHopServers;
+
     // Schema list:
     wlPartitions = new Label( shell, SWT.RIGHT );
     wlPartitions.setText( BaseMessages.getString( PKG, "PartitionSchemaDialog.Partitions.Label" ) );
@@ -247,6 +271,7 @@ public class PartitionSchemaDialog extends Dialog implements IMetadataDialog {
     };
     wName.addSelectionListener( selAdapter );
     wNumber.addSelectionListener( selAdapter );
+    wHopServers.addSelectionListener( selAdapter );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -287,6 +312,9 @@ public class PartitionSchemaDialog extends Dialog implements IMetadataDialog {
 
     wDynamic.setSelection( partitionSchema.isDynamicallyDefined() );
     wNumber.setText( Const.NVL( partitionSchema.getNumberOfPartitions(), "" ) );
+    if ( partitionSchema.getHopServerNames() != null ) {
+      wHopServers.setText( String.join( ", ", partitionSchema.getHopServerNames() ) );
+    }
 
     enableFields();
 
@@ -333,6 +361,7 @@ public class PartitionSchemaDialog extends Dialog implements IMetadataDialog {
       originalSchema.setPartitionIDs( partitionSchema.getPartitionIDs() );
       originalSchema.setDynamicallyDefined( wDynamic.getSelection() );
       originalSchema.setNumberOfPartitions( wNumber.getText() );
+      originalSchema.setHopServerNames( partitionSchema.getHopServerNames() );
       originalSchema.setChanged();
 
       result = originalSchema.getName();
@@ -355,5 +384,13 @@ public class PartitionSchemaDialog extends Dialog implements IMetadataDialog {
       parts.add( wPartitions.getNonEmpty( i ).getText( 1 ) );
     }
     partitionSchema.setPartitionIDs( parts );
+
+    List<String> hopServerNames = new ArrayList<>();
+    for ( String hopServerName : wHopServers.getText().split( "," ) ) {
+      if ( !Utils.isEmpty( hopServerName.trim() ) ) {
+        hopServerNames.add( hopServerName.trim() );
+      }
+    }
+    partitionSchema.setHopServerNames( hopServerNames );
   }
 }
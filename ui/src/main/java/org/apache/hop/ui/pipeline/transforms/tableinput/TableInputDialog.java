@@ -77,6 +77,12 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
 
   private Button wLazyConversion;
 
+  private Button wAdaptiveFetchSize;
+
+  private CCombo wPartitionMethod;
+
+  private TextVar wPartitionColumn;
+
   private final TableInputMeta input;
   private boolean changedInDialog;
 
@@ -259,12 +265,73 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
       }
     } );
 
+    // Adaptive fetch size?
+    //
+    Label wlAdaptiveFetchSize = new Label( shell, SWT.RIGHT );
+    wlAdaptiveFetchSize.setText( BaseMessages.getString( PKG, "TableInputDialog.AdaptiveFetchSize" ) );
+    wlAdaptiveFetchSize.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.AdaptiveFetchSize.Tooltip" ) );
+    props.setLook( wlAdaptiveFetchSize );
+    FormData fdlAdaptiveFetchSize = new FormData();
+    fdlAdaptiveFetchSize.left = new FormAttachment( 0, 0 );
+    fdlAdaptiveFetchSize.right = new FormAttachment( middle, -margin );
+    fdlAdaptiveFetchSize.bottom = new FormAttachment( wLazyConversion, -margin );
+    wlAdaptiveFetchSize.setLayoutData( fdlAdaptiveFetchSize );
+    wAdaptiveFetchSize = new Button( shell, SWT.CHECK );
+    props.setLook( wAdaptiveFetchSize );
+    FormData fdAdaptiveFetchSize = new FormData();
+    fdAdaptiveFetchSize.left = new FormAttachment( middle, 0 );
+    fdAdaptiveFetchSize.right = new FormAttachment( 100, 0 );
+    fdAdaptiveFetchSize.bottom = new FormAttachment( wLazyConversion, -margin );
+    wAdaptiveFetchSize.setLayoutData( fdAdaptiveFetchSize );
+    wAdaptiveFetchSize.addSelectionListener( lsSelMod );
+
+    // Partition column
+    //
+    Label wlPartitionColumn = new Label( shell, SWT.RIGHT );
+    wlPartitionColumn.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionColumn" ) );
+    wlPartitionColumn.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.PartitionColumn.Tooltip" ) );
+    props.setLook( wlPartitionColumn );
+    FormData fdlPartitionColumn = new FormData();
+    fdlPartitionColumn.left = new FormAttachment( 0, 0 );
+    fdlPartitionColumn.right = new FormAttachment( middle, -margin );
+    fdlPartitionColumn.bottom = new FormAttachment( wAdaptiveFetchSize, -margin );
+    wlPartitionColumn.setLayoutData( fdlPartitionColumn );
+    wPartitionColumn = new TextVar( pipelineMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPartitionColumn );
+    wPartitionColumn.addModifyListener( lsMod );
+    FormData fdPartitionColumn = new FormData();
+    fdPartitionColumn.left = new FormAttachment( middle, 0 );
+    fdPartitionColumn.right = new FormAttachment( 100, 0 );
+    fdPartitionColumn.bottom = new FormAttachment( wAdaptiveFetchSize, -margin );
+    wPartitionColumn.setLayoutData( fdPartitionColumn );
+
+    // Partition method
+    //
+    Label wlPartitionMethod = new Label( shell, SWT.RIGHT );
+    wlPartitionMethod.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionMethod" ) );
+    wlPartitionMethod.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.PartitionMethod.Tooltip" ) );
+    props.setLook( wlPartitionMethod );
+    FormData fdlPartitionMethod = new FormData();
+    fdlPartitionMethod.left = new FormAttachment( 0, 0 );
+    fdlPartitionMethod.right = new FormAttachment( middle, -margin );
+    fdlPartitionMethod.bottom = new FormAttachment( wPartitionColumn, -margin );
+    wlPartitionMethod.setLayoutData( fdlPartitionMethod );
+    wPartitionMethod = new CCombo( shell, SWT.BORDER | SWT.READ_ONLY );
+    props.setLook( wPartitionMethod );
+    wPartitionMethod.setItems( TableInputMeta.partitionMethodCodes );
+    wPartitionMethod.addModifyListener( lsMod );
+    FormData fdPartitionMethod = new FormData();
+    fdPartitionMethod.left = new FormAttachment( middle, 0 );
+    fdPartitionMethod.right = new FormAttachment( 100, 0 );
+    fdPartitionMethod.bottom = new FormAttachment( wPartitionColumn, -margin );
+    wPartitionMethod.setLayoutData( fdPartitionMethod );
+
     wlPosition = new Label( shell, SWT.NONE );
     props.setLook( wlPosition );
     FormData fdlPosition = new FormData();
     fdlPosition.left = new FormAttachment( 0, 0 );
     fdlPosition.right = new FormAttachment( 100, 0 );
-    fdlPosition.bottom = new FormAttachment( wLazyConversion, -margin );
+    fdlPosition.bottom = new FormAttachment( wPartitionMethod, -margin );
     wlPosition.setLayoutData( fdlPosition );
 
     // Table line...
@@ -378,6 +445,7 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
 
     wTransformName.addSelectionListener( lsDef );
     wLimit.addSelectionListener( lsDef );
+    wPartitionColumn.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -447,6 +515,9 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
 
     wVariables.setSelection( input.isVariableReplacementActive() );
     wLazyConversion.setSelection( input.isLazyConversionActive() );
+    wAdaptiveFetchSize.setSelection( input.isAdaptiveFetchSize() );
+    wPartitionMethod.setText( Const.NVL( input.getPartitionMethod(), TableInputMeta.PARTITION_METHOD_NONE ) );
+    wPartitionColumn.setText( Const.NVL( input.getPartitionColumn(), "" ) );
 
     setSqlToolTip();
     setFlags();
@@ -485,6 +556,9 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
     meta.setExecuteEachInputRow( wEachRow.getSelection() );
     meta.setVariableReplacementActive( wVariables.getSelection() );
     meta.setLazyConversionActive( wLazyConversion.getSelection() );
+    meta.setAdaptiveFetchSize( wAdaptiveFetchSize.getSelection() );
+    meta.setPartitionMethod( wPartitionMethod.getText() );
+    meta.setPartitionColumn( wPartitionColumn.getText() );
   }
 
   private void ok() {